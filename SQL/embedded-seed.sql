@@ -0,0 +1,19 @@
+-- Sample data for the embedded database profile (db.profile=embedded).
+-- Runs after schema1.sql and SQL/migrations; users come from the schema dump.
+
+INSERT INTO rooms (room_number, type, status, state) VALUES
+('101','Standard','Available',1),('102','Standard','Available',1),('103','Deluxe','Available',1),('104','Deluxe','Occupied',2),('105','Suite','Available',1),
+('201','Standard','Available',1),('202','Standard','Cleaning',3),('203','Deluxe','Available',1),('204','Suite','Available',1),('205','Executive','Available',1),
+('301','Standard','Available',1),('302','Deluxe','Maintenance',5),('303','Suite','Available',1),('304','Executive','Available',1),('305','Executive','Ready',4);
+
+INSERT INTO inventory_items (item_name, quantity, threshold, department) VALUES
+('Bath Towels', 120, 40, 'Housekeeping'),
+('Bed Sheets', 80, 30, 'Housekeeping'),
+('Shampoo', 25, 30, 'Housekeeping'),
+('Coffee Beans', 15, 10, 'Kitchen'),
+('Bottled Water', 200, 50, 'Kitchen'),
+('Key Cards', 60, 20, 'Reception');
+
+INSERT INTO reservations (guest_name, check_in, check_out, room_type, payment_status, special_requests, room_number, group_name, late_checkout) VALUES
+('Alice Martin', CURRENT_DATE, DATEADD('DAY', 3, CURRENT_DATE), 'Deluxe', 'Paid', '', '104', NULL, 0),
+('Bob Chen', DATEADD('DAY', 1, CURRENT_DATE), DATEADD('DAY', 4, CURRENT_DATE), 'Standard', 'Pending', 'Extra pillows', '101', NULL, 0);
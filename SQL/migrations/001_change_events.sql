@@ -0,0 +1,11 @@
+-- Change event log written by the DAOs in the same transaction as each write (see ChangeEventLog).
+-- Consumers remember the last seq they processed and read on from there.
+
+CREATE TABLE `change_events` (
+  `seq` bigint NOT NULL AUTO_INCREMENT,
+  `event_type` varchar(40) NOT NULL,
+  `entity_id` int NOT NULL,
+  `payload` text,
+  `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,9 @@
+-- At most one open housekeeping task per room, enforced by the database (see HousekeepingDAO.scheduleTasks).
+-- open_room_id is the room while the task is not Completed and NULL afterwards; NULLs never collide,
+-- so finished tasks do not block the next clean of the same room.
+-- On an existing database, close duplicate open tasks first:
+--   SELECT room_id, COUNT(*) FROM housekeeping_tasks WHERE status <> 'Completed' GROUP BY room_id HAVING COUNT(*) > 1;
+
+ALTER TABLE `housekeeping_tasks` ADD COLUMN `open_room_id` int AS (CASE WHEN `status` <> 'Completed' THEN `room_id` END);
+
+ALTER TABLE `housekeeping_tasks` ADD UNIQUE KEY `uq_housekeeping_open_task` (`open_room_id`);
@@ -0,0 +1,22 @@
+-- Room states as TINYINT codes (see RoomStatus): 1 Available, 2 Occupied, 3 Cleaning, 4 Ready, 5 Maintenance.
+-- state is what RoomDAO checks transitions against; status keeps the label for reports and older tools,
+-- and is written together with state. Rows with an unknown status are left Available (1); list them first with:
+--   SELECT id, room_number, status FROM rooms WHERE status NOT IN ('Available','Occupied','Cleaning','Ready','Maintenance');
+
+ALTER TABLE `rooms` ADD COLUMN `state` tinyint NOT NULL DEFAULT 1;
+
+UPDATE `rooms` SET `state` = CASE LOWER(TRIM(`status`))
+    WHEN 'occupied' THEN 2
+    WHEN 'cleaning' THEN 3
+    WHEN 'ready' THEN 4
+    WHEN 'maintenance' THEN 5
+    ELSE 1 END;
+
+UPDATE `rooms` SET `status` = CASE `state`
+    WHEN 2 THEN 'Occupied'
+    WHEN 3 THEN 'Cleaning'
+    WHEN 4 THEN 'Ready'
+    WHEN 5 THEN 'Maintenance'
+    ELSE 'Available' END;
+
+ALTER TABLE `rooms` ADD KEY `idx_rooms_type_state` (`type`, `state`);
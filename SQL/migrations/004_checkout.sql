@@ -0,0 +1,10 @@
+-- Checkout closes a stay instead of deleting it (see CheckoutPipeline).
+-- checked_out_at is NULL while the guest is in house; bills.reservation_id links the final folio to its stay.
+
+ALTER TABLE `reservations` ADD COLUMN `checked_out_at` timestamp NULL DEFAULT NULL;
+
+ALTER TABLE `reservations` ADD KEY `idx_reservations_departures` (`check_out`, `checked_out_at`);
+
+ALTER TABLE `bills` ADD COLUMN `reservation_id` int DEFAULT NULL;
+
+ALTER TABLE `bills` ADD KEY `idx_bills_reservation` (`reservation_id`);
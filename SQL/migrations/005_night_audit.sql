@@ -0,0 +1,37 @@
+-- Night audit (see NightAudit): room charges are posted to the folio night by night instead of at checkout.
+-- folio_lines holds every posted charge; posting_key makes a posting idempotent, so re-running an audit
+-- (or retrying an outlet's posting) never charges twice.
+-- business_date is the hotel's accounting day, one row; the audit closes it and moves it on by one day.
+-- revenue_daily is the per-day, per-line-type rollup finance reads.
+
+CREATE TABLE `folio_lines` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `reservation_id` int NOT NULL,
+  `business_date` date NOT NULL,
+  `line_type` varchar(20) NOT NULL,
+  `description` varchar(100) DEFAULT NULL,
+  `amount` double NOT NULL,
+  `posting_key` varchar(100) NOT NULL,
+  `posted_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uq_folio_lines_posting_key` (`posting_key`),
+  KEY `idx_folio_lines_reservation` (`reservation_id`, `line_type`),
+  KEY `idx_folio_lines_business_date` (`business_date`, `line_type`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE `business_date` (
+  `id` int NOT NULL,
+  `business_date` date NOT NULL,
+  `last_audit_at` timestamp NULL DEFAULT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+INSERT INTO `business_date` (`id`, `business_date`) VALUES (1, CURRENT_DATE);
+
+CREATE TABLE `revenue_daily` (
+  `business_date` date NOT NULL,
+  `line_type` varchar(20) NOT NULL,
+  `amount` double NOT NULL,
+  `line_count` int NOT NULL,
+  PRIMARY KEY (`business_date`, `line_type`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
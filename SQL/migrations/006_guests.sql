@@ -0,0 +1,23 @@
+-- Guests get an id of their own (see GuestDAO): reservations and bills reference guest_id instead of matching
+-- on guest_name, so two guests with the same name stay apart. Group bookings and group bills have no guest.
+-- name_key is the normalized name and phonetic_key the sounds-alike key used to find an existing guest on intake;
+-- both are computed by GuestMatcher. Rows written before this migration are linked by GuestDAO.linkGuests.
+
+CREATE TABLE `guests` (
+  `id` int NOT NULL AUTO_INCREMENT,
+  `full_name` varchar(100) NOT NULL,
+  `name_key` varchar(100) NOT NULL,
+  `phonetic_key` varchar(100) NOT NULL,
+  `created_at` timestamp NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  KEY `idx_guests_name_key` (`name_key`),
+  KEY `idx_guests_phonetic_key` (`phonetic_key`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+ALTER TABLE `reservations` ADD COLUMN `guest_id` int DEFAULT NULL;
+
+ALTER TABLE `reservations` ADD KEY `idx_reservations_guest` (`guest_id`, `check_in`);
+
+ALTER TABLE `bills` ADD COLUMN `guest_id` int DEFAULT NULL;
+
+ALTER TABLE `bills` ADD KEY `idx_bills_guest` (`guest_id`);
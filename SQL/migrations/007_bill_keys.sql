@@ -0,0 +1,37 @@
+-- A stay or a group is billed at most once (see BillDAO.createOrGetBill): bills.reservation_id is unique, and so is
+-- the group key, the new bills.group_name with bills.group_check_in, the group's arrival date (see GroupBooking).
+-- Two desks billing the same stay get the same bill back instead of two bills. Group names get reused, so a
+-- group bill made before this is given the first arrival of its group name.
+-- Bills made before this keep only the oldest bill per stay and per group keyed; later duplicates stay unkeyed.
+-- A bill made before bills were kept per stay is linked to its stay when the guest has exactly one stay of the
+-- bill's room type and that stay has no bill yet; bills it cannot place stay unkeyed and are never taken as a folio.
+
+UPDATE `bills` SET `reservation_id` =
+  (SELECT MIN(`r`.`id`) FROM `reservations` `r`
+   WHERE `r`.`guest_name` = `bills`.`guest_name` AND `r`.`room_type` = `bills`.`room_type` AND `r`.`group_name` IS NULL
+     AND `r`.`id` NOT IN (SELECT `reservation_id` FROM (SELECT DISTINCT `reservation_id` FROM `bills` WHERE `reservation_id` IS NOT NULL) `keyed`))
+WHERE `reservation_id` IS NULL AND `room_type` <> 'Group'
+  AND (SELECT COUNT(*) FROM `reservations` `r`
+       WHERE `r`.`guest_name` = `bills`.`guest_name` AND `r`.`room_type` = `bills`.`room_type` AND `r`.`group_name` IS NULL) = 1;
+
+UPDATE `bills` SET `reservation_id` = NULL
+WHERE `reservation_id` IS NOT NULL AND `id` NOT IN
+  (SELECT `keep_id` FROM (SELECT MIN(`id`) AS `keep_id` FROM `bills` WHERE `reservation_id` IS NOT NULL GROUP BY `reservation_id`) `kept`);
+
+ALTER TABLE `bills` DROP INDEX `idx_bills_reservation`;
+
+ALTER TABLE `bills` ADD UNIQUE KEY `uq_bills_reservation` (`reservation_id`);
+
+ALTER TABLE `bills` ADD COLUMN `group_name` varchar(100) DEFAULT NULL;
+
+UPDATE `bills` SET `group_name` = `guest_name`
+WHERE `id` IN
+  (SELECT `keep_id` FROM (SELECT MIN(`id`) AS `keep_id` FROM `bills` WHERE `room_type` = 'Group' AND `guest_id` IS NULL GROUP BY `guest_name`) `kept`);
+
+ALTER TABLE `bills` ADD COLUMN `group_check_in` date DEFAULT NULL;
+
+UPDATE `bills` SET `group_check_in` =
+  (SELECT MIN(`r`.`check_in`) FROM `reservations` `r` WHERE `r`.`group_name` = `bills`.`group_name`)
+WHERE `group_name` IS NOT NULL;
+
+ALTER TABLE `bills` ADD UNIQUE KEY `uq_bills_group` (`group_name`, `group_check_in`);
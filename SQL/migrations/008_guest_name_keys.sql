@@ -0,0 +1,10 @@
+-- One row per guest name key (see GuestDAO.resolveGuests). guests.name_key cannot be unique, since two guests may share
+-- a name, so a booking that names no guest locks the row of its name key instead: two bookings for the same new name
+-- then create one guest between them rather than one each.
+
+CREATE TABLE `guest_name_keys` (
+  `name_key` varchar(100) NOT NULL,
+  PRIMARY KEY (`name_key`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+INSERT INTO `guest_name_keys` (`name_key`) SELECT DISTINCT `name_key` FROM `guests`;
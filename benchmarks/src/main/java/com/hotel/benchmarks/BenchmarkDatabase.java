@@ -0,0 +1,99 @@
+package com.hotel.benchmarks;
+
+import com.hotel.database.DBConnection;
+import com.hotel.database.DatabaseConfig;
+import com.hotel.database.GuestDAO;
+import com.hotel.models.RoomStatus;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Provisions an in-process H2 database in MySQL compatibility mode for the DAO benchmarks.
+ * The schema is read from SQL/schema1.sql so benchmarks run against the same tables as production.
+ */
+public final class BenchmarkDatabase {
+
+    static final String[] ROOM_TYPES = {"Standard", "Deluxe", "Suite", "Executive"};
+    static final String[] SERVICES = {"Spa", "Dining", "Room Service", "Laundry", "Gym Access"};
+
+    // Prevent instantiation of this utility class
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Creates a fresh embedded database, points DBConnection at it and seeds it.
+     *
+     * @param name a database name unique to the benchmark
+     * @param rooms the number of rooms to create
+     * @param reservations the number of reservations to create
+     * @param bills the number of bills to create
+     */
+    public static void provision(String name, int rooms, int reservations, int bills) throws SQLException {
+        // The pool creates the schema from SQL/schema1.sql on first use
+        DBConnection.configure(DatabaseConfig.embedded(name));
+        seed(rooms, reservations, bills);
+        // Individual reservations and their bills reference guests, as they do after startup
+        new GuestDAO().linkGuests();
+    }
+
+    private static void seed(int rooms, int reservations, int bills) throws SQLException {
+        try (Connection conn = DBConnection.getInstance()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO rooms (room_number, type, status, state) VALUES (?, ?, ?, ?)")) {
+                for (int i = 0; i < rooms; i++) {
+                    stmt.setString(1, String.valueOf((i / 100 + 1) * 100 + i % 100 + 1));
+                    stmt.setString(2, ROOM_TYPES[i % ROOM_TYPES.length]);
+                    RoomStatus status = i % 3 == 0 ? RoomStatus.OCCUPIED : RoomStatus.AVAILABLE;
+                    stmt.setString(3, status.getLabel());
+                    stmt.setInt(4, status.getCode());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            LocalDate base = LocalDate.of(2024, 1, 1);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO reservations (guest_name, check_in, check_out, room_type, payment_status, special_requests, room_number, group_name, late_checkout) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < reservations; i++) {
+                    LocalDate checkIn = base.plusDays(i % 365);
+                    stmt.setString(1, "Guest " + i);
+                    stmt.setDate(2, Date.valueOf(checkIn));
+                    stmt.setDate(3, Date.valueOf(checkIn.plusDays(1 + i % 7)));
+                    stmt.setString(4, ROOM_TYPES[i % ROOM_TYPES.length]);
+                    stmt.setString(5, "Paid");
+                    stmt.setString(6, "");
+                    stmt.setString(7, String.valueOf(100 + i % Math.max(rooms, 1)));
+                    stmt.setString(8, i % 10 == 0 ? "Group-" + (i / 100) : null);
+                    stmt.setBoolean(9, i % 4 == 0);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO bills (guest_name, room_type, nights, services, base_charge, tax, discount, total_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < bills; i++) {
+                    stmt.setString(1, "Guest " + i);
+                    stmt.setString(2, ROOM_TYPES[i % ROOM_TYPES.length]);
+                    stmt.setInt(3, 1 + i % 7);
+                    stmt.setString(4, SERVICES[i % SERVICES.length] + ", " + SERVICES[(i + 2) % SERVICES.length]);
+                    stmt.setDouble(5, 100 + i % 500);
+                    stmt.setDouble(6, 12);
+                    stmt.setDouble(7, 0);
+                    stmt.setDouble(8, 112 + i % 500);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+}
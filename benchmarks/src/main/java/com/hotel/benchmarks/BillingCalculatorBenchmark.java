@@ -0,0 +1,66 @@
+package com.hotel.benchmarks;
+
+import com.hotel.models.Reservation;
+import com.hotel.models.Service;
+import com.hotel.services.BillingCalculator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the pricing math behind BillingView: nights, room charges, tax and discount
+ * for a group of reservations of configurable size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BillingCalculatorBenchmark {
+
+    @Param({"1", "30", "300"})
+    public int groupSize;
+
+    private List<Reservation> reservations;
+    private List<Service> services;
+
+    @Setup
+    public void setUp() {
+        reservations = new ArrayList<>(groupSize);
+        LocalDate checkIn = LocalDate.of(2024, 7, 1);
+        for (int i = 0; i < groupSize; i++) {
+            reservations.add(new Reservation(i, "Guest " + i, Date.valueOf(checkIn),
+                    Date.valueOf(checkIn.plusDays(1 + i % 7)), BenchmarkDatabase.ROOM_TYPES[i % 4],
+                    "Paid", "", String.valueOf(100 + i), "Group-1", i % 3 == 0));
+        }
+
+        services = new ArrayList<>();
+        for (String name : BenchmarkDatabase.SERVICES) {
+            services.add(new Service(name, 10 + name.length()));
+        }
+    }
+
+    @Benchmark
+    public double groupTotal() {
+        double base = BillingCalculator.calculateBaseTotal(reservations);
+        double service = BillingCalculator.calculateServiceTotal(services);
+        double tax = BillingCalculator.calculateTax(base, service);
+        double discount = BillingCalculator.calculateDiscount(base, service, tax, 10);
+        return base + service + tax - discount;
+    }
+
+    @Benchmark
+    public void perMemberTotals(Blackhole bh) {
+        for (Reservation r : reservations) {
+            double base = BillingCalculator.calculateBaseCharge(r);
+            double tax = BillingCalculator.calculateTax(base, 0);
+            bh.consume(base + tax);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.hotel.benchmarks;
+
+import com.hotel.database.DBConnection;
+import com.hotel.database.ReservationDAO;
+import com.hotel.database.ReservationDAO.CheckoutOutcome;
+import com.hotel.models.RoomStatus;
+import com.hotel.services.CheckoutPipeline;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a morning's checkout wave: 500 departures, each closed with its folio, room and housekeeping task
+ * in one transaction, through CheckoutPipeline.checkOutAll. Each iteration starts from the same 500 occupied rooms.
+ * Compare threads=1 with the pipeline's concurrency to see what running checkouts side by side buys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    private static final int ROOMS = 600;
+    private static final int DEPARTURES = 500;
+    private static final int HOUSEKEEPERS = 10;
+
+    @Param({"1", "6"})
+    public int threads;
+
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+    private CheckoutPipeline pipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.provision("checkout_benchmark", ROOMS, 0, 0);
+        pipeline = new CheckoutPipeline(threads);
+
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement("INSERT INTO users (username, password, role) VALUES (?, ?, ?)")) {
+            for (int i = 2; i <= HOUSEKEEPERS; i++) {
+                stmt.setString(1, "house" + i);
+                stmt.setString(2, "clean123");
+                stmt.setString(3, CheckoutPipeline.HOUSEKEEPING_ROLE);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // Puts guests back into the first 500 rooms, all leaving today
+    @Setup(Level.Iteration)
+    public void seedDepartures() throws SQLException {
+        LocalDate today = LocalDate.now();
+        try (Connection conn = DBConnection.getInstance()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM housekeeping_tasks");
+                stmt.executeUpdate("DELETE FROM bills");
+                stmt.executeUpdate("DELETE FROM reservations");
+                stmt.executeUpdate("UPDATE rooms SET state = " + RoomStatus.OCCUPIED.getCode()
+                        + ", status = '" + RoomStatus.OCCUPIED.getLabel() + "' WHERE id IN (SELECT id FROM rooms ORDER BY id LIMIT " + DEPARTURES + ")");
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO reservations (guest_name, check_in, check_out, room_type, payment_status, special_requests, room_number, group_name, late_checkout) "
+                            + "SELECT CONCAT('Guest ', id), ?, ?, type, 'Paid', '', room_number, NULL, 0 FROM rooms ORDER BY id LIMIT " + DEPARTURES)) {
+                stmt.setDate(1, Date.valueOf(today.minusDays(2)));
+                stmt.setDate(2, Date.valueOf(today));
+                stmt.executeUpdate();
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DBConnection.shutdown();
+    }
+
+    @Benchmark
+    public List<CheckoutOutcome> checkOutMorningDepartures() {
+        return pipeline.checkOutAll(reservationDAO.getDepartures(Date.valueOf(LocalDate.now())));
+    }
+}
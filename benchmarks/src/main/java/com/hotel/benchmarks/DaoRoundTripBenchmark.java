@@ -0,0 +1,76 @@
+package com.hotel.benchmarks;
+
+import com.hotel.database.BillDAO;
+import com.hotel.database.DBConnection;
+import com.hotel.database.ReservationDAO;
+import com.hotel.database.RoomDAO;
+import com.hotel.models.Bill;
+import com.hotel.models.Reservation;
+import com.hotel.models.Room;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures DAO round trips against an embedded H2 database seeded with a mid-size hotel.
+ * Absolute numbers are lower than against MySQL over a socket; use them to spot regressions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoRoundTripBenchmark {
+
+    private static final int ROOMS = 500;
+    private static final int RESERVATIONS = 20_000;
+    private static final int BILLS = 5_000;
+
+    private final RoomDAO roomDAO = new RoomDAO();
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+    private final BillDAO billDAO = new BillDAO();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.provision("dao_benchmark", ROOMS, RESERVATIONS, BILLS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DBConnection.shutdown();
+    }
+
+    @Benchmark
+    public Room getRoomById() {
+        return roomDAO.getRoomById(1 + ThreadLocalRandom.current().nextInt(ROOMS));
+    }
+
+    @Benchmark
+    public Room getAvailableRoomByType() {
+        return roomDAO.getAvailableRoomByType(BenchmarkDatabase.ROOM_TYPES[ThreadLocalRandom.current().nextInt(4)]);
+    }
+
+    @Benchmark
+    public Reservation getReservationByGuestName() {
+        return reservationDAO.getReservationByGuestName("Guest " + ThreadLocalRandom.current().nextInt(RESERVATIONS));
+    }
+
+    @Benchmark
+    public List<Room> getAllRooms() {
+        return roomDAO.getAllRooms();
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3, time = 2)
+    public List<Reservation> getAllReservations() {
+        return reservationDAO.getAllReservations();
+    }
+
+    @Benchmark
+    public List<Bill> getAllBills() {
+        return billDAO.getAllBills();
+    }
+}
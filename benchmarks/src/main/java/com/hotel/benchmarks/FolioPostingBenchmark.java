@@ -0,0 +1,78 @@
+package com.hotel.benchmarks;
+
+import com.hotel.database.DBConnection;
+import com.hotel.database.ReservationDAO;
+import com.hotel.models.Reservation;
+import com.hotel.services.FolioPostingService;
+import com.hotel.services.FolioPostingService.PostingResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures outlet charge postings per second through FolioPostingService, with many outlets posting at once
+ * and each waiting for its charge to commit. Run with -t 1 to see what batching the commits buys;
+ * the repost benchmark sends keys that were already posted, as outlets retrying after a timeout do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class FolioPostingBenchmark {
+
+    private static final int ROOMS = 500;
+    private static final int RESERVATIONS = 2_000;
+
+    private final FolioPostingService postings = new FolioPostingService();
+    private final AtomicLong nextKey = new AtomicLong();
+    private int[] reservationIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.provision("folio_posting_benchmark", ROOMS, RESERVATIONS, 0);
+        List<Reservation> open = new ReservationDAO().getOpenReservations();
+        reservationIds = open.stream().mapToInt(Reservation::getId).toArray();
+        postings.start();
+
+        // Keys 0..9999 exist before measuring, for the repost benchmark
+        List<CompletableFuture<PostingResult>> seeded = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            seeded.add(postAsync(i));
+        }
+        CompletableFuture.allOf(seeded.toArray(new CompletableFuture[0])).join();
+        nextKey.set(10_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        postings.stop();
+        DBConnection.shutdown();
+    }
+
+    @Benchmark
+    public PostingResult post() {
+        return post(nextKey.getAndIncrement());
+    }
+
+    @Benchmark
+    public PostingResult repost() {
+        return post(ThreadLocalRandom.current().nextInt(10_000));
+    }
+
+    private PostingResult post(long key) {
+        return postAsync(key).join();
+    }
+
+    private CompletableFuture<PostingResult> postAsync(long key) {
+        int reservationId = reservationIds[(int) (key % reservationIds.length)];
+        return postings.post(reservationId, "RESTAURANT", "Dinner", 42.5, "check-" + key);
+    }
+}
@@ -0,0 +1,80 @@
+package com.hotel.benchmarks;
+
+import com.hotel.database.DBConnection;
+import com.hotel.database.FolioDAO.PostedCharges;
+import com.hotel.database.ReservationDAO;
+import com.hotel.models.Bill;
+import com.hotel.models.GroupBooking;
+import com.hotel.models.Reservation;
+import com.hotel.models.Service;
+import com.hotel.services.GroupFolioEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures splitting a tour group's bill into member folios with GroupFolioEngine:
+ * pricing alone from loaded data, and loading the group plus pricing as the Split Bill button does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupFolioBenchmark {
+
+    private static final String GROUP = "Group-tour";
+    private static final LocalDate CHECK_IN = LocalDate.of(2024, 7, 1);
+
+    @Param({"300", "3000"})
+    public int members;
+
+    private final GroupFolioEngine engine = new GroupFolioEngine();
+    private final List<Service> groupServices = List.of(new Service("Dining", 30), new Service("Spa", 50));
+    private List<Reservation> stays;
+    private Map<Integer, PostedCharges> posted;
+    private Map<Integer, List<Service>> postedServices;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.provision("group_folio_benchmark_" + members, 0, 0, 0);
+        LocalDate checkIn = CHECK_IN;
+        List<Reservation> group = new ArrayList<>(members);
+        for (int i = 0; i < members; i++) {
+            group.add(new Reservation(GROUP, Date.valueOf(checkIn), Date.valueOf(checkIn.plusDays(2 + i % 5)),
+                    BenchmarkDatabase.ROOM_TYPES[i % BenchmarkDatabase.ROOM_TYPES.length], "Pending", "",
+                    String.valueOf(100 + i), GROUP, i % 4 == 0));
+        }
+        new ReservationDAO().addReservationsBatch(group, 1000);
+
+        stays = new ReservationDAO().getReservationsByGroup(new GroupBooking(GROUP, Date.valueOf(CHECK_IN)));
+        posted = new HashMap<>();
+        postedServices = new HashMap<>();
+        for (Reservation r : stays) {
+            posted.put(r.getId(), new PostedCharges(1, 80));
+            postedServices.put(r.getId(), List.of(new Service("RESTAURANT", 42.5)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DBConnection.shutdown();
+    }
+
+    @Benchmark
+    public List<Bill> priceFolios() {
+        return GroupFolioEngine.computeFolios(stays, posted, postedServices, groupServices, 10, false);
+    }
+
+    @Benchmark
+    public List<Bill> loadAndPriceFolios() {
+        return engine.computeFolios(new GroupBooking(GROUP, Date.valueOf(CHECK_IN)), groupServices, 10);
+    }
+}
@@ -0,0 +1,58 @@
+package com.hotel.benchmarks;
+
+import com.hotel.models.Bill;
+import com.hotel.models.InventoryItem;
+import com.hotel.models.Room;
+import com.hotel.models.Service;
+import com.hotel.services.ReportSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the in-memory aggregation behind ReportsView.loadReportData
+ * (revenue, occupancy, low stock and per-service usage), excluding the DAO reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportAggregationBenchmark {
+
+    @Param({"1000", "100000"})
+    public int bills;
+
+    private List<Bill> billList;
+    private List<Room> rooms;
+    private List<InventoryItem> items;
+
+    @Setup
+    public void setUp() {
+        billList = new ArrayList<>(bills);
+        for (int i = 0; i < bills; i++) {
+            List<Service> services = List.of(
+                    new Service(BenchmarkDatabase.SERVICES[i % 5], 20),
+                    new Service(BenchmarkDatabase.SERVICES[(i + 2) % 5], 15));
+            billList.add(new Bill(i, "Guest " + i, BenchmarkDatabase.ROOM_TYPES[i % 4], 2, services, 160, 23, 0, 198));
+        }
+
+        rooms = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            rooms.add(new Room(i, String.valueOf(100 + i), BenchmarkDatabase.ROOM_TYPES[i % 4], i % 3 == 0 ? "Occupied" : "Available"));
+        }
+
+        items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(new InventoryItem(i, "Item " + i, i % 50, 10, "Housekeeping"));
+        }
+    }
+
+    @Benchmark
+    public ReportSummary aggregate() {
+        return ReportSummary.aggregate(billList, rooms, items);
+    }
+}
@@ -0,0 +1,83 @@
+package com.hotel.benchmarks;
+
+import com.hotel.database.DBConnection;
+import com.hotel.database.RowMapper;
+import com.hotel.database.RowMappers;
+import com.hotel.models.Reservation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-row cost of mapping a large reservations scan, by column name as the DAOs used to and
+ * through the index-based RowMappers.RESERVATION. The result set is read once and rewound per invocation,
+ * so the numbers are the mapping alone, not the query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private static final int RESERVATIONS = 20_000;
+
+    private Connection conn;
+    private Statement stmt;
+    private ResultSet rs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchmarkDatabase.provision("row_mapping_benchmark", 500, RESERVATIONS, 0);
+        conn = DBConnection.getInstance();
+        stmt = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        rs = stmt.executeQuery("SELECT * FROM reservations");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        rs.close();
+        stmt.close();
+        conn.close();
+        DBConnection.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RESERVATIONS)
+    public void mapByName(Blackhole bh) throws SQLException {
+        rs.beforeFirst();
+        while (rs.next()) {
+            Reservation res = new Reservation(
+                    rs.getInt("id"),
+                    rs.getString("guest_name"),
+                    rs.getDate("check_in"),
+                    rs.getDate("check_out"),
+                    rs.getString("room_type"),
+                    rs.getString("payment_status"),
+                    rs.getString("special_requests"),
+                    rs.getString("room_number"),
+                    rs.getString("group_name"),
+                    rs.getBoolean("late_checkout")
+            );
+            res.setGuestId(rs.getInt("guest_id"));
+            res.setCheckedOutAt(rs.getTimestamp("checked_out_at"));
+            bh.consume(res);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RESERVATIONS)
+    public void mapByIndex(Blackhole bh) throws SQLException {
+        rs.beforeFirst();
+        RowMapper<Reservation> mapper = RowMappers.RESERVATION.bind(rs);
+        while (rs.next()) {
+            bh.consume(mapper.map(rs));
+        }
+    }
+}
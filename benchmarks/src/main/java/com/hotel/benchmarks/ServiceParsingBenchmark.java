@@ -0,0 +1,47 @@
+package com.hotel.benchmarks;
+
+import com.hotel.database.BillDAO;
+import com.hotel.models.Service;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the comma-separated service string conversions BillDAO runs for every bill
+ * it writes and reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceParsingBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int serviceCount;
+
+    private String serviceString;
+    private List<Service> services;
+
+    @Setup
+    public void setUp() {
+        services = new ArrayList<>(serviceCount);
+        for (int i = 0; i < serviceCount; i++) {
+            services.add(new Service(BenchmarkDatabase.SERVICES[i % BenchmarkDatabase.SERVICES.length], 10));
+        }
+        serviceString = BillDAO.convertServicesToString(services);
+    }
+
+    @Benchmark
+    public List<Service> parse() {
+        return BillDAO.convertStringToServices(serviceString);
+    }
+
+    @Benchmark
+    public String format() {
+        return BillDAO.convertServicesToString(services);
+    }
+}
@@ -0,0 +1,80 @@
+package com.hotel.loadtest;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One simulated staff member running scenarios from a weighted mix.
+ *
+ * With a positive rate, scenarios arrive as a Poisson process (exponential gaps) on a fixed
+ * schedule that does not slip when a call is slow, so a stalled database shows up as latency
+ * instead of as fewer requests. With rate 0 the actor runs scenarios back to back.
+ */
+public class Actor implements Runnable {
+
+    private final String name;
+    private final Workload workload;
+    private final List<Workload.WeightedScenario> mix;
+    private final int totalWeight;
+    private final double ratePerSecond;
+    private final long stopAtNanos;
+    private final SplittableRandom random;
+
+    /**
+     * Constructor for Actor.
+     *
+     * @param name the name used as assigned_to for housekeeping tasks
+     * @param workload the shared workload and statistics
+     * @param mix the scenarios this actor chooses from
+     * @param ratePerSecond mean scenarios per second, 0 for back to back
+     * @param stopAtNanos the System.nanoTime() at which to stop
+     * @param seed the random seed for this actor
+     */
+    public Actor(String name, Workload workload, List<Workload.WeightedScenario> mix,
+                 double ratePerSecond, long stopAtNanos, long seed) {
+        this.name = name;
+        this.workload = workload;
+        this.mix = mix;
+        this.totalWeight = mix.stream().mapToInt(Workload.WeightedScenario::weight).sum();
+        this.ratePerSecond = ratePerSecond;
+        this.stopAtNanos = stopAtNanos;
+        this.random = new SplittableRandom(seed);
+    }
+
+    public String name() { return name; }
+    public SplittableRandom random() { return random; }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (true) {
+            if (ratePerSecond > 0) {
+                // Exponential inter-arrival time for the given mean rate
+                next += (long) (-Math.log(1 - random.nextDouble()) / ratePerSecond * 1_000_000_000L);
+                long wait = next - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+            } else {
+                next = System.nanoTime();
+            }
+            if (next >= stopAtNanos) return;
+
+            Workload.WeightedScenario scenario = pick();
+            try {
+                scenario.scenario().run(this);
+            } catch (RuntimeException e) {
+                System.err.println(name + " " + scenario.name() + " failed: " + e);
+            }
+            workload.recordScenario(scenario.name(), next, System.nanoTime());
+        }
+    }
+
+    private Workload.WeightedScenario pick() {
+        int roll = random.nextInt(totalWeight);
+        for (Workload.WeightedScenario scenario : mix) {
+            roll -= scenario.weight();
+            if (roll < 0) return scenario;
+        }
+        return mix.get(mix.size() - 1);
+    }
+}
@@ -0,0 +1,379 @@
+package com.hotel.loadtest;
+
+import com.hotel.database.BillDAO;
+import com.hotel.database.BillDAO.GroupBillOutcome;
+import com.hotel.database.DBConnection;
+import com.hotel.database.DatabaseConfig;
+import com.hotel.database.GuestDAO;
+import com.hotel.database.ReservationDAO;
+import com.hotel.database.ReservationDAO.CheckoutOutcome;
+import com.hotel.database.RoomDAO;
+import com.hotel.models.Bill;
+import com.hotel.models.GroupBooking;
+import com.hotel.models.Guest;
+import com.hotel.models.Reservation;
+import com.hotel.models.Room;
+import com.hotel.models.RoomStatus;
+import com.hotel.services.CheckoutPipeline;
+import com.hotel.services.GroupFolioEngine;
+import com.hotel.services.GuestMatcher;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Races and billing rules that must hold when several desks work at once, checked against a fresh embedded
+ * database. Each check provisions its own rows, and a call that hangs fails its check instead of the run:
+ * <pre>gradle :loadtest:consistencyCheck</pre>
+ * The checks also run with {@code gradle check}.
+ */
+public final class ConsistencyChecks {
+
+    private static final int BOOKERS = 16;
+    private static final long CALL_TIMEOUT_SECONDS = 30;
+    private static final long NO_WAIT_MS = 1000;   // Well below the database's lock wait timeout
+
+    /**
+     * One check; throws with a description of what did not hold.
+     */
+    @FunctionalInterface
+    interface Check {
+        void run() throws Exception;
+    }
+
+    private static final RoomDAO roomDAO = new RoomDAO();
+    private static final ReservationDAO reservationDAO = new ReservationDAO();
+    private static final BillDAO billDAO = new BillDAO();
+    private static final GuestDAO guestDAO = new GuestDAO();
+    private static final ExecutorService executor = Executors.newCachedThreadPool();
+
+    // Prevent instantiation of this utility class
+    private ConsistencyChecks() {
+    }
+
+    public static void main(String[] args) {
+        Map<String, Check> checks = new LinkedHashMap<>();
+        checks.put("concurrent bookers never get the same room", ConsistencyChecks::concurrentClaims);
+        checks.put("a booker whose room is being claimed takes another one", ConsistencyChecks::claimSkipsRoomBeingClaimed);
+        checks.put("checking out a member of a billed group adds no folio", ConsistencyChecks::checkoutAfterGroupBill);
+        checks.put("a group is billed either as a whole or per member", ConsistencyChecks::groupOrMemberBills);
+        checks.put("a group bill racing a member checkout bills the member once", ConsistencyChecks::groupBillRacingCheckout);
+        checks.put("concurrent bookings for a new name create one guest", ConsistencyChecks::concurrentNewGuest);
+        checks.put("a name that belongs to a guest is linked only when confirmed", ConsistencyChecks::existingNameNotGuessed);
+        checks.put("a stay is matched through its guest, also once renamed", ConsistencyChecks::staysFollowTheirGuest);
+
+        // One connection per booker, plus the ones a check holds itself; MySQL's default isolation, not H2's
+        DBConnection.configure(DatabaseConfig.embedded("consistency")
+                .with("db.pool.maxSize", String.valueOf(BOOKERS + 4))
+                .with("db.pool.isolation", "TRANSACTION_REPEATABLE_READ"));
+
+        // The DAOs print every rejected claim or duplicate; only the verdicts matter here
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        int failed = 0;
+        try {
+            for (Map.Entry<String, Check> check : checks.entrySet()) {
+                try {
+                    check.getValue().run();
+                    console.println("PASS " + check.getKey());
+                } catch (Exception | AssertionError e) {
+                    failed++;
+                    console.println("FAIL " + check.getKey() + ": " + e);
+                }
+            }
+        } finally {
+            System.setOut(console);
+            executor.shutdownNow();
+            DBConnection.shutdown();
+        }
+
+        console.printf("%d of %d checks passed%n", checks.size() - failed, checks.size());
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // ---------------------------------------------------------------- rooms
+
+    /**
+     * More bookers than rooms claim at once: every room goes to exactly one of them, the rest get none,
+     * and nobody waits for a room that is gone.
+     */
+    private static void concurrentClaims() throws Exception {
+        String type = "Race";
+        int rooms = 5;
+        addRooms(type, rooms);
+
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Room>> claims = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            claims.add(executor.submit(() -> {
+                go.await();
+                return roomDAO.claimAvailableRoom(type);
+            }));
+        }
+        go.countDown();
+
+        Set<Integer> claimed = new HashSet<>();
+        int none = 0;
+        for (Future<Room> claim : claims) {
+            Room room = await(claim, "claimAvailableRoom");
+            if (room == null) {
+                none++;
+            } else {
+                require(claimed.add(room.getId()), "room " + room.getRoomNumber() + " was claimed twice");
+            }
+        }
+        require(claimed.size() == rooms, claimed.size() + " of " + rooms + " rooms were claimed");
+        require(none == BOOKERS - rooms, none + " bookers got no room, expected " + (BOOKERS - rooms));
+        require(!roomDAO.getAvailableCountsByType().containsKey(type), "rooms are still available after every claim");
+    }
+
+    /**
+     * Another booker holds the first candidate room in an open claim. The next booker loses that candidate:
+     * it must take the other room, then report none left, without waiting for the first booker.
+     */
+    private static void claimSkipsRoomBeingClaimed() throws Exception {
+        String type = "Skip";
+        List<Integer> ids = addRooms(type, 2);
+
+        try (Connection holder = DBConnection.getInstance();
+             PreparedStatement lock = holder.prepareStatement("SELECT id FROM rooms WHERE id = ? FOR UPDATE")) {
+            holder.setAutoCommit(false);
+            lock.setInt(1, ids.get(0));
+            try (ResultSet rs = lock.executeQuery()) {
+                require(rs.next(), "the room to hold is missing");
+            }
+
+            Room room = await(executor.submit(() -> roomDAO.claimAvailableRoom(type)), "claimAvailableRoom");
+            require(room != null && room.getId() == ids.get(1),
+                    "expected the room nobody holds, got " + (room == null ? "none" : room.getRoomNumber()));
+            long start = System.nanoTime();
+            Room none = await(executor.submit(() -> roomDAO.claimAvailableRoom(type)), "claimAvailableRoom");
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            require(none == null, "room " + (none == null ? "" : none.getRoomNumber()) + " was claimed while another booker held it");
+            require(waitedMs < NO_WAIT_MS, "the claim waited " + waitedMs + " ms for the room another booker held");
+
+            holder.rollback();
+        }
+
+        // Released without being claimed: the held room is available again
+        Room released = await(executor.submit(() -> roomDAO.claimAvailableRoom(type)), "claimAvailableRoom");
+        require(released != null && released.getId() == ids.get(0), "the released room could not be claimed");
+    }
+
+    private static List<Integer> addRooms(String type, int count) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            require(roomDAO.addRoom(new Room(type + "-" + i, type, RoomStatus.AVAILABLE.getLabel())), "could not add a room");
+            ids.add(roomDAO.getRoomByNumber(type + "-" + i).getId());
+        }
+        return ids;
+    }
+
+    // ---------------------------------------------------------------- billing
+
+    /**
+     * A group is billed as a whole, then one member checks out: the group bill is that member's folio.
+     * A member of a group that was not billed still gets a folio of its own at checkout.
+     */
+    private static void checkoutAfterGroupBill() {
+        GroupBooking billed = new GroupBooking("Billed Party", Date.valueOf(LocalDate.now().minusDays(2)));
+        addGroup(billed, 3);
+        require(billDAO.createGroupBill(groupBill(billed)) == GroupBillOutcome.CREATED, "the group bill was not saved");
+
+        Reservation member = reservationDAO.getReservationsByGroup(billed).get(0);
+        require(new CheckoutPipeline().checkOut(member) == CheckoutOutcome.CHECKED_OUT, "the member was not checked out");
+        require(billDAO.getBillForReservation(member.getId()) == null, "the member got a folio although the group was billed");
+
+        // Same name, later arrival: a different group, not billed yet
+        GroupBooking unbilled = new GroupBooking(billed.getGroupName(), Date.valueOf(billed.getCheckIn().toLocalDate().plusYears(1)));
+        addGroup(unbilled, 2);
+        Reservation other = reservationDAO.getReservationsByGroup(unbilled).get(0);
+        require(new CheckoutPipeline().checkOut(other) == CheckoutOutcome.CHECKED_OUT, "the other member was not checked out");
+        require(billDAO.getBillForReservation(other.getId()) != null, "a member of an unbilled group got no folio");
+    }
+
+    /**
+     * A member checks out and gets its own folio: the group can then no longer be billed as a whole.
+     * A group billed as a whole gets no member folios from a split bill.
+     */
+    private static void groupOrMemberBills() {
+        GroupBooking split = new GroupBooking("Split Party", Date.valueOf(LocalDate.now().minusDays(2)));
+        addGroup(split, 3);
+        Reservation member = reservationDAO.getReservationsByGroup(split).get(0);
+        require(new CheckoutPipeline().checkOut(member) == CheckoutOutcome.CHECKED_OUT, "the member was not checked out");
+        GroupBillOutcome outcome = billDAO.createGroupBill(groupBill(split));
+        require(outcome == GroupBillOutcome.MEMBERS_BILLED, "a group with a member folio was billed as a whole: " + outcome);
+        require(billDAO.getBillForGroup(split) == null, "a group bill was saved next to a member folio");
+
+        GroupBooking whole = new GroupBooking("Whole Party", Date.valueOf(LocalDate.now().minusDays(2)));
+        addGroup(whole, 3);
+        require(billDAO.createGroupBill(groupBill(whole)) == GroupBillOutcome.CREATED, "the group bill was not saved");
+        GroupFolioEngine engine = new GroupFolioEngine();
+        List<Bill> saved = engine.saveFolios(engine.computeFolios(whole, List.of(), 0));
+        require(saved != null && saved.isEmpty(), "a split bill saved member folios for a group billed as a whole");
+    }
+
+    /**
+     * One desk bills a group as a whole while another checks out one of its members, many times over:
+     * the member ends up with the group bill or with a folio of its own, never both.
+     */
+    private static void groupBillRacingCheckout() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            GroupBooking group = new GroupBooking("Race Party " + round, Date.valueOf(LocalDate.now().minusDays(2)));
+            addGroup(group, 3);
+            Reservation member = reservationDAO.getReservationsByGroup(group).get(0);
+
+            CountDownLatch go = new CountDownLatch(1);
+            Future<GroupBillOutcome> billing = executor.submit(() -> {
+                go.await();
+                return billDAO.createGroupBill(groupBill(group));
+            });
+            Future<CheckoutOutcome> checkout = executor.submit(() -> {
+                go.await();
+                return new CheckoutPipeline().checkOut(member);
+            });
+            go.countDown();
+            await(billing, "createGroupBill");
+            await(checkout, "checkOut");
+
+            require(billDAO.getBillForGroup(group) == null || billDAO.getBillForReservation(member.getId()) == null,
+                    "round " + round + ": the member has a folio and a group bill");
+        }
+    }
+
+    private static Bill groupBill(GroupBooking group) {
+        Bill bill = new Bill(group.getGroupName(), "Group", 6, new ArrayList<>(), 600, 72, 0, 672);
+        bill.setGroupName(group.getGroupName());
+        bill.setGroupCheckIn(group.getCheckIn());
+        return bill;
+    }
+
+    private static void addGroup(GroupBooking group, int members) {
+        Date checkOut = Date.valueOf(group.getCheckIn().toLocalDate().plusDays(2));
+        for (int i = 0; i < members; i++) {
+            require(reservationDAO.addReservation(new Reservation(group.getGroupName(), group.getCheckIn(), checkOut, "Standard", "Pending", "", "", group.getGroupName(), false)),
+                    "could not add a group member");
+        }
+    }
+
+    // ---------------------------------------------------------------- guests
+
+    /**
+     * Bookers resolve the same new name at once, confirming a unique match: they all get one new guest.
+     */
+    private static void concurrentNewGuest() throws Exception {
+        String name = "Noor Haddad";
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Map<String, Integer>>> resolutions = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            resolutions.add(executor.submit(() -> {
+                go.await();
+                return guestDAO.resolveGuests(List.of(name), true);
+            }));
+        }
+        go.countDown();
+
+        Set<Integer> guestIds = new HashSet<>();
+        for (Future<Map<String, Integer>> resolution : resolutions) {
+            Map<String, Integer> ids = await(resolution, "resolveGuests");
+            require(ids != null && ids.containsKey(name), "a booker could not resolve the new name");
+            guestIds.add(ids.get(name));
+        }
+        require(guestIds.size() == 1, "one new name became " + guestIds.size() + " guests");
+        require(sameNameGuests(name) == 1, sameNameGuests(name) + " guests have the new name");
+    }
+
+    /**
+     * A name that belongs to one guest is left to the caller unless confirmed; one that belongs to two
+     * is never guessed. Neither adds a guest, however often it is booked.
+     */
+    private static void existingNameNotGuessed() {
+        String name = "Sam Lee";
+        Guest guest = guestDAO.addGuest(name);
+        require(guest != null, "could not add a guest");
+        require(guestDAO.resolveGuests(List.of(name), false).isEmpty(), "an unconfirmed name was linked to its guest");
+        require(guestDAO.resolveGuests(List.of(name), true).get(name) == guest.getId(), "a confirmed name was not linked to its guest");
+
+        require(guestDAO.addGuest(name) != null, "could not add a namesake");
+        for (int i = 0; i < 3; i++) {
+            require(guestDAO.resolveGuests(List.of(name), true).isEmpty(), "a name shared by two guests was linked to one");
+        }
+        require(sameNameGuests(name) == 2, "booking a shared name left " + sameNameGuests(name) + " guests of that name");
+    }
+
+    /**
+     * Namesakes do not share stays, a respelled stay keeps its guest, and a renamed stay moves to a new guest
+     * and is found under its new name only.
+     */
+    private static void staysFollowTheirGuest() {
+        String name = "Kim Park";
+        Date checkIn = Date.valueOf(LocalDate.now().plusDays(10));
+        Date checkOut = Date.valueOf(LocalDate.now().plusDays(12));
+        Guest guest = guestDAO.addGuest(name);
+        Guest namesake = guestDAO.addGuest(name);
+        require(guest != null && namesake != null, "could not add the guests");
+
+        Reservation stay = new Reservation(name, checkIn, checkOut, "Standard", "Pending", "", "", null, false);
+        stay.setGuestId(guest.getId());
+        require(reservationDAO.addReservation(stay), "could not add the stay");
+        require(reservationDAO.reservationExists(guest.getId(), name, checkIn, checkOut), "the guest's stay was not found");
+        require(!reservationDAO.reservationExists(namesake.getId(), name, checkIn, checkOut), "a namesake's stay was taken for the guest's");
+
+        Reservation respelled = reservationDAO.getReservationById(stay.getId());
+        respelled.setGuestName("kim  PARK");
+        respelled.setGuestId(0);
+        require(reservationDAO.updateReservation(respelled), "could not respell the stay");
+        require(reservationDAO.getReservationById(stay.getId()).getGuestId() == guest.getId(), "a respelled stay lost its guest");
+
+        Reservation renamed = reservationDAO.getReservationById(stay.getId());
+        renamed.setGuestName("Lena Vogt");
+        renamed.setGuestId(0);
+        require(reservationDAO.updateReservation(renamed), "could not rename the stay");
+        int renamedGuest = reservationDAO.getReservationById(stay.getId()).getGuestId();
+        require(renamedGuest > 0 && renamedGuest != guest.getId(), "a renamed stay stayed with its old guest");
+        require(!reservationDAO.reservationExists(guest.getId(), name, checkIn, checkOut), "the old guest still has the renamed stay");
+        Reservation found = reservationDAO.getReservationByGuestName("Lena Vogt");
+        require(found != null && found.getId() == stay.getId(), "the renamed stay is not found under its new name");
+    }
+
+    private static int sameNameGuests(String name) {
+        String nameKey = GuestMatcher.nameKey(name);
+        return (int) guestDAO.findMatches(name).stream().filter(guest -> guest.getNameKey().equals(nameKey)).count();
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    private static <T> T await(Future<T> call, String what) throws Exception {
+        try {
+            return call.get(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            throw new IllegalStateException(what + " did not return within " + CALL_TIMEOUT_SECONDS + " s");
+        }
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
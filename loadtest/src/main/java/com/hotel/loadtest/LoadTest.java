@@ -0,0 +1,148 @@
+package com.hotel.loadtest;
+
+import com.hotel.database.DBConnection;
+import com.hotel.database.DatabaseConfig;
+import com.hotel.database.QueryMonitor;
+import com.hotel.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates a busy shift: front desk agents and housekeepers issue a realistic mix of DAO calls
+ * at configurable arrival rates. Prints throughput and latency percentiles per scenario and per DAO method.
+ *
+ * Runs against a fresh embedded database by default, so no MySQL server is needed:
+ * <pre>gradle :loadtest:run --args="--desks 16 --housekeepers 6 --desk-rate 10 --duration 120"</pre>
+ */
+public class LoadTest {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.usage());
+            System.exit(2);
+            return;
+        }
+
+        // One connection per actor so the pool is not the bottleneck being measured
+        int actors = options.desks + options.housekeepers;
+        DatabaseConfig config = options.embedded ? DatabaseConfig.embedded("loadtest") : DatabaseConfig.load();
+        config = config.with("db.pool.maxSize", String.valueOf(Math.max(actors, 1)));
+        if (options.slowQueryMs != null) {
+            config = config.with("db.monitor.slowQueryMs", String.valueOf(options.slowQueryMs));
+        }
+        DBConnection.configure(config);
+
+        PrintStream console = System.out;
+        try {
+            if (options.provision) {
+                console.printf("Seeding %d rooms, %d reservations, %d inventory items, %d tasks...%n",
+                        options.rooms, options.reservations, options.inventoryItems, options.tasks);
+                LoadTestDatabase.seed(options);
+            }
+
+            // The DAOs print to System.out on every duplicate or failure; that would dominate the timings
+            if (!options.daoOutput) {
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            }
+
+            Workload workload = run(options, console);
+            QueryMonitor monitor = DBConnection.getQueryMonitor();
+            if (monitor != null) {
+                monitor.captureExplainPlans();
+            }
+            System.setOut(console);
+            report(workload, options, console);
+        } finally {
+            System.setOut(console);
+            DBConnection.shutdown();
+        }
+    }
+
+    private static Workload run(LoadTestOptions options, PrintStream console) throws InterruptedException {
+        Workload workload = new Workload(options);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+        long stopAt = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        workload.measureFrom(measureFrom);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < options.desks; i++) {
+            Actor actor = new Actor("desk" + i, workload, workload.deskMix, options.deskRate, stopAt, options.seed * 31 + i);
+            threads.add(Thread.ofPlatform().name(actor.name()).start(actor));
+        }
+        for (int i = 0; i < options.housekeepers; i++) {
+            Actor actor = new Actor("house" + i, workload, workload.housekeeperMix, options.housekeeperRate, stopAt,
+                    options.seed * 31 + 1000 + i);
+            threads.add(Thread.ofPlatform().name(actor.name()).start(actor));
+        }
+
+        console.printf("Running %d desks at %.1f/s and %d housekeepers at %.1f/s: %ds warmup, %ds measured%n",
+                options.desks, options.deskRate, options.housekeepers, options.housekeeperRate,
+                options.warmupSeconds, options.durationSeconds);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return workload;
+    }
+
+    private static void report(Workload workload, LoadTestOptions options, PrintStream out) throws IOException {
+        List<OperationStats> stats = new ArrayList<>(workload.getStats().values());
+        // Scenarios first, then DAO methods, each alphabetically
+        stats.sort(Comparator.comparing((OperationStats s) -> !s.getName().startsWith("scenario."))
+                .thenComparing(OperationStats::getName));
+
+        String header = String.format(Locale.ROOT, "%-46s %9s %9s %8s %9s %9s %9s %9s %9s",
+                "operation", "count", "ops/s", "rejected", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        out.println();
+        out.println(header);
+        out.println("-".repeat(header.length()));
+        for (OperationStats s : stats) {
+            out.printf(Locale.ROOT, "%-46s %9d %9.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    s.getName(), s.getCount(), s.getCount() / (double) options.durationSeconds, s.getRejected(),
+                    s.getPercentileMillis(PERCENTILES[0]), s.getPercentileMillis(PERCENTILES[1]),
+                    s.getPercentileMillis(PERCENTILES[2]), s.getPercentileMillis(PERCENTILES[3]), s.getMaxMillis());
+        }
+        out.println("Scenario latency is measured from the scheduled arrival; DAO latency is service time.");
+
+        // The application's own DAO metrics, including warmup and seeding, with row counts
+        out.println();
+        out.print(MetricsRegistry.dumpText());
+
+        // The statements behind those methods, with plans for the ones that crossed the slow-query threshold
+        QueryMonitor monitor = DBConnection.getQueryMonitor();
+        if (monitor != null) {
+            out.println();
+            out.print(monitor.dumpText(15));
+        }
+
+        if (options.csvFile != null) {
+            try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(Paths.get(options.csvFile), StandardCharsets.UTF_8))) {
+                csv.println("operation,count,ops_per_sec,rejected,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+                for (OperationStats s : stats) {
+                    csv.printf(Locale.ROOT, "%s,%d,%.3f,%d,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                            s.getName(), s.getCount(), s.getCount() / (double) options.durationSeconds, s.getRejected(),
+                            s.getPercentileMillis(PERCENTILES[0]), s.getPercentileMillis(PERCENTILES[1]),
+                            s.getPercentileMillis(PERCENTILES[2]), s.getPercentileMillis(PERCENTILES[3]), s.getMaxMillis());
+                }
+            }
+            out.println("Results written to " + options.csvFile);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.hotel.loadtest;
+
+import com.hotel.database.DBConnection;
+import com.hotel.database.ReservationDAO;
+import com.hotel.models.Reservation;
+import com.hotel.models.RoomStatus;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds the database under test with rooms, reservations, inventory and housekeeping tasks
+ * whose names the workload can address (Guest 0..n, Supply 0..n).
+ */
+public final class LoadTestDatabase {
+
+    private static final String[] DEPARTMENTS = {"Housekeeping", "Kitchen", "Reception"};
+
+    // Prevent instantiation of this utility class
+    private LoadTestDatabase() {
+    }
+
+    static String guestName(int index) {
+        return "Guest " + index;
+    }
+
+    static String itemName(int index) {
+        return "Supply " + index;
+    }
+
+    /**
+     * Inserts the sample data described by the options.
+     *
+     * @param options the seed sizes
+     * @throws SQLException if an insert fails
+     */
+    public static void seed(LoadTestOptions options) throws SQLException {
+        try (Connection conn = DBConnection.getInstance()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO rooms (room_number, type, status, state) VALUES (?, ?, ?, ?)")) {
+                for (int i = 0; i < options.rooms; i++) {
+                    // 20 rooms per floor, numbered like RoomManagementView: floor * 100 + room
+                    stmt.setString(1, String.valueOf((i / 20 + 1) * 100 + i % 20 + 1));
+                    stmt.setString(2, Workload.ROOM_TYPES[i % Workload.ROOM_TYPES.length]);
+                    RoomStatus status = i % 3 == 0 ? RoomStatus.OCCUPIED : RoomStatus.AVAILABLE;
+                    stmt.setString(3, status.getLabel());
+                    stmt.setInt(4, status.getCode());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO inventory_items (item_name, quantity, threshold, department) VALUES (?, ?, ?, ?)")) {
+                for (int i = 0; i < options.inventoryItems; i++) {
+                    stmt.setString(1, itemName(i));
+                    stmt.setInt(2, 1_000_000);
+                    stmt.setInt(3, 100);
+                    stmt.setString(4, DEPARTMENTS[i % DEPARTMENTS.length]);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO housekeeping_tasks (room_id, assigned_to, status, scheduled_date) VALUES (?, ?, ?, ?)")) {
+                Date today = Date.valueOf(LocalDate.now());
+                int rooms = Math.max(options.rooms, 1);
+                for (int i = 0; i < options.tasks; i++) {
+                    stmt.setInt(1, 1 + i % rooms);
+                    stmt.setString(2, "house" + (i % 10));
+                    // A room has at most one open task (uq_housekeeping_open_task), so only its first one is Pending
+                    stmt.setString(3, i < rooms ? "Pending" : "Completed");
+                    stmt.setDate(4, today);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+
+        // Reservations go through the same batch path as the CSV importer
+        LocalDate base = LocalDate.now().minusDays(180);
+        List<Reservation> reservations = new ArrayList<>(options.reservations);
+        for (int i = 0; i < options.reservations; i++) {
+            LocalDate checkIn = base.plusDays(i % 365);
+            reservations.add(new Reservation(guestName(i), Date.valueOf(checkIn), Date.valueOf(checkIn.plusDays(1 + i % 7)),
+                    Workload.ROOM_TYPES[i % Workload.ROOM_TYPES.length], i % 2 == 0 ? "Paid" : "Pending", "",
+                    String.valueOf(101 + i % 20), i % 10 == 0 ? "Group " + (i / 100) : null, i % 4 == 0));
+        }
+        if (new ReservationDAO().addReservationsBatch(reservations, 1000) != reservations.size()) {
+            throw new SQLException("Error seeding reservations");
+        }
+    }
+}
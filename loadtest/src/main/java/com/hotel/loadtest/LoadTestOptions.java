@@ -0,0 +1,91 @@
+package com.hotel.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line settings for a load test run, given as {@code --name value} pairs.
+ */
+public class LoadTestOptions {
+
+    int desks = 8;                  // concurrent front desk agents
+    int housekeepers = 4;           // concurrent housekeepers
+    double deskRate = 5;            // scenarios per second per desk, 0 = back to back
+    double housekeeperRate = 2;     // scenarios per second per housekeeper, 0 = back to back
+    int warmupSeconds = 10;
+    int durationSeconds = 60;
+    int rooms = 300;
+    int reservations = 10_000;
+    int inventoryItems = 60;
+    int tasks = 2_000;
+    boolean embedded = true;        // false = use the database in config/database.properties
+    Boolean provision;              // seed sample data; defaults to true only for the embedded database
+    boolean daoOutput = false;      // keep the DAOs' console messages
+    long seed = 42;
+    Integer slowQueryMs;            // overrides db.monitor.slowQueryMs
+    String csvFile;                 // optional per-operation summary file
+
+    /**
+     * Parses the command line.
+     *
+     * @param args pairs such as {@code --desks 16 --duration 120}
+     * @return the options
+     * @throws IllegalArgumentException for unknown options or missing values
+     */
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --option value, got: " + args[i]);
+            }
+            values.put(args[i].substring(2), args[++i]);
+        }
+
+        LoadTestOptions options = new LoadTestOptions();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String value = entry.getValue();
+            switch (entry.getKey()) {
+                case "desks" -> options.desks = Integer.parseInt(value);
+                case "housekeepers" -> options.housekeepers = Integer.parseInt(value);
+                case "desk-rate" -> options.deskRate = Double.parseDouble(value);
+                case "housekeeper-rate" -> options.housekeeperRate = Double.parseDouble(value);
+                case "warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                case "duration" -> options.durationSeconds = Integer.parseInt(value);
+                case "rooms" -> options.rooms = Integer.parseInt(value);
+                case "reservations" -> options.reservations = Integer.parseInt(value);
+                case "inventory" -> options.inventoryItems = Integer.parseInt(value);
+                case "tasks" -> options.tasks = Integer.parseInt(value);
+                case "database" -> options.embedded = !value.equalsIgnoreCase("configured");
+                case "provision" -> options.provision = Boolean.parseBoolean(value);
+                case "dao-output" -> options.daoOutput = Boolean.parseBoolean(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "slow-query-ms" -> options.slowQueryMs = Integer.parseInt(value);
+                case "csv" -> options.csvFile = value;
+                default -> throw new IllegalArgumentException("Unknown option: --" + entry.getKey());
+            }
+        }
+        if (options.provision == null) options.provision = options.embedded;
+        return options;
+    }
+
+    /**
+     * @return the usage text printed for bad arguments
+     */
+    public static String usage() {
+        return String.join("\n",
+                "Usage: LoadTest [--option value]...",
+                "  --desks N              concurrent front desk agents (8)",
+                "  --housekeepers N       concurrent housekeepers (4)",
+                "  --desk-rate R          scenarios/s per desk, 0 = closed loop (5)",
+                "  --housekeeper-rate R   scenarios/s per housekeeper, 0 = closed loop (2)",
+                "  --warmup S             seconds excluded from the results (10)",
+                "  --duration S           measured seconds (60)",
+                "  --rooms N --reservations N --inventory N --tasks N   seed sizes",
+                "  --database embedded|configured   embedded H2, or the database in config/database.properties",
+                "  --provision true|false seed sample data (default: only for embedded)",
+                "  --dao-output true      keep DAO console messages (off by default)",
+                "  --seed N               random seed (42)",
+                "  --slow-query-ms N      SQL statements slower than this are explained in the report (200)",
+                "  --csv FILE             also write the results as CSV");
+    }
+}
@@ -0,0 +1,54 @@
+package com.hotel.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counters for one operation, shared by all actors.
+ * Latencies are recorded in microseconds with three significant digits, up to one minute.
+ */
+public class OperationStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String name;
+    private final Histogram histogram = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder rejected = new LongAdder();  // DAO returned false or null
+
+    public OperationStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one completed call.
+     *
+     * @param latencyNanos the elapsed time
+     * @param succeeded false when the DAO reported failure
+     */
+    public void record(long latencyNanos, boolean succeeded) {
+        histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        if (!succeeded) rejected.increment();
+    }
+
+    public String getName() { return name; }
+    public long getCount() { return histogram.getTotalCount(); }
+    public long getRejected() { return rejected.sum(); }
+
+    /**
+     * @param percentile e.g. 99.9
+     * @return the latency at the percentile in milliseconds
+     */
+    public double getPercentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * @return the highest latency in milliseconds
+     */
+    public double getMaxMillis() {
+        return histogram.getMaxValue() / 1000.0;
+    }
+}
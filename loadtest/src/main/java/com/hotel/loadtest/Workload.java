@@ -0,0 +1,227 @@
+package com.hotel.loadtest;
+
+import com.hotel.database.BillDAO;
+import com.hotel.database.HousekeepingDAO;
+import com.hotel.database.InventoryDAO;
+import com.hotel.database.ReservationDAO;
+import com.hotel.database.RoomDAO;
+import com.hotel.models.Bill;
+import com.hotel.models.HousekeepingTask;
+import com.hotel.models.Reservation;
+import com.hotel.models.Room;
+import com.hotel.models.Service;
+import com.hotel.services.BillingCalculator;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The operation mix issued by simulated staff.
+ * Each scenario is what one person does for one guest or one room, and may call several DAO methods.
+ * Every DAO call is timed on its own; the scenario is timed from its scheduled start.
+ */
+public class Workload {
+
+    static final String[] ROOM_TYPES = {"Standard", "Deluxe", "Suite", "Executive"};
+    static final String[] SERVICES = {"Spa", "Dining", "Room Service", "Laundry", "Gym Access"};
+
+    /**
+     * One unit of work for an actor.
+     */
+    @FunctionalInterface
+    interface Scenario {
+        void run(Actor actor);
+    }
+
+    /**
+     * A scenario with its share of the mix.
+     */
+    record WeightedScenario(String name, int weight, Scenario scenario) {
+    }
+
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+    private final RoomDAO roomDAO = new RoomDAO();
+    private final HousekeepingDAO housekeepingDAO = new HousekeepingDAO();
+    private final InventoryDAO inventoryDAO = new InventoryDAO();
+    private final BillDAO billDAO = new BillDAO();
+
+    private final LoadTestOptions options;
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong walkIns = new AtomicLong();
+    private volatile long measureFromNanos = Long.MAX_VALUE;
+
+    final List<WeightedScenario> deskMix = new ArrayList<>();
+    final List<WeightedScenario> housekeeperMix = new ArrayList<>();
+
+    public Workload(LoadTestOptions options) {
+        this.options = options;
+
+        // Front desk: arrivals, lookups, changes, billing and departures
+        deskMix.add(new WeightedScenario("checkIn", 25, this::checkIn));
+        deskMix.add(new WeightedScenario("lookupGuest", 30, this::lookupGuest));
+        deskMix.add(new WeightedScenario("modifyReservation", 10, this::modifyReservation));
+        deskMix.add(new WeightedScenario("generateBill", 20, this::generateBill));
+        deskMix.add(new WeightedScenario("checkOut", 13, this::checkOut));
+        deskMix.add(new WeightedScenario("browseReservations", 2, this::browseReservations));
+
+        // Housekeeping: scheduling and finishing rooms, consuming supplies
+        housekeeperMix.add(new WeightedScenario("scheduleCleaning", 25, this::scheduleCleaning));
+        housekeeperMix.add(new WeightedScenario("completeTask", 25, this::completeTask));
+        housekeeperMix.add(new WeightedScenario("logUsage", 35, this::logUsage));
+        housekeeperMix.add(new WeightedScenario("checkStock", 10, this::checkStock));
+        housekeeperMix.add(new WeightedScenario("browseTasks", 5, this::browseTasks));
+    }
+
+    /**
+     * Starts recording; samples scheduled before this point are warmup and are dropped.
+     *
+     * @param nanoTime the System.nanoTime() at which measurement begins
+     */
+    void measureFrom(long nanoTime) {
+        measureFromNanos = nanoTime;
+    }
+
+    /**
+     * @return the statistics per operation, keyed by name
+     */
+    Map<String, OperationStats> getStats() {
+        return stats;
+    }
+
+    /**
+     * Records a scenario's response time, measured from when it was due rather than when it started,
+     * so queueing behind a slow call is not hidden (coordinated omission).
+     */
+    void recordScenario(String name, long intendedStartNanos, long endNanos) {
+        if (intendedStartNanos >= measureFromNanos) {
+            stats.computeIfAbsent("scenario." + name, OperationStats::new).record(endNanos - intendedStartNanos, true);
+        }
+    }
+
+    /**
+     * Times a DAO call. A false or null result counts as rejected.
+     */
+    <T> T call(String operation, Supplier<T> daoCall) {
+        long start = System.nanoTime();
+        T result = daoCall.get();
+        long end = System.nanoTime();
+        if (start >= measureFromNanos) {
+            stats.computeIfAbsent(operation, OperationStats::new)
+                    .record(end - start, result != null && !Boolean.FALSE.equals(result));
+        }
+        return result;
+    }
+
+    /**
+     * Times a DAO yes/no question, where false is an answer rather than a failure.
+     */
+    boolean ask(String operation, BooleanSupplier daoCall) {
+        long start = System.nanoTime();
+        boolean answer = daoCall.getAsBoolean();
+        long end = System.nanoTime();
+        if (start >= measureFromNanos) {
+            stats.computeIfAbsent(operation, OperationStats::new).record(end - start, true);
+        }
+        return answer;
+    }
+
+    // ---------------------------------------------------------------- front desk
+
+    private void checkIn(Actor actor) {
+        SplittableRandom random = actor.random();
+        String type = ROOM_TYPES[random.nextInt(ROOM_TYPES.length)];
+        Room room = call("RoomDAO.getAvailableRoomByType", () -> roomDAO.getAvailableRoomByType(type));
+
+        LocalDate checkIn = LocalDate.now();
+        Reservation res = new Reservation("Walk-in " + walkIns.incrementAndGet(), Date.valueOf(checkIn),
+                Date.valueOf(checkIn.plusDays(1 + random.nextInt(5))), type, "Pending", "",
+                room != null ? room.getRoomNumber() : "", null, random.nextInt(10) == 0);
+        call("ReservationDAO.addReservation", () -> reservationDAO.addReservation(res));
+
+        if (room != null) {
+            call("RoomDAO.updateRoomStatus", () -> roomDAO.updateRoomStatus(room.getId(), "Occupied"));
+        }
+    }
+
+    private void lookupGuest(Actor actor) {
+        String guest = seededGuest(actor);
+        call("ReservationDAO.getReservationByGuestName", () -> reservationDAO.getReservationByGuestName(guest));
+    }
+
+    private void modifyReservation(Actor actor) {
+        String guest = seededGuest(actor);
+        Reservation res = call("ReservationDAO.getReservationByGuestName", () -> reservationDAO.getReservationByGuestName(guest));
+        if (res != null) {
+            res.setSpecialRequests("Extra towels");
+            res.setPaymentStatus("Paid");
+            call("ReservationDAO.updateReservation", () -> reservationDAO.updateReservation(res));
+        }
+    }
+
+    private void generateBill(Actor actor) {
+        SplittableRandom random = actor.random();
+        String guest = seededGuest(actor);
+        Reservation res = call("ReservationDAO.getReservationByGuestName", () -> reservationDAO.getReservationByGuestName(guest));
+        if (res == null) return;
+
+        List<Service> services = List.of(new Service(SERVICES[random.nextInt(SERVICES.length)], 20));
+        double base = BillingCalculator.calculateBaseCharge(res);
+        double serviceTotal = BillingCalculator.calculateServiceTotal(services);
+        double tax = BillingCalculator.calculateTax(base, serviceTotal);
+        Bill bill = new Bill(guest, res.getRoomType(), BillingCalculator.calculateNights(res), services,
+                base, tax, 0, base + serviceTotal + tax);
+        bill.setGuestId(res.getGuestId());
+        bill.setReservationId(res.getId());
+        call("BillDAO.createOrGetBill", () -> billDAO.createOrGetBill(bill));
+    }
+
+    private void checkOut(Actor actor) {
+        int roomId = 1 + actor.random().nextInt(options.rooms);
+        call("RoomDAO.updateRoomStatus", () -> roomDAO.updateRoomStatus(roomId, "Cleaning"));
+    }
+
+    private void browseReservations(Actor actor) {
+        call("ReservationDAO.getAllReservations", reservationDAO::getAllReservations);
+    }
+
+    // ---------------------------------------------------------------- housekeeping
+
+    private void scheduleCleaning(Actor actor) {
+        int roomId = 1 + actor.random().nextInt(options.rooms);
+        if (ask("HousekeepingDAO.isRoomEligibleForCleaning", () -> housekeepingDAO.isRoomEligibleForCleaning(roomId))) {
+            HousekeepingTask task = new HousekeepingTask(roomId, actor.name(), "Pending", Date.valueOf(LocalDate.now()));
+            call("HousekeepingDAO.addTask", () -> housekeepingDAO.addTask(task));
+        }
+    }
+
+    private void completeTask(Actor actor) {
+        int taskId = 1 + actor.random().nextInt(Math.max(options.tasks, 1));
+        call("HousekeepingDAO.updateStatus", () -> housekeepingDAO.updateStatus(taskId, "Completed"));
+    }
+
+    private void logUsage(Actor actor) {
+        String item = LoadTestDatabase.itemName(actor.random().nextInt(options.inventoryItems));
+        call("InventoryDAO.logUsage", () -> inventoryDAO.logUsage(item, 1));
+    }
+
+    private void checkStock(Actor actor) {
+        String item = LoadTestDatabase.itemName(actor.random().nextInt(options.inventoryItems));
+        ask("InventoryDAO.isStockSufficient", () -> inventoryDAO.isStockSufficient(item, 5));
+    }
+
+    private void browseTasks(Actor actor) {
+        call("HousekeepingDAO.getAllTasks", housekeepingDAO::getAllTasks);
+    }
+
+    private String seededGuest(Actor actor) {
+        return LoadTestDatabase.guestName(actor.random().nextInt(Math.max(options.reservations, 1)));
+    }
+}
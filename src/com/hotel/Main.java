@@ -1,9 +1,21 @@
 package com.hotel;
 
+import com.hotel.database.DBConnection;
+import com.hotel.database.GuestDAO;
+import com.hotel.metrics.MetricsRegistry;
+import com.hotel.services.NightAudit;
 import com.hotel.views.LoginView;
 
 public class Main {
     public static void main(String[] args) {
+        // Close pooled connections when the last window exits
+        Runtime.getRuntime().addShutdownHook(new Thread(DBConnection::shutdown));
+        // DAO metrics are always on JMX; -Dhotel.metrics.dumpIntervalSec also dumps them periodically
+        MetricsRegistry.startReporterFromSystemProperties();
+        // Reservations and bills saved without a guest (older rows, direct imports) get one
+        new GuestDAO().linkGuests();
+        // Closes each business date once it is over, as the API server does; -Dhotel.audit.checkIntervalMin=0 turns it off
+        NightAudit.startFromSystemProperties();
         new LoginView(); // Start from login
     }
 }
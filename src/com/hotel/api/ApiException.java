@@ -0,0 +1,22 @@
+package com.hotel.api;
+
+/**
+ * A request that cannot be served, with the HTTP status to answer with.
+ */
+public class ApiException extends Exception {
+
+    private final int status;
+
+    /**
+     * Constructor for ApiException.
+     *
+     * @param status the HTTP status code, e.g. 404
+     * @param message the error message returned to the client
+     */
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() { return status; }
+}
@@ -0,0 +1,582 @@
+package com.hotel.api;
+
+import com.hotel.database.BillDAO;
+import com.hotel.database.DBConnection;
+import com.hotel.database.FolioDAO;
+import com.hotel.database.FolioDAO.PostedCharges;
+import com.hotel.database.GuestDAO;
+import com.hotel.database.ReservationDAO;
+import com.hotel.database.ReservationDAO.CheckoutOutcome;
+import com.hotel.database.RoomDAO;
+import com.hotel.database.ServiceDAO;
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
+import com.hotel.models.AvailabilityChange;
+import com.hotel.models.AvailabilityUpdate;
+import com.hotel.models.Bill;
+import com.hotel.models.DailyRevenue;
+import com.hotel.models.Guest;
+import com.hotel.models.Reservation;
+import com.hotel.models.Room;
+import com.hotel.models.Service;
+import com.hotel.services.AvailabilityFeed;
+import com.hotel.services.BillingCalculator;
+import com.hotel.services.CheckoutPipeline;
+import com.hotel.services.FolioPostingService;
+import com.hotel.services.FolioPostingService.PostingResult;
+import com.hotel.services.GuestMatcher;
+import com.hotel.services.NightAudit;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP API for self check-in kiosks and the channel manager, built on the same DAOs as the Swing views.
+ *
+ * Runs on the JDK's built-in HTTP server with one virtual thread per request, so a request blocked on
+ * the database costs no platform thread. Parameters come from the query string or a form-encoded body;
+ * responses are JSON.
+ * <pre>
+ * GET  /api/availability[?type=Deluxe]          available rooms per type
+ * GET  /api/availability/feed?since=N&epoch=E[&waitMs=]
+ *                                                per-night availability changed since sequence N of epoch E;
+ *                                                everything if the epoch is missing or from an earlier server
+ * POST /api/bookings   guestName, roomType, checkIn, checkOut [, guestId or newGuest, specialRequests, lateCheckout, paymentStatus]
+ *                                                a name that already belongs to a guest needs that guest's guestId,
+ *                                                or newGuest=true for someone else of the same name
+ * POST /api/checkout   guestId or guestName      closes the stay, room goes to Cleaning, returns the final folio
+ * GET  /api/folio?guestId=... or ?guestName=...  reservation with the final bill, or running charges
+ * POST /api/folio/charges   reservationId, lineType, amount, postingKey [, description]
+ *                                                posts an outlet charge; the same postingKey again posts nothing
+ * GET  /api/revenue/daily?from=...&to=...        posted revenue per closed business date and line type
+ * GET  /api/metrics                              request and DAO latency statistics
+ * GET  /api/health
+ * </pre>
+ * Settings: {@code -Dhotel.api.host} (127.0.0.1), {@code -Dhotel.api.port} (8080), {@code -Dhotel.api.backlog} (1024).
+ * If {@code -Dhotel.api.key} or {@code HOTEL_API_KEY} is set, every request must send it as {@code X-Api-Key}.
+ * The server also runs the night audit ({@code -Dhotel.audit.checkIntervalMin}, 15; 0 turns it off), as the desk
+ * application does; any of them may close a date, and none posts a night twice.
+ */
+public class HotelApiServer {
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final long MAX_FEED_WAIT_MS = 30_000;
+    private static final long POSTING_TIMEOUT_MS = 10_000;
+
+    /**
+     * One endpoint: reads the request parameters and returns the JSON body.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(Map<String, String> params) throws ApiException;
+    }
+
+    private record Response(int status, String body) {
+        static Response ok(Object json) { return new Response(200, json.toString()); }
+    }
+
+    private final RoomDAO roomDAO = new RoomDAO();
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+    private final BillDAO billDAO = new BillDAO();
+    private final FolioDAO folioDAO = new FolioDAO();
+    private final GuestDAO guestDAO = new GuestDAO();
+    private final CheckoutPipeline checkoutPipeline = new CheckoutPipeline();
+    private final AvailabilityFeed feed = new AvailabilityFeed();
+    private final FolioPostingService postings = new FolioPostingService();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final byte[] apiKey;
+
+    /**
+     * Constructor for HotelApiServer. Call {@link #start()} to begin serving.
+     *
+     * @param address the address and port to bind; port 0 picks a free port
+     * @param backlog the maximum number of queued connections
+     * @param apiKey the key clients must send, or null to allow all requests
+     * @throws IOException if the address cannot be bound
+     */
+    public HotelApiServer(InetSocketAddress address, int backlog, String apiKey) throws IOException {
+        this.apiKey = apiKey == null || apiKey.isEmpty() ? null : apiKey.getBytes(StandardCharsets.UTF_8);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(address, backlog);
+        server.setExecutor(executor);
+
+        route("GET", "/api/availability", "availability", this::availability);
+        route("GET", "/api/availability/feed", "availabilityFeed", this::availabilityFeed);
+        route("POST", "/api/bookings", "book", this::book);
+        route("POST", "/api/checkout", "checkout", this::checkout);
+        route("GET", "/api/folio", "folio", this::folio);
+        route("POST", "/api/folio/charges", "postCharge", this::postCharge);
+        route("GET", "/api/revenue/daily", "dailyRevenue", this::dailyRevenue);
+        route("GET", "/api/metrics", "metrics", params -> new Response(200, MetricsRegistry.dumpJson()));
+        route("GET", "/api/health", "health", params -> Response.ok(new Json().add("status", "UP")));
+    }
+
+    /**
+     * Builds the availability feed, starts the folio posting writer and starts serving.
+     */
+    public void start() {
+        feed.start();
+        postings.start();
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to the delay for in-flight ones to finish.
+     *
+     * @param delaySeconds seconds to wait for in-flight requests
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        postings.stop();
+        feed.stop();
+    }
+
+    /**
+     * @return the bound port, useful when started on port 0
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void route(String method, String path, String name, Handler handler) {
+        // Request latency per endpoint, next to the DAO statistics in JMX and the metrics dump
+        LatencyStats stats = MetricsRegistry.register("HotelApi", name);
+
+        server.createContext(path, exchange -> {
+            long start = System.nanoTime();
+            Response response;
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    throw new ApiException(404, "Not found");
+                }
+                if (!isAuthorized(exchange)) {
+                    throw new ApiException(401, "Missing or invalid X-Api-Key");
+                }
+                if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    throw new ApiException(405, "Use " + method);
+                }
+                response = handler.handle(readParameters(exchange));
+            } catch (ApiException e) {
+                response = error(e.getStatus(), e.getMessage());
+            } catch (RuntimeException e) {
+                System.out.println("Error handling " + method + " " + path + ": " + e.getMessage());
+                response = error(500, "Internal error");
+            }
+
+            if (response.status() >= 500) {
+                stats.error();
+            }
+            try {
+                send(exchange, response);
+            } finally {
+                stats.record(start);
+            }
+        });
+    }
+
+    private boolean isAuthorized(HttpExchange exchange) {
+        if (apiKey == null) return true;
+        String given = exchange.getRequestHeaders().getFirst("X-Api-Key");
+        // Constant-time comparison so the key cannot be guessed byte by byte from response times
+        return given != null && MessageDigest.isEqual(apiKey, given.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ---------------------------------------------------------------- endpoints
+
+    private Response availability(Map<String, String> params) {
+        Map<String, Integer> counts = roomDAO.getAvailableCountsByType();
+        String type = params.get("type");
+        if (type != null) {
+            return Response.ok(new Json().add("roomType", type).add("available", (long) counts.getOrDefault(type, 0)));
+        }
+        return Response.ok(new Json().add("available", counts));
+    }
+
+    private Response availabilityFeed(Map<String, String> params) throws ApiException {
+        long since = number(params, "since", 0);
+        String epoch = params.get("epoch");
+        long waitMs = Math.min(number(params, "waitMs", 0), MAX_FEED_WAIT_MS);
+
+        AvailabilityUpdate update;
+        try {
+            // Long polling: a virtual thread parked here costs next to nothing
+            update = waitMs > 0 ? feed.awaitChangesSince(epoch, since, waitMs) : feed.changesSince(epoch, since);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Shutting down");
+        }
+
+        List<Json> changes = new ArrayList<>();
+        for (AvailabilityChange change : update.getChanges()) {
+            changes.add(new Json()
+                    .add("seq", change.getSequence())
+                    .add("roomType", change.getRoomType())
+                    .add("date", change.getDate().toString())
+                    .add("available", (long) change.getAvailable()));
+        }
+        return Response.ok(new Json()
+                .add("epoch", update.getEpoch())
+                .add("sequence", update.getSequence())
+                .add("full", update.isFull())
+                .add("roomTotals", update.getRoomTotals())
+                .add("changes", changes));
+    }
+
+    private Response book(Map<String, String> params) throws ApiException {
+        String guestName = required(params, "guestName");
+        String roomType = required(params, "roomType");
+        Date checkIn = date(params, "checkIn");
+        Date checkOut = date(params, "checkOut");
+        if (!checkOut.after(checkIn)) {
+            throw new ApiException(400, "checkOut must be after checkIn");
+        }
+
+        int guestId = (int) number(params, "guestId", 0);
+        if (guestId > 0 && guestDAO.getGuestById(guestId) == null) {
+            throw new ApiException(404, "No guest " + guestId);
+        }
+
+        if (reservationDAO.reservationExists(guestId, guestName, checkIn, checkOut)) {
+            throw new ApiException(409, "A reservation for this guest and dates already exists");
+        }
+
+        // Claimed atomically: two kiosks booking the last Deluxe cannot both get it
+        Room room = roomDAO.claimAvailableRoom(roomType);
+        if (room == null) {
+            throw new ApiException(409, "No available " + roomType + " room");
+        }
+
+        Reservation res = new Reservation(guestName, checkIn, checkOut, roomType,
+                params.getOrDefault("paymentStatus", "Pending"), params.getOrDefault("specialRequests", ""),
+                room.getRoomNumber(), null, Boolean.parseBoolean(params.get("lateCheckout")));
+        try {
+            res.setGuestId(guestId > 0 ? guestId : bookingGuestId(guestName, Boolean.parseBoolean(params.get("newGuest"))));
+            if (!reservationDAO.addReservation(res)) {
+                throw new ApiException(500, "Reservation could not be saved");
+            }
+        } catch (ApiException e) {
+            // Give the room back so it is not stranded as Occupied without a guest
+            roomDAO.updateRoomStatusToAvailable(room.getId());
+            throw e;
+        }
+
+        return new Response(201, toJson(res).toString());
+    }
+
+    // The guest of a booking that passed no guestId: a new guest for a new name, or for a namesake if newGuest is set.
+    // A name that already belongs to a guest is not guessed; the caller has to pass that guest's guestId.
+    private int bookingGuestId(String guestName, boolean newGuest) throws ApiException {
+        if (newGuest) {
+            Guest guest = guestDAO.addGuest(guestName);
+            if (guest == null) {
+                throw new ApiException(500, "Guest could not be saved");
+            }
+            return guest.getId();
+        }
+
+        Map<String, Integer> guestIds = guestDAO.resolveGuests(List.of(guestName), false);
+        if (guestIds == null) {
+            throw new ApiException(500, "Guest could not be saved");
+        }
+        Integer guestId = guestIds.get(guestName);
+        if (guestId == null) {
+            List<String> ids = sameNameGuests(guestName).stream().map(guest -> String.valueOf(guest.getId())).toList();
+            throw new ApiException(409, "A guest named " + guestName + " has stayed before (guestId "
+                    + String.join(", ", ids) + "); pass guestId, or newGuest=true for someone else");
+        }
+        return guestId;
+    }
+
+    private Response checkout(Map<String, String> params) throws ApiException {
+        Reservation res = findReservation(params);
+
+        // Closes the stay, finalizes the folio and hands the room to housekeeping in one transaction;
+        // checking out a guest who already left just returns the folio again
+        if (checkoutPipeline.checkOut(res) == CheckoutOutcome.FAILED) {
+            throw new ApiException(500, "Check-out could not be completed");
+        }
+
+        Room room = res.getRoomNumber() != null ? roomDAO.getRoomByNumber(res.getRoomNumber()) : null;
+        return Response.ok(folioJson(res).add("roomStatus", room != null ? room.getStatus() : null));
+    }
+
+    private Response folio(Map<String, String> params) throws ApiException {
+        return Response.ok(folioJson(findReservation(params)));
+    }
+
+    private Json folioJson(Reservation res) {
+        Json folio = new Json().add("reservation", toJson(res));
+
+        Bill bill = billDAO.getBillForReservation(res.getId());
+        if (bill != null) {
+            return folio.add("status", "final")
+                    .add("nights", (long) bill.getNights())
+                    .add("services", servicesJson(bill.getServices()))
+                    .add("baseCharge", bill.getBaseCharge())
+                    .add("tax", bill.getTax())
+                    .add("discount", bill.getDiscount())
+                    .add("total", bill.getTotalAmount());
+        }
+
+        // No bill yet: the charges so far, as the billing screen would calculate them
+        List<Service> services = new ArrayList<>(res.getGuestId() > 0
+                ? ServiceDAO.getServicesForGuest(res.getGuestId()) : ServiceDAO.getServicesForGuest(res.getGuestName()));
+        services.addAll(folioDAO.getPostedServices(List.of(res.getId())).getOrDefault(res.getId(), List.of()));
+        PostedCharges posted = folioDAO.getPostedRoomCharges(List.of(res.getId())).getOrDefault(res.getId(), PostedCharges.NONE);
+        double base = BillingCalculator.calculateBaseCharge(res, BillingCalculator.isPeakSeason(), posted);
+        double serviceTotal = BillingCalculator.calculateServiceTotal(services);
+        double tax = BillingCalculator.calculateTax(base, serviceTotal);
+        return folio.add("status", "open")
+                .add("nights", (long) BillingCalculator.calculateNights(res))
+                .add("services", servicesJson(services))
+                .add("baseCharge", base)
+                .add("tax", tax)
+                .add("discount", 0.0)
+                .add("total", base + serviceTotal + tax);
+    }
+
+    private Response postCharge(Map<String, String> params) throws ApiException {
+        int reservationId = (int) number(params, "reservationId", 0);
+        if (reservationId <= 0) {
+            throw new ApiException(400, "Missing parameter: reservationId");
+        }
+        String lineType = required(params, "lineType");
+        String postingKey = required(params, "postingKey");
+        double amount;
+        try {
+            amount = Double.parseDouble(required(params, "amount"));
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "amount must be a number");
+        }
+
+        PostingResult result;
+        try {
+            result = postings.post(reservationId, lineType, params.get("description"), amount, postingKey)
+                    .get(POSTING_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, e.getMessage());
+        } catch (ExecutionException | TimeoutException e) {
+            // The posting may still commit; retrying with the same postingKey is safe
+            throw new ApiException(503, "Charge not confirmed; retry with the same postingKey");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Charge not confirmed; retry with the same postingKey");
+        }
+
+        int status = switch (result.outcome()) {
+            case POSTED -> 201;
+            case DUPLICATE -> 200;
+            case REJECTED -> throw new ApiException(409, "No open stay with this reservationId");
+            case FAILED -> throw new ApiException(500, "Charge could not be posted");
+        };
+        Json json = new Json()
+                .add("reservationId", (long) reservationId)
+                .add("postingKey", postingKey)
+                .add("outcome", result.outcome().name());
+        if (!Double.isNaN(result.balance())) {
+            json.add("balance", result.balance());   // Left out if the balance could not be read back
+        }
+        return new Response(status, json.toString());
+    }
+
+    private Response dailyRevenue(Map<String, String> params) throws ApiException {
+        Date from = date(params, "from");
+        Date to = date(params, "to");
+        if (to.before(from)) {
+            throw new ApiException(400, "to must not be before from");
+        }
+
+        List<Json> days = new ArrayList<>();
+        double total = 0;
+        for (DailyRevenue day : folioDAO.getDailyRevenue(from, to)) {
+            days.add(new Json()
+                    .add("businessDate", String.valueOf(day.getBusinessDate()))
+                    .add("lineType", day.getLineType())
+                    .add("amount", day.getAmount())
+                    .add("lineCount", (long) day.getLineCount()));
+            total += day.getAmount();
+        }
+        return Response.ok(new Json()
+                .add("from", String.valueOf(from))
+                .add("to", String.valueOf(to))
+                .add("businessDate", String.valueOf(folioDAO.getBusinessDate()))
+                .add("days", days)
+                .add("total", total));
+    }
+
+    // The latest stay of the guest; by name only if the name belongs to one guest, or to none (a group booking)
+    private Reservation findReservation(Map<String, String> params) throws ApiException {
+        int guestId = (int) number(params, "guestId", 0);
+        Reservation res;
+        if (guestId > 0) {
+            res = reservationDAO.getLatestReservationForGuest(guestId);
+        } else {
+            String guestName = required(params, "guestName");
+            List<Guest> guests = sameNameGuests(guestName);
+            if (guests.size() > 1) {
+                throw new ApiException(409, "Several guests are named " + guestName + "; pass guestId");
+            }
+            res = guests.isEmpty() ? reservationDAO.getReservationByGuestName(guestName)
+                    : reservationDAO.getLatestReservationForGuest(guests.get(0).getId());
+        }
+        if (res == null) {
+            throw new ApiException(404, "No reservation for this guest");
+        }
+        return res;
+    }
+
+    // The guests whose normalized name is the given one, not those that only sound alike
+    private List<Guest> sameNameGuests(String guestName) {
+        String nameKey = GuestMatcher.nameKey(guestName);
+        return guestDAO.findMatches(guestName).stream()
+                .filter(guest -> guest.getNameKey().equals(nameKey))
+                .toList();
+    }
+
+    private static Json toJson(Reservation res) {
+        Json json = new Json().add("id", (long) res.getId());
+        if (res.getGuestId() > 0) {
+            json.add("guestId", (long) res.getGuestId());
+        }
+        return json
+                .add("guestName", res.getGuestName())
+                .add("checkIn", String.valueOf(res.getCheckIn()))
+                .add("checkOut", String.valueOf(res.getCheckOut()))
+                .add("roomType", res.getRoomType())
+                .add("roomNumber", res.getRoomNumber())
+                .add("groupName", res.getGroupName())
+                .add("paymentStatus", res.getPaymentStatus())
+                .add("lateCheckout", res.isLateCheckout());
+    }
+
+    private static List<Json> servicesJson(List<Service> services) {
+        List<Json> list = new ArrayList<>();
+        for (Service service : services) {
+            list.add(new Json().add("name", service.getServiceName()).add("price", service.getPrice()));
+        }
+        return list;
+    }
+
+    // ---------------------------------------------------------------- request and response plumbing
+
+    private static String required(Map<String, String> params, String name) throws ApiException {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new ApiException(400, "Missing parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    private static long number(Map<String, String> params, String name, long defaultValue) throws ApiException {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, name + " must be a number");
+        }
+    }
+
+    private static Date date(Map<String, String> params, String name) throws ApiException {
+        String value = required(params, name);
+        try {
+            return Date.valueOf(LocalDate.parse(value));
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, name + " must be a date like 2025-06-30");
+        }
+    }
+
+    private static Map<String, String> readParameters(HttpExchange exchange) throws ApiException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+                if (body.length > MAX_BODY_BYTES) {
+                    throw new ApiException(413, "Request body too large");
+                }
+                parseForm(new String(body, StandardCharsets.UTF_8), params);
+            } catch (IOException e) {
+                throw new ApiException(400, "Could not read request body");
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String encoded, Map<String, String> params) {
+        if (encoded == null || encoded.isEmpty()) return;
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(name, value);
+        }
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, new Json().add("error", message).toString());
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        try (exchange) {
+            byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Runs the API on its own, without the desktop application.
+     * <pre>gradle runApi -Dhotel.api.port=8080</pre>
+     */
+    public static void main(String[] args) throws IOException {
+        // Small JSON responses; do not let Nagle's algorithm hold them back
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        String host = System.getProperty("hotel.api.host", "127.0.0.1");
+        int port = Integer.getInteger("hotel.api.port", 8080);
+        int backlog = Integer.getInteger("hotel.api.backlog", 1024);
+        String key = System.getProperty("hotel.api.key", System.getenv("HOTEL_API_KEY"));
+
+        HotelApiServer api = new HotelApiServer(new InetSocketAddress(host, port), backlog, key);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.stop(2);
+            DBConnection.shutdown();
+        }));
+        MetricsRegistry.startReporterFromSystemProperties();
+        new GuestDAO().linkGuests();
+        NightAudit.startFromSystemProperties();
+        api.start();
+        System.out.println("Hotel API listening on http://" + host + ":" + api.getPort() + "/api");
+    }
+}
@@ -0,0 +1,101 @@
+package com.hotel.api;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Minimal JSON writer for API responses. Responses are small flat objects,
+ * so a builder over a StringBuilder is all that is needed.
+ * <pre>
+ * new Json().add("guestName", name).add("nights", 3).toString()   // {"guestName":"...","nights":3}
+ * </pre>
+ */
+public class Json {
+
+    private final StringBuilder out = new StringBuilder("{");
+    private boolean empty = true;
+
+    public Json add(String name, String value) {
+        return raw(name, value == null ? "null" : quote(value));
+    }
+
+    public Json add(String name, long value) {
+        return raw(name, Long.toString(value));
+    }
+
+    public Json add(String name, double value) {
+        // Money: always two decimals, never exponent notation
+        return raw(name, String.format(Locale.ROOT, "%.2f", value));
+    }
+
+    public Json add(String name, boolean value) {
+        return raw(name, Boolean.toString(value));
+    }
+
+    public Json add(String name, Json value) {
+        return raw(name, value == null ? "null" : value.toString());
+    }
+
+    public Json add(String name, List<Json> values) {
+        StringBuilder array = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) array.append(',');
+            array.append(values.get(i));
+        }
+        return raw(name, array.append(']').toString());
+    }
+
+    public Json add(String name, Map<String, Integer> counts) {
+        Json object = new Json();
+        counts.forEach((key, count) -> object.add(key, (long) count));
+        return add(name, object);
+    }
+
+    /**
+     * Adds a value that is already JSON.
+     *
+     * @param name the field name
+     * @param json the encoded value
+     * @return this builder
+     */
+    public Json raw(String name, String json) {
+        if (!empty) out.append(',');
+        empty = false;
+        out.append(quote(name)).append(':').append(json);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out + "}";
+    }
+
+    /**
+     * Encodes a string as a JSON string literal.
+     *
+     * @param value the string
+     * @return the quoted and escaped value
+     */
+    public static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -1,44 +1,373 @@
     package com.hotel.database;
 
+    import com.hotel.metrics.LatencyStats;
+    import com.hotel.metrics.MetricsRegistry;
     import com.hotel.models.Bill;
+    import com.hotel.models.ChangeEvent;
+    import com.hotel.models.GroupBooking;
+    import com.hotel.models.Reservation;
     import com.hotel.models.Service;
 
     import java.sql.*;
     import java.util.ArrayList;
+    import java.util.Collections;
+    import java.util.HashSet;
     import java.util.List;
+    import java.util.Set;
+    import java.util.TreeSet;
 
     public class BillDAO {
 
+        private static final int LOOKUP_CHUNK = 500;   // Reservation IDs per IN (...) list
+        private static final String INSERT_COLUMNS = "INTO bills (guest_name, room_type, nights, services, base_charge, tax, discount, total_amount, " +
+                "reservation_id, guest_id, group_name, group_check_in) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        // Per-method call, error, row and latency statistics (see MetricsRegistry)
+        private static final LatencyStats ADD_BILL = MetricsRegistry.register("BillDAO", "addBill");
+        private static final LatencyStats CREATE_OR_GET_BILL = MetricsRegistry.register("BillDAO", "createOrGetBill");
+        private static final LatencyStats CREATE_GROUP_BILL = MetricsRegistry.register("BillDAO", "createGroupBill");
+        private static final LatencyStats ADD_BILLS_BATCH = MetricsRegistry.register("BillDAO", "addBillsBatch");
+        private static final LatencyStats GET_BILL_FOR_GROUP = MetricsRegistry.register("BillDAO", "getBillForGroup");
+        private static final LatencyStats GET_ALL_BILLS = MetricsRegistry.register("BillDAO", "getAllBills");
+        private static final LatencyStats GET_BILL_BY_GUEST_NAME = MetricsRegistry.register("BillDAO", "getBillByGuestName");
+        private static final LatencyStats GET_BILL_FOR_RESERVATION = MetricsRegistry.register("BillDAO", "getBillForReservation");
+
+        /**
+        * What {@link #createGroupBill} did.
+        */
+        public enum GroupBillOutcome {
+            CREATED,          // The group bill was saved
+            ALREADY_BILLED,   // The group has a bill already; nothing was saved
+            MEMBERS_BILLED,   // A member stay has a folio of its own; nothing was saved
+            FAILED            // A database error; nothing was saved
+        }
+
         /**
         * Adds a new bill to the database.
         * 
         * @param bill the Bill object to be added
-        * @return true if the bill was successfully added, false otherwise
+        * @return true if the bill was successfully added, false otherwise, e.g. if its stay or group already has one
         */
         public boolean addBill(Bill bill) {
-            String sql = "INSERT INTO bills (guest_name, room_type, nights, services, base_charge, tax, discount, total_amount) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+            long start = System.nanoTime();
 
-            try (Connection conn = DBConnection.getInstance();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (Connection conn = DBConnection.getInstance()) {
+
+                conn.setAutoCommit(false);
+                ChangeEvent created = insertBill(conn, bill);
+                if (created == null) {
+                    conn.rollback();
+                    return false;
+                }
+                ChangeEventLog.commit(conn, created);
+                ADD_BILL.rows(1);
+                return true;
+
+            } catch (SQLException e) {
+                ADD_BILL.error();
+                System.out.println("Error adding bill: " + e.getMessage());
+                return false;
+            } finally {
+                ADD_BILL.record(start);
+            }
+        }
+
+        /**
+        * Bills a stay once: saves the bill unless the stay already has one, and returns whichever bill is stored.
+        * Two desks billing the same stay at once get the same bill; the unique key on bills.reservation_id
+        * decides which one wins, so there is no check before the insert. Groups are billed with {@link #createGroupBill}.
+        *
+        * @param bill the bill, with its reservation ID set
+        * @return the given bill with its new ID if it was saved, the bill already stored for the stay
+        *         if there was one, or null on error
+        */
+        public Bill createOrGetBill(Bill bill) {
+            String sql = "SELECT * FROM bills WHERE reservation_id = ?";
+            long start = System.nanoTime();
+
+            try (Connection conn = DBConnection.getInstance()) {
+
+                conn.setAutoCommit(false);
+                ChangeEvent created = insertBill(conn, bill);
+                if (created != null) {
+                    ChangeEventLog.commit(conn, created);
+                    CREATE_OR_GET_BILL.rows(1);
+                    return bill;
+                }
+                conn.rollback();
+
+                // Billed before: return that bill
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setInt(1, bill.getReservationId());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        conn.commit();
+                        return RowMappers.firstRow(rs, RowMappers.BILL);
+                    }
+                }
+
+            } catch (SQLException e) {
+                CREATE_OR_GET_BILL.error();
+                System.out.println("Error creating bill: " + e.getMessage());
+                return null;
+            } finally {
+                CREATE_OR_GET_BILL.record(start);
+            }
+        }
+
+        /**
+        * Bills a group as a whole, once, in one transaction. A group is its name and arrival date (see GroupBooking),
+        * so a reused group name is billed again for a later arrival. The group's stays are locked first, so no
+        * checkout or split bill can give a member a folio of its own meanwhile, and the group bill is refused
+        * if a member already has one: a stay is billed either on its own or with its group, never both.
+        *
+        * @param bill the bill, with its group name and group arrival date set
+        * @return the outcome; the bill has its new ID if it was created
+        */
+        public GroupBillOutcome createGroupBill(Bill bill) {
+            String lockSql = "SELECT id FROM reservations WHERE group_name = ? AND check_in = ? ORDER BY id FOR UPDATE";
+            String membersBilledSql = "SELECT 1 FROM bills b JOIN reservations r ON r.id = b.reservation_id "
+                    + "WHERE r.group_name = ? AND r.check_in = ? LIMIT 1";
+            long start = System.nanoTime();
+
+            try (Connection conn = DBConnection.getInstance()) {
 
+                conn.setAutoCommit(false);
+                try (PreparedStatement stmt = conn.prepareStatement(lockSql)) {
+                    stmt.setString(1, bill.getGroupName());
+                    stmt.setDate(2, bill.getGroupCheckIn());
+                    stmt.executeQuery().close();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(membersBilledSql)) {
+                    stmt.setString(1, bill.getGroupName());
+                    stmt.setDate(2, bill.getGroupCheckIn());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        if (rs.next()) {
+                            conn.rollback();
+                            return GroupBillOutcome.MEMBERS_BILLED;
+                        }
+                    }
+                }
+
+                ChangeEvent created = insertBill(conn, bill);
+                if (created == null) {
+                    conn.rollback();
+                    return GroupBillOutcome.ALREADY_BILLED;
+                }
+                ChangeEventLog.commit(conn, created);
+                CREATE_GROUP_BILL.rows(1);
+                return GroupBillOutcome.CREATED;
+
+            } catch (SQLException e) {
+                CREATE_GROUP_BILL.error();
+                System.out.println("Error creating group bill: " + e.getMessage());
+                return GroupBillOutcome.FAILED;
+            } finally {
+                CREATE_GROUP_BILL.record(start);
+            }
+        }
+
+        /**
+        * Inserts a bill in the caller's transaction and sets its ID, unless the bill's stay or group
+        * already has a bill. Only the unique keys on the stay and on the group make the insert a no-op.
+        *
+        * @param conn the connection of the caller's transaction
+        * @param bill the bill to insert
+        * @return the change event to log with the transaction, or null if the stay or group is already billed
+        * @throws SQLException if the insert fails for any other reason
+        */
+        static ChangeEvent insertBill(Connection conn, Bill bill) throws SQLException {
+            try (PreparedStatement stmt = conn.prepareStatement("INSERT " + INSERT_COLUMNS, Statement.RETURN_GENERATED_KEYS)) {
                 // Convert List<Service> to a comma-separated String of service names
                 String services = convertServicesToString(bill.getServices());
+                bindBill(stmt, bill, services);
+
+                try {
+                    stmt.executeUpdate();
+                } catch (SQLException e) {
+                    // Only a taken stay or group key means "already billed"; bills without either always insert
+                    if (DBConnection.isDuplicateKey(e)) {
+                        return null;
+                    }
+                    throw e;
+                }
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        bill.setId(keys.getInt(1));
+                    }
+                }
+                return billCreated(bill, services);
+            }
+        }
 
-                stmt.setString(1, bill.getGuestName());
-                stmt.setString(2, bill.getRoomType());
-                stmt.setInt(3, bill.getNights());
-                stmt.setString(4, services);
-                stmt.setDouble(5, bill.getBaseCharge());
-                stmt.setDouble(6, bill.getTax());
-                stmt.setDouble(7, bill.getDiscount());
-                stmt.setDouble(8, bill.getTotalAmount());
+        /**
+        * Saves the folios of many stays in one transaction through JDBC batches, e.g. the member folios of a group.
+        * Stays that are billed already, on their own or with their group, keep that bill and their folio is skipped.
+        * The stays are locked before they are checked, so no checkout or group bill can bill them meanwhile;
+        * a desk billing one of the stays on its own meanwhile rolls the transaction back, and saving again skips it.
+        *
+        * @param bills the bills, each with its reservation ID set
+        * @param batchSize the number of rows sent per batch
+        * @return the bills saved, with their IDs, or null if the transaction was rolled back
+        */
+        public List<Bill> addBillsBatch(List<Bill> bills, int batchSize) {
+            long start = System.nanoTime();
+
+            try (Connection conn = DBConnection.getInstance()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+
+                try {
+                    Set<Integer> billed = billedReservations(conn, bills);
+                    List<Bill> toInsert = new ArrayList<>(bills.size());
+                    for (Bill bill : bills) {
+                        if (!billed.contains(bill.getReservationId())) {
+                            toInsert.add(bill);
+                        }
+                    }
 
-                return stmt.executeUpdate() > 0;
+                    List<ChangeEvent> events = new ArrayList<>(toInsert.size());
+                    try (PreparedStatement stmt = conn.prepareStatement("INSERT " + INSERT_COLUMNS, Statement.RETURN_GENERATED_KEYS)) {
+                        int pending = 0;
+                        int keyed = 0;   // bills whose generated id has been read back
+                        for (Bill bill : toInsert) {
+                            bindBill(stmt, bill, convertServicesToString(bill.getServices()));
+                            stmt.addBatch();
+                            if (++pending == batchSize) {
+                                stmt.executeBatch();
+                                keyed = readGeneratedIds(stmt, toInsert, keyed);
+                                pending = 0;
+                            }
+                        }
+                        if (pending > 0) {
+                            stmt.executeBatch();
+                            readGeneratedIds(stmt, toInsert, keyed);
+                        }
+                    }
+                    for (Bill bill : toInsert) {
+                        events.add(billCreated(bill, convertServicesToString(bill.getServices())));
+                    }
+
+                    ChangeEventLog.commit(conn, events);
+                    ADD_BILLS_BATCH.rows(toInsert.size());
+                    return toInsert;
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
 
             } catch (SQLException e) {
-                System.out.println("Error adding bill: " + e.getMessage());
-                return false;
+                ADD_BILLS_BATCH.error();
+                System.out.println("Error inserting bill batch: " + e.getMessage());
+                return null;
+            } finally {
+                ADD_BILLS_BATCH.record(start);
+            }
+        }
+
+        // Binds the columns of INSERT_COLUMNS
+        private static void bindBill(PreparedStatement stmt, Bill bill, String services) throws SQLException {
+            stmt.setString(1, bill.getGuestName());
+            stmt.setString(2, bill.getRoomType());
+            stmt.setInt(3, bill.getNights());
+            stmt.setString(4, services);
+            stmt.setDouble(5, bill.getBaseCharge());
+            stmt.setDouble(6, bill.getTax());
+            stmt.setDouble(7, bill.getDiscount());
+            stmt.setDouble(8, bill.getTotalAmount());
+            if (bill.getReservationId() > 0) {
+                stmt.setInt(9, bill.getReservationId());
+            } else {
+                stmt.setNull(9, Types.INTEGER);
+            }
+            if (bill.getGuestId() > 0) {
+                stmt.setInt(10, bill.getGuestId());
+            } else {
+                stmt.setNull(10, Types.INTEGER);
+            }
+            stmt.setString(11, bill.getGroupName());
+            stmt.setDate(12, bill.getGroupCheckIn());
+        }
+
+        // The values consumers need to track a bill without reading it back
+        private static ChangeEvent billCreated(Bill bill, String services) {
+            return new ChangeEvent(ChangeEvent.Type.BILL_CREATED, bill.getId())
+                    .with("guestId", bill.getGuestId() > 0 ? bill.getGuestId() : null)
+                    .with("reservationId", bill.getReservationId() > 0 ? bill.getReservationId() : null)
+                    .with("groupName", bill.getGroupName())
+                    .with("groupCheckIn", bill.getGroupCheckIn())
+                    .with("guestName", bill.getGuestName())
+                    .with("roomType", bill.getRoomType())
+                    .with("nights", bill.getNights())
+                    .with("services", services)
+                    .with("baseCharge", bill.getBaseCharge())
+                    .with("tax", bill.getTax())
+                    .with("discount", bill.getDiscount())
+                    .with("totalAmount", bill.getTotalAmount());
+        }
+
+        // The stays among the bills' that are billed already, on their own or with their group, read in chunks.
+        // Locks the stays first, in id order, so they stay unbilled until the caller's transaction ends
+        private static Set<Integer> billedReservations(Connection conn, List<Bill> bills) throws SQLException {
+            List<Integer> ids = new ArrayList<>(new TreeSet<>(bills.stream().map(Bill::getReservationId).toList()));
+            Set<Integer> billed = new HashSet<>();
+            for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + LOOKUP_CHUNK, ids.size()));
+                String in = "(" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                readIds(conn, "SELECT id FROM reservations WHERE id IN " + in + " ORDER BY id FOR UPDATE", chunk, new HashSet<>());
+                readIds(conn, "SELECT reservation_id FROM bills WHERE reservation_id IN " + in, chunk, billed);
+                readIds(conn, "SELECT r.id FROM reservations r JOIN bills g ON g.group_name = r.group_name "
+                        + "AND g.group_check_in = r.check_in WHERE r.id IN " + in, chunk, billed);
+            }
+            return billed;
+        }
+
+        // Runs a query over a list of ids and adds the ids it returns
+        private static void readIds(Connection conn, String sql, List<Integer> ids, Set<Integer> into) throws SQLException {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < ids.size(); i++) {
+                    stmt.setInt(i + 1, ids.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        into.add(rs.getInt(1));
+                    }
+                }
+            }
+        }
+
+        // Assigns the ids generated by the last executed batch, in insertion order, starting at bills[from]
+        private static int readGeneratedIds(PreparedStatement stmt, List<Bill> bills, int from) throws SQLException {
+            int next = from;
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                while (keys.next() && next < bills.size()) {
+                    bills.get(next++).setId(keys.getInt(1));
+                }
+            }
+            return next;
+        }
+
+        /**
+        * Tells whether a stay is billed already, in the caller's transaction: it has a bill of its own,
+        * or it belongs to a group that was billed as a whole, so a folio of its own would bill it twice.
+        * Bills made before bills were kept per stay are linked to their stay by migration 007, not here.
+        *
+        * @param conn the connection of the caller's transaction
+        * @param res the stay
+        * @return true if the stay or its group has a bill
+        * @throws SQLException if the bills cannot be read
+        */
+        static boolean isBilled(Connection conn, Reservation res) throws SQLException {
+            String sql = "SELECT 1 FROM bills WHERE reservation_id = ? OR (group_name = ? AND group_check_in = ?)";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, res.getId());
+                stmt.setString(2, res.getGroupName());   // NULL for a stay outside a group: matches no group bill
+                stmt.setDate(3, res.getCheckIn());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next();
+                }
             }
         }
 
@@ -48,7 +377,7 @@
         * @param services list of Service objects
         * @return a string of service names separated by commas
         */
-        private String convertServicesToString(List<Service> services) {
+        public static String convertServicesToString(List<Service> services) {
             if (services == null || services.isEmpty()) {
                 return "";
             }
@@ -63,13 +392,42 @@
         }
 
         /**
-        * Checks if a bill has already been generated for the given guest.
+        * Retrieves all bills from the database.
         * 
-        * @param guestName the name of the guest
-        * @return true if a bill already exists, false otherwise
+        * @return a list of Bill objects
+        */
+        public List<Bill> getAllBills() {
+            List<Bill> list = new ArrayList<>();
+            String sql = "SELECT * FROM bills";
+            long start = System.nanoTime();
+
+            try (Connection conn = DBConnection.getInstance();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+
+                RowMappers.addRows(rs, RowMappers.BILL, list);
+                GET_ALL_BILLS.rows(list.size());
+
+            } catch (SQLException e) {
+                GET_ALL_BILLS.error();
+                System.out.println("Error fetching bills: " + e.getMessage());
+            } finally {
+                GET_ALL_BILLS.record(start);
+            }
+
+            return list;
+        }
+
+        /**
+        * Retrieves the most recent bill for a guest or group.
+        *
+        * @param guestName the guest or group name the bill was issued to
+        * @return the latest Bill, or null if none has been generated
         */
-        public boolean isBillAlreadyGenerated(String guestName) {
-            String sql = "SELECT COUNT(*) FROM bills WHERE guest_name = ?";
+        public Bill getBillByGuestName(String guestName) {
+            String sql = "SELECT * FROM bills WHERE guest_name = ? ORDER BY id DESC LIMIT 1";
+            long start = System.nanoTime();
+
             try (Connection conn = DBConnection.getInstance();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
 
@@ -77,47 +435,81 @@
                 ResultSet rs = stmt.executeQuery();
 
                 if (rs.next()) {
-                    return rs.getInt(1) > 0;
+                    GET_BILL_BY_GUEST_NAME.rows(1);
+                    return RowMappers.BILL.bind(rs).map(rs);
                 }
+
             } catch (SQLException e) {
-                System.out.println("Error checking if bill already exists: " + e.getMessage());
+                GET_BILL_BY_GUEST_NAME.error();
+                System.out.println("Error fetching bill: " + e.getMessage());
+            } finally {
+                GET_BILL_BY_GUEST_NAME.record(start);
             }
-            return false;
+
+            return null;
         }
 
         /**
-        * Retrieves all bills from the database.
-        * 
-        * @return a list of Bill objects
+        * Retrieves the bill of a stay.
+        *
+        * @param reservationId the reservation ID
+        * @return the Bill, or null if none has been generated
         */
-        public List<Bill> getAllBills() {
-            List<Bill> list = new ArrayList<>();
-            String sql = "SELECT * FROM bills";
+        public Bill getBillForReservation(int reservationId) {
+            String sql = "SELECT * FROM bills WHERE reservation_id = ?";
+            long start = System.nanoTime();
 
             try (Connection conn = DBConnection.getInstance();
-                 Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(sql)) {
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-                while (rs.next()) {
-                    Bill bill = new Bill(
-                            rs.getInt("id"),
-                            rs.getString("guest_name"),
-                            rs.getString("room_type"),
-                            rs.getInt("nights"),
-                            convertStringToServices(rs.getString("services")), // Convert stored string to list of Service objects
-                            rs.getDouble("base_charge"),
-                            rs.getDouble("tax"),
-                            rs.getDouble("discount"),
-                            rs.getDouble("total_amount")
-                    );
-                    list.add(bill);
+                stmt.setInt(1, reservationId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        GET_BILL_FOR_RESERVATION.rows(1);
+                        return RowMappers.BILL.bind(rs).map(rs);
+                    }
                 }
 
             } catch (SQLException e) {
-                System.out.println("Error fetching bills: " + e.getMessage());
+                GET_BILL_FOR_RESERVATION.error();
+                System.out.println("Error fetching bill: " + e.getMessage());
+            } finally {
+                GET_BILL_FOR_RESERVATION.record(start);
             }
 
-            return list;
+            return null;
+        }
+
+        /**
+        * Retrieves the bill of a group, made for the group as a whole.
+        *
+        * @param group the group
+        * @return the Bill, or null if none has been generated
+        */
+        public Bill getBillForGroup(GroupBooking group) {
+            String sql = "SELECT * FROM bills WHERE group_name = ? AND group_check_in = ?";
+            long start = System.nanoTime();
+
+            try (Connection conn = DBConnection.getInstance();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                stmt.setString(1, group.getGroupName());
+                stmt.setDate(2, group.getCheckIn());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        GET_BILL_FOR_GROUP.rows(1);
+                        return RowMappers.BILL.bind(rs).map(rs);
+                    }
+                }
+
+            } catch (SQLException e) {
+                GET_BILL_FOR_GROUP.error();
+                System.out.println("Error fetching bill: " + e.getMessage());
+            } finally {
+                GET_BILL_FOR_GROUP.record(start);
+            }
+
+            return null;
         }
 
         /**
@@ -126,7 +518,7 @@
         * @param services a string of service names separated by commas
         * @return a list of Service objects
         */
-        private List<Service> convertStringToServices(String services) {
+        public static List<Service> convertStringToServices(String services) {
             List<Service> serviceList = new ArrayList<>();
             if (services != null && !services.isEmpty()) {
                 String[] serviceArray = services.split(", ");
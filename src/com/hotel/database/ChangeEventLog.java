@@ -0,0 +1,369 @@
+package com.hotel.database;
+
+import com.hotel.models.ChangeEvent;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The change event log: every DAO write appends typed {@link ChangeEvent}s to the change_events table
+ * in the same transaction as the write, so a change is logged if and only if it commits.
+ *
+ * <pre>
+ * conn.setAutoCommit(false);
+ * ... the INSERT / UPDATE ...
+ * ChangeEventLog.commit(conn, new ChangeEvent(Type.BILL_CREATED, id).with("guestName", name));
+ * </pre>
+ *
+ * Consumers {@link #subscribe} from a sequence number and receive every later event in sequence order on their
+ * own thread. Writes commit concurrently, from this process and others sharing the database, so sequence numbers
+ * do not become visible in order. A subscription delivers the run of events that follows its position without
+ * a gap: from memory if this process committed them, else from the table. A missing sequence number is waited
+ * for, since its transaction may still be committing, and skipped after {@link #GAP_TIMEOUT_MS} as rolled back.
+ * A caught-up subscription polls the table every {@link #IDLE_CHECK_MS} for events of other processes.
+ */
+public class ChangeEventLog {
+
+    private static final int MEMORY_CAPACITY = 10_000;   // Recent events of this process kept for live subscribers
+    private static final int REPLAY_BATCH = 500;
+    static final long IDLE_CHECK_MS = 1_000;             // How often a waiting subscription polls the table
+    static final long GAP_TIMEOUT_MS = 5_000;            // How long a missing sequence number is waited for
+
+    private static final String INSERT_SQL = "INSERT INTO change_events (event_type, entity_id, payload) VALUES (?, ?, ?)";
+    private static final String READ_SQL = "SELECT seq, event_type, entity_id, payload, created_at FROM change_events WHERE seq > ? ORDER BY seq LIMIT ?";
+
+    // Guarded by lock, which is only held for in-memory updates, never across a database call
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final Condition appended = lock.newCondition();
+    private static final TreeMap<Long, ChangeEvent> recent = new TreeMap<>();
+    private static final TreeMap<Long, Integer> inFlight = new TreeMap<>();   // Sequences logged, not yet committed
+
+    // Private constructor to prevent instantiation of this utility class
+    private ChangeEventLog() {
+    }
+
+    /**
+     * Logs the events and commits the transaction they belong to.
+     * On failure the transaction is rolled back and nothing is logged.
+     *
+     * @param conn the connection holding the uncommitted write (auto-commit off)
+     * @param events the changes made by the write
+     * @throws SQLException if the events cannot be written or the commit fails
+     */
+    public static void commit(Connection conn, ChangeEvent... events) throws SQLException {
+        commit(conn, List.of(events));
+    }
+
+    /**
+     * Logs the events and commits the transaction they belong to.
+     *
+     * @param conn the connection holding the uncommitted write (auto-commit off)
+     * @param events the changes made by the write, in order
+     * @throws SQLException if the events cannot be written or the commit fails
+     */
+    public static void commit(Connection conn, List<ChangeEvent> events) throws SQLException {
+        List<ChangeEvent> logged = List.of();
+        try {
+            logged = insert(conn, events);
+            track(logged, 1);
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+            append(logged);
+        } catch (SQLException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw e;
+        } finally {
+            track(logged, -1);
+        }
+    }
+
+    private static List<ChangeEvent> insert(Connection conn, List<ChangeEvent> events) throws SQLException {
+        List<ChangeEvent> logged = new ArrayList<>(events.size());
+        if (events.isEmpty()) return logged;
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (ChangeEvent event : events) {
+                stmt.setString(1, event.getType().name());
+                stmt.setInt(2, event.getEntityId());
+                stmt.setString(3, event.encodeData());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (ChangeEvent event : events) {
+                    if (!keys.next()) {
+                        throw new SQLException("Missing sequence number for change event " + event.getType());
+                    }
+                    logged.add(event.logged(keys.getLong(1), now));
+                }
+            }
+        }
+        return logged;
+    }
+
+    // Counts the first sequence of a commit in (1) or out (-1) of the in-flight set
+    private static void track(List<ChangeEvent> logged, int delta) {
+        if (logged.isEmpty()) return;
+        long first = logged.get(0).getSequence();
+        lock.lock();
+        try {
+            inFlight.merge(first, delta, (a, b) -> a + b == 0 ? null : a + b);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void append(List<ChangeEvent> logged) {
+        if (logged.isEmpty()) return;
+        lock.lock();
+        try {
+            for (ChangeEvent event : logged) {
+                recent.put(event.getSequence(), event);
+            }
+            while (recent.size() > MEMORY_CAPACITY) {
+                recent.pollFirstEntry();
+            }
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a position to subscribe from to receive only new changes: the newest sequence number in the table,
+     * or just before the oldest event this process is still committing, whichever is lower.
+     *
+     * @return the sequence number, or 0 if the log is empty
+     * @throws SQLException if the table cannot be read
+     */
+    public static long getLatestSequence() throws SQLException {
+        long latest;
+        try (Connection conn = DBConnection.getInstance()) {
+            latest = readLatest(conn);
+        }
+        lock.lock();
+        try {
+            return inFlight.isEmpty() ? latest : Math.min(latest, inFlight.firstKey() - 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads logged events from the table.
+     *
+     * @param afterSequence return events after this sequence number
+     * @param limit the maximum number of events
+     * @return the events in sequence order
+     * @throws SQLException if the table cannot be read
+     */
+    public static List<ChangeEvent> read(long afterSequence, int limit) throws SQLException {
+        List<ChangeEvent> events = new ArrayList<>();
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(READ_SQL)) {
+
+            stmt.setLong(1, afterSequence);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.addRows(rs, RowMappers.CHANGE_EVENT, events);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Starts delivering every event after a sequence number to a listener, on a thread of its own.
+     * Pass {@link #getLatestSequence()} to receive only new changes, or a stored position to resume.
+     *
+     * @param name names the delivery thread, e.g. "availability-feed"
+     * @param afterSequence deliver events after this sequence number
+     * @param listener the consumer; exceptions it throws are logged and the event skipped
+     * @return the subscription; close it to stop delivery
+     */
+    public static Subscription subscribe(String name, long afterSequence, ChangeListener listener) {
+        Subscription subscription = new Subscription(name, afterSequence, listener);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * Forgets the in-memory events. Called when {@link DBConnection} switches databases.
+     */
+    static void reset() {
+        lock.lock();
+        try {
+            recent.clear();
+            inFlight.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long readLatest(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), 0) FROM change_events")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Delivery of the log to one listener. Its position is the sequence of the last event delivered.
+     */
+    public static class Subscription implements AutoCloseable {
+
+        private final ChangeListener listener;
+        private final Thread thread;
+        private volatile long position;
+        private volatile boolean closed;
+        private long gapAt = -1;   // The missing sequence number being waited for, if any
+        private long gapSince;
+
+        private Subscription(String name, long afterSequence, ChangeListener listener) {
+            this.listener = listener;
+            this.position = afterSequence;
+            this.thread = new Thread(this::run, "change-events-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * @return the sequence number of the last event delivered
+         */
+        public long getPosition() {
+            return position;
+        }
+
+        /**
+         * Stops delivery. An event being delivered is finished first.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            lock.lock();
+            try {
+                appended.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void run() {
+            while (!closed) {
+                List<ChangeEvent> batch;
+                try {
+                    batch = next();
+                } catch (SQLException e) {
+                    System.out.println("Error reading change events: " + e.getMessage());
+                    pause();
+                    continue;
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                for (ChangeEvent event : batch) {
+                    if (closed) return;
+                    try {
+                        listener.onChange(event);
+                    } catch (RuntimeException e) {
+                        System.out.println("Error in change listener " + thread.getName() + " at " + event + ": " + e.getMessage());
+                    }
+                    position = event.getSequence();
+                }
+            }
+        }
+
+        // The gap-free run of events after the current position: from memory, else from the table
+        private List<ChangeEvent> next() throws SQLException, InterruptedException {
+            long from = position;
+            List<ChangeEvent> batch = fromMemory(from);
+            if (!batch.isEmpty()) return batch;
+
+            List<ChangeEvent> stored = read(from, REPLAY_BATCH);
+            if (!stored.isEmpty()) {
+                long first = stored.get(0).getSequence();
+                if (first == from + 1 || gapExpired(from + 1, stored.get(0))) {
+                    if (first != from + 1) {
+                        System.out.println("Change events " + (from + 1) + " to " + (first - 1) + " never committed; skipped");
+                    }
+                    gapAt = -1;
+                    return contiguous(stored);
+                }
+            }
+
+            // Caught up, or the next event is still committing: wait for this process to log one, or poll again
+            lock.lock();
+            try {
+                if (!closed && !recent.containsKey(from + 1)) {
+                    appended.await(IDLE_CHECK_MS, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                lock.unlock();
+            }
+            return List.of();
+        }
+
+        private List<ChangeEvent> fromMemory(long from) {
+            List<ChangeEvent> batch = new ArrayList<>();
+            lock.lock();
+            try {
+                long expected = from + 1;
+                for (ChangeEvent event : recent.tailMap(from, false).values()) {
+                    if (event.getSequence() != expected || batch.size() == REPLAY_BATCH) break;
+                    batch.add(event);
+                    expected++;
+                }
+            } finally {
+                lock.unlock();
+            }
+            return batch;
+        }
+
+        // The leading events of a table read, up to the first missing sequence number
+        private static List<ChangeEvent> contiguous(List<ChangeEvent> stored) {
+            int end = 1;
+            while (end < stored.size() && stored.get(end).getSequence() == stored.get(end - 1).getSequence() + 1) {
+                end++;
+            }
+            return stored.subList(0, end);
+        }
+
+        // Whether a missing sequence number has been waited for long enough to treat it as rolled back.
+        // It has if the event after it was logged that long ago, so replaying history does not wait at old gaps
+        private boolean gapExpired(long sequence, ChangeEvent after) {
+            Timestamp loggedAt = after.getCreatedAt();
+            if (loggedAt != null && System.currentTimeMillis() - loggedAt.getTime() > GAP_TIMEOUT_MS) {
+                return true;
+            }
+            if (gapAt != sequence) {
+                gapAt = sequence;
+                gapSince = System.nanoTime();
+                return false;
+            }
+            return System.nanoTime() - gapSince > TimeUnit.MILLISECONDS.toNanos(GAP_TIMEOUT_MS);
+        }
+
+        private void pause() {
+            try {
+                Thread.sleep(IDLE_CHECK_MS);
+            } catch (InterruptedException e) {
+                closed = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.hotel.database;
+
+import com.hotel.models.ChangeEvent;
+
+/**
+ * Receives committed changes from {@link ChangeEventLog}, one event at a time and in sequence order.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+
+    /**
+     * Called on the subscription's delivery thread for every change after the subscription's position.
+     *
+     * @param event the committed change
+     */
+    void onChange(ChangeEvent event);
+}
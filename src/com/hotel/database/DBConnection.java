@@ -1,27 +1,134 @@
 package com.hotel.database;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBConnection {
 
-    // Database connection details
-    private static final String URL = "jdbc:mysql://localhost:3306/hotel_db";   // JDBC URL for the hotel database
-    private static final String USER = "root";  // Database username
-    private static final String PASSWORD = "tanishabansal"; // Database password
+    // Settings come from config/database.properties, HOTEL_DB_* environment variables or -Dhotel.db.* properties
+    private static DatabaseConfig config;
+    private static HikariDataSource dataSource;   // Connection pool shared by all DAOs
+    private static volatile QueryMonitor queryMonitor;   // Times every statement, null when disabled
 
-    private static Connection connection;   // Singleton instance of the database connection
+    // MySQL error codes of a duplicate unique key value
+    private static final int MYSQL_DUP_ENTRY = 1062;
+    private static final int MYSQL_DUP_ENTRY_WITH_KEY_NAME = 1586;
 
     // Private constructor to prevent instantiation of this utility class
     private DBConnection() {
         // Prevent instantiation
     }
 
+    /**
+     * Borrows a connection from the pool.
+     * Closing the connection (e.g. in try-with-resources) returns it to the pool.
+     *
+     * @return a pooled connection
+     * @throws SQLException if no connection can be obtained
+     */
     public static Connection getInstance() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        Connection conn = getDataSource().getConnection();
+        QueryMonitor monitor = queryMonitor;
+        return monitor != null ? monitor.wrap(conn) : conn;
+    }
+
+    /**
+     * Replaces the active configuration, closing the current pool.
+     * The next call to getInstance() opens a pool for the new settings.
+     *
+     * @param newConfig the settings to use
+     */
+    public static synchronized void configure(DatabaseConfig newConfig) {
+        shutdown();
+        config = newConfig;
+        ChangeEventLog.reset();   // Sequence numbers belong to the previous database
+    }
+
+    /**
+     * @return the active configuration, loading it on first use
+     */
+    public static synchronized DatabaseConfig getConfig() {
+        if (config == null) {
+            config = DatabaseConfig.load();
+        }
+        return config;
+    }
+
+    /**
+     * @return the statement monitor of the open pool, or null if monitoring is disabled or no pool is open
+     */
+    public static QueryMonitor getQueryMonitor() {
+        return queryMonitor;
+    }
+
+    /**
+     * Tells a unique key violation apart from the other integrity errors (foreign key, NOT NULL, truncation),
+     * which MySQL reports with the same SQL state.
+     *
+     * @param e the error of an INSERT or UPDATE
+     * @return true if the statement failed only because a unique key value is already taken
+     */
+    static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == MYSQL_DUP_ENTRY || e.getErrorCode() == MYSQL_DUP_ENTRY_WITH_KEY_NAME
+                || "23505".equals(e.getSQLState());   // H2 and the SQL standard
+    }
+
+    /**
+     * Closes the pool and all idle connections.
+     */
+    public static synchronized void shutdown() {
+        if (queryMonitor != null) {
+            queryMonitor.stop();
+            queryMonitor = null;
+        }
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+
+    private static synchronized HikariDataSource getDataSource() throws SQLException {
+        if (dataSource == null) {
+            DatabaseConfig cfg = getConfig();
+
+            HikariConfig hikari = new HikariConfig();
+            hikari.setPoolName("hotel-db");
+            hikari.setJdbcUrl(cfg.getUrl());
+            hikari.setUsername(cfg.getUser());
+            hikari.setPassword(cfg.getPassword());
+            hikari.setMaximumPoolSize(cfg.getPoolMaxSize());
+            hikari.setMinimumIdle(cfg.getPoolMinIdle());
+            hikari.setConnectionTimeout(cfg.getConnectionTimeoutMs());
+            hikari.setIdleTimeout(cfg.getIdleTimeoutMs());
+            if (!cfg.getIsolation().isEmpty()) {
+                hikari.setTransactionIsolation(cfg.getIsolation());
+            }
+
+            try {
+                dataSource = new HikariDataSource(hikari);
+            } catch (RuntimeException e) {
+                throw new SQLException("Error opening connection pool: " + e.getMessage(), e);
+            }
+
+            if (cfg.isEmbedded()) {
+                // A fresh in-memory database: create the schema before any DAO touches it
+                try (Connection conn = dataSource.getConnection()) {
+                    EmbeddedDatabase.initialize(conn, cfg);
+                } catch (SQLException | IOException e) {
+                    shutdown();
+                    throw new SQLException("Error initializing embedded database: " + e.getMessage(), e);
+                }
+            }
+
+            if (cfg.isQueryMonitorEnabled()) {
+                queryMonitor = new QueryMonitor(cfg, dataSource);
+                queryMonitor.start();
+            }
         }
-        return connection;
+        return dataSource;
     }
 }
@@ -0,0 +1,165 @@
+package com.hotel.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Connection settings for the hotel database.
+ *
+ * Values are resolved in this order, later sources overriding earlier ones:
+ * <ol>
+ *     <li>built-in defaults (local MySQL, profile {@code mysql})</li>
+ *     <li>a properties file: {@code -Dhotel.db.config}, {@code HOTEL_DB_CONFIG}, or {@code config/database.properties}</li>
+ *     <li>environment variables such as {@code HOTEL_DB_URL} and {@code HOTEL_DB_PASSWORD}</li>
+ *     <li>system properties such as {@code -Dhotel.db.url}</li>
+ * </ol>
+ * Property {@code db.url} maps to {@code HOTEL_DB_URL} and {@code hotel.db.url}, and so on for every key.
+ */
+public class DatabaseConfig {
+
+    public static final String PROFILE_MYSQL = "mysql";
+    public static final String PROFILE_EMBEDDED = "embedded";
+
+    private static final Path DEFAULT_CONFIG_FILE = Paths.get("config", "database.properties");
+
+    private final Properties props;
+
+    private DatabaseConfig(Properties props) {
+        this.props = props;
+    }
+
+    /**
+     * Loads the configuration from defaults, the config file, the environment and system properties.
+     *
+     * @return the resolved configuration
+     */
+    public static DatabaseConfig load() {
+        Properties props = defaults();
+
+        String file = System.getProperty("hotel.db.config", System.getenv("HOTEL_DB_CONFIG"));
+        Path configFile = file != null ? Paths.get(file) : DEFAULT_CONFIG_FILE;
+        if (Files.exists(configFile)) {
+            try (InputStream in = Files.newInputStream(configFile)) {
+                props.load(in);
+            } catch (IOException e) {
+                System.out.println("Error reading database config " + configFile + ": " + e.getMessage());
+            }
+        }
+
+        for (String key : props.stringPropertyNames().toArray(new String[0])) {
+            String env = System.getenv("HOTEL_" + key.toUpperCase().replace('.', '_'));
+            if (env != null) props.setProperty(key, env);
+
+            String sys = System.getProperty("hotel." + key);
+            if (sys != null) props.setProperty(key, sys);
+        }
+
+        return new DatabaseConfig(props);
+    }
+
+    /**
+     * Builds a configuration for a private in-memory embedded database.
+     * Used by benchmarks and load tests that provision their own data.
+     *
+     * @param name the in-memory database name
+     * @return a configuration using the embedded profile
+     */
+    public static DatabaseConfig embedded(String name) {
+        Properties props = defaults();
+        props.setProperty("db.profile", PROFILE_EMBEDDED);
+        props.setProperty("db.embedded.name", name);
+        props.setProperty("db.embedded.seed", "");
+        return new DatabaseConfig(props);
+    }
+
+    /**
+     * Returns a copy of this configuration with one setting changed.
+     *
+     * @param key the property key, e.g. {@code db.pool.maxSize}
+     * @param value the new value
+     * @return the modified copy
+     */
+    public DatabaseConfig with(String key, String value) {
+        Properties copy = new Properties();
+        copy.putAll(props);
+        copy.setProperty(key, value);
+        return new DatabaseConfig(copy);
+    }
+
+    private static Properties defaults() {
+        Properties props = new Properties();
+        props.setProperty("db.profile", PROFILE_MYSQL);
+        props.setProperty("db.url", "jdbc:mysql://localhost:3306/hotel_db?rewriteBatchedStatements=true");
+        props.setProperty("db.user", "root");
+        props.setProperty("db.password", "");
+        props.setProperty("db.pool.maxSize", "10");
+        props.setProperty("db.pool.minIdle", "2");
+        props.setProperty("db.pool.connectionTimeoutMs", "5000");
+        props.setProperty("db.pool.idleTimeoutMs", "600000");
+        props.setProperty("db.pool.isolation", "");
+        props.setProperty("db.embedded.name", "hotel_db");
+        props.setProperty("db.embedded.schema", "SQL/schema1.sql");
+        props.setProperty("db.embedded.migrations", "SQL/migrations");
+        props.setProperty("db.embedded.seed", "SQL/embedded-seed.sql");
+        props.setProperty("db.monitor.enabled", "true");
+        props.setProperty("db.monitor.slowQueryMs", "200");
+        props.setProperty("db.monitor.logParameters", "true");
+        props.setProperty("db.monitor.explainIntervalSec", "300");
+        props.setProperty("db.monitor.explainTopN", "3");
+        return props;
+    }
+
+    /**
+     * @return true when the embedded H2 profile is selected
+     */
+    public boolean isEmbedded() {
+        return PROFILE_EMBEDDED.equalsIgnoreCase(get("db.profile"));
+    }
+
+    /**
+     * Returns the JDBC URL. For the embedded profile this is an in-memory H2 database in MySQL mode.
+     *
+     * @return the JDBC URL
+     */
+    public String getUrl() {
+        if (isEmbedded()) {
+            return "jdbc:h2:mem:" + get("db.embedded.name")
+                    + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        }
+        return get("db.url");
+    }
+
+    public String getUser() { return isEmbedded() ? "sa" : get("db.user"); }
+    public String getPassword() { return isEmbedded() ? "" : get("db.password"); }
+    public int getPoolMaxSize() { return getInt("db.pool.maxSize"); }
+    public int getPoolMinIdle() { return getInt("db.pool.minIdle"); }
+    public long getConnectionTimeoutMs() { return getInt("db.pool.connectionTimeoutMs"); }
+    public long getIdleTimeoutMs() { return getInt("db.pool.idleTimeoutMs"); }
+    public String getIsolation() { return get("db.pool.isolation"); }
+    public String getSchemaFile() { return get("db.embedded.schema"); }
+    public String getMigrationsDir() { return get("db.embedded.migrations"); }
+    public String getSeedFile() { return get("db.embedded.seed"); }
+    public boolean isQueryMonitorEnabled() { return Boolean.parseBoolean(get("db.monitor.enabled").trim()); }
+    public long getSlowQueryMs() { return getInt("db.monitor.slowQueryMs"); }
+    public boolean isLogQueryParameters() { return Boolean.parseBoolean(get("db.monitor.logParameters").trim()); }
+    public long getExplainIntervalSec() { return getInt("db.monitor.explainIntervalSec"); }
+    public int getExplainTopN() { return getInt("db.monitor.explainTopN"); }
+
+    /**
+     * Returns a raw setting.
+     *
+     * @param key the property key
+     * @return the value, or null if unset
+     */
+    public String get(String key) {
+        return props.getProperty(key);
+    }
+
+    private int getInt(String key) {
+        return Integer.parseInt(get(key).trim());
+    }
+}
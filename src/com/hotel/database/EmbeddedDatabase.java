@@ -0,0 +1,105 @@
+package com.hotel.database;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Creates the hotel schema inside an embedded H2 database running in MySQL compatibility mode,
+ * so the application, benchmarks and load tests can run without a MySQL server.
+ *
+ * Runs SQL/schema1.sql, then every script in SQL/migrations in file name order, then an optional seed script.
+ */
+public class EmbeddedDatabase {
+
+    // Prevent instantiation of this utility class
+    private EmbeddedDatabase() {
+    }
+
+    /**
+     * Creates all tables and loads the seed data.
+     *
+     * @param conn a connection to the empty embedded database
+     * @param config the configuration naming the schema, migrations and seed files
+     * @throws SQLException if a statement fails
+     * @throws IOException if a script cannot be read
+     */
+    public static void initialize(Connection conn, DatabaseConfig config) throws SQLException, IOException {
+        runScript(conn, Paths.get(config.getSchemaFile()));
+
+        Path migrations = Paths.get(config.getMigrationsDir());
+        if (Files.isDirectory(migrations)) {
+            try (Stream<Path> files = Files.list(migrations)) {
+                for (Path script : files.filter(p -> p.toString().endsWith(".sql")).sorted().collect(Collectors.toList())) {
+                    runScript(conn, script);
+                }
+            }
+        }
+
+        String seed = config.getSeedFile();
+        if (seed != null && !seed.isEmpty() && Files.exists(Paths.get(seed))) {
+            runScript(conn, Paths.get(seed));
+        }
+    }
+
+    /**
+     * Runs a MySQL script against H2.
+     * The dump relies on FOREIGN_KEY_CHECKS=0 for table order, so statements that reference
+     * tables created later in the file are retried until no further progress is made.
+     */
+    private static void runScript(Connection conn, Path script) throws SQLException, IOException {
+        List<String> pending = new ArrayList<>(List.of(splitStatements(script)));
+
+        try (Statement stmt = conn.createStatement()) {
+            while (!pending.isEmpty()) {
+                List<String> failed = new ArrayList<>();
+                SQLException lastError = null;
+                for (String sql : pending) {
+                    try {
+                        stmt.execute(sql);
+                    } catch (SQLException e) {
+                        failed.add(sql);
+                        lastError = e;
+                    }
+                }
+                if (failed.size() == pending.size()) {
+                    throw new SQLException("Error running " + script + ": " + lastError.getMessage(), lastError);
+                }
+                pending = failed;
+            }
+        }
+    }
+
+    /**
+     * Splits a MySQL script into statements H2 understands:
+     * drops comments, versioned comments, table locks and InnoDB table options.
+     */
+    private static String[] splitStatements(Path script) throws IOException {
+        StringBuilder sql = new StringBuilder();
+        for (String line : Files.readAllLines(script, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--") || trimmed.startsWith("/*!")
+                    || trimmed.startsWith("LOCK TABLES") || trimmed.startsWith("UNLOCK TABLES")) {
+                continue;
+            }
+            if (trimmed.startsWith(") ENGINE=")) {
+                line = ");";
+            }
+            sql.append(line).append('\n');
+        }
+
+        return Stream.of(sql.toString().split(";\\s*\n"))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toArray(String[]::new);
+    }
+}
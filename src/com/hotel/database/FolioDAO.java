@@ -0,0 +1,545 @@
+package com.hotel.database;
+
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
+import com.hotel.models.ChangeEvent;
+import com.hotel.models.DailyRevenue;
+import com.hotel.models.FolioLine;
+import com.hotel.models.Service;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Folio lines, the business date and the daily revenue rollup (see NightAudit).
+ *
+ * Room charges are posted night by night by the audit, one line per stay per business date, so a checkout
+ * only adds up what is already posted instead of pricing the whole stay. Outlets post service charges as they
+ * happen through {@link #postLines} (see FolioPostingService).
+ *
+ * Every posting transaction starts by locking the business_date row, so postings and audits are serialized:
+ * a line always lands on the date that is open when it commits, and the duplicate check sees every earlier posting.
+ * It also locks the stays it posts to, and a checkout prices its folio after locking the stay
+ * (see {@link ReservationDAO#checkOut}), so every accepted line is on the bill of its stay.
+ */
+public class FolioDAO {
+
+    public static final String ROOM_CHARGE = "ROOM";
+
+    private static final int LOOKUP_CHUNK = 500;   // Reservation IDs or posting keys per IN (...) list, rows per INSERT
+
+    // Per-method call, error, row and latency statistics (see MetricsRegistry)
+    private static final LatencyStats GET_BUSINESS_DATE = MetricsRegistry.register("FolioDAO", "getBusinessDate");
+    private static final LatencyStats CLOSE_BUSINESS_DATE = MetricsRegistry.register("FolioDAO", "closeBusinessDate");
+    private static final LatencyStats GET_POSTED_ROOM_CHARGES = MetricsRegistry.register("FolioDAO", "getPostedRoomCharges");
+    private static final LatencyStats GET_DAILY_REVENUE = MetricsRegistry.register("FolioDAO", "getDailyRevenue");
+    private static final LatencyStats POST_LINES = MetricsRegistry.register("FolioDAO", "postLines");
+    private static final LatencyStats GET_BALANCES = MetricsRegistry.register("FolioDAO", "getBalances");
+    private static final LatencyStats GET_POSTED_SERVICES = MetricsRegistry.register("FolioDAO", "getPostedServices");
+
+    /**
+     * What {@link #postLines} did with one line.
+     */
+    public enum PostingOutcome {
+        POSTED,     // The line was added to the folio
+        DUPLICATE,  // A line with the same posting key was posted before; nothing was added
+        REJECTED,   // The stay does not exist or has checked out; nothing was added
+        FAILED      // A database error; nothing in the batch was posted
+    }
+
+    /**
+     * The room charges already posted to a stay's folio.
+     *
+     * @param nights the number of nights posted
+     * @param amount the sum of the posted room charges
+     */
+    public record PostedCharges(int nights, double amount) {
+        public static final PostedCharges NONE = new PostedCharges(0, 0);
+    }
+
+    /**
+     * Retrieves the open business date, the hotel day the next audit closes.
+     *
+     * @return the business date, or null if it cannot be read
+     */
+    public Date getBusinessDate() {
+        String sql = "SELECT business_date FROM business_date WHERE id = 1";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next()) {
+                GET_BUSINESS_DATE.rows(1);
+                return rs.getDate(1);
+            }
+
+        } catch (SQLException e) {
+            GET_BUSINESS_DATE.error();
+            System.out.println("Error fetching business date: " + e.getMessage());
+        } finally {
+            GET_BUSINESS_DATE.record(start);
+        }
+
+        return null;
+    }
+
+    /**
+     * Closes a business date in one transaction: posts one room charge for every stay in house that night
+     * with a single INSERT ... SELECT, rebuilds the day's revenue rollup and moves the business date on a day.
+     * Postings are keyed by stay and date, so a stay is never charged twice for a night.
+     *
+     * @param businessDate the date to close; must be the open business date
+     * @param nightlyRates the nightly rate by room type
+     * @param defaultRate the nightly rate of any other room type
+     * @return the number of room charges posted, or -1 if the date is not open (another audit closed it) or on error
+     */
+    public int closeBusinessDate(Date businessDate, Map<String, Double> nightlyRates, double defaultRate) {
+        String lockSql = "SELECT business_date FROM business_date WHERE id = 1 FOR UPDATE";
+        String rollupDeleteSql = "DELETE FROM revenue_daily WHERE business_date = ?";
+        String rollupSql = "INSERT INTO revenue_daily (business_date, line_type, amount, line_count) "
+                + "SELECT business_date, line_type, SUM(amount), COUNT(*) FROM folio_lines WHERE business_date = ? GROUP BY business_date, line_type";
+        String rollSql = "UPDATE business_date SET business_date = ?, last_audit_at = CURRENT_TIMESTAMP WHERE id = 1 AND business_date = ?";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try {
+                // Serializes audits: a second one waits here and then finds the date already moved on
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(lockSql)) {
+                    if (!rs.next() || !businessDate.equals(rs.getDate(1))) {
+                        conn.rollback();
+                        return -1;
+                    }
+                }
+
+                int posted;
+                try (PreparedStatement stmt = conn.prepareStatement(postRoomChargesSql(nightlyRates.size()))) {
+                    int p = 1;
+                    stmt.setDate(p++, businessDate);
+                    for (Map.Entry<String, Double> rate : nightlyRates.entrySet()) {
+                        stmt.setString(p++, rate.getKey());
+                        stmt.setDouble(p++, rate.getValue());
+                    }
+                    stmt.setDouble(p++, defaultRate);
+                    stmt.setDate(p++, businessDate);
+                    stmt.setDate(p++, businessDate);
+                    stmt.setDate(p, businessDate);
+                    posted = stmt.executeUpdate();
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(rollupDeleteSql)) {
+                    stmt.setDate(1, businessDate);
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(rollupSql)) {
+                    stmt.setDate(1, businessDate);
+                    stmt.executeUpdate();
+                }
+
+                Date next = Date.valueOf(businessDate.toLocalDate().plusDays(1));
+                try (PreparedStatement stmt = conn.prepareStatement(rollSql)) {
+                    stmt.setDate(1, next);
+                    stmt.setDate(2, businessDate);
+                    stmt.executeUpdate();
+                }
+
+                ChangeEventLog.commit(conn, new ChangeEvent(ChangeEvent.Type.BUSINESS_DATE_CLOSED, 1)
+                        .with("businessDate", businessDate)
+                        .with("nextBusinessDate", next)
+                        .with("roomCharges", posted));
+                CLOSE_BUSINESS_DATE.rows(posted);
+                return posted;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+        } catch (SQLException e) {
+            CLOSE_BUSINESS_DATE.error();
+            System.out.println("Error closing business date: " + e.getMessage());
+            return -1;
+        } finally {
+            CLOSE_BUSINESS_DATE.record(start);
+        }
+    }
+
+    // Stays in house on the night of the date: arrived by then, leaving later, not checked out or cancelled.
+    // A night already posted is skipped on its posting key; any other error still fails the audit.
+    private static String postRoomChargesSql(int rateCount) {
+        return "INSERT INTO folio_lines (reservation_id, business_date, line_type, description, amount, posting_key) "
+                + "SELECT r.id, ?, '" + ROOM_CHARGE + "', CONCAT('Room charge ', COALESCE(r.room_number, '')), "
+                + "CASE r.room_type " + String.join(" ", Collections.nCopies(rateCount, "WHEN ? THEN ?")) + " ELSE ? END, "
+                + "CONCAT('" + ROOM_CHARGE + "-', r.id, '-', ?) "
+                + "FROM reservations r WHERE r.check_in <= ? AND r.check_out > ? AND r.checked_out_at IS NULL "
+                + "AND COALESCE(r.payment_status, '') <> 'Cancelled' "
+                + "ON DUPLICATE KEY UPDATE posting_key = posting_key";
+    }
+
+    /**
+     * Retrieves the room charges posted so far to each of the given stays.
+     *
+     * @param reservationIds the stays
+     * @return the posted charges by reservation ID; stays with nothing posted are left out
+     */
+    public Map<Integer, PostedCharges> getPostedRoomCharges(Collection<Integer> reservationIds) {
+        Map<Integer, PostedCharges> posted = new HashMap<>();
+        if (reservationIds.isEmpty()) {
+            return posted;
+        }
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance()) {
+            posted = postedRoomCharges(conn, reservationIds);
+            GET_POSTED_ROOM_CHARGES.rows(posted.size());
+
+        } catch (SQLException e) {
+            GET_POSTED_ROOM_CHARGES.error();
+            System.out.println("Error fetching posted room charges: " + e.getMessage());
+        } finally {
+            GET_POSTED_ROOM_CHARGES.record(start);
+        }
+
+        return posted;
+    }
+
+    /**
+     * Reads the room charges posted to each of the given stays on the caller's connection,
+     * e.g. inside a checkout transaction.
+     *
+     * @param conn the connection
+     * @param reservationIds the stays
+     * @return the posted charges by reservation ID; stays with nothing posted are left out
+     * @throws SQLException if the charges cannot be read
+     */
+    static Map<Integer, PostedCharges> postedRoomCharges(Connection conn, Collection<Integer> reservationIds) throws SQLException {
+        Map<Integer, PostedCharges> posted = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(reservationIds);
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + LOOKUP_CHUNK, ids.size()));
+            String sql = "SELECT reservation_id, COUNT(*), SUM(amount) FROM folio_lines WHERE line_type = ? AND reservation_id IN ("
+                    + placeholders(chunk.size(), "?") + ") GROUP BY reservation_id";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, ROOM_CHARGE);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 2, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        posted.put(rs.getInt(1), new PostedCharges(rs.getInt(2), rs.getDouble(3)));
+                    }
+                }
+            }
+        }
+        return posted;
+    }
+
+    /**
+     * Retrieves the revenue rollup of the closed business dates in a range.
+     *
+     * @param from the first business date, inclusive
+     * @param to the last business date, inclusive
+     * @return one row per date and line type, by date
+     */
+    public List<DailyRevenue> getDailyRevenue(Date from, Date to) {
+        List<DailyRevenue> list = new ArrayList<>();
+        String sql = "SELECT business_date, line_type, amount, line_count FROM revenue_daily "
+                + "WHERE business_date BETWEEN ? AND ? ORDER BY business_date, line_type";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, from);
+            stmt.setDate(2, to);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.addRows(rs, RowMappers.DAILY_REVENUE, list);
+            }
+            GET_DAILY_REVENUE.rows(list.size());
+
+        } catch (SQLException e) {
+            GET_DAILY_REVENUE.error();
+            System.out.println("Error fetching daily revenue: " + e.getMessage());
+        } finally {
+            GET_DAILY_REVENUE.record(start);
+        }
+
+        return list;
+    }
+
+    /**
+     * Posts a batch of folio lines in one transaction, dated to the open business date. A line whose posting key
+     * was already used, or that names a stay that is not open, is skipped; the rest are written with multi-row
+     * INSERTs. Posting the same batch twice adds nothing the second time.
+     *
+     * @param lines the lines to post; on return they carry the business date they were posted on
+     * @return the outcome of each line, in the order given; all FAILED on a database error
+     */
+    public List<PostingOutcome> postLines(List<FolioLine> lines) {
+        List<PostingOutcome> outcomes = new ArrayList<>(Collections.nCopies(lines.size(), PostingOutcome.FAILED));
+        if (lines.isEmpty()) {
+            return outcomes;
+        }
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try {
+                Date businessDate;
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT business_date FROM business_date WHERE id = 1 FOR UPDATE")) {
+                    if (!rs.next()) {
+                        throw new SQLException("No business date");
+                    }
+                    businessDate = rs.getDate(1);
+                }
+
+                Set<Integer> reservationIds = new LinkedHashSet<>();
+                Set<String> keys = new LinkedHashSet<>();
+                for (FolioLine line : lines) {
+                    reservationIds.add(line.getReservationId());
+                    keys.add(line.getPostingKey());
+                }
+                Set<Integer> open = openStays(conn, reservationIds);
+                Set<String> used = usedPostingKeys(conn, keys);
+
+                List<FolioLine> toInsert = new ArrayList<>();
+                for (int i = 0; i < lines.size(); i++) {
+                    FolioLine line = lines.get(i);
+                    line.setBusinessDate(businessDate);
+                    if (!used.add(line.getPostingKey())) {
+                        outcomes.set(i, PostingOutcome.DUPLICATE);   // Posted before, or earlier in this batch
+                    } else if (!open.contains(line.getReservationId())) {
+                        outcomes.set(i, PostingOutcome.REJECTED);
+                    } else {
+                        toInsert.add(line);
+                        outcomes.set(i, PostingOutcome.POSTED);
+                    }
+                }
+
+                for (int from = 0; from < toInsert.size(); from += LOOKUP_CHUNK) {
+                    insertLines(conn, toInsert.subList(from, Math.min(from + LOOKUP_CHUNK, toInsert.size())));
+                }
+
+                // Postings are read on demand, not watched live, so there are no change events to log
+                conn.commit();
+                POST_LINES.rows(toInsert.size());
+                return outcomes;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+        } catch (SQLException e) {
+            POST_LINES.error();
+            System.out.println("Error posting folio lines: " + e.getMessage());
+            Collections.fill(outcomes, PostingOutcome.FAILED);
+            return outcomes;
+        } finally {
+            POST_LINES.record(start);
+        }
+    }
+
+    // The stays among the given ones that exist and have not checked out. The rows are locked until the posting
+    // commits, so a checkout of one of them waits for it and then prices the folio with these lines on it;
+    // a stay checked out first is read as closed and its lines are rejected
+    private static Set<Integer> openStays(Connection conn, Collection<Integer> reservationIds) throws SQLException {
+        Set<Integer> open = new HashSet<>();
+        List<Integer> ids = new ArrayList<>(reservationIds);
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + LOOKUP_CHUNK, ids.size()));
+            String sql = "SELECT id FROM reservations WHERE checked_out_at IS NULL AND id IN (" + placeholders(chunk.size(), "?") + ") FOR UPDATE";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        open.add(rs.getInt(1));
+                    }
+                }
+            }
+        }
+        return open;
+    }
+
+    // The given posting keys that are already on a folio line
+    private static Set<String> usedPostingKeys(Connection conn, Collection<String> postingKeys) throws SQLException {
+        Set<String> used = new HashSet<>();
+        List<String> keys = new ArrayList<>(postingKeys);
+        for (int from = 0; from < keys.size(); from += LOOKUP_CHUNK) {
+            List<String> chunk = keys.subList(from, Math.min(from + LOOKUP_CHUNK, keys.size()));
+            String sql = "SELECT posting_key FROM folio_lines WHERE posting_key IN (" + placeholders(chunk.size(), "?") + ")";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        used.add(rs.getString(1));
+                    }
+                }
+            }
+        }
+        return used;
+    }
+
+    // One multi-row INSERT; the keys were checked under the business date lock, so none is ignored
+    private static void insertLines(Connection conn, List<FolioLine> lines) throws SQLException {
+        String sql = "INSERT INTO folio_lines (reservation_id, business_date, line_type, description, amount, posting_key) VALUES "
+                + placeholders(lines.size(), "(?, ?, ?, ?, ?, ?)");
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            int p = 1;
+            for (FolioLine line : lines) {
+                stmt.setInt(p++, line.getReservationId());
+                stmt.setDate(p++, line.getBusinessDate());
+                stmt.setString(p++, line.getLineType());
+                stmt.setString(p++, line.getDescription());
+                stmt.setDouble(p++, line.getAmount());
+                stmt.setString(p++, line.getPostingKey());
+            }
+            stmt.executeUpdate();
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (FolioLine line : lines) {
+                    if (!keys.next()) break;
+                    line.setId(keys.getLong(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the sum of every line posted to each of the given folios, room and service charges alike.
+     *
+     * @param reservationIds the stays
+     * @return the balance by reservation ID; folios with nothing posted are 0
+     */
+    public Map<Integer, Double> getBalances(Collection<Integer> reservationIds) {
+        Map<Integer, Double> balances = new HashMap<>();
+        if (reservationIds.isEmpty()) {
+            return balances;
+        }
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance()) {
+            List<Integer> ids = new ArrayList<>(reservationIds);
+            for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + LOOKUP_CHUNK, ids.size()));
+                String sql = "SELECT reservation_id, SUM(amount) FROM folio_lines WHERE reservation_id IN ("
+                        + placeholders(chunk.size(), "?") + ") GROUP BY reservation_id";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            balances.put(rs.getInt(1), rs.getDouble(2));
+                        }
+                    }
+                }
+            }
+            for (int id : ids) {
+                balances.putIfAbsent(id, 0.0);
+            }
+            GET_BALANCES.rows(ids.size());
+
+        } catch (SQLException e) {
+            GET_BALANCES.error();
+            System.out.println("Error fetching folio balances: " + e.getMessage());
+            balances.clear();
+        } finally {
+            GET_BALANCES.record(start);
+        }
+
+        return balances;
+    }
+
+    /**
+     * Retrieves the service charges the outlets posted to each of the given stays, as billable services:
+     * one per outlet, named after it and priced at the sum of its charges, so a bill lists a few lines
+     * however many charges there were.
+     *
+     * @param reservationIds the stays
+     * @return the posted services by reservation ID, in the order the outlets first posted; stays with none are left out
+     */
+    public Map<Integer, List<Service>> getPostedServices(Collection<Integer> reservationIds) {
+        Map<Integer, List<Service>> services = new HashMap<>();
+        if (reservationIds.isEmpty()) {
+            return services;
+        }
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance()) {
+            services = postedServices(conn, reservationIds);
+            int rows = 0;
+            for (List<Service> list : services.values()) {
+                rows += list.size();
+            }
+            GET_POSTED_SERVICES.rows(rows);
+
+        } catch (SQLException e) {
+            GET_POSTED_SERVICES.error();
+            System.out.println("Error fetching posted services: " + e.getMessage());
+        } finally {
+            GET_POSTED_SERVICES.record(start);
+        }
+
+        return services;
+    }
+
+    /**
+     * Reads the service charges posted to each of the given stays on the caller's connection, one service
+     * per outlet as in {@link #getPostedServices}, e.g. inside a checkout transaction.
+     *
+     * @param conn the connection
+     * @param reservationIds the stays
+     * @return the posted services by reservation ID; stays with none are left out
+     * @throws SQLException if the charges cannot be read
+     */
+    static Map<Integer, List<Service>> postedServices(Connection conn, Collection<Integer> reservationIds) throws SQLException {
+        Map<Integer, List<Service>> services = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(reservationIds);
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + LOOKUP_CHUNK, ids.size()));
+            String sql = "SELECT reservation_id, line_type, SUM(amount) AS amount FROM folio_lines WHERE line_type <> ? AND reservation_id IN ("
+                    + placeholders(chunk.size(), "?") + ") GROUP BY reservation_id, line_type ORDER BY MIN(id)";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, ROOM_CHARGE);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 2, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        services.computeIfAbsent(rs.getInt("reservation_id"), id -> new ArrayList<>())
+                                .add(new Service(rs.getString("line_type"), rs.getDouble("amount")));
+                    }
+                }
+            }
+        }
+        return services;
+    }
+
+    private static String placeholders(int count, String group) {
+        return String.join(", ", Collections.nCopies(count, group));
+    }
+}
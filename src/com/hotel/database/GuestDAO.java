@@ -0,0 +1,412 @@
+package com.hotel.database;
+
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
+import com.hotel.models.Guest;
+import com.hotel.services.GuestMatcher;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Guests, the people reservations and bills belong to.
+ *
+ * Intake looks for an existing guest with {@link #findMatches} and lets the desk pick one. Bookings that do not
+ * name a guest (the API, CSV imports) go through {@link #resolveGuests}: a new name gets a new guest, and a name
+ * that already belongs to a guest is linked only when the caller confirms it, so a stay is never pinned to the
+ * wrong one of two namesakes.
+ */
+public class GuestDAO {
+
+    private static final int LOOKUP_CHUNK = 500;   // Name keys per IN (...) list, guests per INSERT
+
+    // Per-method call, error, row and latency statistics (see MetricsRegistry)
+    private static final LatencyStats ADD_GUEST = MetricsRegistry.register("GuestDAO", "addGuest");
+    private static final LatencyStats GET_GUEST_BY_ID = MetricsRegistry.register("GuestDAO", "getGuestById");
+    private static final LatencyStats FIND_MATCHES = MetricsRegistry.register("GuestDAO", "findMatches");
+    private static final LatencyStats GET_INDIVIDUAL_GUESTS = MetricsRegistry.register("GuestDAO", "getIndividualGuests");
+    private static final LatencyStats LINK_GUESTS = MetricsRegistry.register("GuestDAO", "linkGuests");
+    private static final LatencyStats RESOLVE_GUESTS = MetricsRegistry.register("GuestDAO", "resolveGuests");
+
+    /**
+     * Adds a new guest, even if guests with the same name exist.
+     *
+     * @param fullName the guest's name
+     * @return the guest with its ID, or null on error
+     */
+    public Guest addGuest(String fullName) {
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance()) {
+            Guest guest = insertGuests(conn, List.of(fullName.trim())).get(0);
+            ADD_GUEST.rows(1);
+            return guest;
+
+        } catch (SQLException e) {
+            ADD_GUEST.error();
+            System.out.println("Error adding guest: " + e.getMessage());
+            return null;
+        } finally {
+            ADD_GUEST.record(start);
+        }
+    }
+
+    /**
+     * Retrieves a guest by ID.
+     *
+     * @param id the guest ID
+     * @return the guest, or null if not found
+     */
+    public Guest getGuestById(int id) {
+        String sql = "SELECT * FROM guests WHERE id = ?";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    GET_GUEST_BY_ID.rows(1);
+                    return RowMappers.GUEST.bind(rs).map(rs);
+                }
+            }
+
+        } catch (SQLException e) {
+            GET_GUEST_BY_ID.error();
+            System.out.println("Error fetching guest by ID: " + e.getMessage());
+        } finally {
+            GET_GUEST_BY_ID.record(start);
+        }
+
+        return null;
+    }
+
+    /**
+     * Finds the guests a name may belong to: same normalized name, or a name that sounds alike.
+     *
+     * @param fullName the name as entered
+     * @return the candidates, exact name matches first
+     */
+    public List<Guest> findMatches(String fullName) {
+        List<Guest> exact = new ArrayList<>();
+        List<Guest> alike = new ArrayList<>();
+        String nameKey = GuestMatcher.nameKey(fullName);
+        if (nameKey.isEmpty()) {
+            return exact;
+        }
+        String sql = "SELECT * FROM guests WHERE name_key = ? UNION SELECT * FROM guests WHERE phonetic_key = ? ORDER BY id";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, nameKey);
+            stmt.setString(2, GuestMatcher.phoneticKey(fullName));
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Guest> mapper = RowMappers.GUEST.bind(rs);
+                while (rs.next()) {
+                    Guest guest = mapper.map(rs);
+                    (nameKey.equals(guest.getNameKey()) ? exact : alike).add(guest);
+                }
+            }
+            exact.addAll(alike);
+            FIND_MATCHES.rows(exact.size());
+
+        } catch (SQLException e) {
+            FIND_MATCHES.error();
+            System.out.println("Error finding guests: " + e.getMessage());
+        } finally {
+            FIND_MATCHES.record(start);
+        }
+
+        return exact;
+    }
+
+    /**
+     * Retrieves the guests with individual (non-group) reservations, e.g. for the billing desk.
+     *
+     * @return the guests, by name
+     */
+    public List<Guest> getIndividualGuests() {
+        List<Guest> guests = new ArrayList<>();
+        String sql = "SELECT * FROM guests g WHERE EXISTS "
+                + "(SELECT 1 FROM reservations r WHERE r.guest_id = g.id AND r.group_name IS NULL) ORDER BY g.full_name, g.id";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            RowMappers.addRows(rs, RowMappers.GUEST, guests);
+            GET_INDIVIDUAL_GUESTS.rows(guests.size());
+
+        } catch (SQLException e) {
+            GET_INDIVIDUAL_GUESTS.error();
+            System.out.println("Error fetching guests: " + e.getMessage());
+        } finally {
+            GET_INDIVIDUAL_GUESTS.record(start);
+        }
+
+        return guests;
+    }
+
+    /**
+     * Links individual reservations and bills that have no guest yet, e.g. written before guests existed
+     * or by tools that insert rows directly. Reservations with the same name become one new guest, as they
+     * were one before; they are never merged into a guest added since. Run at startup; it does nothing once
+     * everything is linked.
+     *
+     * @return the number of reservations linked
+     */
+    public int linkGuests() {
+        String namesSql = "SELECT DISTINCT guest_name FROM reservations WHERE guest_id IS NULL AND group_name IS NULL AND guest_name IS NOT NULL";
+        String reservationsSql = "UPDATE reservations SET guest_id = ? WHERE guest_name = ? AND guest_id IS NULL AND group_name IS NULL";
+        String billsSql = "UPDATE bills SET guest_id = ? WHERE guest_name = ? AND guest_id IS NULL";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance()) {
+            List<String> names = new ArrayList<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(namesSql)) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+            if (names.isEmpty()) {
+                return 0;
+            }
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                Map<String, Integer> guestIds = addGuests(conn, names);
+                int linked = 0;
+                try (PreparedStatement resStmt = conn.prepareStatement(reservationsSql);
+                     PreparedStatement billStmt = conn.prepareStatement(billsSql)) {
+                    for (Map.Entry<String, Integer> guest : guestIds.entrySet()) {
+                        resStmt.setInt(1, guest.getValue());
+                        resStmt.setString(2, guest.getKey());
+                        resStmt.addBatch();
+                        billStmt.setInt(1, guest.getValue());
+                        billStmt.setString(2, guest.getKey());
+                        billStmt.addBatch();
+                    }
+                    for (int rows : resStmt.executeBatch()) {
+                        linked += Math.max(rows, 0);
+                    }
+                    billStmt.executeBatch();
+                }
+                // Only ids were filled in; nothing watching reservations or bills needs to hear about it
+                conn.commit();
+                LINK_GUESTS.rows(linked);
+                return linked;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+        } catch (SQLException e) {
+            LINK_GUESTS.error();
+            System.out.println("Error linking guests: " + e.getMessage());
+            return 0;
+        } finally {
+            LINK_GUESTS.record(start);
+        }
+    }
+
+    /**
+     * Finds or creates the guests of bookings that do not name one, e.g. from the API or a CSV import.
+     * A name no guest has yet gets a new guest. A name that belongs to exactly one guest is linked to that guest
+     * only if the caller confirms it with {@code linkUnique}; a name shared by several guests is never guessed.
+     * Names left unresolved are missing from the result, and their bookings must name the guest.
+     * Runs with the name keys locked, so two bookings for the same new name create one guest between them.
+     *
+     * @param fullNames the names as entered
+     * @param linkUnique whether a name that belongs to exactly one guest is that guest
+     * @return the guest ID by name for the names resolved, or null on error
+     */
+    public Map<String, Integer> resolveGuests(Collection<String> fullNames, boolean linkUnique) {
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                Map<String, Integer> ids = resolveGuestIds(conn, fullNames, linkUnique);
+                conn.commit();
+                RESOLVE_GUESTS.rows(ids.size());
+                return ids;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+        } catch (SQLException e) {
+            RESOLVE_GUESTS.error();
+            System.out.println("Error resolving guests: " + e.getMessage());
+            return null;
+        } finally {
+            RESOLVE_GUESTS.record(start);
+        }
+    }
+
+    // The resolution of resolveGuests, inside the caller's transaction, which holds the name key locks until it ends
+    private static Map<String, Integer> resolveGuestIds(Connection conn, Collection<String> fullNames, boolean linkUnique) throws SQLException {
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        Map<String, List<String>> namesByKey = new LinkedHashMap<>();
+        for (String name : fullNames) {
+            namesByKey.computeIfAbsent(GuestMatcher.nameKey(name), k -> new ArrayList<>()).add(name);
+        }
+        lockNameKeys(conn, namesByKey.keySet());
+
+        // Existing guests by name key; a key held by several guests is ambiguous (-1)
+        Map<String, Integer> guestByKey = new HashMap<>();
+        List<String> keys = new ArrayList<>(namesByKey.keySet());
+        for (int from = 0; from < keys.size(); from += LOOKUP_CHUNK) {
+            List<String> chunk = keys.subList(from, Math.min(from + LOOKUP_CHUNK, keys.size()));
+            String sql = "SELECT name_key, MIN(id), COUNT(*) FROM guests WHERE name_key IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") GROUP BY name_key";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        guestByKey.put(rs.getString(1), rs.getInt(3) == 1 ? rs.getInt(2) : -1);
+                    }
+                }
+            }
+        }
+
+        // One new guest per new key, however many spellings of it the names hold
+        List<String> newNames = new ArrayList<>();
+        Set<String> newKeys = new HashSet<>();
+        for (Map.Entry<String, List<String>> entry : namesByKey.entrySet()) {
+            if (!guestByKey.containsKey(entry.getKey()) && newKeys.add(entry.getKey())) {
+                newNames.add(entry.getValue().get(0).trim());
+            }
+        }
+        for (Guest guest : insertGuests(conn, newNames)) {
+            guestByKey.put(guest.getNameKey(), guest.getId());
+        }
+
+        for (Map.Entry<String, List<String>> entry : namesByKey.entrySet()) {
+            int id = guestByKey.get(entry.getKey());
+            if (newKeys.contains(entry.getKey()) || (linkUnique && id > 0)) {
+                for (String name : entry.getValue()) {
+                    ids.put(name, id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Adds a new guest for each distinct name, inside the caller's transaction, whether or not guests with
+     * the same name exist: for bookings whose desk chose "new guest", and for legacy rows.
+     *
+     * @param conn the connection holding the caller's transaction
+     * @param fullNames the names as entered
+     * @return the new guest's ID by name
+     * @throws SQLException if the guests cannot be written
+     */
+    static Map<String, Integer> addGuests(Connection conn, Collection<String> fullNames) throws SQLException {
+        List<String> names = new ArrayList<>(new LinkedHashSet<>(fullNames));
+        List<String> trimmed = new ArrayList<>(names.size());
+        for (String name : names) {
+            trimmed.add(name.trim());
+        }
+        List<Guest> created = insertGuests(conn, trimmed);
+        Map<String, Integer> ids = new LinkedHashMap<>();
+        for (int i = 0; i < created.size(); i++) {
+            ids.put(names.get(i), created.get(i).getId());
+        }
+        return ids;
+    }
+
+    // Makes sure each name key has its row in guest_name_keys, which locks it (MySQL) until the transaction ends
+    private static void addNameKeys(Connection conn, Collection<String> nameKeys) throws SQLException {
+        List<String> keys = new ArrayList<>(new TreeSet<>(nameKeys));
+        for (int from = 0; from < keys.size(); from += LOOKUP_CHUNK) {
+            List<String> chunk = keys.subList(from, Math.min(from + LOOKUP_CHUNK, keys.size()));
+            String sql = "INSERT INTO guest_name_keys (name_key) VALUES "
+                    + String.join(", ", Collections.nCopies(chunk.size(), "(?)"))
+                    + " ON DUPLICATE KEY UPDATE name_key = name_key";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    // Locks the rows of the name keys, in key order so two resolutions of overlapping names cannot deadlock
+    private static void lockNameKeys(Connection conn, Collection<String> nameKeys) throws SQLException {
+        addNameKeys(conn, nameKeys);
+        List<String> keys = new ArrayList<>(new TreeSet<>(nameKeys));
+        for (int from = 0; from < keys.size(); from += LOOKUP_CHUNK) {
+            List<String> chunk = keys.subList(from, Math.min(from + LOOKUP_CHUNK, keys.size()));
+            String sql = "SELECT name_key FROM guest_name_keys WHERE name_key IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY name_key FOR UPDATE";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                stmt.executeQuery().close();
+            }
+        }
+    }
+
+    // Inserts guests with their match keys, a multi-row INSERT per chunk, and reads back their IDs
+    private static List<Guest> insertGuests(Connection conn, List<String> fullNames) throws SQLException {
+        List<Guest> guests = new ArrayList<>(fullNames.size());
+        Set<String> nameKeys = new HashSet<>();
+        for (String name : fullNames) {
+            nameKeys.add(GuestMatcher.nameKey(name));
+        }
+        addNameKeys(conn, nameKeys);
+        for (int from = 0; from < fullNames.size(); from += LOOKUP_CHUNK) {
+            List<String> chunk = fullNames.subList(from, Math.min(from + LOOKUP_CHUNK, fullNames.size()));
+            String sql = "INSERT INTO guests (full_name, name_key, phonetic_key) VALUES "
+                    + String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?)"));
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                int p = 1;
+                List<Guest> inserted = new ArrayList<>(chunk.size());
+                for (String name : chunk) {
+                    Guest guest = new Guest(0, name, GuestMatcher.nameKey(name), GuestMatcher.phoneticKey(name));
+                    stmt.setString(p++, guest.getFullName());
+                    stmt.setString(p++, guest.getNameKey());
+                    stmt.setString(p++, guest.getPhoneticKey());
+                    inserted.add(guest);
+                }
+                stmt.executeUpdate();
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    for (Guest guest : inserted) {
+                        if (!keys.next()) break;
+                        guest.setId(keys.getInt(1));
+                    }
+                }
+                guests.addAll(inserted);
+            }
+        }
+        return guests;
+    }
+}
@@ -1,113 +1,464 @@
 package com.hotel.database;
 
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
+import com.hotel.models.ChangeEvent;
 import com.hotel.models.HousekeepingTask;
 import com.hotel.models.Room;
+import com.hotel.models.RoomStatus;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class HousekeepingDAO {
 
+    private static final int SCHEDULE_CHUNK = 5_000;   // Tasks per INSERT statement; a property's whole board fits in one
+
+    // Per-method call, error, row and latency statistics (see MetricsRegistry)
+    private static final LatencyStats IS_ROOM_ELIGIBLE_FOR_CLEANING = MetricsRegistry.register("HousekeepingDAO", "isRoomEligibleForCleaning");
+    private static final LatencyStats ADD_TASK = MetricsRegistry.register("HousekeepingDAO", "addTask");
+    private static final LatencyStats UPDATE_STATUS = MetricsRegistry.register("HousekeepingDAO", "updateStatus");
+    private static final LatencyStats GET_ALL_TASKS = MetricsRegistry.register("HousekeepingDAO", "getAllTasks");
+    private static final LatencyStats GET_TASK_BY_ID = MetricsRegistry.register("HousekeepingDAO", "getTaskById");
+    private static final LatencyStats SCHEDULE_TASKS = MetricsRegistry.register("HousekeepingDAO", "scheduleTasks");
+    private static final LatencyStats GET_DEPARTURE_ROOMS = MetricsRegistry.register("HousekeepingDAO", "getDepartureRooms");
+    private static final LatencyStats GET_ROOMS_AWAITING_CLEANING = MetricsRegistry.register("HousekeepingDAO", "getRoomsAwaitingCleaning");
+    private static final LatencyStats GET_OPEN_TASK_COUNTS = MetricsRegistry.register("HousekeepingDAO", "getOpenTaskCounts");
+
     /**
      * Checks if a room is eligible for housekeeping tasks based on its status.
-     * Eligible statuses: Available, Maintenance, or Cleaning.
+     * Eligible statuses: Available, Maintenance, or Cleaning (see RoomStatus.isCleanable).
      *
      * @param roomId the ID of the room to check
      * @return true if the room is eligible, false otherwise
      */
     public boolean isRoomEligibleForCleaning(int roomId) {
-        String sql = "SELECT status FROM rooms WHERE id = ?";
+        String sql = "SELECT state FROM rooms WHERE id = ?";
+        long start = System.nanoTime();
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, roomId);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                String status = rs.getString("status");
-                return status.equalsIgnoreCase("Available")
-                        || status.equalsIgnoreCase("Maintenance")
-                        || status.equalsIgnoreCase("Cleaning");
+                RoomStatus status = RoomStatus.fromCode(rs.getInt("state"));
+                return status != null && status.isCleanable();
             }
         } catch (SQLException e) {
+            IS_ROOM_ELIGIBLE_FOR_CLEANING.error();
             System.out.println("Error checking room status: " + e.getMessage());
+        } finally {
+            IS_ROOM_ELIGIBLE_FOR_CLEANING.record(start);
         }
         return false;
     }
 
     /**
      * Adds a new housekeeping task to the database.
-     * Checks for duplicate tasks before insertion.
+     * A room can have only one open task; the unique key on open tasks turns a duplicate into a no-op insert.
      *
      * @param task the housekeeping task to add
-     * @return true if the task was successfully added, false otherwise
+     * @return true if the task was successfully added, false if the room already has an open task or on error
      */
     public boolean addTask(HousekeepingTask task) {
-        String checkSql = "SELECT COUNT(*) FROM housekeeping_tasks WHERE room_id = ? AND assigned_to = ? AND status = ?";
-        String insertSql = "INSERT INTO housekeeping_tasks (room_id, assigned_to, status, scheduled_date) VALUES (?, ?, ?, ?)";
-
-        try (Connection conn = DBConnection.getInstance();
-             PreparedStatement checkStmt = conn.prepareStatement(checkSql);
-             PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
+        long start = System.nanoTime();
 
-            // Check for duplicate tasks
-            checkStmt.setInt(1, task.getRoomId());
-            checkStmt.setString(2, task.getAssignedTo());
-            checkStmt.setString(3, task.getStatus());
+        try (Connection conn = DBConnection.getInstance()) {
 
-            ResultSet rs = checkStmt.executeQuery();
-            if (rs.next() && rs.getInt(1) > 0) {
+            conn.setAutoCommit(false);
+            ChangeEvent added = insertTask(conn, task);
+            ADD_TASK.rows(added != null ? 1 : 0);
+            if (added == null) {
                 System.out.println("⚠️ Duplicate housekeeping task detected.");
+                conn.rollback();
                 return false;
             }
+            ChangeEventLog.commit(conn, added);
+            return true;
 
-            // Insert new housekeeping task
+        } catch (SQLException e) {
+            ADD_TASK.error();
+            System.out.println("Error adding housekeeping task: " + e.getMessage());
+            return false;
+        } finally {
+            ADD_TASK.record(start);
+        }
+    }
+
+    /**
+     * Inserts a task in the caller's transaction and sets its ID, unless the room already has an open task.
+     *
+     * @param conn the connection of the caller's transaction
+     * @param task the task to insert
+     * @return the change event to log with the transaction, or null if the room already has an open task
+     * @throws SQLException if the insert fails
+     */
+    static ChangeEvent insertTask(Connection conn, HousekeepingTask task) throws SQLException {
+        String insertSql = "INSERT INTO housekeeping_tasks (room_id, assigned_to, status, scheduled_date) VALUES (?, ?, ?, ?)";
+
+        try (PreparedStatement insertStmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
             insertStmt.setInt(1, task.getRoomId());
             insertStmt.setString(2, task.getAssignedTo());
             insertStmt.setString(3, task.getStatus());
             insertStmt.setDate(4, task.getScheduledDate());
 
-            return insertStmt.executeUpdate() > 0;
+            try {
+                insertStmt.executeUpdate();
+            } catch (SQLException e) {
+                // Only the open-task key makes this a no-op; any other error fails the caller's transaction
+                if (DBConnection.isDuplicateKey(e)) {
+                    return null;
+                }
+                throw e;
+            }
+            try (ResultSet keys = insertStmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    task.setId(keys.getInt(1));
+                }
+            }
+            return taskAdded(task);
+        }
+    }
+
+    /**
+     * What {@link #scheduleTasks} did with one task.
+     */
+    public enum ScheduleOutcome {
+        SCHEDULED,  // The task was created and has its ID
+        CONFLICT    // The room already has an open task (or another task for it came first); nothing was created
+    }
+
+    /**
+     * Creates open tasks for a whole list of rooms, e.g. the morning board for every departure.
+     *
+     * One read finds the rooms that already have an open task; the rest are written by one multi-row
+     * INSERT per {@value #SCHEDULE_CHUNK} tasks, in a single transaction. The unique key on open tasks
+     * makes the insert safe against another desk scheduling the same room at the same time: the insert fails
+     * on the duplicate, the rooms claimed meanwhile are read again and reported as conflicts, and the rest
+     * of the chunk is sent again. A task is only SCHEDULED with the ID generated for its own row.
+     *
+     * @param tasks open tasks (Pending / In Progress) to create; their IDs are set when scheduled
+     * @return the outcome of each task, in the order given; all CONFLICT on a database error
+     */
+    public List<ScheduleOutcome> scheduleTasks(List<HousekeepingTask> tasks) {
+        List<ScheduleOutcome> outcomes = new ArrayList<>(Collections.nCopies(tasks.size(), ScheduleOutcome.CONFLICT));
+        if (tasks.isEmpty()) {
+            return outcomes;
+        }
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try {
+                // Rooms with an open task, and repeats within the list, conflict without being sent
+                Set<Integer> claimed = openTaskRooms(conn, tasks);
+                List<Integer> toInsert = new ArrayList<>();
+                for (int i = 0; i < tasks.size(); i++) {
+                    if (claimed.add(tasks.get(i).getRoomId())) {
+                        toInsert.add(i);
+                    }
+                }
+
+                int inserted = 0;
+                for (int from = 0; from < toInsert.size(); from += SCHEDULE_CHUNK) {
+                    List<Integer> chunk = toInsert.subList(from, Math.min(from + SCHEDULE_CHUNK, toInsert.size()));
+                    inserted += insertChunk(conn, tasks, chunk, outcomes);
+                }
+
+                List<ChangeEvent> events = new ArrayList<>(inserted);
+                for (int i : toInsert) {
+                    if (outcomes.get(i) == ScheduleOutcome.SCHEDULED) {
+                        events.add(taskAdded(tasks.get(i)));
+                    }
+                }
+                ChangeEventLog.commit(conn, events);
+                SCHEDULE_TASKS.rows(inserted);
+                return outcomes;
+
+            } catch (SQLException e) {
+                SCHEDULE_TASKS.error();
+                conn.rollback();
+                System.out.println("Error scheduling housekeeping tasks: " + e.getMessage());
+                Collections.fill(outcomes, ScheduleOutcome.CONFLICT);
+                return outcomes;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
 
         } catch (SQLException e) {
-            System.out.println("Error adding housekeeping task: " + e.getMessage());
-            return false;
+            SCHEDULE_TASKS.error();
+            System.out.println("Error scheduling housekeeping tasks: " + e.getMessage());
+            return outcomes;
+        } finally {
+            SCHEDULE_TASKS.record(start);
+        }
+    }
+
+    // The rooms of the given tasks that already have an open task
+    private static Set<Integer> openTaskRooms(Connection conn, List<HousekeepingTask> tasks) throws SQLException {
+        return openTaskRooms(conn, tasks, "");
+    }
+
+    // Like openTaskRooms, but a locking read: it sees tasks committed after this transaction's first read
+    private static Set<Integer> lockOpenTaskRooms(Connection conn, List<HousekeepingTask> tasks) throws SQLException {
+        return openTaskRooms(conn, tasks, " FOR UPDATE");
+    }
+
+    private static Set<Integer> openTaskRooms(Connection conn, List<HousekeepingTask> tasks, String lockClause) throws SQLException {
+        Set<Integer> roomIds = new LinkedHashSet<>();
+        for (HousekeepingTask task : tasks) {
+            roomIds.add(task.getRoomId());
+        }
+
+        Set<Integer> open = new HashSet<>();
+        List<Integer> ids = new ArrayList<>(roomIds);
+        for (int from = 0; from < ids.size(); from += SCHEDULE_CHUNK) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + SCHEDULE_CHUNK, ids.size()));
+            String sql = "SELECT room_id FROM housekeeping_tasks WHERE open_room_id IN (" + placeholders(chunk.size(), "?") + ")" + lockClause;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        open.add(rs.getInt(1));
+                    }
+                }
+            }
+        }
+        return open;
+    }
+
+    // Inserts a chunk of tasks with one multi-row INSERT and marks the rows written; returns how many were.
+    // If another writer claimed some of the rooms since the check, those conflict and the rest are sent again
+    private static int insertChunk(Connection conn, List<HousekeepingTask> tasks, List<Integer> chunk,
+                                   List<ScheduleOutcome> outcomes) throws SQLException {
+        List<Integer> pending = new ArrayList<>(chunk);
+        while (!pending.isEmpty()) {
+            try {
+                return insertRows(conn, tasks, pending, outcomes);
+            } catch (SQLException e) {
+                if (!DBConnection.isDuplicateKey(e)) {
+                    throw e;
+                }
+                // The failed statement wrote nothing; its losing rooms now have a committed open task
+                List<HousekeepingTask> sent = new ArrayList<>(pending.size());
+                for (int i : pending) {
+                    sent.add(tasks.get(i));
+                }
+                Set<Integer> claimed = lockOpenTaskRooms(conn, sent);
+                if (!pending.removeIf(i -> claimed.contains(tasks.get(i).getRoomId()))) {
+                    throw e;   // Not a room we can see as claimed; do not retry forever
+                }
+            }
+        }
+        return 0;
+    }
+
+    // One multi-row INSERT; the keys come back in row order
+    private static int insertRows(Connection conn, List<HousekeepingTask> tasks, List<Integer> rows,
+                                  List<ScheduleOutcome> outcomes) throws SQLException {
+        String sql = "INSERT INTO housekeeping_tasks (room_id, assigned_to, status, scheduled_date) VALUES "
+                + placeholders(rows.size(), "(?, ?, ?, ?)");
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            int p = 1;
+            for (int i : rows) {
+                HousekeepingTask task = tasks.get(i);
+                stmt.setInt(p++, task.getRoomId());
+                stmt.setString(p++, task.getAssignedTo());
+                stmt.setString(p++, task.getStatus());
+                stmt.setDate(p++, task.getScheduledDate());
+            }
+            int inserted = stmt.executeUpdate();
+
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (int i : rows) {
+                    if (!keys.next()) {
+                        throw new SQLException("Missing ID for housekeeping task of room " + tasks.get(i).getRoomId());
+                    }
+                    tasks.get(i).setId(keys.getInt(1));
+                    outcomes.set(i, ScheduleOutcome.SCHEDULED);
+                }
+            }
+            return inserted;
         }
     }
 
+    private static String placeholders(int count, String group) {
+        return String.join(", ", Collections.nCopies(count, group));
+    }
+
+    // The values consumers need to show a new task without reading it back
+    private static ChangeEvent taskAdded(HousekeepingTask task) {
+        return new ChangeEvent(ChangeEvent.Type.HOUSEKEEPING_TASK_ADDED, task.getId())
+                .with("roomId", task.getRoomId())
+                .with("assignedTo", task.getAssignedTo())
+                .with("status", task.getStatus())
+                .with("scheduledDate", task.getScheduledDate());
+    }
+
+    /**
+     * Retrieves the rooms waiting to be cleaned: rooms in Cleaning status with no open task.
+     *
+     * @return the rooms, in no particular order
+     */
+    public List<Room> getRoomsAwaitingCleaning() {
+        List<Room> rooms = new ArrayList<>();
+        String sql = "SELECT r.id, r.room_number, r.type, r.status FROM rooms r WHERE r.state = " + RoomStatus.CLEANING.getCode()
+                + " AND NOT EXISTS (SELECT 1 FROM housekeeping_tasks t WHERE t.room_id = r.id AND t.status <> 'Completed')";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            RowMappers.addRows(rs, RowMappers.ROOM, rooms);
+            GET_ROOMS_AWAITING_CLEANING.rows(rooms.size());
+
+        } catch (SQLException e) {
+            GET_ROOMS_AWAITING_CLEANING.error();
+            System.out.println("Error fetching rooms awaiting cleaning: " + e.getMessage());
+        } finally {
+            GET_ROOMS_AWAITING_CLEANING.record(start);
+        }
+        return rooms;
+    }
+
+    /**
+     * Retrieves the rooms of the reservations checking out on a date, for the morning housekeeping board.
+     *
+     * @param date the departure date
+     * @return the departing rooms
+     */
+    public List<Room> getDepartureRooms(Date date) {
+        List<Room> rooms = new ArrayList<>();
+        String sql = "SELECT DISTINCT r.id, r.room_number, r.type, r.status FROM reservations res "
+                + "JOIN rooms r ON r.room_number = res.room_number WHERE res.check_out = ?";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, date);
+            ResultSet rs = stmt.executeQuery();
+            RowMappers.addRows(rs, RowMappers.ROOM, rooms);
+            GET_DEPARTURE_ROOMS.rows(rooms.size());
+
+        } catch (SQLException e) {
+            GET_DEPARTURE_ROOMS.error();
+            System.out.println("Error fetching departure rooms: " + e.getMessage());
+        } finally {
+            GET_DEPARTURE_ROOMS.record(start);
+        }
+        return rooms;
+    }
+
+    /**
+     * Counts the tasks each staff member has not completed yet.
+     *
+     * @return open task count by assigned staff member
+     */
+    public Map<String, Integer> getOpenTaskCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        String sql = "SELECT assigned_to, COUNT(*) FROM housekeeping_tasks WHERE status <> 'Completed' GROUP BY assigned_to";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getInt(2));
+            }
+            GET_OPEN_TASK_COUNTS.rows(counts.size());
+
+        } catch (SQLException e) {
+            GET_OPEN_TASK_COUNTS.error();
+            System.out.println("Error counting open tasks: " + e.getMessage());
+        } finally {
+            GET_OPEN_TASK_COUNTS.record(start);
+        }
+        return counts;
+    }
+
     /**
      * Updates the status of a housekeeping task.
-     * If the task is completed, updates the corresponding room status to 'Ready'.
+     * If the task is completed, updates the corresponding room status to 'Ready' where that transition is allowed.
      *
      * @param taskId    the ID of the task to update
      * @param newStatus the new status to set
      * @return true if the update was successful, false otherwise
      */
     public boolean updateStatus(int taskId, String newStatus) {
+        String roomSql = "SELECT room_id FROM housekeeping_tasks WHERE id = ?";
         String sql = "UPDATE housekeeping_tasks SET status = ? WHERE id = ?";
-        String roomStatusUpdateSql = "UPDATE rooms SET status = 'Ready' WHERE id = (SELECT room_id FROM housekeeping_tasks WHERE id = ?)";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             PreparedStatement roomStmt = conn.prepareStatement(roomStatusUpdateSql)) {
+             PreparedStatement roomIdStmt = conn.prepareStatement(roomSql);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            conn.setAutoCommit(false);
+
+            // The room is needed for the change events as well as the room update
+            roomIdStmt.setInt(1, taskId);
+            int roomId;
+            try (ResultSet rs = roomIdStmt.executeQuery()) {
+                if (!rs.next()) {
+                    UPDATE_STATUS.rows(0);
+                    return false;
+                }
+                roomId = rs.getInt(1);
+            }
 
             // Update task status
             stmt.setString(1, newStatus);
             stmt.setInt(2, taskId);
             int updated = stmt.executeUpdate();
+            UPDATE_STATUS.rows(updated);
+            if (updated == 0) {
+                return false;
+            }
+
+            List<ChangeEvent> events = new ArrayList<>();
+            events.add(new ChangeEvent(ChangeEvent.Type.HOUSEKEEPING_STATUS_CHANGED, taskId)
+                    .with("roomId", roomId)
+                    .with("status", newStatus));
 
             // If task completed, update room status
-            if (updated > 0 && newStatus.equalsIgnoreCase("Completed")) {
-                roomStmt.setInt(1, taskId); // Update room to 'Ready'
-                roomStmt.executeUpdate();
-                System.out.println("✅ Task completed. Room status set to Ready.");
+            boolean completed = newStatus.equalsIgnoreCase("Completed");
+            boolean ready = false;
+            if (completed) {
+                // Update room to 'Ready'; an occupied room stays occupied
+                ready = RoomDAO.transition(conn, roomId, RoomStatus.READY) > 0;
+                if (ready) {
+                    events.add(RoomDAO.roomStatusChanged(roomId, RoomStatus.READY.getLabel()));
+                }
             }
 
-            return updated > 0;
+            ChangeEventLog.commit(conn, events);
+            if (ready) {
+                System.out.println("✅ Task completed. Room status set to Ready.");
+            } else if (completed) {
+                System.out.println("✅ Task completed. Room status left unchanged.");
+            }
+            return true;
 
         } catch (SQLException e) {
+            UPDATE_STATUS.error();
             System.out.println("Error updating task: " + e.getMessage());
             return false;
+        } finally {
+            UPDATE_STATUS.record(start);
         }
     }
 
@@ -119,24 +470,20 @@ public class HousekeepingDAO {
     public List<HousekeepingTask> getAllTasks() {
         List<HousekeepingTask> list = new ArrayList<>();
         String sql = "SELECT * FROM housekeeping_tasks";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                HousekeepingTask task = new HousekeepingTask(
-                        rs.getInt("id"),
-                        rs.getInt("room_id"),
-                        rs.getString("assigned_to"),
-                        rs.getString("status"),
-                        rs.getDate("scheduled_date")
-                );
-                list.add(task);
-            }
+            RowMappers.addRows(rs, RowMappers.HOUSEKEEPING_TASK, list);
+            GET_ALL_TASKS.rows(list.size());
 
         } catch (SQLException e) {
+            GET_ALL_TASKS.error();
             System.out.println("Error fetching tasks: " + e.getMessage());
+        } finally {
+            GET_ALL_TASKS.record(start);
         }
 
         return list;
@@ -150,6 +497,7 @@ public class HousekeepingDAO {
      */
     public HousekeepingTask getTaskById(int taskId) {
         String sql = "SELECT * FROM housekeeping_tasks WHERE id = ?";
+        long start = System.nanoTime();
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
@@ -157,17 +505,15 @@ public class HousekeepingDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return new HousekeepingTask(
-                        rs.getInt("id"),
-                        rs.getInt("room_id"),
-                        rs.getString("assigned_to"),
-                        rs.getString("status"),
-                        rs.getDate("scheduled_date")
-                );
+                GET_TASK_BY_ID.rows(1);
+                return RowMappers.HOUSEKEEPING_TASK.bind(rs).map(rs);
             }
 
         } catch (SQLException e) {
+            GET_TASK_BY_ID.error();
             System.out.println("Error fetching task by ID: " + e.getMessage());
+        } finally {
+            GET_TASK_BY_ID.record(start);
         }
         return null;
     }
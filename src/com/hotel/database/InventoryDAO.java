@@ -1,5 +1,9 @@
 package com.hotel.database;
 
+import com.hotel.jfr.InventoryUsageEvent;
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
+import com.hotel.models.ChangeEvent;
 import com.hotel.models.InventoryItem;
 
 import java.sql.*;
@@ -8,6 +12,15 @@ import java.util.List;
 
 public class InventoryDAO {
 
+    // Per-method call, error, row and latency statistics (see MetricsRegistry)
+    private static final LatencyStats ADD_ITEM = MetricsRegistry.register("InventoryDAO", "addItem");
+    private static final LatencyStats GET_ALL_ITEMS = MetricsRegistry.register("InventoryDAO", "getAllItems");
+    private static final LatencyStats UPDATE_QUANTITY = MetricsRegistry.register("InventoryDAO", "updateQuantity");
+    private static final LatencyStats ITEM_EXISTS = MetricsRegistry.register("InventoryDAO", "itemExists");
+    private static final LatencyStats IS_STOCK_SUFFICIENT = MetricsRegistry.register("InventoryDAO", "isStockSufficient");
+    private static final LatencyStats GENERATE_USAGE_REPORT = MetricsRegistry.register("InventoryDAO", "generateUsageReport");
+    private static final LatencyStats LOG_USAGE = MetricsRegistry.register("InventoryDAO", "logUsage");
+
     /**
      * Adds a new inventory item to the database.
      *
@@ -16,19 +29,39 @@ public class InventoryDAO {
      */
     public boolean addItem(InventoryItem item) {
         String sql = "INSERT INTO inventory_items (item_name, quantity, threshold, department) VALUES (?, ?, ?, ?)";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
+            conn.setAutoCommit(false);
             stmt.setString(1, item.getItemName());
             stmt.setInt(2, item.getQuantity());
             stmt.setInt(3, item.getThreshold());
             stmt.setString(4, item.getDepartment()); 
-            return stmt.executeUpdate() > 0;
+            int rows = stmt.executeUpdate();
+            if (rows == 0) {
+                return false;
+            }
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    item.setId(keys.getInt(1));
+                }
+            }
+            ChangeEventLog.commit(conn, new ChangeEvent(ChangeEvent.Type.INVENTORY_ITEM_ADDED, item.getId())
+                    .with("itemName", item.getItemName())
+                    .with("quantity", item.getQuantity())
+                    .with("threshold", item.getThreshold())
+                    .with("department", item.getDepartment()));
+            ADD_ITEM.rows(rows);
+            return true;
 
         } catch (SQLException e) {
+            ADD_ITEM.error();
             System.out.println("Error adding inventory item: " + e.getMessage());
             return false;
+        } finally {
+            ADD_ITEM.record(start);
         }
     }
 
@@ -40,24 +73,20 @@ public class InventoryDAO {
     public List<InventoryItem> getAllItems() {
         List<InventoryItem> list = new ArrayList<>();
         String sql = "SELECT * FROM inventory_items";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                InventoryItem item = new InventoryItem(
-                        rs.getInt("id"),
-                        rs.getString("item_name"),
-                        rs.getInt("quantity"),
-                        rs.getInt("threshold"),
-                        rs.getString("department")
-                );
-                list.add(item);
-            }
+            RowMappers.addRows(rs, RowMappers.INVENTORY_ITEM, list);
+            GET_ALL_ITEMS.rows(list.size());
 
         } catch (SQLException e) {
+            GET_ALL_ITEMS.error();
             System.out.println("Error loading inventory items: " + e.getMessage());
+        } finally {
+            GET_ALL_ITEMS.record(start);
         }
 
         return list;
@@ -70,15 +99,25 @@ public class InventoryDAO {
      * @param newQuantity the new quantity to set
      */
     public void updateQuantity(int id, int newQuantity) {
+        long start = System.nanoTime();
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(
                      "UPDATE inventory_items SET quantity = ? WHERE id = ?")) {
 
+            conn.setAutoCommit(false);
             stmt.setInt(1, newQuantity);
             stmt.setInt(2, id);
-            stmt.executeUpdate();
+            int rows = stmt.executeUpdate();
+            if (rows > 0) {
+                ChangeEventLog.commit(conn, new ChangeEvent(ChangeEvent.Type.INVENTORY_QUANTITY_CHANGED, id)
+                        .with("quantity", newQuantity));
+            }
+            UPDATE_QUANTITY.rows(rows);
         } catch (Exception e) {
+            UPDATE_QUANTITY.error();
             e.printStackTrace();
+        } finally {
+            UPDATE_QUANTITY.record(start);
         }
     }
 
@@ -89,6 +128,7 @@ public class InventoryDAO {
      * @return true if the item exists, false otherwise
      */
     public boolean itemExists(String itemName) {
+        long start = System.nanoTime();
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(
                      "SELECT id FROM inventory_items WHERE LOWER(item_name) = ?")) {
@@ -97,8 +137,11 @@ public class InventoryDAO {
             ResultSet rs = stmt.executeQuery();
             return rs.next();
         } catch (Exception e) {
+            ITEM_EXISTS.error();
             e.printStackTrace();
             return false;
+        } finally {
+            ITEM_EXISTS.record(start);
         }
     }
 
@@ -111,6 +154,7 @@ public class InventoryDAO {
      */
     public boolean isStockSufficient(String itemName, int requiredQuantity) {
         String sql = "SELECT quantity FROM inventory_items WHERE item_name = ?";
+        long start = System.nanoTime();
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
@@ -121,7 +165,10 @@ public class InventoryDAO {
                 return availableQuantity >= requiredQuantity;
             }
         } catch (SQLException e) {
+            IS_STOCK_SUFFICIENT.error();
             e.printStackTrace();
+        } finally {
+            IS_STOCK_SUFFICIENT.record(start);
         }
         return false;
     }
@@ -135,6 +182,7 @@ public class InventoryDAO {
     public List<String> generateUsageReport() {
         List<String> report = new ArrayList<>();
         String sql = "SELECT item_name, SUM(quantity) AS total_usage FROM usage_log GROUP BY item_name";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              Statement stmt = conn.createStatement();
@@ -145,9 +193,13 @@ public class InventoryDAO {
                 int totalUsage = rs.getInt("total_usage");
                 report.add(itemName + ": " + totalUsage);
             }
+            GENERATE_USAGE_REPORT.rows(report.size());
 
         } catch (SQLException e) {
+            GENERATE_USAGE_REPORT.error();
             System.out.println("Error generating usage report: " + e.getMessage());
+        } finally {
+            GENERATE_USAGE_REPORT.record(start);
         }
 
         return report;
@@ -167,16 +219,27 @@ public class InventoryDAO {
     public boolean logUsage(String itemName, int quantityUsed) {
         String logSql = "INSERT INTO usage_log (item_name, quantity, usage_date) VALUES (?, ?, CURDATE())";
         String updateSql = "UPDATE inventory_items SET quantity = quantity - ? WHERE item_name = ?";
-        String checkStockSql = "SELECT quantity FROM inventory_items WHERE item_name = ?";
+        // Locks the item row, so two concurrent usages cannot both pass the stock check
+        String checkStockSql = "SELECT id, quantity FROM inventory_items WHERE item_name = ? FOR UPDATE";
+        long start = System.nanoTime();
+        InventoryUsageEvent event = new InventoryUsageEvent();
+        event.begin();
+        event.itemName = itemName;
+        event.quantity = quantityUsed;
 
         try (Connection conn = DBConnection.getInstance()) {
 
+            conn.setAutoCommit(false);
+            int itemId;
+            int currentStock;
+
             // Step 1: Check if stock is sufficient
             try (PreparedStatement checkStmt = conn.prepareStatement(checkStockSql)) {
                 checkStmt.setString(1, itemName);
                 ResultSet rs = checkStmt.executeQuery();
                 if (rs.next()) {
-                    int currentStock = rs.getInt("quantity");
+                    itemId = rs.getInt("id");
+                    currentStock = rs.getInt("quantity");
                     if (currentStock < quantityUsed) {
                         System.out.println("Not enough stock to log usage.");
                         return false;
@@ -201,11 +264,21 @@ public class InventoryDAO {
                 updateStmt.executeUpdate();
             }
 
+            ChangeEventLog.commit(conn, new ChangeEvent(ChangeEvent.Type.INVENTORY_USED, itemId)
+                    .with("itemName", itemName)
+                    .with("quantityUsed", quantityUsed)
+                    .with("quantity", currentStock - quantityUsed));
+            LOG_USAGE.rows(1);
+            event.succeeded = true;
             return true;
 
         } catch (SQLException e) {
+            LOG_USAGE.error();
             System.out.println("Error logging usage: " + e.getMessage());
             return false;
+        } finally {
+            LOG_USAGE.record(start);
+            event.commit();
         }
     }
 
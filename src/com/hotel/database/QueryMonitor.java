@@ -0,0 +1,272 @@
+package com.hotel.database;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Times every SQL statement the DAOs run, so slow queries can be found as the data grows.
+ *
+ * <ul>
+ *     <li>Executions are aggregated by normalized SQL: literals become {@code ?} and {@code IN} lists collapse,
+ *         so the same query with different values is counted once.</li>
+ *     <li>Executions over {@code db.monitor.slowQueryMs} are logged with their bound parameters
+ *         (parameters of statements touching a password column are never logged).</li>
+ *     <li>Every {@code db.monitor.explainIntervalSec}, the {@code db.monitor.explainTopN} slow statements with
+ *         the most total time are run through {@code EXPLAIN} with the parameters of their slowest execution,
+ *         and the plan is logged and kept in {@link QueryStats#getPlan()}.</li>
+ * </ul>
+ * {@link DBConnection} installs the monitor on every pooled connection unless {@code db.monitor.enabled=false}.
+ */
+public class QueryMonitor {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern VALUES_ROWS = Pattern.compile("(?i)(VALUES\\s*\\([^)]*\\))(?:\\s*,\\s*\\([^)]*\\))+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern EXPLAINABLE = Pattern.compile("(?is)^\\s*(SELECT|UPDATE|DELETE|INSERT)\\b.*");
+
+    // The DAOs use a few dozen constant strings; stop caching if something generates unbounded SQL
+    private static final int MAX_CACHED_SQL = 10_000;
+
+    private final DataSource dataSource;   // Unmonitored, so EXPLAIN does not report itself
+    private final long slowQueryNanos;
+    private final boolean logParameters;
+    private final int explainTopN;
+    private final long explainIntervalSec;
+
+    private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+    private ScheduledExecutorService explainer;
+
+    /**
+     * Constructor for QueryMonitor.
+     *
+     * @param config the monitor settings ({@code db.monitor.*})
+     * @param dataSource the raw data source used to run EXPLAIN
+     */
+    public QueryMonitor(DatabaseConfig config, DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowQueryMs());
+        this.logParameters = config.isLogQueryParameters();
+        this.explainTopN = config.getExplainTopN();
+        this.explainIntervalSec = config.getExplainIntervalSec();
+    }
+
+    /**
+     * Wraps a connection so its statements are timed.
+     *
+     * @param conn a connection from the pool
+     * @return the monitored connection
+     */
+    public Connection wrap(Connection conn) {
+        return StatementInterceptor.wrap(conn, this);
+    }
+
+    /**
+     * Starts the periodic EXPLAIN capture, if an interval is configured.
+     */
+    public synchronized void start() {
+        if (explainIntervalSec <= 0 || explainTopN <= 0 || explainer != null) return;
+        explainer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "query-explainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        explainer.scheduleWithFixedDelay(this::captureExplainPlans, explainIntervalSec, explainIntervalSec, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic EXPLAIN capture.
+     */
+    public synchronized void stop() {
+        if (explainer != null) {
+            explainer.shutdownNow();
+            explainer = null;
+        }
+    }
+
+    /**
+     * Records one statement execution. Called by the statement proxies.
+     *
+     * @param sql the SQL as sent to the driver
+     * @param parameters the bound parameters in order, or null
+     * @param elapsedNanos the execution time
+     * @param rows the update count, or 0 for queries
+     * @param failed whether the driver threw
+     */
+    void record(String sql, Object[] parameters, long elapsedNanos, long rows, boolean failed) {
+        String key = normalize(sql);
+        boolean slow = elapsedNanos >= slowQueryNanos;
+        stats.computeIfAbsent(key, QueryStats::new).record(sql, parameters, elapsedNanos, rows, slow, failed);
+
+        if (slow) {
+            System.out.println(String.format(Locale.ROOT, "Slow query (%.1f ms%s): %s%s",
+                    elapsedNanos / 1_000_000.0, failed ? ", failed" : "", key, formatParameters(key, parameters)));
+        }
+    }
+
+    /**
+     * Reduces SQL to its shape, so executions that differ only in literal values share one entry.
+     *
+     * @param sql the SQL text
+     * @return the normalized SQL
+     */
+    public String normalize(String sql) {
+        String cached = normalized.get(sql);
+        if (cached != null) return cached;
+
+        String result = STRING_LITERAL.matcher(sql).replaceAll("?");
+        result = NUMBER_LITERAL.matcher(result).replaceAll("?");
+        result = WHITESPACE.matcher(result).replaceAll(" ").trim();
+        result = IN_LIST.matcher(result).replaceAll("IN (?)");
+        result = VALUES_ROWS.matcher(result).replaceAll("$1");
+
+        if (normalized.size() < MAX_CACHED_SQL) {
+            normalized.put(sql, result);
+        }
+        return result;
+    }
+
+    private String formatParameters(String sql, Object[] parameters) {
+        if (parameters == null || parameters.length == 0) return "";
+        if (!logParameters || sql.toLowerCase(Locale.ROOT).contains("password")) return " [parameters hidden]";
+
+        StringBuilder out = new StringBuilder(" [");
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) out.append(", ");
+            out.append(i + 1).append('=').append(formatValue(parameters[i]));
+        }
+        return out.append(']').toString();
+    }
+
+    private static String formatValue(Object value) {
+        if (value == null) return "NULL";
+        if (value instanceof String s) return "'" + s.replace("'", "''") + "'";
+        if (value instanceof byte[] bytes) return "<" + bytes.length + " bytes>";
+        if (value instanceof Number || value instanceof Boolean) return value.toString();
+        if (value instanceof java.util.Date) return "'" + value + "'";
+        // Streams, readers and other driver objects
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+
+    /**
+     * Runs EXPLAIN for the slow statements with the most total execution time.
+     * Runs on the explainer thread; can also be called directly, e.g. at the end of a load test.
+     */
+    public void captureExplainPlans() {
+        for (QueryStats s : getWorstOffenders(explainTopN)) {
+            String sql = s.getSlowestSql();
+            if (sql == null || !EXPLAINABLE.matcher(sql).matches()) continue;
+
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql)) {
+
+                Object[] parameters = s.getSlowestParameters();
+                if (parameters != null) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        stmt.setObject(i + 1, parameters[i]);
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    String plan = formatPlan(rs);
+                    s.setPlan(plan);
+                    System.out.println(String.format(Locale.ROOT, "Plan for %s (%d runs, %.1f ms total):%n%s",
+                            s.getSql(), s.getExecutions(), s.getTotalMillis(), plan));
+                }
+            } catch (SQLException e) {
+                System.out.println("Error explaining query: " + e.getMessage());
+            }
+        }
+    }
+
+    private static String formatPlan(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        StringBuilder out = new StringBuilder();
+
+        // H2 returns a single PLAN column; MySQL returns one row per table with id, type, key, rows, ...
+        if (columns > 1) {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) out.append(" | ");
+                out.append(meta.getColumnLabel(i));
+            }
+            out.append(System.lineSeparator());
+        }
+        while (rs.next()) {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) out.append(" | ");
+                out.append(rs.getString(i));
+            }
+            out.append(System.lineSeparator());
+        }
+        return out.toString().trim();
+    }
+
+    /**
+     * Returns the statements that were slow at least once, by total execution time.
+     *
+     * @param limit the maximum number of statements
+     * @return the worst statements first
+     */
+    public List<QueryStats> getWorstOffenders(int limit) {
+        return stats.values().stream()
+                .filter(s -> s.getSlowExecutions() > 0)
+                .sorted(Comparator.comparingLong(QueryStats::getTotalNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * @return the statistics of every statement seen, by total execution time
+     */
+    public List<QueryStats> getAll() {
+        List<QueryStats> list = new ArrayList<>(stats.values());
+        list.sort(Comparator.comparingLong(QueryStats::getTotalNanos).reversed());
+        return list;
+    }
+
+    /**
+     * Formats the statements with the most total time as text.
+     *
+     * @param limit the maximum number of statements
+     * @return the text dump
+     */
+    public String dumpText(int limit) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%9s %6s %10s %11s %9s %9s  %s%n",
+                "runs", "slow", "rows", "total ms", "mean ms", "max ms", "sql"));
+        List<QueryStats> all = getAll();
+        for (QueryStats s : all.subList(0, Math.min(limit, all.size()))) {
+            out.append(String.format(Locale.ROOT, "%9d %6d %10d %11.1f %9.3f %9.3f  %s%n",
+                    s.getExecutions(), s.getSlowExecutions(), s.getRows(), s.getTotalMillis(),
+                    s.getMeanMillis(), s.getMaxMillis(), s.getSql()));
+            if (s.getPlan() != null) {
+                out.append("    plan: ").append(s.getPlan().replace(System.lineSeparator(), System.lineSeparator() + "          "))
+                        .append(System.lineSeparator());
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Clears all statistics and captured plans.
+     */
+    public void reset() {
+        stats.clear();
+    }
+}
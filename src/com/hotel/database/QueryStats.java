@@ -0,0 +1,84 @@
+package com.hotel.database;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated timings for every execution of one normalized SQL statement, see {@link QueryMonitor}.
+ */
+public class QueryStats {
+
+    private final String sql;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder slowExecutions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    // The slowest execution seen, kept so EXPLAIN can be run with realistic values
+    private volatile String slowestSql;
+    private volatile Object[] slowestParameters;
+    private volatile String plan;
+
+    /**
+     * Constructor for QueryStats.
+     *
+     * @param sql the normalized SQL text
+     */
+    QueryStats(String sql) {
+        this.sql = sql;
+    }
+
+    /**
+     * Records one execution.
+     *
+     * @param originalSql the SQL as the DAO sent it
+     * @param parameters the bound parameters, or null
+     * @param elapsedNanos how long the execution took
+     * @param rowCount rows updated, or 0 for queries
+     * @param slow whether the execution was over the slow-query threshold
+     * @param failed whether the driver threw
+     */
+    void record(String originalSql, Object[] parameters, long elapsedNanos, long rowCount, boolean slow, boolean failed) {
+        executions.increment();
+        totalNanos.add(elapsedNanos);
+        rows.add(rowCount);
+        if (slow) slowExecutions.increment();
+        if (failed) errors.increment();
+
+        long max = maxNanos.get();
+        while (elapsedNanos > max) {
+            if (maxNanos.compareAndSet(max, elapsedNanos)) {
+                slowestSql = originalSql;
+                slowestParameters = parameters;
+                break;
+            }
+            max = maxNanos.get();
+        }
+    }
+
+    public String getSql() { return sql; }
+    public long getExecutions() { return executions.sum(); }
+    public long getSlowExecutions() { return slowExecutions.sum(); }
+    public long getErrors() { return errors.sum(); }
+    public long getRows() { return rows.sum(); }
+    public long getTotalNanos() { return totalNanos.sum(); }
+    public double getTotalMillis() { return totalNanos.sum() / 1_000_000.0; }
+    public double getMaxMillis() { return maxNanos.get() / 1_000_000.0; }
+    public String getSlowestSql() { return slowestSql; }
+    public Object[] getSlowestParameters() { return slowestParameters; }
+
+    public double getMeanMillis() {
+        long n = executions.sum();
+        return n == 0 ? 0 : totalNanos.sum() / (double) n / 1_000_000;
+    }
+
+    /**
+     * @return the last captured EXPLAIN output, or null if none was captured yet
+     */
+    public String getPlan() { return plan; }
+
+    void setPlan(String plan) { this.plan = plan; }
+}
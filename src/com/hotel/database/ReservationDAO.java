@@ -1,26 +1,92 @@
 package com.hotel.database;
 
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
+import com.hotel.models.Bill;
+import com.hotel.models.ChangeEvent;
+import com.hotel.models.GroupBooking;
+import com.hotel.models.HousekeepingTask;
 import com.hotel.models.Reservation;
+import com.hotel.models.Room;
+import com.hotel.models.RoomStatus;
+import com.hotel.models.Service;
+import com.hotel.services.GuestMatcher;
 
 import java.sql.*;
+import java.text.Normalizer;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 public class ReservationDAO {
 
+    // Per-method call, error, row and latency statistics (see MetricsRegistry)
+    private static final LatencyStats ADD_RESERVATION = MetricsRegistry.register("ReservationDAO", "addReservation");
+    private static final LatencyStats ADD_RESERVATIONS_BATCH = MetricsRegistry.register("ReservationDAO", "addReservationsBatch");
+    private static final LatencyStats GET_ALL_RESERVATION_KEYS = MetricsRegistry.register("ReservationDAO", "getAllReservationKeys");
+    private static final LatencyStats GET_ONLY_INDIVIDUAL_GUEST_NAMES = MetricsRegistry.register("ReservationDAO", "getOnlyIndividualGuestNames");
+    private static final LatencyStats RESERVATION_EXISTS = MetricsRegistry.register("ReservationDAO", "reservationExists");
+    private static final LatencyStats UPDATE_RESERVATION = MetricsRegistry.register("ReservationDAO", "updateReservation");
+    private static final LatencyStats DELETE_RESERVATION_BY_ID = MetricsRegistry.register("ReservationDAO", "deleteReservationById");
+    private static final LatencyStats GET_ALL_GUEST_NAMES = MetricsRegistry.register("ReservationDAO", "getAllGuestNames");
+    private static final LatencyStats GET_ALL_RESERVATIONS = MetricsRegistry.register("ReservationDAO", "getAllReservations");
+    private static final LatencyStats GET_RESERVATION_BY_ID = MetricsRegistry.register("ReservationDAO", "getReservationById");
+    private static final LatencyStats GET_RESERVATION_BY_GUEST_NAME = MetricsRegistry.register("ReservationDAO", "getReservationByGuestName");
+    private static final LatencyStats GET_LATEST_RESERVATION_FOR_GUEST = MetricsRegistry.register("ReservationDAO", "getLatestReservationForGuest");
+    private static final LatencyStats GET_RESERVATIONS_BY_GROUP = MetricsRegistry.register("ReservationDAO", "getReservationsByGroup");
+    private static final LatencyStats GET_ALL_GROUPS = MetricsRegistry.register("ReservationDAO", "getAllGroups");
+    private static final LatencyStats GET_OPEN_RESERVATIONS = MetricsRegistry.register("ReservationDAO", "getOpenReservations");
+    private static final LatencyStats GET_DEPARTURES = MetricsRegistry.register("ReservationDAO", "getDepartures");
+    private static final LatencyStats CHECK_OUT = MetricsRegistry.register("ReservationDAO", "checkOut");
+
+    /**
+     * What {@link #checkOut} did with one stay.
+     */
+    public enum CheckoutOutcome {
+        CHECKED_OUT,          // The stay was closed, with its folio, room and housekeeping task
+        ALREADY_CHECKED_OUT,  // Another desk closed the stay first; nothing was changed
+        FAILED                // A database error; the whole checkout was rolled back
+    }
+
+    /**
+     * Prices the folio of a stay at checkout, from the charges posted to it when its checkout locked it.
+     */
+    @FunctionalInterface
+    public interface FolioPricer {
+
+        /**
+         * Prices a folio.
+         *
+         * @param res the stay
+         * @param posted the room charges posted to it
+         * @param services the service charges the outlets posted to it, one per outlet
+         * @return the bill to save as the folio
+         */
+        Bill price(Reservation res, FolioDAO.PostedCharges posted, List<Service> services);
+    }
+
     /**
      * Adds a new reservation to the database.
-     * Includes fields for late checkout and group name.
+     * Includes fields for late checkout and group name. An individual reservation without a guest ID
+     * is for a new guest, added in the same transaction; callers that know the guest set its ID
+     * (see {@link GuestDAO#resolveGuests}).
      *
      * @param res the reservation object to add
      * @return true if the reservation was successfully added, false otherwise
      */
     public boolean addReservation(Reservation res) {
-        String sql = "INSERT INTO reservations (guest_name, check_in, check_out, room_type, payment_status, special_requests, room_number, group_name, late_checkout) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO reservations (guest_name, check_in, check_out, room_type, payment_status, special_requests, room_number, group_name, late_checkout, guest_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
+            conn.setAutoCommit(false);
+            resolveGuests(conn, List.of(res));
             stmt.setString(1, res.getGuestName());
             stmt.setDate(2, res.getCheckIn());
             stmt.setDate(3, res.getCheckOut());
@@ -30,13 +96,210 @@ public class ReservationDAO {
             stmt.setString(7, res.getRoomNumber());
             stmt.setString(8, res.getGroupName());
             stmt.setBoolean(9, res.isLateCheckout());
+            setGuestId(stmt, 10, res.getGuestId());
 
-            return stmt.executeUpdate() > 0;
+            int rows = stmt.executeUpdate();
+            ADD_RESERVATION.rows(rows);
+            if (rows == 0) {
+                conn.rollback();
+                return false;
+            }
+
+            // Change events key reservations by id, so read back the one just generated
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    res.setId(keys.getInt(1));
+                }
+            }
+            ChangeEventLog.commit(conn, reservationEvent(ChangeEvent.Type.RESERVATION_CREATED, res));
+            return true;
 
         } catch (SQLException e) {
+            ADD_RESERVATION.error();
             System.out.println("Error inserting reservation: " + e.getMessage());
             return false;
+        } finally {
+            ADD_RESERVATION.record(start);
+        }
+    }
+
+    /**
+     * Inserts a list of reservations using JDBC batches inside a single transaction.
+     * With rewriteBatchedStatements enabled the driver sends each batch as one multi-row INSERT.
+     * Individual reservations without a guest ID get a new guest per name first, all in one INSERT.
+     *
+     * @param reservations the reservations to insert
+     * @param batchSize the number of rows sent per batch
+     * @return the number of reservations inserted, or 0 if the transaction was rolled back
+     */
+    public int addReservationsBatch(List<Reservation> reservations, int batchSize) {
+        String sql = "INSERT INTO reservations (guest_name, check_in, check_out, room_type, payment_status, special_requests, room_number, group_name, late_checkout, guest_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        if (reservations.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                resolveGuests(conn, reservations);
+                int pending = 0;
+                int keyed = 0;   // reservations whose generated id has been read back
+                for (Reservation res : reservations) {
+                    stmt.setString(1, res.getGuestName());
+                    stmt.setDate(2, res.getCheckIn());
+                    stmt.setDate(3, res.getCheckOut());
+                    stmt.setString(4, res.getRoomType());
+                    stmt.setString(5, res.getPaymentStatus());
+                    stmt.setString(6, res.getSpecialRequests());
+                    stmt.setString(7, res.getRoomNumber());
+                    stmt.setString(8, res.getGroupName());
+                    stmt.setBoolean(9, res.isLateCheckout());
+                    setGuestId(stmt, 10, res.getGuestId());
+                    stmt.addBatch();
+
+                    if (++pending == batchSize) {
+                        stmt.executeBatch();
+                        keyed = readGeneratedIds(stmt, reservations, keyed);
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    stmt.executeBatch();
+                    readGeneratedIds(stmt, reservations, keyed);
+                }
+
+                List<ChangeEvent> events = new ArrayList<>(reservations.size());
+                for (Reservation res : reservations) {
+                    events.add(reservationEvent(ChangeEvent.Type.RESERVATION_CREATED, res));
+                }
+                ChangeEventLog.commit(conn, events);
+                ADD_RESERVATIONS_BATCH.rows(reservations.size());
+                return reservations.size();
+
+            } catch (SQLException e) {
+                ADD_RESERVATIONS_BATCH.error();
+                conn.rollback();
+                System.out.println("Error inserting reservation batch: " + e.getMessage());
+                return 0;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+        } catch (SQLException e) {
+            ADD_RESERVATIONS_BATCH.error();
+            System.out.println("Error inserting reservation batch: " + e.getMessage());
+            return 0;
+        } finally {
+            ADD_RESERVATIONS_BATCH.record(start);
+        }
+    }
+
+    // Adds a guest for the individual reservations that name none, one per name; group bookings have none
+    private static void resolveGuests(Connection conn, List<Reservation> reservations) throws SQLException {
+        Set<String> names = new LinkedHashSet<>();
+        for (Reservation res : reservations) {
+            if (res.getGuestId() == 0 && res.getGroupName() == null && res.getGuestName() != null) {
+                names.add(res.getGuestName());
+            }
+        }
+        if (names.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> guestIds = GuestDAO.addGuests(conn, names);
+        for (Reservation res : reservations) {
+            if (res.getGuestId() == 0 && res.getGroupName() == null && res.getGuestName() != null) {
+                res.setGuestId(guestIds.get(res.getGuestName()));
+            }
+        }
+    }
+
+    // Binds a guest ID, 0 meaning none
+    private static void setGuestId(PreparedStatement stmt, int index, int guestId) throws SQLException {
+        if (guestId > 0) {
+            stmt.setInt(index, guestId);
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
+    }
+
+    // The values consumers need to track a reservation without reading it back
+    private static ChangeEvent reservationEvent(ChangeEvent.Type type, Reservation res) {
+        return new ChangeEvent(type, res.getId())
+                .with("guestId", res.getGuestId() > 0 ? res.getGuestId() : null)
+                .with("guestName", res.getGuestName())
+                .with("checkIn", res.getCheckIn())
+                .with("checkOut", res.getCheckOut())
+                .with("roomType", res.getRoomType())
+                .with("paymentStatus", res.getPaymentStatus())
+                .with("roomNumber", res.getRoomNumber())
+                .with("groupName", res.getGroupName());
+    }
+
+    // Assigns the ids generated by the last executed batch, in insertion order, starting at reservations[from]
+    private static int readGeneratedIds(PreparedStatement stmt, List<Reservation> reservations, int from) throws SQLException {
+        int next = from;
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            while (keys.next() && next < reservations.size()) {
+                reservations.get(next++).setId(keys.getInt(1));
+            }
         }
+        return next;
+    }
+
+    /**
+     * Loads the (guest name, check-in, check-out) key of every reservation.
+     * Gives bulk callers that only have names, such as CSV imports, duplicate detection
+     * without a query per row.
+     *
+     * @return a set of keys built with {@link #reservationKey}
+     */
+    public Set<String> getAllReservationKeys() {
+        Set<String> keys = new HashSet<>();
+        String sql = "SELECT guest_name, check_in, check_out FROM reservations";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                keys.add(reservationKey(rs.getString(1), rs.getDate(2), rs.getDate(3)));
+            }
+            GET_ALL_RESERVATION_KEYS.rows(keys.size());
+
+        } catch (SQLException e) {
+            GET_ALL_RESERVATION_KEYS.error();
+            System.out.println("Error fetching reservation keys: " + e.getMessage());
+        } finally {
+            GET_ALL_RESERVATION_KEYS.record(start);
+        }
+
+        return keys;
+    }
+
+    /**
+     * Builds the duplicate-detection key used by {@link #getAllReservationKeys}.
+     *
+     * @param guestName the name of the guest
+     * @param checkIn the check-in date
+     * @param checkOut the check-out date
+     * @return a key that is equal for reservations with the same name, as the database compares it, and dates
+     */
+    public static String reservationKey(String guestName, Date checkIn, Date checkOut) {
+        return foldName(guestName) + '\u0000' + checkIn + '\u0000' + checkOut;
+    }
+
+    /**
+     * Folds case and accents out of a guest name the way the table's utf8mb4_0900_ai_ci collation compares
+     * guest_name, so "john smith" and "John Smith" make one key, as they match one row.
+     */
+    private static String foldName(String guestName) {
+        if (guestName == null) return null;
+        return Normalizer.normalize(guestName, Normalizer.Form.NFD).replaceAll("\\p{M}+", "").toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -47,6 +310,7 @@ public class ReservationDAO {
     public List<String> getOnlyIndividualGuestNames() {
         List<String> names = new ArrayList<>();
         String sql = "SELECT DISTINCT guest_name FROM reservations WHERE group_name IS NULL ORDER BY guest_name";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              Statement stmt = conn.createStatement();
@@ -55,9 +319,13 @@ public class ReservationDAO {
             while (rs.next()) {
                 names.add(rs.getString("guest_name"));
             }
+            GET_ONLY_INDIVIDUAL_GUEST_NAMES.rows(names.size());
 
         } catch (SQLException e) {
+            GET_ONLY_INDIVIDUAL_GUEST_NAMES.error();
             System.out.println("Error fetching individual guest names: " + e.getMessage());
+        } finally {
+            GET_ONLY_INDIVIDUAL_GUEST_NAMES.record(start);
         }
 
         return names;
@@ -65,18 +333,27 @@ public class ReservationDAO {
 
     /**
      * Checks if a reservation already exists for a guest within the specified dates.
+     * A guest's stays are matched on the guest ID; without one, stays that have no guest are matched on the name.
      *
+     * @param guestId the guest ID, or 0 for a booking without a guest yet
      * @param guestName the name of the guest
      * @param checkIn the check-in date
      * @param checkOut the check-out date
      * @return true if reservation exists, false otherwise
      */
-    public boolean reservationExists(String guestName, Date checkIn, Date checkOut) {
-        String query = "SELECT COUNT(*) FROM reservations WHERE guest_name = ? AND check_in = ? AND check_out = ?";
+    public boolean reservationExists(int guestId, String guestName, Date checkIn, Date checkOut) {
+        String query = guestId > 0
+                ? "SELECT COUNT(*) FROM reservations WHERE guest_id = ? AND check_in = ? AND check_out = ?"
+                : "SELECT COUNT(*) FROM reservations WHERE guest_name = ? AND guest_id IS NULL AND check_in = ? AND check_out = ?";
+        long start = System.nanoTime();
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            stmt.setString(1, guestName);
+            if (guestId > 0) {
+                stmt.setInt(1, guestId);
+            } else {
+                stmt.setString(1, guestName);
+            }
             stmt.setDate(2, checkIn);
             stmt.setDate(3, checkOut);
 
@@ -84,23 +361,34 @@ public class ReservationDAO {
             return rs.next() && rs.getInt(1) > 0;
 
         } catch (SQLException e) {
+            RESERVATION_EXISTS.error();
             System.out.println("Error checking reservation: " + e.getMessage());
             return false;
+        } finally {
+            RESERVATION_EXISTS.record(start);
         }
     }
 
     /**
-     * Updates an existing reservation in the database.
+     * Updates an existing reservation in the database, including the guest it belongs to.
+     * An individual reservation given no guest ID keeps its guest while its name still is that guest's;
+     * renamed, it is for a new guest, as in {@link #addReservation}. Group bookings have no guest.
      *
      * @param res the reservation object with updated details
      * @return true if the update was successful, false otherwise
      */
     public boolean updateReservation(Reservation res) {
-        String sql = "UPDATE reservations SET guest_name=?, check_in=?, check_out=?, room_type=?, payment_status=?, special_requests=?, group_name=?, late_checkout=? WHERE id=?";
+        String sql = "UPDATE reservations SET guest_name=?, check_in=?, check_out=?, room_type=?, payment_status=?, special_requests=?, group_name=?, late_checkout=?, guest_id=? WHERE id=?";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            conn.setAutoCommit(false);
+            if (res.getGuestId() == 0 && res.getGroupName() == null) {
+                res.setGuestId(currentGuestId(conn, res));
+                resolveGuests(conn, List.of(res));
+            }
             stmt.setString(1, res.getGuestName());
             stmt.setDate(2, res.getCheckIn());
             stmt.setDate(3, res.getCheckOut());
@@ -109,16 +397,41 @@ public class ReservationDAO {
             stmt.setString(6, res.getSpecialRequests());
             stmt.setString(7, res.getGroupName());
             stmt.setBoolean(8, res.isLateCheckout());
-            stmt.setInt(9, res.getId());
-
-            return stmt.executeUpdate() > 0;
+            setGuestId(stmt, 9, res.getGroupName() == null ? res.getGuestId() : 0);
+            stmt.setInt(10, res.getId());
+
+            int rows = stmt.executeUpdate();
+            UPDATE_RESERVATION.rows(rows);
+            if (rows > 0) {
+                ChangeEventLog.commit(conn, reservationEvent(ChangeEvent.Type.RESERVATION_UPDATED, res));
+            } else {
+                conn.rollback();
+            }
+            return rows > 0;
 
         } catch (SQLException e) {
+            UPDATE_RESERVATION.error();
             System.out.println("Error updating reservation: " + e.getMessage());
             return false;
+        } finally {
+            UPDATE_RESERVATION.record(start);
         }
     }
 
+    // The reservation's guest, if the reservation's new name is still that guest's name; 0 otherwise
+    private static int currentGuestId(Connection conn, Reservation res) throws SQLException {
+        String sql = "SELECT g.id, g.name_key FROM reservations r JOIN guests g ON g.id = r.guest_id WHERE r.id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, res.getId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getString(2).equals(GuestMatcher.nameKey(res.getGuestName()))) {
+                    return rs.getInt(1);
+                }
+            }
+        }
+        return 0;
+    }
+
     /**
      * Deletes a reservation from the database by its ID.
      *
@@ -127,18 +440,121 @@ public class ReservationDAO {
      */
     public boolean deleteReservationById(int id) {
         String sql = "DELETE FROM reservations WHERE id = ?";
+        long start = System.nanoTime();
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
+            conn.setAutoCommit(false);
             stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
+            int rows = stmt.executeUpdate();
+            DELETE_RESERVATION_BY_ID.rows(rows);
+            if (rows > 0) {
+                ChangeEventLog.commit(conn, new ChangeEvent(ChangeEvent.Type.RESERVATION_DELETED, id));
+            }
+            return rows > 0;
 
         } catch (SQLException e) {
+            DELETE_RESERVATION_BY_ID.error();
             System.out.println("Error deleting reservation: " + e.getMessage());
             return false;
+        } finally {
+            DELETE_RESERVATION_BY_ID.record(start);
+        }
+    }
+
+    /**
+     * Checks a guest out in one transaction: closes the stay, finalizes the folio, marks the room
+     * for cleaning and queues its housekeeping task. Either all of it is committed or none of it.
+     *
+     * The stay is closed first and only while it is still open, so two desks checking out the same guest
+     * cannot both do the rest. A bill the billing desk already made for the stay, or for its whole group,
+     * is its folio; otherwise the folio is priced from the charges posted to the stay. They are read after the stay is closed:
+     * closing it waits for any posting to the stay in progress, and later postings are rejected
+     * (see {@link FolioDAO#postLines}), so no accepted charge is left off the bill.
+     *
+     * @param res the stay to close
+     * @param room the room of the stay, or null if it has none; set to Cleaning
+     * @param pricer prices the folio if neither the stay nor its group has a bill yet
+     * @param task the housekeeping task for the room, or null to leave the room for the next assignment;
+     *             skipped if the room already has an open task
+     * @return the outcome
+     */
+    public CheckoutOutcome checkOut(Reservation res, Room room, FolioPricer pricer, HousekeepingTask task) {
+        String closeSql = "UPDATE reservations SET checked_out_at = ? WHERE id = ? AND checked_out_at IS NULL";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement closeStmt = conn.prepareStatement(closeSql)) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                closeStmt.setTimestamp(1, now);
+                closeStmt.setInt(2, res.getId());
+                if (closeStmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return CheckoutOutcome.ALREADY_CHECKED_OUT;
+                }
+                res.setCheckedOutAt(now);
+
+                List<ChangeEvent> events = new ArrayList<>();
+                events.add(checkedOut(res));
+
+                // The folio: the bill the billing desk made for the stay or its group, or one priced from what is posted to it now
+                if (!BillDAO.isBilled(conn, res)) {
+                    List<Integer> stay = List.of(res.getId());
+                    Bill folio = pricer.price(res,
+                            FolioDAO.postedRoomCharges(conn, stay).getOrDefault(res.getId(), FolioDAO.PostedCharges.NONE),
+                            FolioDAO.postedServices(conn, stay).getOrDefault(res.getId(), List.of()));
+                    folio.setReservationId(res.getId());
+                    ChangeEvent created = BillDAO.insertBill(conn, folio);
+                    if (created != null) {
+                        events.add(created);
+                    }
+                }
+
+                if (room != null && RoomDAO.transition(conn, room.getId(), RoomStatus.CLEANING) > 0) {
+                    events.add(RoomDAO.roomStatusChanged(room.getId(), RoomStatus.CLEANING.getLabel()));
+                    ChangeEvent taskEvent = task != null ? HousekeepingDAO.insertTask(conn, task) : null;
+                    if (taskEvent != null) {
+                        events.add(taskEvent);
+                    }
+                }
+
+                ChangeEventLog.commit(conn, events);
+                CHECK_OUT.rows(1);
+                return CheckoutOutcome.CHECKED_OUT;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+        } catch (SQLException e) {
+            CHECK_OUT.error();
+            System.out.println("Error checking out reservation: " + e.getMessage());
+            return CheckoutOutcome.FAILED;
+        } finally {
+            CHECK_OUT.record(start);
         }
     }
 
+    // The stay as it ended: nights after the checkout day are free again
+    private static ChangeEvent checkedOut(Reservation res) {
+        Date checkedOutOn = Date.valueOf(res.getCheckedOutAt().toLocalDateTime().toLocalDate());
+        Date checkOut = res.getCheckOut() != null && res.getCheckOut().before(checkedOutOn) ? res.getCheckOut() : checkedOutOn;
+        return new ChangeEvent(ChangeEvent.Type.RESERVATION_CHECKED_OUT, res.getId())
+                .with("guestName", res.getGuestName())
+                .with("checkIn", res.getCheckIn())
+                .with("checkOut", checkOut)
+                .with("roomType", res.getRoomType())
+                .with("paymentStatus", res.getPaymentStatus())
+                .with("roomNumber", res.getRoomNumber())
+                .with("checkedOutAt", res.getCheckedOutAt());
+    }
+
     /**
      * Retrieves all distinct guest names from the reservations.
      *
@@ -147,6 +563,7 @@ public class ReservationDAO {
     public List<String> getAllGuestNames() {
         List<String> names = new ArrayList<>();
         String sql = "SELECT DISTINCT guest_name FROM reservations ORDER BY guest_name";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              Statement stmt = conn.createStatement();
@@ -155,9 +572,13 @@ public class ReservationDAO {
             while (rs.next()) {
                 names.add(rs.getString("guest_name"));
             }
+            GET_ALL_GUEST_NAMES.rows(names.size());
 
         } catch (SQLException e) {
+            GET_ALL_GUEST_NAMES.error();
             System.out.println("Error fetching guest names: " + e.getMessage());
+        } finally {
+            GET_ALL_GUEST_NAMES.record(start);
         }
 
         return names;
@@ -171,131 +592,238 @@ public class ReservationDAO {
     public List<Reservation> getAllReservations() {
         List<Reservation> list = new ArrayList<>();
         String sql = "SELECT * FROM reservations";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                Reservation res = new Reservation(
-                        rs.getInt("id"),
-                        rs.getString("guest_name"),
-                        rs.getDate("check_in"),
-                        rs.getDate("check_out"),
-                        rs.getString("room_type"),
-                        rs.getString("payment_status"),
-                        rs.getString("special_requests"),
-                        rs.getString("room_number"),
-                        rs.getString("group_name"),
-                        rs.getBoolean("late_checkout")
-                );
-                list.add(res);
-            }
+            RowMappers.addRows(rs, RowMappers.RESERVATION, list);
+            GET_ALL_RESERVATIONS.rows(list.size());
 
         } catch (SQLException e) {
+            GET_ALL_RESERVATIONS.error();
             System.out.println("Error fetching reservations: " + e.getMessage());
+        } finally {
+            GET_ALL_RESERVATIONS.record(start);
+        }
+
+        return list;
+    }
+
+    /**
+     * Retrieves the reservations of guests who have not checked out.
+     *
+     * @return a list of open reservations
+     */
+    public List<Reservation> getOpenReservations() {
+        List<Reservation> list = new ArrayList<>();
+        String sql = "SELECT * FROM reservations WHERE checked_out_at IS NULL";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            RowMappers.addRows(rs, RowMappers.RESERVATION, list);
+            GET_OPEN_RESERVATIONS.rows(list.size());
+
+        } catch (SQLException e) {
+            GET_OPEN_RESERVATIONS.error();
+            System.out.println("Error fetching open reservations: " + e.getMessage());
+        } finally {
+            GET_OPEN_RESERVATIONS.record(start);
         }
 
         return list;
     }
 
+    /**
+     * Retrieves the open reservations due to leave on or before a date, e.g. a morning's departures.
+     *
+     * @param date the departure date
+     * @return the reservations, by room number
+     */
+    public List<Reservation> getDepartures(Date date) {
+        List<Reservation> list = new ArrayList<>();
+        String sql = "SELECT * FROM reservations WHERE check_out <= ? AND checked_out_at IS NULL ORDER BY room_number";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, date);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.addRows(rs, RowMappers.RESERVATION, list);
+            }
+            GET_DEPARTURES.rows(list.size());
+
+        } catch (SQLException e) {
+            GET_DEPARTURES.error();
+            System.out.println("Error fetching departures: " + e.getMessage());
+        } finally {
+            GET_DEPARTURES.record(start);
+        }
+
+        return list;
+    }
+
+    /**
+     * Retrieves a reservation by its ID.
+     *
+     * @param id the reservation ID
+     * @return the reservation, or null if not found
+     */
+    public Reservation getReservationById(int id) {
+        String sql = "SELECT * FROM reservations WHERE id = ?";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    GET_RESERVATION_BY_ID.rows(1);
+                    return RowMappers.RESERVATION.bind(rs).map(rs);
+                }
+            }
+
+        } catch (SQLException e) {
+            GET_RESERVATION_BY_ID.error();
+            System.out.println("Error fetching reservation by ID: " + e.getMessage());
+        } finally {
+            GET_RESERVATION_BY_ID.record(start);
+        }
+
+        return null;
+    }
+
      /**
      * Retrieves the most recent reservation for a specific guest by name.
+     * A guest's stays are found through the guest of that name, even if a stay was booked under another
+     * spelling; stays without a guest, such as group bookings, by their own name. A name shared by several
+     * guests matches all of them, so callers that can tell them apart use {@link #getLatestReservationForGuest}.
      *
      * @param guestName the name of the guest
      * @return the most recent reservation for the guest, or null if not found
      */
     public Reservation getReservationByGuestName(String guestName) {
-        String sql = "SELECT * FROM reservations WHERE guest_name = ? ORDER BY check_in DESC LIMIT 1";
+        String sql = "SELECT * FROM reservations WHERE (guest_name = ? AND guest_id IS NULL) "
+                + "OR guest_id IN (SELECT id FROM guests WHERE name_key = ?) ORDER BY check_in DESC LIMIT 1";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setString(1, guestName);
+            stmt.setString(2, GuestMatcher.nameKey(guestName));
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return new Reservation(
-                        rs.getInt("id"),
-                        rs.getString("guest_name"),
-                        rs.getDate("check_in"),
-                        rs.getDate("check_out"),
-                        rs.getString("room_type"),
-                        rs.getString("payment_status"),
-                        rs.getString("special_requests"),
-                        rs.getString("room_number"),
-                        rs.getString("group_name"),
-                        rs.getBoolean("late_checkout")
-                );
+                GET_RESERVATION_BY_GUEST_NAME.rows(1);
+                return RowMappers.RESERVATION.bind(rs).map(rs);
             }
 
         } catch (SQLException e) {
+            GET_RESERVATION_BY_GUEST_NAME.error();
             System.out.println("Error fetching reservation by guest name: " + e.getMessage());
+        } finally {
+            GET_RESERVATION_BY_GUEST_NAME.record(start);
         }
 
         return null;
     }
 
     /**
-     * Retrieves all reservations under a specific group name.
+     * Retrieves the most recent reservation of a guest.
      *
-     * @param groupName the group name
+     * @param guestId the guest ID
+     * @return the most recent reservation of the guest, or null if not found
+     */
+    public Reservation getLatestReservationForGuest(int guestId) {
+        String sql = "SELECT * FROM reservations WHERE guest_id = ? ORDER BY check_in DESC LIMIT 1";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, guestId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    GET_LATEST_RESERVATION_FOR_GUEST.rows(1);
+                    return RowMappers.RESERVATION.bind(rs).map(rs);
+                }
+            }
+
+        } catch (SQLException e) {
+            GET_LATEST_RESERVATION_FOR_GUEST.error();
+            System.out.println("Error fetching reservation by guest: " + e.getMessage());
+        } finally {
+            GET_LATEST_RESERVATION_FOR_GUEST.record(start);
+        }
+
+        return null;
+    }
+
+    /**
+     * Retrieves all reservations of a group.
+     *
+     * @param group the group
      * @return a list of reservations in the group
      */
-    public List<Reservation> getReservationsByGroup(String groupName) {
+    public List<Reservation> getReservationsByGroup(GroupBooking group) {
         List<Reservation> list = new ArrayList<>();
-        String sql = "SELECT * FROM reservations WHERE group_name = ?";
+        String sql = "SELECT * FROM reservations WHERE group_name = ? AND check_in = ?";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, groupName);
+            stmt.setString(1, group.getGroupName());
+            stmt.setDate(2, group.getCheckIn());
             ResultSet rs = stmt.executeQuery();
 
-            while (rs.next()) {
-                Reservation res = new Reservation(
-                        rs.getInt("id"),
-                        rs.getString("guest_name"),
-                        rs.getDate("check_in"),
-                        rs.getDate("check_out"),
-                        rs.getString("room_type"),
-                        rs.getString("payment_status"),
-                        rs.getString("special_requests"),
-                        rs.getString("room_number"),
-                        rs.getString("group_name"),
-                        rs.getBoolean("late_checkout")
-                );
-                list.add(res);
-            }
+            RowMappers.addRows(rs, RowMappers.RESERVATION, list);
+            GET_RESERVATIONS_BY_GROUP.rows(list.size());
 
         } catch (SQLException e) {
+            GET_RESERVATIONS_BY_GROUP.error();
             System.out.println("Error fetching group reservations: " + e.getMessage());
+        } finally {
+            GET_RESERVATIONS_BY_GROUP.record(start);
         }
 
         return list;
     }
 
     /**
-     * Retrieves all distinct group names from reservations.
+     * Retrieves all groups: each group name with each arrival date booked under it.
      *
-     * @return a list of group names
+     * @return the groups, by name and then arrival date
      */
-    public List<String> getAllGroupNames() {
-        List<String> groupNames = new ArrayList<>();
-        String sql = "SELECT DISTINCT group_name FROM reservations WHERE group_name IS NOT NULL";
+    public List<GroupBooking> getAllGroups() {
+        List<GroupBooking> groups = new ArrayList<>();
+        String sql = "SELECT DISTINCT group_name, check_in FROM reservations WHERE group_name IS NOT NULL "
+                + "ORDER BY group_name, check_in";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
-                groupNames.add(rs.getString("group_name"));
+                groups.add(new GroupBooking(rs.getString("group_name"), rs.getDate("check_in")));
             }
+            GET_ALL_GROUPS.rows(groups.size());
 
         } catch (SQLException e) {
-            System.out.println("Error fetching group names: " + e.getMessage());
+            GET_ALL_GROUPS.error();
+            System.out.println("Error fetching groups: " + e.getMessage());
+        } finally {
+            GET_ALL_GROUPS.record(start);
         }
 
-        return groupNames;
+        return groups;
     }
 }
@@ -1,13 +1,35 @@
 package com.hotel.database;
 
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
+import com.hotel.models.ChangeEvent;
 import com.hotel.models.Room;
+import com.hotel.models.RoomStatus;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
 
 public class RoomDAO {
 
+    // Per-method call, error, row and latency statistics (see MetricsRegistry)
+    private static final LatencyStats ADD_ROOM = MetricsRegistry.register("RoomDAO", "addRoom");
+    private static final LatencyStats GET_ALL_ROOMS = MetricsRegistry.register("RoomDAO", "getAllRooms");
+    private static final LatencyStats GET_AVAILABLE_ROOM = MetricsRegistry.register("RoomDAO", "getAvailableRoom");
+    private static final LatencyStats GET_ROOM_BY_ID = MetricsRegistry.register("RoomDAO", "getRoomById");
+    private static final LatencyStats GET_AVAILABLE_ROOM_BY_TYPE = MetricsRegistry.register("RoomDAO", "getAvailableRoomByType");
+    private static final LatencyStats UPDATE_ROOM_STATUS = MetricsRegistry.register("RoomDAO", "updateRoomStatus");
+    private static final LatencyStats ROOM_ID_EXISTS = MetricsRegistry.register("RoomDAO", "roomIdExists");
+    private static final LatencyStats GET_ROOM_BY_NUMBER = MetricsRegistry.register("RoomDAO", "getRoomByNumber");
+    private static final LatencyStats CLAIM_AVAILABLE_ROOM = MetricsRegistry.register("RoomDAO", "claimAvailableRoom");
+    private static final LatencyStats GET_AVAILABLE_COUNTS_BY_TYPE = MetricsRegistry.register("RoomDAO", "getAvailableCountsByType");
+
+    // Claim attempts before giving up; each one starts from a fresh snapshot
+    private static final int CLAIM_ATTEMPTS = 3;
+
     /**
      * Adds a new room to the database.
      *
@@ -15,20 +37,46 @@ public class RoomDAO {
      * @return true if the room was successfully added, false otherwise
      */
     public boolean addRoom(Room room) {
-        String sql = "INSERT INTO rooms (room_number, type, status) VALUES (?, ?, ?)";
+        String sql = "INSERT INTO rooms (room_number, type, status, state) VALUES (?, ?, ?, ?)";
+        RoomStatus status = RoomStatus.fromLabel(room.getStatus());
+        if (status == null) {
+            System.out.println("Error adding room: unknown status " + room.getStatus());
+            return false;
+        }
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
+            conn.setAutoCommit(false);
             stmt.setString(1, room.getRoomNumber());
             stmt.setString(2, room.getType());
-            stmt.setString(3, room.getStatus());
+            stmt.setString(3, status.getLabel());
+            stmt.setInt(4, status.getCode());
 
-            return stmt.executeUpdate() > 0;
+            int rows = stmt.executeUpdate();
+            if (rows == 0) {
+                return false;
+            }
+            int id = 0;
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    id = keys.getInt(1);
+                }
+            }
+            ChangeEventLog.commit(conn, new ChangeEvent(ChangeEvent.Type.ROOM_ADDED, id)
+                    .with("roomNumber", room.getRoomNumber())
+                    .with("type", room.getType())
+                    .with("status", status.getLabel()));
+            ADD_ROOM.rows(rows);
+            return true;
 
         } catch (SQLException e) {
+            ADD_ROOM.error();
             System.out.println("Error adding room: " + e.getMessage());
             return false;
+        } finally {
+            ADD_ROOM.record(start);
         }
     }
 
@@ -40,23 +88,20 @@ public class RoomDAO {
     public List<Room> getAllRooms() {
         List<Room> list = new ArrayList<>();
         String sql = "SELECT * FROM rooms";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
-            while (rs.next()) {
-                Room room = new Room(
-                        rs.getInt("id"),
-                        rs.getString("room_number"),
-                        rs.getString("type"),
-                        rs.getString("status")
-                );
-                list.add(room);
-            }
+            RowMappers.addRows(rs, RowMappers.ROOM, list);
+            GET_ALL_ROOMS.rows(list.size());
 
         } catch (SQLException e) {
+            GET_ALL_ROOMS.error();
             System.out.println("Error fetching rooms: " + e.getMessage());
+        } finally {
+            GET_ALL_ROOMS.record(start);
         }
 
         return list;
@@ -68,23 +113,23 @@ public class RoomDAO {
      * @return an available Room object, or null if none found
      */
     public Room getAvailableRoom() {
-        String sql = "SELECT * FROM rooms WHERE status = 'Available' LIMIT 1";
+        String sql = "SELECT * FROM rooms WHERE state = " + RoomStatus.AVAILABLE.getCode() + " LIMIT 1";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
 
             if (rs.next()) {
-                return new Room(
-                        rs.getInt("id"),
-                        rs.getString("room_number"),
-                        rs.getString("type"),
-                        rs.getString("status")
-                );
+                GET_AVAILABLE_ROOM.rows(1);
+                return RowMappers.ROOM.bind(rs).map(rs);
             }
 
         } catch (SQLException e) {
+            GET_AVAILABLE_ROOM.error();
             System.out.println("Error fetching available room: " + e.getMessage());
+        } finally {
+            GET_AVAILABLE_ROOM.record(start);
         }
 
         return null;
@@ -99,6 +144,7 @@ public class RoomDAO {
      */
     public Room getRoomById(int id) {
         String sql = "SELECT * FROM rooms WHERE id = ?";
+        long start = System.nanoTime();
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
@@ -106,16 +152,15 @@ public class RoomDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return new Room(
-                        rs.getInt("id"),
-                        rs.getString("room_number"),
-                        rs.getString("type"),
-                        rs.getString("status")
-                );
+                GET_ROOM_BY_ID.rows(1);
+                return RowMappers.ROOM.bind(rs).map(rs);
             }
 
         } catch (SQLException e) {
+            GET_ROOM_BY_ID.error();
             System.out.println("Error fetching room by ID: " + e.getMessage());
+        } finally {
+            GET_ROOM_BY_ID.record(start);
         }
         return null;
     }
@@ -127,7 +172,8 @@ public class RoomDAO {
      * @return a matching Room object, or null if none found
      */
     public Room getAvailableRoomByType(String type) {
-        String sql = "SELECT * FROM rooms WHERE type = ? AND status = 'Available' LIMIT 1";
+        String sql = "SELECT * FROM rooms WHERE type = ? AND state = " + RoomStatus.AVAILABLE.getCode() + " LIMIT 1";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -136,51 +182,193 @@ public class RoomDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return new Room(
-                        rs.getInt("id"),
-                        rs.getString("room_number"),
-                        rs.getString("type"),
-                        rs.getString("status")
-                );
+                GET_AVAILABLE_ROOM_BY_TYPE.rows(1);
+                return RowMappers.ROOM.bind(rs).map(rs);
             }
 
         } catch (SQLException e) {
+            GET_AVAILABLE_ROOM_BY_TYPE.error();
             System.out.println("Error fetching room by type: " + e.getMessage());
+        } finally {
+            GET_AVAILABLE_ROOM_BY_TYPE.record(start);
         }
 
         return null;
     }
 
     /**
-     * Updates the status of a specific room.
+     * Atomically takes an available room of a type and marks it Occupied.
+     * Unlike getAvailableRoomByType followed by updateRoomStatus, two concurrent callers can never
+     * get the same room: the candidate is read with a lock, rooms other bookers are claiming are skipped,
+     * and the update only succeeds while the room is still Available.
+     *
+     * @param type the desired room type
+     * @return the claimed room, now Occupied, or null if none is available or on error
+     */
+    public Room claimAvailableRoom(String type) {
+        String selectSql = "SELECT * FROM rooms WHERE type = ? AND state = " + RoomStatus.AVAILABLE.getCode()
+                + " LIMIT 1 FOR UPDATE SKIP LOCKED";
+        String claimSql = "UPDATE rooms SET state = " + RoomStatus.OCCUPIED.getCode() + ", status = 'Occupied' "
+                + "WHERE id = ? AND state = " + RoomStatus.AVAILABLE.getCode();
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement selectStmt = conn.prepareStatement(selectSql);
+             PreparedStatement claimStmt = conn.prepareStatement(claimSql)) {
+
+            conn.setAutoCommit(false);
+            for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+                Room room;
+                selectStmt.setString(1, type);
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    room = RowMappers.firstRow(rs, RowMappers.ROOM);
+                }
+                if (room == null) {
+                    conn.rollback();
+                    return null;
+                }
+
+                claimStmt.setInt(1, room.getId());
+                if (claimStmt.executeUpdate() == 1) {
+                    ChangeEventLog.commit(conn, roomStatusChanged(room.getId(), "Occupied"));
+                    CLAIM_AVAILABLE_ROOM.rows(1);
+                    room.setStatus("Occupied");
+                    return room;
+                }
+                // End the transaction so the next read is a fresh snapshot, not the one that returned this room
+                conn.rollback();
+            }
+            return null;
+
+        } catch (SQLException e) {
+            CLAIM_AVAILABLE_ROOM.error();
+            System.out.println("Error claiming room: " + e.getMessage());
+            return null;
+        } finally {
+            CLAIM_AVAILABLE_ROOM.record(start);
+        }
+    }
+
+    /**
+     * Counts available rooms per room type.
+     *
+     * @return available room counts keyed by type, in type order
+     */
+    public Map<String, Integer> getAvailableCountsByType() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        String sql = "SELECT type, COUNT(*) AS available FROM rooms WHERE state = " + RoomStatus.AVAILABLE.getCode()
+                + " GROUP BY type ORDER BY type";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                counts.put(rs.getString("type"), rs.getInt("available"));
+            }
+            GET_AVAILABLE_COUNTS_BY_TYPE.rows(counts.size());
+
+        } catch (SQLException e) {
+            GET_AVAILABLE_COUNTS_BY_TYPE.error();
+            System.out.println("Error counting available rooms: " + e.getMessage());
+        } finally {
+            GET_AVAILABLE_COUNTS_BY_TYPE.record(start);
+        }
+
+        return counts;
+    }
+
+    /**
+     * Updates the status of a specific room, if the room may change to it (see RoomStatus).
      *
      * @param roomId the room ID
-     * @param newStatus the new status to assign
-     * @return true if the update was successful, false otherwise
+     * @param newStatus the label of the new status, e.g. "Cleaning"
+     * @return true if the update was successful, false if the status is unknown, the transition is not allowed, or on error
      */
     public boolean updateRoomStatus(int roomId, String newStatus) {
-        String sql = "UPDATE rooms SET status = ? WHERE id = ?";
+        RoomStatus target = RoomStatus.fromLabel(newStatus);
+        if (target == null) {
+            System.out.println("Error updating room status: unknown status " + newStatus);
+            return false;
+        }
+        return updateRoomStatus(roomId, target);
+    }
 
-        try (Connection conn = DBConnection.getInstance();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Updates the status of a specific room, if the room may change to it (see RoomStatus).
+     *
+     * @param roomId the room ID
+     * @param target the new status
+     * @return true if the update was successful, false if the transition is not allowed or on error
+     */
+    public boolean updateRoomStatus(int roomId, RoomStatus target) {
+        long start = System.nanoTime();
 
-            stmt.setString(1, newStatus);
-            stmt.setInt(2, roomId);
-            return stmt.executeUpdate() > 0;
+        try (Connection conn = DBConnection.getInstance()) {
+
+            conn.setAutoCommit(false);
+            int rows = transition(conn, roomId, target);
+            if (rows > 0) {
+                ChangeEventLog.commit(conn, roomStatusChanged(roomId, target.getLabel()));
+            } else {
+                System.out.println("⚠️ Room " + roomId + " cannot change to " + target + " from its current status.");
+            }
+            UPDATE_ROOM_STATUS.rows(rows);
+            return rows > 0;
 
         } catch (SQLException e) {
+            UPDATE_ROOM_STATUS.error();
             System.out.println("Error updating room status: " + e.getMessage());
             return false;
+        } finally {
+            UPDATE_ROOM_STATUS.record(start);
         }
     }
 
+    /**
+     * Moves a room to a new status in the caller's transaction, only from a status allowed to precede it.
+     * The check and the write are one statement, so a change committed in between cannot be overwritten.
+     *
+     * @param conn the connection of the caller's transaction
+     * @param roomId the room ID
+     * @param target the new status
+     * @return 1 if the room was updated, 0 if it does not exist or may not change to the status
+     * @throws SQLException if the update fails
+     */
+    static int transition(Connection conn, int roomId, RoomStatus target) throws SQLException {
+        StringJoiner from = new StringJoiner(", ", "(", ")");
+        for (RoomStatus status : RoomStatus.predecessorsOf(target)) {
+            from.add(String.valueOf(status.getCode()));
+        }
+        String sql = "UPDATE rooms SET state = ?, status = ? WHERE id = ? AND state IN " + from;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, target.getCode());
+            stmt.setString(2, target.getLabel());
+            stmt.setInt(3, roomId);
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Builds the change event for a room status update.
+     *
+     * @param roomId the room ID
+     * @param status the new status
+     * @return the event to log with the update
+     */
+    static ChangeEvent roomStatusChanged(int roomId, String status) {
+        return new ChangeEvent(ChangeEvent.Type.ROOM_STATUS_CHANGED, roomId).with("status", status);
+    }
+
     /**
      * Updates the status of a specific room to 'Occupied'.
      *
      * @param roomId the room ID
      */
     public void updateRoomStatusToOccupied(int roomId) {
-        updateRoomStatus(roomId, "Occupied");
+        updateRoomStatus(roomId, RoomStatus.OCCUPIED);
     }
 
     /**
@@ -191,6 +379,7 @@ public class RoomDAO {
      */
     public boolean roomIdExists(int roomId) {
         String sql = "SELECT COUNT(*) FROM rooms WHERE id = ?";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -203,7 +392,10 @@ public class RoomDAO {
             }
 
         } catch (SQLException e) {
+            ROOM_ID_EXISTS.error();
             System.out.println("Error checking room ID: " + e.getMessage());
+        } finally {
+            ROOM_ID_EXISTS.record(start);
         }
 
         return false;
@@ -216,7 +408,7 @@ public class RoomDAO {
      * @param roomId the room ID
      */
     public void updateRoomStatusToAvailable(int roomId) {
-        updateRoomStatus(roomId, "Available");
+        updateRoomStatus(roomId, RoomStatus.AVAILABLE);
     }
 
     /**
@@ -228,6 +420,7 @@ public class RoomDAO {
      */
     public Room getRoomByNumber(String roomNumber) {
         String sql = "SELECT * FROM rooms WHERE room_number = ?";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -236,16 +429,15 @@ public class RoomDAO {
             ResultSet rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return new Room(
-                        rs.getInt("id"),
-                        rs.getString("room_number"),
-                        rs.getString("type"),
-                        rs.getString("status")
-                );
+                GET_ROOM_BY_NUMBER.rows(1);
+                return RowMappers.ROOM.bind(rs).map(rs);
             }
 
         } catch (SQLException e) {
+            GET_ROOM_BY_NUMBER.error();
             System.out.println("Error fetching room by number: " + e.getMessage());
+        } finally {
+            GET_ROOM_BY_NUMBER.record(start);
         }
 
         return null;
@@ -0,0 +1,44 @@
+package com.hotel.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to a model, reading its columns by index.
+ *
+ * A {@code rs.getString("guest_name")} lookup finds the column by name on every call, for every row. A mapper
+ * is bound to its result set first ({@link Binder#bind}), which looks each column up once; mapping a row then
+ * only reads values by index. The mappers of the models are shared by the DAOs, see {@link RowMappers}.
+ *
+ * @param <T> the model a row maps to
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Maps the current row.
+     *
+     * @param rs the result set the mapper was bound to, positioned on a row
+     * @return the model
+     * @throws SQLException if a column cannot be read
+     */
+    T map(ResultSet rs) throws SQLException;
+
+    /**
+     * Binds a mapper to a result set by looking up the indices of the columns it reads.
+     *
+     * @param <T> the model a row maps to
+     */
+    @FunctionalInterface
+    interface Binder<T> {
+
+        /**
+         * Looks up the columns of a result set.
+         *
+         * @param rs the result set, before or on its first row
+         * @return the mapper for the rows of this result set
+         * @throws SQLException if a column the mapper needs is missing
+         */
+        RowMapper<T> bind(ResultSet rs) throws SQLException;
+    }
+}
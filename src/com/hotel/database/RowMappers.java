@@ -0,0 +1,191 @@
+package com.hotel.database;
+
+import com.hotel.models.Bill;
+import com.hotel.models.ChangeEvent;
+import com.hotel.models.DailyRevenue;
+import com.hotel.models.Guest;
+import com.hotel.models.HousekeepingTask;
+import com.hotel.models.InventoryItem;
+import com.hotel.models.Reservation;
+import com.hotel.models.Room;
+import com.hotel.models.User;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * The row mappers of the models, shared by the DAOs, and helpers to read a result set through them.
+ *
+ * Each binder looks up its columns by name once per result set; the mapper it returns reads them by index,
+ * into primitives where the model has them, so a row costs the model and nothing else.
+ * A query must select every column its mapper reads; {@code SELECT *} always does.
+ */
+public final class RowMappers {
+
+    // Prevent instantiation of this utility class
+    private RowMappers() {
+    }
+
+    public static final RowMapper.Binder<Reservation> RESERVATION = rs -> {
+        int id = rs.findColumn("id");
+        int guestName = rs.findColumn("guest_name");
+        int checkIn = rs.findColumn("check_in");
+        int checkOut = rs.findColumn("check_out");
+        int roomType = rs.findColumn("room_type");
+        int paymentStatus = rs.findColumn("payment_status");
+        int specialRequests = rs.findColumn("special_requests");
+        int roomNumber = rs.findColumn("room_number");
+        int groupName = rs.findColumn("group_name");
+        int lateCheckout = rs.findColumn("late_checkout");
+        int guestId = rs.findColumn("guest_id");
+        int checkedOutAt = rs.findColumn("checked_out_at");
+        return row -> {
+            Reservation res = new Reservation(
+                    row.getInt(id),
+                    row.getString(guestName),
+                    row.getDate(checkIn),
+                    row.getDate(checkOut),
+                    row.getString(roomType),
+                    row.getString(paymentStatus),
+                    row.getString(specialRequests),
+                    row.getString(roomNumber),
+                    row.getString(groupName),
+                    row.getBoolean(lateCheckout)
+            );
+            res.setGuestId(row.getInt(guestId));
+            res.setCheckedOutAt(row.getTimestamp(checkedOutAt));
+            return res;
+        };
+    };
+
+    public static final RowMapper.Binder<Bill> BILL = rs -> {
+        int id = rs.findColumn("id");
+        int guestName = rs.findColumn("guest_name");
+        int roomType = rs.findColumn("room_type");
+        int nights = rs.findColumn("nights");
+        int services = rs.findColumn("services");
+        int baseCharge = rs.findColumn("base_charge");
+        int tax = rs.findColumn("tax");
+        int discount = rs.findColumn("discount");
+        int totalAmount = rs.findColumn("total_amount");
+        int guestId = rs.findColumn("guest_id");
+        int reservationId = rs.findColumn("reservation_id");
+        int groupName = rs.findColumn("group_name");
+        int groupCheckIn = rs.findColumn("group_check_in");
+        return row -> {
+            Bill bill = new Bill(
+                    row.getInt(id),
+                    row.getString(guestName),
+                    row.getString(roomType),
+                    row.getInt(nights),
+                    BillDAO.convertStringToServices(row.getString(services)), // Convert stored string to list of Service objects
+                    row.getDouble(baseCharge),
+                    row.getDouble(tax),
+                    row.getDouble(discount),
+                    row.getDouble(totalAmount)
+            );
+            bill.setGuestId(row.getInt(guestId));
+            bill.setReservationId(row.getInt(reservationId));
+            bill.setGroupName(row.getString(groupName));
+            bill.setGroupCheckIn(row.getDate(groupCheckIn));
+            return bill;
+        };
+    };
+
+    public static final RowMapper.Binder<Guest> GUEST = rs -> {
+        int id = rs.findColumn("id");
+        int fullName = rs.findColumn("full_name");
+        int nameKey = rs.findColumn("name_key");
+        int phoneticKey = rs.findColumn("phonetic_key");
+        return row -> new Guest(row.getInt(id), row.getString(fullName), row.getString(nameKey), row.getString(phoneticKey));
+    };
+
+    public static final RowMapper.Binder<Room> ROOM = rs -> {
+        int id = rs.findColumn("id");
+        int roomNumber = rs.findColumn("room_number");
+        int type = rs.findColumn("type");
+        int status = rs.findColumn("status");
+        return row -> new Room(row.getInt(id), row.getString(roomNumber), row.getString(type), row.getString(status));
+    };
+
+    public static final RowMapper.Binder<HousekeepingTask> HOUSEKEEPING_TASK = rs -> {
+        int id = rs.findColumn("id");
+        int roomId = rs.findColumn("room_id");
+        int assignedTo = rs.findColumn("assigned_to");
+        int status = rs.findColumn("status");
+        int scheduledDate = rs.findColumn("scheduled_date");
+        return row -> new HousekeepingTask(row.getInt(id), row.getInt(roomId), row.getString(assignedTo),
+                row.getString(status), row.getDate(scheduledDate));
+    };
+
+    public static final RowMapper.Binder<InventoryItem> INVENTORY_ITEM = rs -> {
+        int id = rs.findColumn("id");
+        int itemName = rs.findColumn("item_name");
+        int quantity = rs.findColumn("quantity");
+        int threshold = rs.findColumn("threshold");
+        int department = rs.findColumn("department");
+        return row -> new InventoryItem(row.getInt(id), row.getString(itemName), row.getInt(quantity),
+                row.getInt(threshold), row.getString(department));
+    };
+
+    public static final RowMapper.Binder<User> USER = rs -> {
+        int id = rs.findColumn("id");
+        int username = rs.findColumn("username");
+        int password = rs.findColumn("password");
+        int role = rs.findColumn("role");
+        return row -> new User(row.getInt(id), row.getString(username), row.getString(password), row.getString(role));
+    };
+
+    public static final RowMapper.Binder<ChangeEvent> CHANGE_EVENT = rs -> {
+        int seq = rs.findColumn("seq");
+        int eventType = rs.findColumn("event_type");
+        int entityId = rs.findColumn("entity_id");
+        int payload = rs.findColumn("payload");
+        int createdAt = rs.findColumn("created_at");
+        return row -> new ChangeEvent(row.getLong(seq), ChangeEvent.Type.valueOf(row.getString(eventType)),
+                row.getInt(entityId), ChangeEvent.decodeData(row.getString(payload)), row.getTimestamp(createdAt));
+    };
+
+    public static final RowMapper.Binder<DailyRevenue> DAILY_REVENUE = rs -> {
+        int businessDate = rs.findColumn("business_date");
+        int lineType = rs.findColumn("line_type");
+        int amount = rs.findColumn("amount");
+        int lineCount = rs.findColumn("line_count");
+        return row -> new DailyRevenue(row.getDate(businessDate), row.getString(lineType),
+                row.getDouble(amount), row.getInt(lineCount));
+    };
+
+    /**
+     * Maps every remaining row of a result set into a collection.
+     *
+     * @param rs the result set
+     * @param binder the mapper of its rows
+     * @param into the collection to add the models to
+     * @param <T> the model a row maps to
+     * @return the number of rows mapped
+     * @throws SQLException if the rows cannot be read
+     */
+    public static <T> int addRows(ResultSet rs, RowMapper.Binder<T> binder, Collection<? super T> into) throws SQLException {
+        RowMapper<T> mapper = binder.bind(rs);
+        int rows = 0;
+        while (rs.next()) {
+            into.add(mapper.map(rs));
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * Maps the next row of a result set, e.g. of a lookup by key.
+     *
+     * @param rs the result set
+     * @param binder the mapper of its rows
+     * @param <T> the model a row maps to
+     * @return the model, or null if there are no more rows
+     * @throws SQLException if the row cannot be read
+     */
+    public static <T> T firstRow(ResultSet rs, RowMapper.Binder<T> binder) throws SQLException {
+        return rs.next() ? binder.bind(rs).map(rs) : null;
+    }
+}
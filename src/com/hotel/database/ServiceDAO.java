@@ -5,6 +5,8 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
 import com.hotel.models.Service;
 
 import java.util.ArrayList;
@@ -14,6 +16,10 @@ import java.util.Map;
 
 public class ServiceDAO {
 
+    // Per-method call, error, row and latency statistics (see MetricsRegistry)
+    private static final LatencyStats GET_SERVICES_FOR_GUEST = MetricsRegistry.register("ServiceDAO", "getServicesForGuest");
+    private static final LatencyStats GET_SERVICES_FOR_GUEST_ID = MetricsRegistry.register("ServiceDAO", "getServicesForGuestId");
+
     /**
      * Simulated in-memory database of services with prices.
      * Can be replaced with actual database logic in the future.
@@ -37,6 +43,7 @@ public class ServiceDAO {
     public static List<Service> getServicesForGuest(String guestName) {
         List<Service> services = new ArrayList<>();
         String sql = "SELECT services FROM bills WHERE guest_name = ?";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -45,24 +52,63 @@ public class ServiceDAO {
             ResultSet rs = stmt.executeQuery();
 
             while (rs.next()) {
-                String serviceString = rs.getString("services");
-                if (serviceString != null && !serviceString.isEmpty()) {
-                    String[] serviceArray = serviceString.split(",\\s*");
-                    for (String name : serviceArray) {
-                        Service service = getServiceByName(name.trim());
-                        if (service != null) {
-                            services.add(service);
-                        }
-                    }
+                GET_SERVICES_FOR_GUEST.rows(1);
+                addServices(services, rs.getString("services"));
+            }
+        } catch (SQLException e) {
+            GET_SERVICES_FOR_GUEST.error();
+            System.out.println("Error fetching guest services: " + e.getMessage());
+        } finally {
+            GET_SERVICES_FOR_GUEST.record(start);
+        }
+
+        return services;
+    }
+
+    /**
+     * Retrieves the list of services on the bills of a guest.
+     *
+     * @param guestId the guest ID
+     * @return list of services associated with the guest
+     */
+    public static List<Service> getServicesForGuest(int guestId) {
+        List<Service> services = new ArrayList<>();
+        String sql = "SELECT services FROM bills WHERE guest_id = ?";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, guestId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    GET_SERVICES_FOR_GUEST_ID.rows(1);
+                    addServices(services, rs.getString("services"));
                 }
             }
         } catch (SQLException e) {
+            GET_SERVICES_FOR_GUEST_ID.error();
             System.out.println("Error fetching guest services: " + e.getMessage());
+        } finally {
+            GET_SERVICES_FOR_GUEST_ID.record(start);
         }
 
         return services;
     }
 
+    // Adds the services named in a bill's comma-separated services column
+    private static void addServices(List<Service> services, String serviceString) {
+        if (serviceString != null && !serviceString.isEmpty()) {
+            String[] serviceArray = serviceString.split(",\\s*");
+            for (String name : serviceArray) {
+                Service service = getServiceByName(name.trim());
+                if (service != null) {
+                    services.add(service);
+                }
+            }
+        }
+    }
+
     /**
      * Retrieves service details by name.
      *
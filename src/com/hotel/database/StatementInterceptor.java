@@ -0,0 +1,175 @@
+package com.hotel.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC proxies that report every statement execution to a {@link QueryMonitor}.
+ *
+ * The connection proxy hands out statement proxies; those remember the SQL and the bound parameters
+ * and time each execute call. Everything else is passed straight through to the driver, so the DAOs
+ * cannot tell the difference.
+ */
+final class StatementInterceptor {
+
+    // Prevent instantiation of this utility class
+    private StatementInterceptor() {
+    }
+
+    /**
+     * Wraps a pooled connection. Closing the wrapper closes (returns) the underlying connection.
+     *
+     * @param conn the connection to wrap
+     * @param monitor where executions are reported
+     * @return the monitored connection
+     */
+    static Connection wrap(Connection conn, QueryMonitor monitor) {
+        return (Connection) Proxy.newProxyInstance(StatementInterceptor.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(conn, monitor));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            // Rethrow the driver's own SQLException rather than the reflection wrapper
+            throw e.getCause();
+        }
+    }
+
+    private static Object handleObjectMethod(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("equals")) {
+            return proxy == args[0];
+        }
+        return invoke(target, method, args);
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final QueryMonitor monitor;
+
+        ConnectionHandler(Connection target, QueryMonitor monitor) {
+            this.target = target;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return handleObjectMethod(proxy, target, method, args);
+            }
+
+            Object result = StatementInterceptor.invoke(target, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return proxyStatement(Statement.class, (Statement) result, null);
+                case "prepareStatement":
+                    return proxyStatement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall":
+                    return proxyStatement(CallableStatement.class, (Statement) result, (String) args[0]);
+                default:
+                    return result;
+            }
+        }
+
+        private Object proxyStatement(Class<? extends Statement> type, Statement stmt, String sql) {
+            return Proxy.newProxyInstance(StatementInterceptor.class.getClassLoader(),
+                    new Class<?>[]{type}, new StatementHandler(stmt, sql, monitor));
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;   // null for plain statements, which pass SQL to each execute call
+        private final QueryMonitor monitor;
+
+        private final List<Object> parameters = new ArrayList<>();
+        private final List<String> batchSql = new ArrayList<>();
+
+        StatementHandler(Statement target, String sql, QueryMonitor monitor) {
+            this.target = target;
+            this.sql = sql;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return handleObjectMethod(proxy, target, method, args);
+            }
+
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+
+            // Positional parameter setters: setString(1, "Smith"), setNull(2, Types.DATE), ...
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch") && args != null && args.length == 1) {
+                batchSql.add((String) args[0]);
+            } else if (name.equals("clearBatch")) {
+                batchSql.clear();
+            }
+            return StatementInterceptor.invoke(target, method, args);
+        }
+
+        private void bind(int index, Object value) {
+            while (parameters.size() < index) {
+                parameters.add(null);
+            }
+            parameters.set(index - 1, value);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String executed = sql;
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                executed = (String) args[0];
+            } else if (executed == null && !batchSql.isEmpty()) {
+                executed = batchSql.get(0);
+            }
+
+            long start = System.nanoTime();
+            Object result = null;
+            boolean failed = true;
+            try {
+                result = StatementInterceptor.invoke(target, method, args);
+                failed = false;
+                return result;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                if (method.getName().endsWith("Batch")) {
+                    batchSql.clear();
+                }
+                if (executed != null) {
+                    Object[] bound = parameters.isEmpty() ? null : parameters.toArray();
+                    monitor.record(executed, bound, elapsed, rowCount(result), failed);
+                }
+            }
+        }
+
+        private static long rowCount(Object result) {
+            if (result instanceof Number n) {
+                return n.longValue();
+            }
+            long total = 0;
+            // Batch results; negative entries are SUCCESS_NO_INFO or EXECUTE_FAILED
+            if (result instanceof int[] counts) {
+                for (int c : counts) if (c > 0) total += c;
+            } else if (result instanceof long[] counts) {
+                for (long c : counts) if (c > 0) total += c;
+            }
+            return total;
+        }
+    }
+}
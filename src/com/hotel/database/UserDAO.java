@@ -1,14 +1,22 @@
 package com.hotel.database;
 
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
 import com.hotel.models.User;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class UserDAO {
 
+    // Per-method call, error, row and latency statistics (see MetricsRegistry)
+    private static final LatencyStats LOGIN = MetricsRegistry.register("UserDAO", "login");
+    private static final LatencyStats GET_USERNAMES_BY_ROLE = MetricsRegistry.register("UserDAO", "getUsernamesByRole");
+
     /**
      * Authenticates a user based on the provided username and password.
      *
@@ -18,6 +26,7 @@ public class UserDAO {
      */
     public User login(String username, String password) {
         String sql = "SELECT * FROM users WHERE username = ? AND password = ?";
+        long start = System.nanoTime();
 
         try (Connection conn = DBConnection.getInstance();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -27,17 +36,45 @@ public class UserDAO {
 
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return new User(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getString("password"),
-                        rs.getString("role")
-                );
+                LOGIN.rows(1);
+                return RowMappers.USER.bind(rs).map(rs);
             }
         } catch (SQLException e) {
+            LOGIN.error();
             System.out.println("Login failed: " + e.getMessage());
+        } finally {
+            LOGIN.record(start);
         }
 
         return null; // Invalid credentials
     }
+
+    /**
+     * Retrieves the usernames of every user with a role, e.g. the housekeeping roster.
+     *
+     * @param role the role, matched ignoring case
+     * @return the usernames in name order
+     */
+    public List<String> getUsernamesByRole(String role) {
+        List<String> usernames = new ArrayList<>();
+        String sql = "SELECT username FROM users WHERE LOWER(role) = LOWER(?) ORDER BY username";
+        long start = System.nanoTime();
+
+        try (Connection conn = DBConnection.getInstance();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, role);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                usernames.add(rs.getString("username"));
+            }
+            GET_USERNAMES_BY_ROLE.rows(usernames.size());
+        } catch (SQLException e) {
+            GET_USERNAMES_BY_ROLE.error();
+            System.out.println("Error fetching users by role: " + e.getMessage());
+        } finally {
+            GET_USERNAMES_BY_ROLE.record(start);
+        }
+        return usernames;
+    }
 }
@@ -0,0 +1,37 @@
+package com.hotel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Generation of a final bill for a guest or a group, from the duplicate check to the insert.
+ */
+@Name("com.hotel.BillGenerated")
+@Label("Bill Generated")
+@Category({"Hotel", "Billing"})
+@Description("Final bill generation for an individual or group reservation")
+public class BillGeneratedEvent extends jdk.jfr.Event {
+
+    @Label("Room Type")
+    @Description("The guest's room type, or Group")
+    public String roomType;
+
+    @Label("Group Size")
+    @Description("Reservations covered by the bill")
+    public int groupSize;
+
+    @Label("Nights")
+    public int nights;
+
+    @Label("Services")
+    public int serviceCount;
+
+    @Label("Total Amount")
+    public double totalAmount;
+
+    @Label("Succeeded")
+    @Description("False when the bill already existed or the insert failed")
+    public boolean succeeded;
+}
@@ -0,0 +1,41 @@
+package com.hotel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One DAO method call, emitted when it completes. Sits on the same thread as the booking, billing and
+ * report events above it, so a slow flow can be broken down into the SQL it ran.
+ *
+ * The {@code minElapsed} setting drops fast calls, e.g. {@code <setting name="minElapsed">10 ms</setting>}.
+ */
+@Name("com.hotel.DaoCall")
+@Label("DAO Call")
+@Category({"Hotel", "Database"})
+@Description("Completed call to a DAO method")
+@StackTrace(false)
+public class DaoCallEvent extends jdk.jfr.Event {
+
+    @Label("DAO")
+    public String dao;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    public long elapsed;
+
+    @Label("Minimum Elapsed")
+    @Description("Calls faster than this are not recorded")
+    @Name("minElapsed")
+    @SettingDefinition
+    protected boolean minElapsed(ElapsedThresholdSetting setting) {
+        return elapsed >= setting.getThresholdNanos();
+    }
+}
@@ -0,0 +1,66 @@
+package com.hotel.jfr;
+
+import jdk.jfr.SettingControl;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JFR setting for {@link DaoCallEvent}: the minimum elapsed time, e.g. "20 ms", below which calls are dropped.
+ * When several recordings run at once the lowest threshold wins, like JFR's own threshold setting.
+ */
+public class ElapsedThresholdSetting extends SettingControl {
+
+    private volatile String value = "0 ns";
+    private volatile long thresholdNanos;
+
+    long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    @Override
+    public String combine(Set<String> values) {
+        String lowest = "0 ns";
+        long lowestNanos = Long.MAX_VALUE;
+        for (String v : values) {
+            long nanos = parse(v);
+            if (nanos < lowestNanos) {
+                lowestNanos = nanos;
+                lowest = v;
+            }
+        }
+        return lowest;
+    }
+
+    @Override
+    public void setValue(String value) {
+        this.thresholdNanos = parse(value);
+        this.value = value;
+    }
+
+    @Override
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Parses JFR's duration syntax: a number followed by ns, us, ms, s, m or h.
+     */
+    private static long parse(String text) {
+        String[] parts = text.trim().split("\\s+");
+        try {
+            long amount = Long.parseLong(parts[0]);
+            String unit = parts.length > 1 ? parts[1] : "ns";
+            return switch (unit) {
+                case "us" -> TimeUnit.MICROSECONDS.toNanos(amount);
+                case "ms" -> TimeUnit.MILLISECONDS.toNanos(amount);
+                case "s" -> TimeUnit.SECONDS.toNanos(amount);
+                case "m" -> TimeUnit.MINUTES.toNanos(amount);
+                case "h" -> TimeUnit.HOURS.toNanos(amount);
+                default -> amount;
+            };
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
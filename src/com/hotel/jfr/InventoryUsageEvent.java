@@ -0,0 +1,26 @@
+package com.hotel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Logging consumption of an inventory item: stock check, usage row and quantity update.
+ */
+@Name("com.hotel.InventoryUsage")
+@Label("Inventory Usage Logged")
+@Category({"Hotel", "Inventory"})
+@Description("Usage logged against an inventory item")
+public class InventoryUsageEvent extends jdk.jfr.Event {
+
+    @Label("Item Name")
+    public String itemName;
+
+    @Label("Quantity")
+    public int quantity;
+
+    @Label("Succeeded")
+    @Description("False when stock was insufficient, the item was unknown or a statement failed")
+    public boolean succeeded;
+}
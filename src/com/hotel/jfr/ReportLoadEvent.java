@@ -0,0 +1,25 @@
+package com.hotel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Loading the reports dashboard: reading bills, rooms and inventory and aggregating them.
+ */
+@Name("com.hotel.ReportLoad")
+@Label("Report Load")
+@Category({"Hotel", "Reports"})
+@Description("Reports dashboard data load and aggregation")
+public class ReportLoadEvent extends jdk.jfr.Event {
+
+    @Label("Bills")
+    public int bills;
+
+    @Label("Rooms")
+    public int rooms;
+
+    @Label("Inventory Items")
+    public int inventoryItems;
+}
@@ -0,0 +1,34 @@
+package com.hotel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One submission of the reservation form, from validation to the last room being marked occupied.
+ * Individual bookings have a group size of 1.
+ */
+@Name("com.hotel.ReservationCreated")
+@Label("Reservation Created")
+@Category({"Hotel", "Booking"})
+@Description("Front desk reservation submission, covering room allocation and inserts")
+public class ReservationCreatedEvent extends jdk.jfr.Event {
+
+    @Label("Room Type")
+    @Description("Requested room type, or Mixed for a group with several types")
+    public String roomType;
+
+    @Label("Group Booking")
+    public boolean groupBooking;
+
+    @Label("Group Size")
+    @Description("Rooms requested in this submission")
+    public int groupSize;
+
+    @Label("Rooms Allocated")
+    public int roomsAllocated;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
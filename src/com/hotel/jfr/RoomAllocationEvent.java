@@ -0,0 +1,26 @@
+package com.hotel.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Finding a free room of a type and taking it: the availability lookup, the reservation write and the status change.
+ */
+@Name("com.hotel.RoomAllocation")
+@Label("Room Allocation")
+@Category({"Hotel", "Booking"})
+@Description("Lookup of an available room and marking it occupied")
+public class RoomAllocationEvent extends jdk.jfr.Event {
+
+    @Label("Room Type")
+    public String roomType;
+
+    @Label("Room Number")
+    @Description("The allocated room, empty when none was available")
+    public String roomNumber;
+
+    @Label("Allocated")
+    public boolean allocated;
+}
@@ -0,0 +1,166 @@
+package com.hotel.metrics;
+
+import com.hotel.jfr.DaoCallEvent;
+import jdk.jfr.EventType;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, error count, row count and latency histogram for one instrumented method.
+ *
+ * Recording is lock-free and allocation-free, so it can sit on every DAO call
+ * (while a flight recording is running, each call is also emitted as a {@link DaoCallEvent}):
+ * <pre>
+ * long start = System.nanoTime();
+ * try { ... STATS.rows(n); } catch (SQLException e) { STATS.error(); ... } finally { STATS.record(start); }
+ * </pre>
+ * Latencies go into power-of-two nanosecond buckets, so percentiles are accurate to within a factor of two,
+ * which is enough to tell a 1 ms lookup from a 100 ms one.
+ */
+public class LatencyStats implements LatencyStatsMBean {
+
+    private static final int BUCKETS = 64;
+    private static final EventType DAO_CALL_EVENT = EventType.getEventType(DaoCallEvent.class);
+
+    private final String group;
+    private final String name;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    // Bucket i holds [2^i, 2^(i+1)) ns; LongAdder stripes concurrent desks hitting the same bucket
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    /**
+     * Constructor for LatencyStats. Use {@link MetricsRegistry#register} to create registered instances.
+     *
+     * @param group the owning class, e.g. ReservationDAO
+     * @param name the method name
+     */
+    LatencyStats(String group, String name) {
+        this.group = group;
+        this.name = name;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public String getGroup() { return group; }
+    public String getName() { return name; }
+
+    /**
+     * Records one completed call.
+     *
+     * @param startNanos the System.nanoTime() taken when the call started
+     */
+    public void record(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (elapsed < 0) elapsed = 0;
+
+        calls.increment();
+        totalNanos.add(elapsed);
+        buckets[63 - Long.numberOfLeadingZeros(elapsed | 1)].increment();
+
+        long max = maxNanos.get();
+        while (elapsed > max && !maxNanos.compareAndSet(max, elapsed)) {
+            max = maxNanos.get();
+        }
+
+        // Only allocates while a flight recording has the event enabled
+        if (DAO_CALL_EVENT.isEnabled()) {
+            DaoCallEvent event = new DaoCallEvent();
+            event.dao = group;
+            event.method = name;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts a failed call. The call itself is still recorded by {@link #record}.
+     */
+    public void error() {
+        errors.increment();
+    }
+
+    /**
+     * Adds the rows read or written by a call.
+     *
+     * @param count the number of rows
+     */
+    public void rows(long count) {
+        rows.add(count);
+    }
+
+    @Override
+    public long getCalls() { return calls.sum(); }
+
+    @Override
+    public long getErrors() { return errors.sum(); }
+
+    @Override
+    public long getRows() { return rows.sum(); }
+
+    @Override
+    public double getMeanMillis() {
+        long n = calls.sum();
+        return n == 0 ? 0 : totalNanos.sum() / (double) n / 1_000_000;
+    }
+
+    @Override
+    public double getP50Millis() { return getPercentileMillis(50); }
+
+    @Override
+    public double getP90Millis() { return getPercentileMillis(90); }
+
+    @Override
+    public double getP99Millis() { return getPercentileMillis(99); }
+
+    @Override
+    public double getP999Millis() { return getPercentileMillis(99.9); }
+
+    @Override
+    public double getMaxMillis() { return maxNanos.get() / 1_000_000.0; }
+
+    /**
+     * Estimates a latency percentile from the histogram.
+     *
+     * @param percentile e.g. 99 for p99
+     * @return the estimated latency in milliseconds, the midpoint of the matching bucket
+     */
+    public double getPercentileMillis(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Never report more than the observed maximum
+                return Math.min(1.5 * (1L << i), maxNanos.get()) / 1_000_000;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.hotel.metrics;
+
+/**
+ * JMX view of one instrumented method, published as {@code com.hotel:type=<group>,name=<method>}.
+ */
+public interface LatencyStatsMBean {
+
+    long getCalls();
+
+    long getErrors();
+
+    long getRows();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+
+    /**
+     * Clears all counters and the histogram.
+     */
+    void reset();
+}
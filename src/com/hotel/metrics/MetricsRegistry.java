@@ -0,0 +1,171 @@
+package com.hotel.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds every {@link LatencyStats} in the application and publishes them.
+ *
+ * Each entry is registered with the platform MBean server as {@code com.hotel:type=<group>,name=<name>},
+ * so JConsole or VisualVM can read them from a running front desk. The reporter can also dump all
+ * entries periodically as text or JSON:
+ * <ul>
+ *     <li>{@code -Dhotel.metrics.dumpIntervalSec=60} turns the reporter on (0, the default, keeps it off)</li>
+ *     <li>{@code -Dhotel.metrics.dumpFile=metrics.json} writes JSON to a file; a name not ending in .json gets text;
+ *         without a file the text dump goes to standard output</li>
+ * </ul>
+ */
+public final class MetricsRegistry {
+
+    private static final String DOMAIN = "com.hotel";
+
+    // Sorted so dumps list methods of the same class together
+    private static final Map<String, LatencyStats> STATS = new ConcurrentSkipListMap<>();
+    private static ScheduledExecutorService reporter;
+
+    // Prevent instantiation of this utility class
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Returns the statistics for a method, creating and publishing them on first use.
+     * Call once and keep the result in a static field; the lookup is not meant for the hot path.
+     *
+     * @param group the owning class, e.g. ReservationDAO
+     * @param name the method name
+     * @return the shared statistics
+     */
+    public static LatencyStats register(String group, String name) {
+        return STATS.computeIfAbsent(group + "." + name, key -> {
+            LatencyStats stats = new LatencyStats(group, name);
+            publish(stats);
+            return stats;
+        });
+    }
+
+    private static void publish(LatencyStats stats) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(stats, new ObjectName(DOMAIN + ":type=" + stats.getGroup() + ",name=" + stats.getName()));
+        } catch (InstanceAlreadyExistsException e) {
+            // Another class loader in the same JVM got there first; the in-process entry still works
+        } catch (JMException e) {
+            System.out.println("Error registering metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return all registered statistics in name order
+     */
+    public static List<LatencyStats> getAll() {
+        return new ArrayList<>(STATS.values());
+    }
+
+    /**
+     * Formats every method that has been called as one line of text.
+     *
+     * @return the text dump
+     */
+    public static String dumpText() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%-48s %9s %7s %10s %9s %9s %9s %9s%n",
+                "method", "calls", "errors", "rows", "mean ms", "p50 ms", "p99 ms", "max ms"));
+        for (LatencyStats s : STATS.values()) {
+            if (s.getCalls() == 0) continue;
+            out.append(String.format(Locale.ROOT, "%-48s %9d %7d %10d %9.3f %9.3f %9.3f %9.3f%n",
+                    s.getGroup() + "." + s.getName(), s.getCalls(), s.getErrors(), s.getRows(),
+                    s.getMeanMillis(), s.getP50Millis(), s.getP99Millis(), s.getMaxMillis()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Formats every registered method as a JSON array.
+     *
+     * @return the JSON dump
+     */
+    public static String dumpJson() {
+        StringBuilder out = new StringBuilder("[");
+        boolean first = true;
+        for (LatencyStats s : STATS.values()) {
+            if (!first) out.append(',');
+            first = false;
+            out.append(String.format(Locale.ROOT,
+                    "%n  {\"group\":\"%s\",\"name\":\"%s\",\"calls\":%d,\"errors\":%d,\"rows\":%d,"
+                            + "\"meanMs\":%.3f,\"p50Ms\":%.3f,\"p90Ms\":%.3f,\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"maxMs\":%.3f}",
+                    s.getGroup(), s.getName(), s.getCalls(), s.getErrors(), s.getRows(), s.getMeanMillis(),
+                    s.getP50Millis(), s.getP90Millis(), s.getP99Millis(), s.getP999Millis(), s.getMaxMillis()));
+        }
+        return out.append(String.format("%n]%n")).toString();
+    }
+
+    /**
+     * Starts the periodic dump if {@code hotel.metrics.dumpIntervalSec} is set to a positive value.
+     */
+    public static void startReporterFromSystemProperties() {
+        long interval = Long.getLong("hotel.metrics.dumpIntervalSec", 0);
+        if (interval > 0) {
+            String file = System.getProperty("hotel.metrics.dumpFile");
+            startReporter(interval, file != null ? Paths.get(file) : null);
+        }
+    }
+
+    /**
+     * Dumps all statistics every interval on a daemon thread.
+     *
+     * @param intervalSeconds seconds between dumps
+     * @param file the file to overwrite on each dump (JSON if it ends in .json), or null for standard output
+     */
+    public static synchronized void startReporter(long intervalSeconds, Path file) {
+        stopReporter();
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> dump(file), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic dump.
+     */
+    public static synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    private static void dump(Path file) {
+        if (file == null) {
+            System.out.print(dumpText());
+            return;
+        }
+        try {
+            String content = file.toString().endsWith(".json") ? dumpJson() : dumpText();
+            // Write then rename so readers never see a half-written file
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, content, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Error writing metrics: " + e.getMessage());
+        }
+    }
+}
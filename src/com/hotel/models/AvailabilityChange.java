@@ -0,0 +1,34 @@
+package com.hotel.models;
+
+import java.time.LocalDate;
+
+/**
+ * The number of rooms of one type still free on one night, as published by the availability feed.
+ */
+public class AvailabilityChange {
+    private final long sequence;
+    private final String roomType;
+    private final LocalDate date;
+    private final int available;
+
+    /**
+     * Constructor for AvailabilityChange.
+     *
+     * @param sequence the feed sequence number at which this value was published
+     * @param roomType the room type
+     * @param date the night, identified by its date
+     * @param available rooms still free; negative when the type is overbooked
+     */
+    public AvailabilityChange(long sequence, String roomType, LocalDate date, int available) {
+        this.sequence = sequence;
+        this.roomType = roomType;
+        this.date = date;
+        this.available = available;
+    }
+
+    // Getters
+    public long getSequence() { return sequence; }
+    public String getRoomType() { return roomType; }
+    public LocalDate getDate() { return date; }
+    public int getAvailable() { return available; }
+}
@@ -0,0 +1,44 @@
+package com.hotel.models;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What a channel client needs to bring its copy of availability up to date.
+ *
+ * A delta update lists only the (room type, night) values that changed since the client's sequence number.
+ * A full update, sent when the client is new or too far behind, lists every night with bookings;
+ * nights not listed have all rooms of the type free.
+ * Sequence numbers only compare within one epoch: a client sends back both.
+ */
+public class AvailabilityUpdate {
+    private final String epoch;
+    private final long sequence;
+    private final boolean full;
+    private final Map<String, Integer> roomTotals;
+    private final List<AvailabilityChange> changes;
+
+    /**
+     * Constructor for AvailabilityUpdate.
+     *
+     * @param epoch the epoch of the sequence number, to send with it next time
+     * @param sequence the sequence number to ask from next time
+     * @param full true if the client must replace its copy rather than patch it
+     * @param roomTotals sellable rooms per type
+     * @param changes the changed values, or every booked night for a full update
+     */
+    public AvailabilityUpdate(String epoch, long sequence, boolean full, Map<String, Integer> roomTotals, List<AvailabilityChange> changes) {
+        this.epoch = epoch;
+        this.sequence = sequence;
+        this.full = full;
+        this.roomTotals = roomTotals;
+        this.changes = changes;
+    }
+
+    // Getters
+    public String getEpoch() { return epoch; }
+    public long getSequence() { return sequence; }
+    public boolean isFull() { return full; }
+    public Map<String, Integer> getRoomTotals() { return roomTotals; }
+    public List<AvailabilityChange> getChanges() { return changes; }
+}
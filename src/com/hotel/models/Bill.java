@@ -1,9 +1,14 @@
 package com.hotel.models;
 
+import java.sql.Date;
 import java.util.List;
 
 public class Bill {
     private int id;
+    private int guestId;  // The guest billed; 0 for group bills
+    private int reservationId;  // The stay billed; 0 for group bills, at most one bill per stay
+    private String groupName;   // The group billed, null for individual bills; at most one bill per group
+    private Date groupCheckIn;  // The arrival date of the group billed; with groupName it identifies the group
     private String guestName;
     private String roomType;
     private int nights;
@@ -58,6 +63,10 @@ public class Bill {
 
     // Getters
     public int getId() { return id; }
+    public int getGuestId() { return guestId; }
+    public int getReservationId() { return reservationId; }
+    public String getGroupName() { return groupName; }
+    public Date getGroupCheckIn() { return groupCheckIn; }
     public String getGuestName() { return guestName; }
     public String getRoomType() { return roomType; }
     public int getNights() { return nights; }
@@ -69,6 +78,10 @@ public class Bill {
 
     // Setters
     public void setId(int id) { this.id = id; }
+    public void setGuestId(int guestId) { this.guestId = guestId; }
+    public void setReservationId(int reservationId) { this.reservationId = reservationId; }
+    public void setGroupName(String groupName) { this.groupName = groupName; }
+    public void setGroupCheckIn(Date groupCheckIn) { this.groupCheckIn = groupCheckIn; }
     public void setGuestName(String guestName) { this.guestName = guestName; }
     public void setRoomType(String roomType) { this.roomType = roomType; }
     public void setNights(int nights) { this.nights = nights; }
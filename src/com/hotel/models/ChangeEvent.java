@@ -0,0 +1,161 @@
+package com.hotel.models;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One committed write to the hotel data, as recorded in the change event log.
+ *
+ * The type says which kind of row changed, the entity id which row, and the data holds the
+ * values a consumer needs to update without reading the row back (e.g. room type and dates of a reservation).
+ * Sequence numbers are assigned by the log when the write commits and only ever increase.
+ */
+public class ChangeEvent {
+
+    /**
+     * The kinds of change, named after the row they describe.
+     */
+    public enum Type {
+        RESERVATION_CREATED,
+        RESERVATION_UPDATED,
+        RESERVATION_DELETED,
+        RESERVATION_CHECKED_OUT,
+        ROOM_ADDED,
+        ROOM_STATUS_CHANGED,
+        BILL_CREATED,
+        INVENTORY_ITEM_ADDED,
+        INVENTORY_QUANTITY_CHANGED,
+        INVENTORY_USED,
+        HOUSEKEEPING_TASK_ADDED,
+        HOUSEKEEPING_STATUS_CHANGED,
+        BUSINESS_DATE_CLOSED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final int entityId;
+    private final Map<String, String> data;
+    private final Timestamp createdAt;
+
+    /**
+     * Constructor for ChangeEvent without a sequence (used before the event is logged).
+     *
+     * @param type the kind of change
+     * @param entityId the ID of the changed row
+     */
+    public ChangeEvent(Type type, int entityId) {
+        this(0, type, entityId, new LinkedHashMap<>(), null);
+    }
+
+    /**
+     * Constructor for ChangeEvent with a sequence (used when read from the log).
+     *
+     * @param sequence the log sequence number
+     * @param type the kind of change
+     * @param entityId the ID of the changed row
+     * @param data the changed values by name
+     * @param createdAt when the event was logged
+     */
+    public ChangeEvent(long sequence, Type type, int entityId, Map<String, String> data, Timestamp createdAt) {
+        this.sequence = sequence;
+        this.type = type;
+        this.entityId = entityId;
+        this.data = data;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Adds a value to the event data. Null values are left out.
+     *
+     * @param name the value name, e.g. "roomType"
+     * @param value the value; stored as its string form
+     * @return this event
+     */
+    public ChangeEvent with(String name, Object value) {
+        if (value != null) {
+            data.put(name, value.toString());
+        }
+        return this;
+    }
+
+    /**
+     * Returns a copy of this event stamped with its log position.
+     *
+     * @param sequence the sequence number assigned by the log
+     * @param createdAt when the event was logged
+     * @return the logged event
+     */
+    public ChangeEvent logged(long sequence, Timestamp createdAt) {
+        return new ChangeEvent(sequence, type, entityId, data, createdAt);
+    }
+
+    // Getters
+    public long getSequence() { return sequence; }
+    public Type getType() { return type; }
+    public int getEntityId() { return entityId; }
+    public Map<String, String> getData() { return Collections.unmodifiableMap(data); }
+    public Timestamp getCreatedAt() { return createdAt; }
+
+    public String get(String name) {
+        return data.get(name);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = data.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    public double getDouble(String name, double defaultValue) {
+        String value = data.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    public Date getDate(String name) {
+        String value = data.get(name);
+        return value != null ? Date.valueOf(value) : null;
+    }
+
+    /**
+     * Encodes the event data for the payload column, as URL-encoded name=value pairs.
+     *
+     * @return the encoded data
+     */
+    public String encodeData() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            if (out.length() > 0) out.append('&');
+            out.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Decodes a payload written by {@link #encodeData()}.
+     *
+     * @param payload the encoded data, may be null or empty
+     * @return the values by name
+     */
+    public static Map<String, String> decodeData(String payload) {
+        Map<String, String> data = new LinkedHashMap<>();
+        if (payload == null || payload.isEmpty()) return data;
+        for (String pair : payload.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0) continue;
+            data.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " " + entityId + (data.isEmpty() ? "" : " " + data);
+    }
+}
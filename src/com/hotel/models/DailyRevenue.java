@@ -0,0 +1,37 @@
+package com.hotel.models;
+
+import java.sql.Date;
+
+public class DailyRevenue {
+    private Date businessDate;
+    private String lineType;
+    private double amount;
+    private int lineCount;
+
+    /**
+     * Constructor for DailyRevenue.
+     *
+     * @param businessDate the business day the charges were posted to
+     * @param lineType the kind of charge (e.g., ROOM)
+     * @param amount the total posted for the day
+     * @param lineCount the number of folio lines posted for the day
+     */
+    public DailyRevenue(Date businessDate, String lineType, double amount, int lineCount) {
+        this.businessDate = businessDate;
+        this.lineType = lineType;
+        this.amount = amount;
+        this.lineCount = lineCount;
+    }
+
+    // Getters
+    public Date getBusinessDate() { return businessDate; }
+    public String getLineType() { return lineType; }
+    public double getAmount() { return amount; }
+    public int getLineCount() { return lineCount; }
+
+    // Setters
+    public void setBusinessDate(Date businessDate) { this.businessDate = businessDate; }
+    public void setLineType(String lineType) { this.lineType = lineType; }
+    public void setAmount(double amount) { this.amount = amount; }
+    public void setLineCount(int lineCount) { this.lineCount = lineCount; }
+}
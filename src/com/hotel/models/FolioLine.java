@@ -0,0 +1,48 @@
+package com.hotel.models;
+
+import java.sql.Date;
+
+public class FolioLine {
+    private long id;
+    private int reservationId;
+    private Date businessDate;
+    private String lineType; // ROOM for the night audit's room charges, otherwise the posting outlet (e.g. SPA)
+    private String description;
+    private double amount;
+    private String postingKey;
+
+    /**
+     * Constructor for FolioLine without an ID or business date (used before posting).
+     *
+     * @param reservationId the ID of the stay whose folio is charged
+     * @param lineType the kind of charge
+     * @param description the text shown on the folio
+     * @param amount the amount charged
+     * @param postingKey the key that makes the posting idempotent
+     */
+    public FolioLine(int reservationId, String lineType, String description, double amount, String postingKey) {
+        this.reservationId = reservationId;
+        this.lineType = lineType;
+        this.description = description;
+        this.amount = amount;
+        this.postingKey = postingKey;
+    }
+
+    // Getters
+    public long getId() { return id; }
+    public int getReservationId() { return reservationId; }
+    public Date getBusinessDate() { return businessDate; }
+    public String getLineType() { return lineType; }
+    public String getDescription() { return description; }
+    public double getAmount() { return amount; }
+    public String getPostingKey() { return postingKey; }
+
+    // Setters
+    public void setId(long id) { this.id = id; }
+    public void setReservationId(int reservationId) { this.reservationId = reservationId; }
+    public void setBusinessDate(Date businessDate) { this.businessDate = businessDate; }
+    public void setLineType(String lineType) { this.lineType = lineType; }
+    public void setDescription(String description) { this.description = description; }
+    public void setAmount(double amount) { this.amount = amount; }
+    public void setPostingKey(String postingKey) { this.postingKey = postingKey; }
+}
@@ -0,0 +1,34 @@
+package com.hotel.models;
+
+import java.sql.Date;
+
+/**
+ * A group: the stays booked under one group name that arrive on one date.
+ * Group names are free text and get reused (a wedding party, a recurring corporate block),
+ * so the arrival date tells apart two groups of the same name.
+ */
+public class GroupBooking {
+    private final String groupName;
+    private final Date checkIn;
+
+    /**
+     * Constructor for GroupBooking.
+     *
+     * @param groupName the group name shared by its stays
+     * @param checkIn the arrival date of its stays
+     */
+    public GroupBooking(String groupName, Date checkIn) {
+        this.groupName = groupName;
+        this.checkIn = checkIn;
+    }
+
+    // Getters
+    public String getGroupName() { return groupName; }
+    public Date getCheckIn() { return checkIn; }
+
+    // Shown in group pickers; the arrival date tells apart groups with the same name
+    @Override
+    public String toString() {
+        return groupName + " (" + checkIn + ")";
+    }
+}
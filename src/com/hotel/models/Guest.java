@@ -0,0 +1,41 @@
+package com.hotel.models;
+
+public class Guest {
+    private int id;
+    private String fullName;
+    private String nameKey;      // Normalized name, see GuestMatcher
+    private String phoneticKey;  // Sounds-alike key, see GuestMatcher
+
+    /**
+     * Constructor for Guest.
+     *
+     * @param id the unique guest ID
+     * @param fullName the guest's name as entered
+     * @param nameKey the normalized name
+     * @param phoneticKey the sounds-alike key
+     */
+    public Guest(int id, String fullName, String nameKey, String phoneticKey) {
+        this.id = id;
+        this.fullName = fullName;
+        this.nameKey = nameKey;
+        this.phoneticKey = phoneticKey;
+    }
+
+    // Getters
+    public int getId() { return id; }
+    public String getFullName() { return fullName; }
+    public String getNameKey() { return nameKey; }
+    public String getPhoneticKey() { return phoneticKey; }
+
+    // Setters
+    public void setId(int id) { this.id = id; }
+    public void setFullName(String fullName) { this.fullName = fullName; }
+    public void setNameKey(String nameKey) { this.nameKey = nameKey; }
+    public void setPhoneticKey(String phoneticKey) { this.phoneticKey = phoneticKey; }
+
+    // Shown in guest pickers; the ID tells apart guests with the same name
+    @Override
+    public String toString() {
+        return fullName + " (#" + id + ")";
+    }
+}
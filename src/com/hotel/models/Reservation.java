@@ -1,9 +1,11 @@
 package com.hotel.models;
 
 import java.sql.Date;
+import java.sql.Timestamp;
 
 public class Reservation {
     private int id;
+    private int guestId; // The guest the stay belongs to; 0 until linked, and for group bookings
     private String guestName;
     private Date checkIn;
     private Date checkOut;
@@ -13,6 +15,7 @@ public class Reservation {
     private String roomNumber;
     private String groupName;
     private boolean lateCheckout; // Field to indicate if late checkout is requested
+    private Timestamp checkedOutAt; // Set when the guest checks out; null while in house
 
     /**
      * Constructor for Reservation without ID (used before database insertion).
@@ -100,6 +103,9 @@ public class Reservation {
     public int getId() { return id; }
     public void setId(int id) { this.id = id; }
 
+    public int getGuestId() { return guestId; }
+    public void setGuestId(int guestId) { this.guestId = guestId; }
+
     public String getGuestName() { return guestName; }
     public void setGuestName(String guestName) { this.guestName = guestName; }
 
@@ -126,4 +132,9 @@ public class Reservation {
 
     public boolean isLateCheckout() { return lateCheckout; }
     public void setLateCheckout(boolean lateCheckout) { this.lateCheckout = lateCheckout; }
+
+    public Timestamp getCheckedOutAt() { return checkedOutAt; }
+    public void setCheckedOutAt(Timestamp checkedOutAt) { this.checkedOutAt = checkedOutAt; }
+
+    public boolean isCheckedOut() { return checkedOutAt != null; }
 }
@@ -0,0 +1,145 @@
+package com.hotel.models;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The states a room can be in, and which state may follow which.
+ *
+ * Each state is stored as a small code in {@code rooms.state} (a TINYINT); the label is the text kept
+ * in {@code rooms.status} and shown on screen. A room changes state only along the transitions below,
+ * e.g. a room being cleaned or under maintenance can never be handed to a guest directly:
+ * <pre>
+ * Available   -&gt; Occupied, Cleaning, Ready, Maintenance
+ * Occupied    -&gt; Available, Cleaning, Maintenance
+ * Cleaning    -&gt; Available, Ready, Maintenance
+ * Ready       -&gt; Available, Occupied, Cleaning, Maintenance
+ * Maintenance -&gt; Available, Cleaning, Ready
+ * </pre>
+ * Setting a room to the state it is already in is always allowed and changes nothing.
+ */
+public enum RoomStatus {
+    AVAILABLE(1, "Available"),
+    OCCUPIED(2, "Occupied"),
+    CLEANING(3, "Cleaning"),
+    READY(4, "Ready"),
+    MAINTENANCE(5, "Maintenance");
+
+    private static final RoomStatus[] BY_CODE = new RoomStatus[8];
+
+    static {
+        for (RoomStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+        AVAILABLE.next = EnumSet.of(OCCUPIED, CLEANING, READY, MAINTENANCE);
+        OCCUPIED.next = EnumSet.of(AVAILABLE, CLEANING, MAINTENANCE);
+        CLEANING.next = EnumSet.of(AVAILABLE, READY, MAINTENANCE);
+        READY.next = EnumSet.of(AVAILABLE, OCCUPIED, CLEANING, MAINTENANCE);
+        MAINTENANCE.next = EnumSet.of(AVAILABLE, CLEANING, READY);
+        for (RoomStatus status : values()) {
+            status.next.add(status);
+        }
+    }
+
+    private final int code;
+    private final String label;
+    private Set<RoomStatus> next;
+
+    RoomStatus(int code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    /**
+     * @return the code stored in rooms.state
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return the text stored in rooms.status and shown to users, e.g. "Available"
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Checks whether a room in this state may be set to another.
+     *
+     * @param target the requested state
+     * @return true if the transition is allowed
+     */
+    public boolean canBecome(RoomStatus target) {
+        return next.contains(target);
+    }
+
+    /**
+     * Lists the states a room must be in to be set to a target state.
+     *
+     * @param target the requested state
+     * @return the allowed previous states, including the target itself
+     */
+    public static Set<RoomStatus> predecessorsOf(RoomStatus target) {
+        Set<RoomStatus> from = EnumSet.noneOf(RoomStatus.class);
+        for (RoomStatus status : values()) {
+            if (status.canBecome(target)) {
+                from.add(status);
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Checks whether housekeeping may be assigned to a room in this state.
+     *
+     * @return true for Available, Cleaning and Maintenance rooms
+     */
+    public boolean isCleanable() {
+        return this == AVAILABLE || this == CLEANING || this == MAINTENANCE;
+    }
+
+    /**
+     * Looks up a state by its stored code.
+     *
+     * @param code the value of rooms.state
+     * @return the state, or null if the code is unknown
+     */
+    public static RoomStatus fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+
+    /**
+     * Looks up a state by its label, ignoring case and surrounding spaces.
+     *
+     * @param label the label, e.g. "available"
+     * @return the state, or null if the label is unknown
+     */
+    public static RoomStatus fromLabel(String label) {
+        if (label == null) return null;
+        String trimmed = label.trim();
+        for (RoomStatus status : values()) {
+            if (status.label.equalsIgnoreCase(trimmed)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the labels of every state, in declaration order, e.g. for a status picker
+     */
+    public static String[] labels() {
+        RoomStatus[] values = values();
+        String[] labels = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            labels[i] = values[i].label;
+        }
+        return labels;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
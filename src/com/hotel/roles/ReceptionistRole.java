@@ -2,6 +2,7 @@ package com.hotel.roles;
 
 import com.hotel.models.User;
 import com.hotel.views.MainMenuView;
+import com.hotel.views.ViewManager;
 
 /**
  * Represents the Receptionist role behavior in the system.
@@ -26,6 +27,6 @@ public class ReceptionistRole implements UserRole {
      */
     @Override
     public void launchDashboard() {
-        new MainMenuView(user);
+        ViewManager.open(MainMenuView.class, () -> new MainMenuView(user));
     }
 }
\ No newline at end of file
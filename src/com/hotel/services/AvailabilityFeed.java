@@ -0,0 +1,396 @@
+package com.hotel.services;
+
+import com.hotel.database.ChangeEventLog;
+import com.hotel.database.ReservationDAO;
+import com.hotel.database.RoomDAO;
+import com.hotel.models.AvailabilityChange;
+import com.hotel.models.AvailabilityUpdate;
+import com.hotel.models.ChangeEvent;
+import com.hotel.models.Reservation;
+import com.hotel.models.Room;
+import com.hotel.models.RoomStatus;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per room type, per night availability for the channel manager, kept current from the change event log.
+ *
+ * The counts are built once from the rooms and reservations tables, then patched from the reservation and
+ * room events in {@link ChangeEventLog}. Each changed (room type, night) value gets the next sequence number,
+ * so a client that remembers the last sequence it saw only receives what changed since:
+ * sync cost follows the booking rate, not the size of the hotel. Sequence numbers restart with the feed,
+ * so every update carries the feed's epoch; a client presenting another epoch gets a full update.
+ *
+ * Rooms under Maintenance are not sellable; a room entering or leaving Maintenance changes every night of its
+ * type, so all clients are sent a full update. Cancelled reservations hold no rooms.
+ */
+public class AvailabilityFeed {
+
+    private static final int DEFAULT_RETAINED_CHANGES = 50_000;
+    private static final int MAX_NIGHTS = 366;   // Guards against a mistyped check-out year
+
+    private record Stay(String roomType, LocalDate checkIn, LocalDate checkOut) {
+    }
+
+    private record Night(String roomType, LocalDate date) {
+    }
+
+    private record RoomState(String type, boolean sellable) {
+    }
+
+    private final ReservationDAO reservationDAO;
+    private final RoomDAO roomDAO;
+    private final int retainedChanges;
+    private final String epoch = UUID.randomUUID().toString();   // Names this feed's sequence numbers
+
+    // Long-polling clients wait on virtual threads, so a lock and condition rather than wait/notify
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    // All guarded by lock
+    private final Map<String, Integer> roomTotals = new TreeMap<>();
+    private final Map<Integer, RoomState> rooms = new HashMap<>();
+    private final Map<String, Map<LocalDate, Integer>> booked = new HashMap<>();
+    private final Map<Integer, Stay> stays = new HashMap<>();
+    private final ArrayDeque<AvailabilityChange> changes = new ArrayDeque<>();
+    private long sequence;
+    private long oldestDeltaBase;   // Clients at or after this sequence can be sent deltas
+    private ChangeEventLog.Subscription subscription;
+
+    /**
+     * Constructor for AvailabilityFeed.
+     *
+     * @param reservationDAO source of reservations for the initial build
+     * @param roomDAO source of rooms per type
+     * @param retainedChanges how many changes to keep; clients further behind get a full update
+     */
+    public AvailabilityFeed(ReservationDAO reservationDAO, RoomDAO roomDAO, int retainedChanges) {
+        this.reservationDAO = reservationDAO;
+        this.roomDAO = roomDAO;
+        this.retainedChanges = retainedChanges;
+    }
+
+    public AvailabilityFeed() {
+        this(new ReservationDAO(), new RoomDAO(), DEFAULT_RETAINED_CHANGES);
+    }
+
+    /**
+     * Builds the initial counts and starts following the change event log.
+     */
+    public void start() {
+        long from;
+        try {
+            from = ChangeEventLog.getLatestSequence();
+        } catch (SQLException e) {
+            System.out.println("Error reading change event log: " + e.getMessage());
+            return;
+        }
+
+        // Events logged while the tables are read are replayed on top; applying a change twice is harmless
+        load();
+        ChangeEventLog.Subscription started = ChangeEventLog.subscribe("availability-feed", from, this::onChange);
+        lock.lock();
+        try {
+            subscription = started;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops following the change event log.
+     */
+    public void stop() {
+        ChangeEventLog.Subscription current;
+        lock.lock();
+        try {
+            current = subscription;
+            subscription = null;
+        } finally {
+            lock.unlock();
+        }
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * Reloads rooms and reservations from the database. Every client receives a full update next.
+     */
+    public void rebuild() {
+        stop();
+        start();
+    }
+
+    private void load() {
+        List<Room> allRooms = roomDAO.getAllRooms();
+        List<Reservation> reservations = reservationDAO.getAllReservations();
+
+        lock.lock();
+        try {
+            rooms.clear();
+            roomTotals.clear();
+            for (Room room : allRooms) {
+                RoomState state = new RoomState(room.getType(), isSellable(room.getStatus()));
+                rooms.put(room.getId(), state);
+                if (state.sellable()) {
+                    roomTotals.merge(state.type(), 1, Integer::sum);
+                }
+            }
+
+            booked.clear();
+            stays.clear();
+            for (Reservation res : reservations) {
+                Stay stay = toStay(res.getRoomType(), res.getCheckIn(), stayEnd(res), res.getPaymentStatus());
+                if (stay != null) {
+                    stays.put(res.getId(), stay);
+                    apply(stay, 1, null);
+                }
+            }
+            resetClients();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called on the subscription thread for every logged change
+    private void onChange(ChangeEvent event) {
+        lock.lock();
+        try {
+            switch (event.getType()) {
+                // A checked-out stay carries its actual last night, so nights after an early departure are sold again
+                case RESERVATION_CREATED, RESERVATION_UPDATED, RESERVATION_CHECKED_OUT -> reservationSaved(event.getEntityId(),
+                        toStay(event.get("roomType"), event.getDate("checkIn"), event.getDate("checkOut"), event.get("paymentStatus")));
+                case RESERVATION_DELETED -> reservationSaved(event.getEntityId(), null);
+                case ROOM_ADDED -> roomChanged(event.getEntityId(), event.get("type"), event.get("status"));
+                case ROOM_STATUS_CHANGED -> {
+                    RoomState room = rooms.get(event.getEntityId());
+                    if (room != null) {
+                        roomChanged(event.getEntityId(), room.type(), event.get("status"));
+                    }
+                }
+                default -> {
+                    // Bills, inventory and housekeeping do not affect availability
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reservationSaved(int reservationId, Stay stay) {
+        Stay previous = stay != null ? stays.put(reservationId, stay) : stays.remove(reservationId);
+        if (stay == null ? previous == null : stay.equals(previous)) return;
+
+        Set<Night> touched = new LinkedHashSet<>();
+        apply(previous, -1, touched);
+        apply(stay, 1, touched);
+        publish(touched);
+    }
+
+    private void roomChanged(int roomId, String type, String status) {
+        if (type == null) return;
+        RoomState state = new RoomState(type, isSellable(status));
+        RoomState previous = rooms.put(roomId, state);
+        if (state.equals(previous)) return;
+
+        if (previous != null && previous.sellable()) {
+            roomTotals.merge(previous.type(), -1, Integer::sum);
+        }
+        if (state.sellable()) {
+            roomTotals.merge(state.type(), 1, Integer::sum);
+        }
+        // Every night of the type changed; one full update is smaller than a delta per night
+        resetClients();
+    }
+
+    private void resetClients() {
+        changes.clear();
+        oldestDeltaBase = ++sequence;
+        changed.signalAll();
+    }
+
+    /**
+     * @return the epoch of this feed's sequence numbers, different for every feed instance
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @return the sequence number of the latest change
+     */
+    public long getSequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the rooms of a type still free on a night.
+     *
+     * @param roomType the room type
+     * @param date the night
+     * @return free rooms; negative when overbooked
+     */
+    public int getAvailable(String roomType, LocalDate date) {
+        lock.lock();
+        try {
+            return available(roomType, date);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns what changed after a client's last seen sequence number.
+     * Each (room type, night) appears once, with its latest value.
+     *
+     * @param epoch the epoch of the client's last update, or null for a new client
+     * @param since the sequence of the client's last update, or 0 for a new client
+     * @return a delta update, or a full update if the client is new, too far behind or from another epoch
+     */
+    public AvailabilityUpdate changesSince(String epoch, long since) {
+        lock.lock();
+        try {
+            return !this.epoch.equals(epoch) || since < oldestDeltaBase || since > sequence ? fullUpdate() : deltaUpdate(since);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AvailabilityUpdate deltaUpdate(long since) {
+        // Walk back from the newest change; the cost is proportional to the changes returned
+        List<AvailabilityChange> newer = new ArrayList<>();
+        Iterator<AvailabilityChange> it = changes.descendingIterator();
+        while (it.hasNext()) {
+            AvailabilityChange change = it.next();
+            if (change.getSequence() <= since) break;
+            newer.add(change);
+        }
+
+        Map<Night, AvailabilityChange> latest = new LinkedHashMap<>();
+        for (int i = newer.size() - 1; i >= 0; i--) {
+            AvailabilityChange change = newer.get(i);
+            Night night = new Night(change.getRoomType(), change.getDate());
+            latest.remove(night);   // Keep sequence order: a re-changed night moves to the end
+            latest.put(night, change);
+        }
+        return new AvailabilityUpdate(epoch, sequence, false, new TreeMap<>(roomTotals), new ArrayList<>(latest.values()));
+    }
+
+    /**
+     * Like {@link #changesSince}, but waits up to a timeout for a change if there is none yet (long polling).
+     *
+     * @param epoch the epoch of the client's last update
+     * @param since the sequence of the client's last update
+     * @param timeoutMillis the longest time to wait
+     * @return the update, which is empty if nothing changed within the timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public AvailabilityUpdate awaitChangesSince(String epoch, long since, long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (this.epoch.equals(epoch) && sequence == since && remaining > 0) {
+                remaining = changed.awaitNanos(remaining);
+            }
+            return changesSince(epoch, since);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AvailabilityUpdate fullUpdate() {
+        LocalDate today = LocalDate.now();
+        List<AvailabilityChange> all = new ArrayList<>();
+        for (Map.Entry<String, Map<LocalDate, Integer>> type : booked.entrySet()) {
+            for (LocalDate date : type.getValue().keySet()) {
+                if (!date.isBefore(today)) {
+                    all.add(new AvailabilityChange(sequence, type.getKey(), date, available(type.getKey(), date)));
+                }
+            }
+        }
+        all.sort(Comparator.comparing(AvailabilityChange::getRoomType).thenComparing(AvailabilityChange::getDate));
+        return new AvailabilityUpdate(epoch, sequence, true, new TreeMap<>(roomTotals), all);
+    }
+
+    private static boolean isSellable(String status) {
+        return RoomStatus.fromLabel(status) != RoomStatus.MAINTENANCE;
+    }
+
+    // The check-out date, or the day the guest left if that was earlier
+    private static Date stayEnd(Reservation res) {
+        if (!res.isCheckedOut() || res.getCheckOut() == null) return res.getCheckOut();
+        Date left = Date.valueOf(res.getCheckedOutAt().toLocalDateTime().toLocalDate());
+        return left.before(res.getCheckOut()) ? left : res.getCheckOut();
+    }
+
+    private static Stay toStay(String roomType, Date checkInDate, Date checkOutDate, String paymentStatus) {
+        if ("Cancelled".equalsIgnoreCase(paymentStatus)) return null;
+        if (roomType == null || checkInDate == null || checkOutDate == null) return null;
+
+        LocalDate checkIn = checkInDate.toLocalDate();
+        LocalDate checkOut = checkOutDate.toLocalDate();
+        if (!checkOut.isAfter(checkIn)) return null;
+        if (checkOut.isAfter(checkIn.plusDays(MAX_NIGHTS))) {
+            checkOut = checkIn.plusDays(MAX_NIGHTS);
+        }
+        return new Stay(roomType, checkIn, checkOut);
+    }
+
+    // Adds or removes one booked room for each night of the stay, collecting the nights touched
+    private void apply(Stay stay, int delta, Set<Night> touched) {
+        if (stay == null) return;
+        Map<LocalDate, Integer> nights = booked.computeIfAbsent(stay.roomType(), type -> new HashMap<>());
+        for (LocalDate date = stay.checkIn(); date.isBefore(stay.checkOut()); date = date.plusDays(1)) {
+            int count = nights.merge(date, delta, Integer::sum);
+            if (count == 0) {
+                nights.remove(date);
+            }
+            if (touched != null) {
+                touched.add(new Night(stay.roomType(), date));
+            }
+        }
+    }
+
+    private void publish(Set<Night> touched) {
+        LocalDate today = LocalDate.now();
+        for (Night night : touched) {
+            // Past nights cannot be sold, so channels do not need them
+            if (night.date().isBefore(today)) continue;
+            changes.addLast(new AvailabilityChange(++sequence, night.roomType(), night.date(),
+                    available(night.roomType(), night.date())));
+        }
+        while (changes.size() > retainedChanges) {
+            oldestDeltaBase = changes.removeFirst().getSequence();
+        }
+        changed.signalAll();
+    }
+
+    private int available(String roomType, LocalDate date) {
+        Map<LocalDate, Integer> nights = booked.get(roomType);
+        int taken = nights != null ? nights.getOrDefault(date, 0) : 0;
+        return roomTotals.getOrDefault(roomType, 0) - taken;
+    }
+}
@@ -0,0 +1,206 @@
+package com.hotel.services;
+
+import com.hotel.database.FolioDAO.PostedCharges;
+import com.hotel.models.Reservation;
+import com.hotel.models.Service;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pricing rules shared by billing screens and headless billing code.
+ * Holds room rates, the peak-season multiplier, late checkout fee, tax and discount math.
+ */
+public class BillingCalculator {
+
+    public static final double LATE_CHECKOUT_FEE = 25;
+    public static final double TAX_RATE = 0.12;
+
+    private static final long MILLIS_PER_DAY = 1000 * 60 * 60 * 24;
+
+    // Prevent instantiation of this utility class
+    private BillingCalculator() {
+    }
+
+    /**
+     * Calculates the number of nights for a single reservation.
+     *
+     * @param reservation the reservation
+     * @return nights between check-in and check-out
+     */
+    public static int calculateNights(Reservation reservation) {
+        long duration = reservation.getCheckOut().getTime() - reservation.getCheckIn().getTime();
+        return (int) (duration / MILLIS_PER_DAY);
+    }
+
+    /**
+     * Calculates the room charge for a reservation, including the late checkout fee.
+     *
+     * @param reservation the reservation
+     * @return the base room charge
+     */
+    public static double calculateBaseCharge(Reservation reservation) {
+        return calculateBaseCharge(reservation, isPeakSeason());
+    }
+
+    /**
+     * Calculates the room charge for a reservation, including the late checkout fee.
+     *
+     * @param reservation the reservation
+     * @param peakSeason whether the peak season multiplier applies
+     * @return the base room charge
+     */
+    public static double calculateBaseCharge(Reservation reservation, boolean peakSeason) {
+        double base = getBaseCharge(reservation.getRoomType(), peakSeason) * calculateNights(reservation);
+        if (reservation.isLateCheckout()) base += LATE_CHECKOUT_FEE;
+        return base;
+    }
+
+    /**
+     * Calculates the room charge for a reservation from the nights the night audit already posted:
+     * the posted charges plus the nightly rate for the nights not yet posted, including the late checkout fee.
+     * Does work proportional to the unposted nights only, so a stay closed by the audit prices in constant time.
+     *
+     * @param reservation the reservation
+     * @param peakSeason whether the peak season multiplier applies to unposted nights
+     * @param posted the room charges already on the folio
+     * @return the base room charge
+     */
+    public static double calculateBaseCharge(Reservation reservation, boolean peakSeason, PostedCharges posted) {
+        int unposted = Math.max(0, calculateNights(reservation) - posted.nights());
+        double base = posted.amount() + getBaseCharge(reservation.getRoomType(), peakSeason) * unposted;
+        if (reservation.isLateCheckout()) base += LATE_CHECKOUT_FEE;
+        return base;
+    }
+
+    /**
+     * Calculates the total base charge for reservations.
+     *
+     * @param reservations the reservations to price
+     * @return the summed room charges
+     */
+    public static double calculateBaseTotal(List<Reservation> reservations) {
+        // Resolve the season once; Calendar.getInstance() costs more than the pricing itself
+        boolean peakSeason = isPeakSeason();
+        double total = 0;
+        for (Reservation r : reservations) {
+            total += calculateBaseCharge(r, peakSeason);
+        }
+        return total;
+    }
+
+    /**
+     * Calculates the total base charge for reservations, using the room charges already posted.
+     *
+     * @param reservations the reservations to price
+     * @param posted the posted charges by reservation ID, e.g. from FolioDAO.getPostedRoomCharges
+     * @return the summed room charges
+     */
+    public static double calculateBaseTotal(List<Reservation> reservations, Map<Integer, PostedCharges> posted) {
+        boolean peakSeason = isPeakSeason();
+        double total = 0;
+        for (Reservation r : reservations) {
+            total += calculateBaseCharge(r, peakSeason, posted.getOrDefault(r.getId(), PostedCharges.NONE));
+        }
+        return total;
+    }
+
+    /**
+     * Calculates the total number of nights for all reservations.
+     *
+     * @param reservations the reservations to count
+     * @return the summed nights
+     */
+    public static int calculateTotalNights(List<Reservation> reservations) {
+        int total = 0;
+        for (Reservation r : reservations) {
+            total += calculateNights(r);
+        }
+        return total;
+    }
+
+    /**
+     * Calculates the total service charges.
+     *
+     * @param services the services used
+     * @return the summed service prices
+     */
+    public static double calculateServiceTotal(List<Service> services) {
+        double total = 0;
+        for (Service s : services) {
+            total += s.getPrice();
+        }
+        return total;
+    }
+
+    /**
+     * Calculates the tax amount.
+     *
+     * @param baseTotal the room charges
+     * @param serviceTotal the service charges
+     * @return the tax on room and service charges
+     */
+    public static double calculateTax(double baseTotal, double serviceTotal) {
+        return (baseTotal + serviceTotal) * TAX_RATE;
+    }
+
+    /**
+     * Calculates the discount amount for a percentage discount.
+     *
+     * @param baseTotal the room charges
+     * @param serviceTotal the service charges
+     * @param tax the tax amount
+     * @param discountPercent the discount in percent (e.g. 10 for 10%)
+     * @return the discount amount
+     */
+    public static double calculateDiscount(double baseTotal, double serviceTotal, double tax, double discountPercent) {
+        return (baseTotal + serviceTotal + tax) * (discountPercent / 100);
+    }
+
+    /**
+     * Retrieves the nightly base charge for a given room type, adjusting for peak season.
+     *
+     * @param roomType the room type
+     * @return the nightly rate
+     */
+    public static double getBaseCharge(String roomType) {
+        return getBaseCharge(roomType, isPeakSeason());
+    }
+
+    /**
+     * Retrieves the nightly base charge for a given room type.
+     *
+     * @param roomType the room type
+     * @param peakSeason whether the peak season multiplier applies
+     * @return the nightly rate
+     */
+    public static double getBaseCharge(String roomType, boolean peakSeason) {
+        double multiplier = peakSeason ? 1.2 : 1.0;
+        return switch (roomType) {
+            case "Deluxe" -> 120 * multiplier;
+            case "Suite" -> 180 * multiplier;
+            case "Executive" -> 250 * multiplier;
+            default -> 80 * multiplier;
+        };
+    }
+
+    /**
+     * Determines if the current month falls within the peak season.
+     *
+     * @return true in July, August and December
+     */
+    public static boolean isPeakSeason() {
+        return isPeakSeason(Calendar.getInstance().get(Calendar.MONTH) + 1);
+    }
+
+    /**
+     * Determines if the given month falls within the peak season.
+     *
+     * @param month the month number, 1 to 12
+     * @return true in July, August and December
+     */
+    public static boolean isPeakSeason(int month) {
+        return month == 7 || month == 8 || month == 12;
+    }
+}
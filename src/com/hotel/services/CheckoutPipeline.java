@@ -0,0 +1,194 @@
+package com.hotel.services;
+
+import com.hotel.database.FolioDAO.PostedCharges;
+import com.hotel.database.HousekeepingDAO;
+import com.hotel.database.ReservationDAO;
+import com.hotel.database.ReservationDAO.CheckoutOutcome;
+import com.hotel.database.ReservationDAO.FolioPricer;
+import com.hotel.database.RoomDAO;
+import com.hotel.database.UserDAO;
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
+import com.hotel.models.Bill;
+import com.hotel.models.HousekeepingTask;
+import com.hotel.models.Reservation;
+import com.hotel.models.Room;
+import com.hotel.models.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks guests out: each stay is closed, its folio finalized, its room marked for cleaning and a housekeeping
+ * task queued, all in one transaction (see {@link ReservationDAO#checkOut}). Stays are kept as history.
+ *
+ * The folio is the bill the billing desk already made for the guest, or else the room charge and tax for the
+ * stay: the nights the night audit posted, plus any nights it has not reached yet, priced as the billing screen
+ * would (see {@link NightAudit}), and the charges the outlets posted (see {@link FolioPostingService}), with tax.
+ * It is priced inside the checkout transaction, so a charge posted while the guest checks out is either on it
+ * or rejected.
+ * Housekeeping goes to the least busy staff member.
+ *
+ * {@link #checkOutAll} handles a whole morning's departures: rooms, staff and workloads are read once, the
+ * housekeeping is planned floor by floor for all rooms together, and the checkouts run concurrently on a few
+ * connections, one short transaction each.
+ */
+public class CheckoutPipeline {
+
+    public static final String HOUSEKEEPING_ROLE = "Housekeeping";
+
+    // Concurrent checkouts in a bulk run; kept under the connection pool size so desks still get a connection
+    private static final int DEFAULT_THREADS = 6;
+
+    private static final LatencyStats CHECK_OUT = MetricsRegistry.register("CheckoutPipeline", "checkOut");
+    private static final LatencyStats CHECK_OUT_ALL = MetricsRegistry.register("CheckoutPipeline", "checkOutAll");
+
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+    private final RoomDAO roomDAO = new RoomDAO();
+    private final HousekeepingDAO housekeepingDAO = new HousekeepingDAO();
+    private final UserDAO userDAO = new UserDAO();
+    private final int threads;
+
+    /**
+     * Constructor for CheckoutPipeline.
+     */
+    public CheckoutPipeline() {
+        this(DEFAULT_THREADS);
+    }
+
+    /**
+     * Constructor for CheckoutPipeline.
+     *
+     * @param threads the number of checkouts a bulk run processes at the same time
+     */
+    public CheckoutPipeline(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Checks out one guest.
+     *
+     * @param res the stay to close
+     * @return the outcome
+     */
+    public CheckoutOutcome checkOut(Reservation res) {
+        long start = System.nanoTime();
+        try {
+            Room room = res.getRoomNumber() != null ? roomDAO.getRoomByNumber(res.getRoomNumber()) : null;
+            List<HousekeepingTask> tasks = room != null ? planHousekeeping(List.of(room)) : List.of();
+            HousekeepingTask task = tasks.isEmpty() ? null : tasks.get(0);
+            CheckoutOutcome outcome = reservationDAO.checkOut(res, room, pricer(BillingCalculator.isPeakSeason()), task);
+            if (outcome == CheckoutOutcome.CHECKED_OUT) {
+                CHECK_OUT.rows(1);
+            }
+            return outcome;
+        } finally {
+            CHECK_OUT.record(start);
+        }
+    }
+
+    /**
+     * Checks out the guests of a list of stays, several at a time. Each stay is its own transaction:
+     * one failing does not undo the others.
+     *
+     * @param departures the stays to close, e.g. from {@link ReservationDAO#getDepartures}
+     * @return the outcome of each stay, in the order given
+     */
+    public List<CheckoutOutcome> checkOutAll(List<Reservation> departures) {
+        List<CheckoutOutcome> outcomes = new ArrayList<>(Collections.nCopies(departures.size(), CheckoutOutcome.FAILED));
+        if (departures.isEmpty()) {
+            return outcomes;
+        }
+        long start = System.nanoTime();
+
+        // One read of the rooms instead of one per stay
+        Map<String, Room> roomsByNumber = new HashMap<>();
+        for (Room room : roomDAO.getAllRooms()) {
+            roomsByNumber.put(room.getRoomNumber(), room);
+        }
+        Map<Integer, Room> departing = new LinkedHashMap<>();
+        Room[] roomOf = new Room[departures.size()];
+        for (int i = 0; i < departures.size(); i++) {
+            roomOf[i] = roomsByNumber.get(departures.get(i).getRoomNumber());
+            if (roomOf[i] != null) {
+                departing.put(roomOf[i].getId(), roomOf[i]);
+            }
+        }
+
+        Map<Integer, HousekeepingTask> taskByRoom = new HashMap<>();
+        for (HousekeepingTask task : planHousekeeping(new ArrayList<>(departing.values()))) {
+            taskByRoom.put(task.getRoomId(), task);
+        }
+        // Each folio is priced inside its own checkout, from the charges posted when the stay is closed
+        FolioPricer pricer = pricer(BillingCalculator.isPeakSeason());
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, departures.size()), r -> {
+            Thread thread = new Thread(r, "checkout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<CheckoutOutcome>> results = new ArrayList<>(departures.size());
+            for (int i = 0; i < departures.size(); i++) {
+                Reservation res = departures.get(i);
+                Room room = roomOf[i];
+                HousekeepingTask task = room != null ? taskByRoom.remove(room.getId()) : null;   // One task per room
+                results.add(pool.submit(() -> reservationDAO.checkOut(res, room, pricer, task)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    outcomes.set(i, results.get(i).get());
+                } catch (ExecutionException e) {
+                    System.out.println("Error checking out reservation: " + e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+            CHECK_OUT_ALL.rows(Collections.frequency(outcomes, CheckoutOutcome.CHECKED_OUT));
+            CHECK_OUT_ALL.record(start);
+        }
+        return outcomes;
+    }
+
+    // Pending tasks for today, shared out by current workload; none if there is no housekeeping staff
+    private List<HousekeepingTask> planHousekeeping(List<Room> rooms) {
+        List<String> staff = userDAO.getUsernamesByRole(HOUSEKEEPING_ROLE);
+        if (rooms.isEmpty() || staff.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> openTasks = housekeepingDAO.getOpenTaskCounts();
+        Map<String, Integer> roster = new LinkedHashMap<>();
+        for (String name : staff) {
+            roster.put(name, openTasks.getOrDefault(name, 0));
+        }
+        return HousekeepingAssignmentEngine.plan(rooms, roster, Date.valueOf(LocalDate.now()));
+    }
+
+    // Prices folios for ReservationDAO.checkOut; used only if the guest has no bill yet
+    private static FolioPricer pricer(boolean peakSeason) {
+        return (res, posted, services) -> folioFor(res, peakSeason, posted, services);
+    }
+
+    // The room charge, outlet charges and tax of the stay
+    private static Bill folioFor(Reservation res, boolean peakSeason, PostedCharges posted, List<Service> services) {
+        double base = BillingCalculator.calculateBaseCharge(res, peakSeason, posted);
+        double serviceTotal = BillingCalculator.calculateServiceTotal(services);
+        double tax = BillingCalculator.calculateTax(base, serviceTotal);
+        Bill folio = new Bill(res.getGuestName(), res.getRoomType(), BillingCalculator.calculateNights(res),
+                new ArrayList<>(services), base, tax, 0, base + serviceTotal + tax);
+        folio.setGuestId(res.getGuestId());
+        return folio;
+    }
+}
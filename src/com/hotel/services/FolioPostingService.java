@@ -0,0 +1,222 @@
+package com.hotel.services;
+
+import com.hotel.database.FolioDAO;
+import com.hotel.database.FolioDAO.PostingOutcome;
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
+import com.hotel.models.FolioLine;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Posts outlet charges (spa, restaurant, room service, ...) to guests' open folios as they happen.
+ *
+ * Callers hand in a charge and get a future; a single writer thread drains whatever has queued up and commits it
+ * as one batch (see {@link FolioDAO#postLines}), so under load hundreds of postings share one transaction and the
+ * commit cost is paid once per batch, not once per charge. A lone posting is committed straight away.
+ * <pre>
+ * FolioPostingService postings = new FolioPostingService();
+ * postings.start();
+ * PostingResult result = postings.post(reservationId, "SPA", "Massage 60 min", 95.0, "ticket-8812").get();
+ * </pre>
+ * The posting key is the outlet's own reference for the charge: posting it again, e.g. after a timeout, adds
+ * nothing and reports DUPLICATE. Keys are kept per outlet, so two outlets may use the same reference.
+ *
+ * Each result carries the folio's running balance, all charges posted so far. Balances are kept in memory by the
+ * writer once a folio is first posted to, so answering them costs no query. They are dropped whenever the business
+ * date moves on, so the night audit's room charges are picked up; postings made by another server show up then too.
+ */
+public class FolioPostingService {
+
+    private static final int MAX_BATCH = 1000;            // Postings per transaction
+    private static final int QUEUE_CAPACITY = 50_000;     // Postings waiting for the writer before new ones are turned away
+    private static final long IDLE_CHECK_MS = 1_000;      // How often an idle writer checks it was stopped
+
+    private static final Pattern LINE_TYPE = Pattern.compile("[A-Z][A-Z_]{0,19}");
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final int MAX_DESCRIPTION_LENGTH = 100;
+
+    private static final LatencyStats POST_BATCH = MetricsRegistry.register("FolioPostingService", "postBatch");
+
+    /**
+     * The result of one posting.
+     *
+     * @param outcome what was done with the charge
+     * @param balance the folio's balance after the batch, or NaN if the posting failed
+     */
+    public record PostingResult(PostingOutcome outcome, double balance) {
+    }
+
+    private record Pending(FolioLine line, CompletableFuture<PostingResult> result) {
+    }
+
+    private final FolioDAO folioDAO = new FolioDAO();
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final Map<Integer, Double> balances = new ConcurrentHashMap<>();   // Written by the writer thread only
+    private Thread writer;
+    private volatile boolean running;
+    private Date businessDate;   // Of the last batch; writer thread only
+
+    /**
+     * Starts the writer thread.
+     */
+    public synchronized void start() {
+        if (writer != null) return;
+        running = true;
+        writer = new Thread(this::drain, "folio-posting");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops the writer once the postings already queued are committed.
+     */
+    public synchronized void stop() {
+        if (writer == null) return;
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    /**
+     * Queues a charge for a guest's open folio.
+     *
+     * @param reservationId the stay to charge
+     * @param lineType the posting outlet, upper case (e.g. SPA, RESTAURANT); ROOM is reserved for the night audit
+     * @param description the text shown on the folio
+     * @param amount the amount; negative for a correction
+     * @param postingKey the outlet's reference for the charge, unique within the outlet
+     * @return the result, completed when the batch holding the charge commits; failed with
+     *         RejectedExecutionException if the service is stopped or too far behind
+     * @throws IllegalArgumentException if the charge is malformed
+     */
+    public CompletableFuture<PostingResult> post(int reservationId, String lineType, String description,
+                                                 double amount, String postingKey) {
+        if (lineType == null || !LINE_TYPE.matcher(lineType).matches() || FolioDAO.ROOM_CHARGE.equals(lineType)) {
+            throw new IllegalArgumentException("Invalid line type: " + lineType);
+        }
+        if (!Double.isFinite(amount)) {
+            throw new IllegalArgumentException("Invalid amount: " + amount);
+        }
+        if (postingKey == null || postingKey.isBlank() || lineType.length() + 1 + postingKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Invalid posting key");
+        }
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            description = description.substring(0, MAX_DESCRIPTION_LENGTH);
+        }
+
+        CompletableFuture<PostingResult> result = new CompletableFuture<>();
+        FolioLine line = new FolioLine(reservationId, lineType, description, amount, lineType + ":" + postingKey);
+        Pending pending = new Pending(line, result);
+        // Taken back if the writer stopped meanwhile and may never see it
+        if (!running || !queue.offer(pending) || (!running && queue.remove(pending))) {
+            result.completeExceptionally(new RejectedExecutionException("Folio posting is not accepting charges"));
+        }
+        return result;
+    }
+
+    /**
+     * The running balance of a folio: every charge posted to it, room charges included.
+     *
+     * @param reservationId the stay
+     * @return the balance, or NaN if it cannot be read
+     */
+    public double balance(int reservationId) {
+        Double balance = balances.get(reservationId);
+        if (balance != null) {
+            return balance;
+        }
+        return folioDAO.getBalances(List.of(reservationId)).getOrDefault(reservationId, Double.NaN);
+    }
+
+    // The writer: waits for a posting, takes everything queued behind it and commits it as one batch
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(IDLE_CHECK_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            try {
+                commit(batch);
+            } catch (RuntimeException e) {
+                System.out.println("Error posting folio charges: " + e);
+                for (Pending pending : batch) {
+                    pending.result().complete(new PostingResult(PostingOutcome.FAILED, Double.NaN));
+                }
+            }
+            batch.clear();
+        }
+        // Stopped while interrupted: turn away whatever is still queued
+        for (Pending pending; (pending = queue.poll()) != null; ) {
+            pending.result().completeExceptionally(new RejectedExecutionException("Folio posting stopped"));
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            List<FolioLine> lines = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                lines.add(pending.line());
+            }
+            List<PostingOutcome> outcomes = folioDAO.postLines(lines);
+            Date postedOn = lines.get(0).getBusinessDate();
+            if (postedOn != null && !postedOn.equals(businessDate)) {
+                balances.clear();   // The audit ran since the last batch and posted room charges
+                businessDate = postedOn;
+            }
+
+            // Folios posted to for the first time start from their total in the database, which now includes this batch
+            Set<Integer> uncached = new HashSet<>();
+            int posted = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                FolioLine line = lines.get(i);
+                if (outcomes.get(i) == PostingOutcome.POSTED) {
+                    posted++;
+                    if (!uncached.contains(line.getReservationId())
+                            && balances.computeIfPresent(line.getReservationId(), (id, b) -> b + line.getAmount()) == null) {
+                        uncached.add(line.getReservationId());
+                    }
+                } else if (outcomes.get(i) == PostingOutcome.REJECTED) {
+                    balances.remove(line.getReservationId());   // Checked out; nothing more will be posted
+                } else if (outcomes.get(i) == PostingOutcome.DUPLICATE && !balances.containsKey(line.getReservationId())) {
+                    uncached.add(line.getReservationId());
+                }
+            }
+            if (!uncached.isEmpty()) {
+                balances.putAll(folioDAO.getBalances(uncached));
+            }
+            POST_BATCH.rows(posted);
+
+            for (int i = 0; i < batch.size(); i++) {
+                PostingOutcome outcome = outcomes.get(i);
+                double balance = outcome == PostingOutcome.FAILED || outcome == PostingOutcome.REJECTED
+                        ? Double.NaN : balances.getOrDefault(lines.get(i).getReservationId(), Double.NaN);
+                batch.get(i).result().complete(new PostingResult(outcome, balance));
+            }
+        } finally {
+            POST_BATCH.record(start);
+        }
+    }
+}
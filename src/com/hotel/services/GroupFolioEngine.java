@@ -0,0 +1,161 @@
+package com.hotel.services;
+
+import com.hotel.database.BillDAO;
+import com.hotel.database.FolioDAO;
+import com.hotel.database.FolioDAO.PostedCharges;
+import com.hotel.database.ReservationDAO;
+import com.hotel.models.Bill;
+import com.hotel.models.GroupBooking;
+import com.hotel.models.Reservation;
+import com.hotel.models.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits a group's bill into one folio per member stay, priced like an individual bill: the member's room type,
+ * nights, late checkout and the charges the outlets posted to the stay, plus an equal share of the services
+ * billed to the whole group.
+ *
+ * The group, its posted room charges and its posted services are read with one query each, whatever the group
+ * size. The folios are then priced in parallel on the common fork-join pool, a slice of members per task,
+ * and saved in one transaction through {@link BillDAO#addBillsBatch}.
+ */
+public class GroupFolioEngine {
+
+    public static final int BATCH_SIZE = 500;   // Folios per JDBC batch
+
+    private static final int MEMBERS_PER_TASK = 32;   // Below this a slice is priced on the current thread
+
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+    private final FolioDAO folioDAO = new FolioDAO();
+    private final BillDAO billDAO = new BillDAO();
+
+    /**
+     * Prices the folio of every member of a group.
+     *
+     * @param group the group
+     * @param groupServices the services billed to the group as a whole, shared equally by its members
+     * @param discountPercent the discount in percent applied to every folio
+     * @return one folio per member stay, in the group's order; empty if the group has no stays
+     */
+    public List<Bill> computeFolios(GroupBooking group, List<Service> groupServices, double discountPercent) {
+        List<Reservation> members = reservationDAO.getReservationsByGroup(group);
+        List<Integer> ids = new ArrayList<>(members.size());
+        for (Reservation r : members) {
+            ids.add(r.getId());
+        }
+        return computeFolios(members, folioDAO.getPostedRoomCharges(ids), folioDAO.getPostedServices(ids),
+                groupServices, discountPercent, BillingCalculator.isPeakSeason());
+    }
+
+    /**
+     * Prices member folios from data already loaded, in parallel.
+     *
+     * @param members the member stays
+     * @param posted the posted room charges by reservation ID
+     * @param postedServices the posted outlet charges by reservation ID
+     * @param groupServices the services billed to the group as a whole, shared equally by its members
+     * @param discountPercent the discount in percent applied to every folio
+     * @param peakSeason whether the peak season multiplier applies to nights not yet posted
+     * @return one folio per member stay, in the order of members
+     */
+    public static List<Bill> computeFolios(List<Reservation> members, Map<Integer, PostedCharges> posted,
+                                           Map<Integer, List<Service>> postedServices, List<Service> groupServices,
+                                           double discountPercent, boolean peakSeason) {
+        if (members.isEmpty()) {
+            return List.of();
+        }
+
+        // Every member carries the same share of each group service
+        List<Service> shares = new ArrayList<>(groupServices.size());
+        for (Service s : groupServices) {
+            shares.add(new Service(s.getServiceName(), s.getPrice() / members.size()));
+        }
+
+        Bill[] folios = new Bill[members.size()];
+        ForkJoinPool.commonPool().invoke(new PriceSlice(members, posted, postedServices, shares,
+                discountPercent, peakSeason, folios, 0, folios.length));
+        return Arrays.asList(folios);
+    }
+
+    /**
+     * Saves member folios. Members whose stay already has a bill, e.g. because they checked out, keep that bill.
+     *
+     * @param folios the folios from {@link #computeFolios}
+     * @return the folios saved, or null if nothing was saved because of a database error
+     */
+    public List<Bill> saveFolios(List<Bill> folios) {
+        return billDAO.addBillsBatch(folios, BATCH_SIZE);
+    }
+
+    /**
+     * Prices the folio of one member stay.
+     *
+     * @param res the stay
+     * @param posted the room charges already posted to it
+     * @param services the stay's posted outlet charges and its share of the group services
+     * @param discountPercent the discount in percent
+     * @param peakSeason whether the peak season multiplier applies to nights not yet posted
+     * @return the folio, keyed to the stay
+     */
+    static Bill priceFolio(Reservation res, PostedCharges posted, List<Service> services,
+                           double discountPercent, boolean peakSeason) {
+        double base = BillingCalculator.calculateBaseCharge(res, peakSeason, posted);
+        double serviceTotal = BillingCalculator.calculateServiceTotal(services);
+        double tax = BillingCalculator.calculateTax(base, serviceTotal);
+        double discount = BillingCalculator.calculateDiscount(base, serviceTotal, tax, discountPercent);
+
+        Bill folio = new Bill(res.getGuestName(), res.getRoomType(), BillingCalculator.calculateNights(res),
+                services, base, tax, discount, base + serviceTotal + tax - discount);
+        folio.setReservationId(res.getId());
+        folio.setGuestId(res.getGuestId());
+        return folio;
+    }
+
+    // Prices members [from, to) into folios, splitting the range in half until it is small enough
+    private static class PriceSlice extends RecursiveAction {
+        private final List<Reservation> members;
+        private final Map<Integer, PostedCharges> posted;
+        private final Map<Integer, List<Service>> postedServices;
+        private final List<Service> shares;
+        private final double discountPercent;
+        private final boolean peakSeason;
+        private final Bill[] folios;
+        private final int from, to;
+
+        PriceSlice(List<Reservation> members, Map<Integer, PostedCharges> posted, Map<Integer, List<Service>> postedServices,
+                   List<Service> shares, double discountPercent, boolean peakSeason, Bill[] folios, int from, int to) {
+            this.members = members;
+            this.posted = posted;
+            this.postedServices = postedServices;
+            this.shares = shares;
+            this.discountPercent = discountPercent;
+            this.peakSeason = peakSeason;
+            this.folios = folios;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MEMBERS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    Reservation res = members.get(i);
+                    List<Service> services = new ArrayList<>(shares);
+                    services.addAll(postedServices.getOrDefault(res.getId(), List.of()));
+                    folios[i] = priceFolio(res, posted.getOrDefault(res.getId(), PostedCharges.NONE),
+                            services, discountPercent, peakSeason);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PriceSlice(members, posted, postedServices, shares, discountPercent, peakSeason, folios, from, mid),
+                    new PriceSlice(members, posted, postedServices, shares, discountPercent, peakSeason, folios, mid, to));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.hotel.services;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The keys guests are matched on at intake, stored in guests.name_key and guests.phonetic_key.
+ *
+ * The name key is the name in lower case without accents, punctuation or extra spaces, so "José  O'Neil"
+ * and "jose oneil" are the same guest. The phonetic key is the Soundex code of each part of the name,
+ * sorted, so spelling variants and swapped first and last names sound alike:
+ * "Jon Smyth", "John Smith" and "Smith, John" all have the key "J500 S530".
+ * Both are plain indexed columns, so finding candidates is two index lookups, not a scan of every name.
+ */
+public class GuestMatcher {
+
+    // Soundex digit for 'A'..'Z'; 0 for vowels and the letters H, W, Y, which are dropped
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+
+    // Prevent instantiation of this utility class
+    private GuestMatcher() {
+    }
+
+    /**
+     * Normalizes a name for exact matching.
+     *
+     * @param name the name as entered
+     * @return the name key, empty if the name has no letters or digits
+     */
+    public static String nameKey(String name) {
+        if (name == null) return "";
+        String plain = Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return plain.toLowerCase(Locale.ROOT)
+                .replaceAll("['’]", "")                // O'Neil -> oneil
+                .replaceAll("[^\\p{L}\\p{Nd}]+", " ")
+                .trim();
+    }
+
+    /**
+     * Builds the sounds-alike key of a name.
+     *
+     * @param name the name as entered
+     * @return the sorted Soundex codes of the parts of the name, separated by spaces
+     */
+    public static String phoneticKey(String name) {
+        String key = nameKey(name);
+        if (key.isEmpty()) return "";
+        String[] parts = key.split(" ");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = soundex(parts[i]);
+        }
+        Arrays.sort(parts);
+        return String.join(" ", parts);
+    }
+
+    /**
+     * Computes the American Soundex code of a word, e.g. "Robert" and "Rupert" are both R163.
+     *
+     * @param word a word; letters outside A-Z are ignored
+     * @return the four-character code, or the word itself if it has no letters A-Z
+     */
+    public static String soundex(String word) {
+        String upper = word.toUpperCase(Locale.ROOT);
+        StringBuilder code = new StringBuilder(4);
+        char last = 0;
+        for (int i = 0; i < upper.length() && code.length() < 4; i++) {
+            char c = upper.charAt(i);
+            if (c < 'A' || c > 'Z') continue;
+            char digit = SOUNDEX_CODES.charAt(c - 'A');
+            if (code.length() == 0) {
+                code.append(c);
+            } else if (digit != '0' && digit != last) {
+                code.append(digit);
+            }
+            // H and W do not separate letters with the same code; vowels do
+            if (c != 'H' && c != 'W') {
+                last = digit;
+            }
+        }
+        if (code.length() == 0) return word;
+        while (code.length() < 4) {
+            code.append('0');
+        }
+        return code.toString();
+    }
+}
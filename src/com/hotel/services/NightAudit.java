@@ -0,0 +1,127 @@
+package com.hotel.services;
+
+import com.hotel.database.FolioDAO;
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The night audit: closes the hotel's business date once the calendar day is over.
+ *
+ * Closing a date posts one room charge per stay in house that night, priced at the room type's nightly rate
+ * for the month of the date, rolls the day's postings up into revenue_daily for finance, and moves the business
+ * date on by one (see {@link FolioDAO#closeBusinessDate}). Checkout then only adds up the posted nights.
+ *
+ * {@link #catchUp} closes every date before today, so an audit missed while the server was down is made up
+ * night by night on the next run. Running it again, or from two servers at once, posts nothing twice.
+ * Both the desk application ({@code com.hotel.Main}) and the API server start it, so dates close with either running.
+ */
+public class NightAudit {
+
+    // Room types priced by the night audit; any other type is charged the Standard rate, as at the billing desk
+    private static final String[] ROOM_TYPES = {"Standard", "Deluxe", "Suite", "Executive"};
+    private static final String DEFAULT_ROOM_TYPE = "Standard";
+
+    private static final LatencyStats CLOSE_DAY = MetricsRegistry.register("NightAudit", "closeDay");
+
+    private final FolioDAO folioDAO = new FolioDAO();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Closes the open business date, whatever the calendar says.
+     *
+     * @return the number of room charges posted, or -1 if the date was not closed
+     */
+    public int closeDay() {
+        Date businessDate = folioDAO.getBusinessDate();
+        return businessDate != null ? closeDay(businessDate) : -1;
+    }
+
+    /**
+     * Closes every business date before a calendar day, oldest first.
+     *
+     * @param today the current calendar day
+     * @return the number of business dates closed
+     */
+    public int catchUp(LocalDate today) {
+        int closed = 0;
+        Date businessDate = folioDAO.getBusinessDate();
+        while (businessDate != null && businessDate.toLocalDate().isBefore(today)) {
+            if (closeDay(businessDate) < 0) {
+                break;   // Closed elsewhere or failed; the next run starts from the stored date again
+            }
+            closed++;
+            businessDate = folioDAO.getBusinessDate();
+        }
+        return closed;
+    }
+
+    private int closeDay(Date businessDate) {
+        long start = System.nanoTime();
+        try {
+            boolean peakSeason = BillingCalculator.isPeakSeason(businessDate.toLocalDate().getMonthValue());
+            Map<String, Double> rates = new LinkedHashMap<>();
+            for (String type : ROOM_TYPES) {
+                rates.put(type, BillingCalculator.getBaseCharge(type, peakSeason));
+            }
+            int posted = folioDAO.closeBusinessDate(businessDate, rates, rates.get(DEFAULT_ROOM_TYPE));
+            if (posted < 0) {
+                CLOSE_DAY.error();
+            } else {
+                CLOSE_DAY.rows(posted);
+                System.out.println("Night audit closed " + businessDate + ": " + posted + " room charges posted.");
+            }
+            return posted;
+        } finally {
+            CLOSE_DAY.record(start);
+        }
+    }
+
+    /**
+     * Starts the audit if {@code hotel.audit.checkIntervalMin} is positive (15 minutes if unset).
+     *
+     * @return the running audit, or null if it is turned off
+     */
+    public static NightAudit startFromSystemProperties() {
+        long interval = Long.getLong("hotel.audit.checkIntervalMin", 15);
+        if (interval <= 0) {
+            return null;
+        }
+        NightAudit audit = new NightAudit();
+        audit.start(interval);
+        return audit;
+    }
+
+    /**
+     * Checks every interval on a daemon thread whether a business date has ended and closes it.
+     * The first check runs straight away.
+     *
+     * @param intervalMinutes minutes between checks
+     */
+    public synchronized void start(long intervalMinutes) {
+        stop();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "night-audit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> catchUp(LocalDate.now()), 0, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops the periodic checks.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.hotel.services;
+
+import com.hotel.models.Bill;
+import com.hotel.models.InventoryItem;
+import com.hotel.models.Room;
+import com.hotel.models.RoomStatus;
+import com.hotel.models.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aggregated figures shown on the analytics dashboard:
+ * revenue, room occupancy, low stock items and per-service usage and revenue.
+ */
+public class ReportSummary {
+    private final double totalRevenue;
+    private final int totalRooms;
+    private final int occupiedRooms;
+    private final int availableRooms;
+    private final Set<String> lowStock;
+    private final Map<String, Integer> usageMap;
+    private final Map<String, Double> revenueMap;
+
+    private ReportSummary(double totalRevenue, int totalRooms, int occupiedRooms, int availableRooms,
+                          Set<String> lowStock, Map<String, Integer> usageMap, Map<String, Double> revenueMap) {
+        this.totalRevenue = totalRevenue;
+        this.totalRooms = totalRooms;
+        this.occupiedRooms = occupiedRooms;
+        this.availableRooms = availableRooms;
+        this.lowStock = lowStock;
+        this.usageMap = usageMap;
+        this.revenueMap = revenueMap;
+    }
+
+    /**
+     * Aggregates bills, rooms and inventory items into a dashboard summary.
+     *
+     * @param bills all bills
+     * @param rooms all rooms
+     * @param items all inventory items
+     * @return the computed summary
+     */
+    public static ReportSummary aggregate(List<Bill> bills, List<Room> rooms, List<InventoryItem> items) {
+        return aggregate(bills, new RoomStateBoard(rooms), items);
+    }
+
+    /**
+     * Aggregates bills and inventory items into a dashboard summary, taking the room figures from a room state board.
+     *
+     * @param bills all bills, or the new bills when adding to a running total
+     * @param rooms the board of room statuses
+     * @param items all inventory items
+     * @return the computed summary
+     */
+    public static ReportSummary aggregate(List<Bill> bills, RoomStateBoard rooms, List<InventoryItem> items) {
+        double totalRevenue = 0;
+        for (Bill bill : bills) {
+            totalRevenue += bill.getTotalAmount();
+        }
+
+        int occupied = rooms.count(RoomStatus.OCCUPIED);
+        int available = rooms.count(RoomStatus.AVAILABLE);
+
+        Set<String> lowStock = new LinkedHashSet<>();
+        for (InventoryItem i : items) {
+            if (i.getQuantity() < i.getThreshold()) {
+                lowStock.add(i.getItemName() + " (" + i.getQuantity() + ")");
+            }
+        }
+
+        Map<String, Integer> usageMap = new HashMap<>();
+        Map<String, Double> revenueMap = new HashMap<>();
+        for (Bill bill : bills) {
+            for (Service s : bill.getServices()) {
+                String name = capitalize(s.getServiceName().trim());
+                usageMap.merge(name, 1, Integer::sum);
+                revenueMap.merge(name, s.getPrice(), Double::sum);
+            }
+        }
+
+        return new ReportSummary(totalRevenue, rooms.total(), occupied, available, lowStock, usageMap, revenueMap);
+    }
+
+    private static String capitalize(String text) {
+        if (text == null || text.isEmpty()) return "";
+        return text.substring(0, 1).toUpperCase() + text.substring(1).toLowerCase();
+    }
+
+    // Getters
+    public double getTotalRevenue() { return totalRevenue; }
+    public int getTotalRooms() { return totalRooms; }
+    public int getOccupiedRooms() { return occupiedRooms; }
+    public int getAvailableRooms() { return availableRooms; }
+    public Set<String> getLowStock() { return lowStock; }
+    public Map<String, Integer> getUsageMap() { return usageMap; }
+    public Map<String, Double> getRevenueMap() { return revenueMap; }
+}
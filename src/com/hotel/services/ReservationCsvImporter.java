@@ -0,0 +1,410 @@
+package com.hotel.services;
+
+import com.hotel.database.GuestDAO;
+import com.hotel.database.ReservationDAO;
+import com.hotel.models.Reservation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Headless bulk importer for historical reservations exported from another PMS.
+ * Streams the CSV file in chunks, validates each chunk in parallel, drops rows whose
+ * guest name and dates are already booked (see {@link ReservationDAO#reservationKey})
+ * and writes the rest through JDBC batches.
+ *
+ * Expected header (column order is free, names are not):
+ * guest_name,check_in,check_out,room_type,payment_status,special_requests,room_number,group_name,late_checkout[,guest_id]
+ *
+ * An individual stay is for the guest in guest_id if the file has one. Otherwise a name new to the hotel gets a
+ * new guest, shared by the rows of this file with that name; a name that already belongs to a guest is linked to
+ * it only with {@code --link-by-name} and only if it belongs to exactly one, else the row is rejected.
+ */
+public class ReservationCsvImporter {
+
+    private static final int DEFAULT_CHUNK_SIZE = 5000;
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private static final Set<String> ROOM_TYPES = Set.of("Standard", "Deluxe", "Suite", "Executive");
+    private static final Set<String> PAYMENT_STATUSES = Set.of("Paid", "Pending", "Cancelled");
+
+    private final ReservationDAO reservationDAO = new ReservationDAO();
+    private final GuestDAO guestDAO = new GuestDAO();
+    private final int chunkSize;
+    private final int batchSize;
+    private final boolean linkByName;
+
+    // Guests of the names this import has resolved, by name key, and whether each guest_id given exists
+    private final Map<String, Integer> guestIds = new HashMap<>();
+    private final Map<Integer, Boolean> knownGuests = new HashMap<>();
+
+    // Import counters
+    private long rowsRead, rowsInvalid, rowsDuplicate, rowsInserted;
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * Constructor for ReservationCsvImporter.
+     *
+     * @param chunkSize the number of CSV records validated and written together
+     * @param batchSize the number of rows per JDBC batch
+     * @param linkByName whether a row without guest_id whose name belongs to exactly one guest is that guest
+     */
+    public ReservationCsvImporter(int chunkSize, int batchSize, boolean linkByName) {
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.linkByName = linkByName;
+    }
+
+    /**
+     * Imports every reservation in the given CSV file and prints a summary.
+     *
+     * @param csvFile the CSV file to import
+     * @throws IOException if the file cannot be read or has no header
+     */
+    public void importFile(Path csvFile) throws IOException {
+        long start = System.nanoTime();
+
+        // Name and dates of every reservation, one query for the whole import
+        Set<String> existingKeys = reservationDAO.getAllReservationKeys();
+
+        // Counts physical lines, so a record after a quoted line break still reports the line it starts on
+        try (LineNumberReader reader = new LineNumberReader(Files.newBufferedReader(csvFile, StandardCharsets.UTF_8))) {
+            List<String> header = readRecord(reader);
+            if (header == null) {
+                throw new IOException("CSV file is empty: " + csvFile);
+            }
+            int[] columns = resolveColumns(header);
+
+            List<RawRow> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = reader.getLineNumber() + 1;
+            List<String> record;
+            while ((record = readRecord(reader)) != null) {
+                rowsRead++;
+                chunk.add(new RawRow(lineNumber, record));
+                lineNumber = reader.getLineNumber() + 1;
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, columns, existingKeys);
+                    chunk.clear();
+                    printProgress(start);
+                }
+            }
+            processChunk(chunk, columns, existingKeys);
+        }
+
+        printSummary(start);
+    }
+
+    /**
+     * Validates a chunk in parallel, removes duplicates, resolves guests and writes the remainder in one transaction.
+     */
+    private void processChunk(List<RawRow> chunk, int[] columns, Set<String> existingKeys) {
+        if (chunk.isEmpty()) return;
+
+        List<ParsedRow> parsed = chunk.parallelStream()
+                .map(row -> parse(row, columns))
+                .collect(Collectors.toList());
+
+        List<ParsedRow> accepted = new ArrayList<>(parsed.size());
+        for (ParsedRow row : parsed) {
+            if (row.error != null) {
+                reject(row.lineNumber, row.error);
+                continue;
+            }
+
+            Reservation r = row.reservation;
+            // add() returns false for keys already in the database or earlier in the file
+            if (!existingKeys.add(ReservationDAO.reservationKey(r.getGuestName(), r.getCheckIn(), r.getCheckOut()))) {
+                rowsDuplicate++;
+                continue;
+            }
+            accepted.add(row);
+        }
+        List<Reservation> toInsert = resolveGuests(accepted, existingKeys);
+
+        int inserted = reservationDAO.addReservationsBatch(toInsert, batchSize);
+        if (inserted == 0 && !toInsert.isEmpty()) {
+            System.out.println("⚠️ Chunk ending at line " + chunk.get(chunk.size() - 1).lineNumber + " was rolled back.");
+            // Let a retried import pick these rows up again
+            for (Reservation r : toInsert) {
+                existingKeys.remove(ReservationDAO.reservationKey(r.getGuestName(), r.getCheckIn(), r.getCheckOut()));
+            }
+        }
+        rowsInserted += inserted;
+    }
+
+    /**
+     * Sets the guest of each individual reservation that has none, and rejects those whose name cannot be
+     * resolved to one guest (see {@link GuestDAO#resolveGuests}).
+     *
+     * @return the reservations to insert
+     */
+    private List<Reservation> resolveGuests(List<ParsedRow> rows, Set<String> existingKeys) {
+        Set<String> names = new LinkedHashSet<>();
+        for (ParsedRow row : rows) {
+            Reservation r = row.reservation;
+            if (needsGuest(r) && !guestIds.containsKey(GuestMatcher.nameKey(r.getGuestName()))) {
+                names.add(r.getGuestName());
+            }
+        }
+        if (!names.isEmpty()) {
+            Map<String, Integer> resolved = guestDAO.resolveGuests(names, linkByName);
+            if (resolved != null) {
+                for (Map.Entry<String, Integer> guest : resolved.entrySet()) {
+                    guestIds.put(GuestMatcher.nameKey(guest.getKey()), guest.getValue());
+                }
+            }
+        }
+
+        List<Reservation> reservations = new ArrayList<>(rows.size());
+        for (ParsedRow row : rows) {
+            Reservation r = row.reservation;
+            if (r.getGuestId() > 0 && !guestExists(r.getGuestId())) {
+                reject(row.lineNumber, "no guest with guest_id " + r.getGuestId());
+                existingKeys.remove(ReservationDAO.reservationKey(r.getGuestName(), r.getCheckIn(), r.getCheckOut()));
+                continue;
+            }
+            if (needsGuest(r)) {
+                Integer guestId = guestIds.get(GuestMatcher.nameKey(r.getGuestName()));
+                if (guestId == null) {
+                    // Not a new name, and not confirmed as the one guest of that name
+                    reject(row.lineNumber, "guest_name '" + r.getGuestName() + "' belongs to an existing guest; give guest_id"
+                            + (linkByName ? "" : " or import with --link-by-name"));
+                    existingKeys.remove(ReservationDAO.reservationKey(r.getGuestName(), r.getCheckIn(), r.getCheckOut()));
+                    continue;
+                }
+                r.setGuestId(guestId);
+            }
+            reservations.add(r);
+        }
+        return reservations;
+    }
+
+    private boolean guestExists(int guestId) {
+        return knownGuests.computeIfAbsent(guestId, id -> guestDAO.getGuestById(id) != null);
+    }
+
+    private static boolean needsGuest(Reservation r) {
+        return r.getGuestId() == 0 && r.getGroupName() == null;
+    }
+
+    private void reject(long lineNumber, String error) {
+        rowsInvalid++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("Line " + lineNumber + ": " + error);
+        }
+    }
+
+    /**
+     * Validates one raw record and converts it to a Reservation.
+     * Runs on the common fork-join pool, so it must not touch shared state.
+     */
+    private ParsedRow parse(RawRow row, int[] columns) {
+        try {
+            String guestName = field(row.fields, columns[0]);
+            if (guestName.isEmpty()) {
+                return ParsedRow.error(row.lineNumber, "guest_name is required");
+            }
+
+            Date checkIn = Date.valueOf(field(row.fields, columns[1]));
+            Date checkOut = Date.valueOf(field(row.fields, columns[2]));
+            if (!checkIn.before(checkOut)) {
+                return ParsedRow.error(row.lineNumber, "check_in must be before check_out");
+            }
+
+            String roomType = field(row.fields, columns[3]);
+            if (!ROOM_TYPES.contains(roomType)) {
+                return ParsedRow.error(row.lineNumber, "unknown room_type '" + roomType + "'");
+            }
+
+            String paymentStatus = field(row.fields, columns[4]);
+            if (!PAYMENT_STATUSES.contains(paymentStatus)) {
+                return ParsedRow.error(row.lineNumber, "unknown payment_status '" + paymentStatus + "'");
+            }
+
+            String specialRequests = field(row.fields, columns[5]);
+            String roomNumber = emptyToNull(field(row.fields, columns[6]));
+            String groupName = emptyToNull(field(row.fields, columns[7]));
+            boolean lateCheckout = parseBoolean(field(row.fields, columns[8]));
+
+            String guestIdField = field(row.fields, columns[9]);
+            int guestId = guestIdField.isEmpty() ? 0 : Integer.parseInt(guestIdField);
+            if (guestId < 0 || (guestId > 0 && groupName != null)) {
+                return ParsedRow.error(row.lineNumber, "guest_id must be a guest ID, and group bookings have none");
+            }
+
+            Reservation reservation = new Reservation(guestName, checkIn, checkOut, roomType,
+                    paymentStatus, specialRequests, roomNumber, groupName, lateCheckout);
+            reservation.setGuestId(guestId);
+            return new ParsedRow(row.lineNumber, reservation, null);
+
+        } catch (IllegalArgumentException e) {
+            return ParsedRow.error(row.lineNumber, e.getMessage() == null ? "invalid date" : e.getMessage());
+        }
+    }
+
+    /**
+     * Maps each expected column to its position in the header, or -1 for optional columns that are missing.
+     */
+    private int[] resolveColumns(List<String> header) throws IOException {
+        String[] expected = {"guest_name", "check_in", "check_out", "room_type", "payment_status",
+                "special_requests", "room_number", "group_name", "late_checkout", "guest_id"};
+        List<String> normalized = header.stream().map(h -> h.trim().toLowerCase()).collect(Collectors.toList());
+
+        int[] columns = IntStream.range(0, expected.length).map(i -> normalized.indexOf(expected[i])).toArray();
+        for (int i = 0; i < 5; i++) {
+            if (columns[i] < 0) {
+                throw new IOException("Missing required column: " + expected[i]);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Reads one CSV record, honouring quoted fields that contain commas, quotes or line breaks.
+     *
+     * @return the fields of the record, or null at end of file
+     */
+    private static List<String> readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) return null;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (inQuotes) {
+                    if (c == '"') {
+                        if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                            current.append('"');
+                            i++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    inQuotes = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+
+            if (!inQuotes) break;
+
+            // Quoted field continues on the next physical line
+            line = reader.readLine();
+            if (line == null) break;
+            current.append('\n');
+        }
+
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index >= 0 && index < fields.size() ? fields.get(index).trim() : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static boolean parseBoolean(String value) {
+        return value.equalsIgnoreCase("true") || value.equals("1") || value.equalsIgnoreCase("yes");
+    }
+
+    private void printProgress(long start) {
+        System.out.printf("... %,d rows read, %,d inserted (%,.0f rows/s)%n",
+                rowsRead, rowsInserted, rowsPerSecond(rowsRead, start));
+    }
+
+    private void printSummary(long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        System.out.println("✅ Import finished in " + String.format("%.2f", seconds) + " s");
+        System.out.printf("   Rows read:       %,d%n", rowsRead);
+        System.out.printf("   Inserted:        %,d%n", rowsInserted);
+        System.out.printf("   Duplicates:      %,d%n", rowsDuplicate);
+        System.out.printf("   Invalid:         %,d%n", rowsInvalid);
+        System.out.printf("   Throughput:      %,.0f rows/s%n", rowsPerSecond(rowsRead, start));
+        for (String error : errors) {
+            System.out.println("   ⚠️ " + error);
+        }
+        if (rowsInvalid > errors.size()) {
+            System.out.println("   ... " + (rowsInvalid - errors.size()) + " more invalid rows not shown");
+        }
+    }
+
+    private static double rowsPerSecond(long rows, long start) {
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return seconds > 0 ? rows / seconds : 0;
+    }
+
+    // A CSV record with the line number it started on
+    private static class RawRow {
+        final long lineNumber;
+        final List<String> fields;
+
+        RawRow(long lineNumber, List<String> fields) {
+            this.lineNumber = lineNumber;
+            this.fields = fields;
+        }
+    }
+
+    // Result of validating one record: either a reservation or an error message
+    private static class ParsedRow {
+        final long lineNumber;
+        final Reservation reservation;
+        final String error;
+
+        ParsedRow(long lineNumber, Reservation reservation, String error) {
+            this.lineNumber = lineNumber;
+            this.reservation = reservation;
+            this.error = error;
+        }
+
+        static ParsedRow error(long lineNumber, String error) {
+            return new ParsedRow(lineNumber, null, error);
+        }
+    }
+
+    /**
+     * Entry point: {@code ReservationCsvImporter [--link-by-name] <file.csv> [chunkSize] [batchSize]}
+     */
+    public static void main(String[] args) throws IOException {
+        boolean linkByName = args.length > 0 && args[0].equals("--link-by-name");
+        if (linkByName) {
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        if (args.length < 1) {
+            System.out.println("Usage: ReservationCsvImporter [--link-by-name] <file.csv> [chunkSize] [batchSize]");
+            return;
+        }
+
+        int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CHUNK_SIZE;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BATCH_SIZE;
+        new ReservationCsvImporter(chunkSize, batchSize, linkByName).importFile(Paths.get(args[0]));
+    }
+}
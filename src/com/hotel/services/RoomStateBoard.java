@@ -0,0 +1,124 @@
+package com.hotel.services;
+
+import com.hotel.models.ChangeEvent;
+import com.hotel.models.Room;
+import com.hotel.models.RoomStatus;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Which rooms are in which status, held as one bitset per status indexed by room ID.
+ *
+ * Counting the rooms in a status is a popcount over a few words and listing them walks the set bits,
+ * so dashboards never scan the room list or the rooms table to answer "how many are occupied".
+ * A room is in exactly one set; moving it clears its bit in the others. At 10,000 rooms the whole
+ * board is about 6 KB.
+ * <pre>
+ * RoomStateBoard board = new RoomStateBoard(new RoomDAO().getAllRooms());
+ * ... board.apply(event) for each ROOM_ADDED / ROOM_STATUS_CHANGED event ...
+ * int occupied = board.count(RoomStatus.OCCUPIED);
+ * </pre>
+ * The board is kept current by whoever owns it, usually from change events; it is thread-safe.
+ */
+public class RoomStateBoard {
+
+    private final BitSet[] byStatus = new BitSet[RoomStatus.values().length];   // Indexed by ordinal
+
+    /**
+     * Constructor for an empty RoomStateBoard.
+     */
+    public RoomStateBoard() {
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new BitSet();
+        }
+    }
+
+    /**
+     * Constructor for RoomStateBoard, filled from a list of rooms.
+     *
+     * @param rooms the rooms; rooms with an unknown status are left off the board
+     */
+    public RoomStateBoard(List<Room> rooms) {
+        this();
+        for (Room room : rooms) {
+            RoomStatus status = RoomStatus.fromLabel(room.getStatus());
+            if (status != null && room.getId() >= 0) {
+                byStatus[status.ordinal()].set(room.getId());
+            }
+        }
+    }
+
+    /**
+     * Puts a room in a status, taking it out of its previous one.
+     *
+     * @param roomId the room ID
+     * @param status the new status; null takes the room off the board
+     */
+    public synchronized void set(int roomId, RoomStatus status) {
+        if (roomId < 0) return;
+        for (BitSet rooms : byStatus) {
+            rooms.clear(roomId);
+        }
+        if (status != null) {
+            byStatus[status.ordinal()].set(roomId);
+        }
+    }
+
+    /**
+     * Applies a committed room change. Other events are ignored.
+     *
+     * @param event a change event
+     * @return true if the event was a room change
+     */
+    public boolean apply(ChangeEvent event) {
+        if (event.getType() != ChangeEvent.Type.ROOM_ADDED && event.getType() != ChangeEvent.Type.ROOM_STATUS_CHANGED) {
+            return false;
+        }
+        set(event.getEntityId(), RoomStatus.fromLabel(event.get("status")));
+        return true;
+    }
+
+    /**
+     * @param status a room status
+     * @return the number of rooms in the status
+     */
+    public synchronized int count(RoomStatus status) {
+        return byStatus[status.ordinal()].cardinality();
+    }
+
+    /**
+     * @return the number of rooms on the board
+     */
+    public synchronized int total() {
+        int total = 0;
+        for (BitSet rooms : byStatus) {
+            total += rooms.cardinality();
+        }
+        return total;
+    }
+
+    /**
+     * Lists the rooms in a status.
+     *
+     * @param status a room status
+     * @return the room IDs, ascending
+     */
+    public synchronized int[] rooms(RoomStatus status) {
+        return byStatus[status.ordinal()].stream().toArray();
+    }
+
+    /**
+     * @param roomId the room ID
+     * @return the status of the room, or null if it is not on the board
+     */
+    public synchronized RoomStatus statusOf(int roomId) {
+        if (roomId < 0) return null;
+        for (RoomStatus status : RoomStatus.values()) {
+            if (byStatus[status.ordinal()].get(roomId)) {
+                return status;
+            }
+        }
+        return null;
+    }
+}
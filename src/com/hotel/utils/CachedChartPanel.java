@@ -0,0 +1,112 @@
+package com.hotel.utils;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A chart panel that draws its chart into an image on a background thread and paints by copying the image.
+ *
+ * The chart is laid out and rendered only when {@link #setData} gives it new data or the panel changes size;
+ * every other repaint (scrolling, a dialog moving over the window) is a single {@code drawImage}.
+ * While a new image is being rendered the previous one stays on screen. Subclasses implement {@link #render},
+ * which runs off the EDT and must only use the data and graphics it is given.
+ *
+ * @param <D> the chart data; treated as immutable once passed to {@link #setData}
+ */
+public abstract class CachedChartPanel<D> extends JPanel {
+
+    // Shared by every chart: rendering is quick, and a newer request makes older ones obsolete
+    private static final ExecutorService renderer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "chart-render");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong generation = new AtomicLong();   // Bumped by every render request
+    private D data;
+    private BufferedImage image;
+    private Dimension requestedSize;
+
+    /**
+     * Constructor for CachedChartPanel.
+     *
+     * @param preferredSize the preferred size of the chart
+     * @param background the background the chart is drawn on
+     */
+    protected CachedChartPanel(Dimension preferredSize, Color background) {
+        setPreferredSize(preferredSize);
+        setBackground(background);
+        setOpaque(true);
+    }
+
+    /**
+     * Replaces the chart data and renders it in the background. Call on the EDT.
+     *
+     * @param data the new data; must not be modified afterwards
+     */
+    public void setData(D data) {
+        this.data = data;
+        requestedSize = null;
+        repaint();   // Paint notices the missing render and requests it
+    }
+
+    /**
+     * Draws the chart. Called on the render thread with a fresh image.
+     *
+     * @param data the data to draw
+     * @param g graphics of the image, background already filled and antialiasing on
+     * @param width the image width
+     * @param height the image height
+     */
+    protected abstract void render(D data, Graphics2D g, int width, int height);
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        int width = getWidth();
+        int height = getHeight();
+        if (image != null) {
+            g.drawImage(image, 0, 0, null);
+        }
+        if (data != null && width > 0 && height > 0
+                && (requestedSize == null || requestedSize.width != width || requestedSize.height != height)) {
+            requestRender(width, height);
+        }
+    }
+
+    private void requestRender(int width, int height) {
+        requestedSize = new Dimension(width, height);
+        long request = generation.incrementAndGet();
+        D chartData = data;
+        Color background = getBackground();
+
+        renderer.execute(() -> {
+            if (generation.get() != request) return;   // Superseded before it started
+
+            BufferedImage rendered = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2 = rendered.createGraphics();
+            try {
+                g2.setColor(background);
+                g2.fillRect(0, 0, width, height);
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                render(chartData, g2, width, height);
+            } catch (RuntimeException e) {
+                System.out.println("Error rendering chart: " + e.getMessage());
+                return;
+            } finally {
+                g2.dispose();
+            }
+
+            SwingUtilities.invokeLater(() -> {
+                if (generation.get() != request) return;
+                image = rendered;
+                repaint();
+            });
+        });
+    }
+}
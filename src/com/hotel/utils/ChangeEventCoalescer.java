@@ -0,0 +1,108 @@
+package com.hotel.utils;
+
+import com.hotel.database.ChangeEventLog;
+import com.hotel.models.ChangeEvent;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Delivers committed changes to a window on the Event Dispatch Thread, at most once per frame.
+ *
+ * Events of the requested types are collected from {@link ChangeEventLog} as they commit; a burst
+ * (a batch import, a busy check-out hour) is handed to the view as one list about 16 ms after its first event,
+ * so the view updates its table once per frame instead of once per row.
+ * The subscription is closed when the window is closed.
+ */
+public class ChangeEventCoalescer implements AutoCloseable {
+
+    private static final int FRAME_MS = 16;
+
+    private final Set<ChangeEvent.Type> types;
+    private final Consumer<List<ChangeEvent>> onBatch;
+    private final ConcurrentLinkedQueue<ChangeEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Timer timer;
+    private ChangeEventLog.Subscription subscription;
+
+    private ChangeEventCoalescer(Set<ChangeEvent.Type> types, Consumer<List<ChangeEvent>> onBatch) {
+        this.types = types;
+        this.onBatch = onBatch;
+        this.timer = new Timer(FRAME_MS, e -> flush());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * Starts delivering changes made from now on to a window.
+     * Call it before loading the window's data, so nothing committed during the load is missed;
+     * the view must then treat a change to a row it already shows as an update.
+     *
+     * @param window the window to update; delivery stops when it is closed
+     * @param types the change types the window shows
+     * @param onBatch called on the EDT with the changes of one frame, in commit order
+     * @return the coalescer, already attached
+     */
+    public static ChangeEventCoalescer attach(Window window, Set<ChangeEvent.Type> types, Consumer<List<ChangeEvent>> onBatch) {
+        ChangeEventCoalescer coalescer = new ChangeEventCoalescer(EnumSet.copyOf(types), onBatch);
+        try {
+            coalescer.subscription = ChangeEventLog.subscribe(window.getClass().getSimpleName(),
+                    ChangeEventLog.getLatestSequence(), coalescer::offer);
+        } catch (SQLException e) {
+            // The window still works, it just is not live
+            System.out.println("Error subscribing to changes: " + e.getMessage());
+        }
+
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                coalescer.close();
+            }
+        });
+        return coalescer;
+    }
+
+    // Called on the subscription thread
+    private void offer(ChangeEvent event) {
+        if (!types.contains(event.getType())) return;
+        pending.add(event);
+        if (scheduled.compareAndSet(false, true)) {
+            timer.restart();
+        }
+    }
+
+    // Runs on the EDT once per frame with changes
+    private void flush() {
+        scheduled.set(false);   // Before draining: an event offered from now on schedules the next frame
+        List<ChangeEvent> batch = new ArrayList<>();
+        ChangeEvent event;
+        while ((event = pending.poll()) != null) {
+            batch.add(event);
+        }
+        if (!batch.isEmpty() && subscription != null) {
+            onBatch.accept(batch);
+        }
+    }
+
+    /**
+     * Stops delivery and drops changes not yet delivered.
+     */
+    @Override
+    public void close() {
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+        timer.stop();
+        pending.clear();
+    }
+}
@@ -0,0 +1,573 @@
+package com.hotel.utils;
+
+import javax.swing.table.AbstractTableModel;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * A table model that stores each column as one primitive array instead of a Vector of boxed rows.
+ *
+ * <ul>
+ *     <li>Numbers are kept in {@code int[]}/{@code double[]}, dates as epoch days in an {@code int[]}.</li>
+ *     <li>Strings are dictionary-encoded: each distinct value is stored once and rows hold an {@code int} code,
+ *         so a status or room type column costs four bytes a row.</li>
+ *     <li>Button labels and other fixed text are constant columns and take no memory per row.</li>
+ * </ul>
+ * A 100k-row grid takes a few megabytes instead of the tens a DefaultTableModel needs.
+ *
+ * Rows keep their model index for life, so views can map database IDs to rows once.
+ * What the JTable shows is a view index over the model rows, replaced by {@link #setView} with the
+ * result of {@link #sortedRows} or {@link #matchingRows}; row arguments of the TableModel methods are view rows.
+ * Large tables can be sorted and filtered off the EDT from a {@link #snapshot} (see {@link TableQueryService}).
+ * <pre>
+ * ColumnarTableModel model = new ColumnarTableModel()
+ *         .intColumn("ID").stringColumn("Status").dateColumn("Check-In").constantColumn("Edit", "Edit")
+ *         .editable(1);
+ * </pre>
+ */
+public class ColumnarTableModel extends AbstractTableModel {
+
+    private static final int NULL_INT = Integer.MIN_VALUE;   // Null in int and date columns
+    private static final int INITIAL_CAPACITY = 64;
+
+    private enum Kind { INT, DOUBLE, STRING, DATE, CONSTANT }
+
+    private static class Column {
+        final String name;
+        final Kind kind;
+        final String constant;
+        boolean editable;
+        int[] ints;         // INT values, DATE epoch days, STRING dictionary codes (-1 for null)
+        double[] doubles;   // DOUBLE values
+        List<String> dictionary;
+        Map<String, Integer> codes;
+
+        Column(String name, Kind kind, String constant) {
+            this.name = name;
+            this.kind = kind;
+            this.constant = constant;
+            if (kind == Kind.STRING) {
+                dictionary = new ArrayList<>();
+                codes = new HashMap<>();
+            }
+        }
+
+        // The first rows of this column, detached from the model; string codes are not needed to read it
+        Column copy(int rows) {
+            Column copy = new Column(name, kind, constant);
+            if (ints != null) copy.ints = Arrays.copyOf(ints, rows);
+            if (doubles != null) copy.doubles = Arrays.copyOf(doubles, rows);
+            if (dictionary != null) copy.dictionary = List.copyOf(dictionary);
+            copy.codes = null;
+            return copy;
+        }
+    }
+
+    private final List<Column> columns = new ArrayList<>();
+    private int size;           // Model rows stored, including removed ones
+    private int capacity;
+    private final BitSet removed = new BitSet();
+    private int[] view = new int[INITIAL_CAPACITY];   // View row -> model row
+    private int viewCount;
+    private int[] modelToView;  // Inverse of view, rebuilt on demand
+    private int version;        // Bumped on every data change
+
+    // Column definitions, in display order
+
+    public ColumnarTableModel intColumn(String name) {
+        return addColumn(new Column(name, Kind.INT, null));
+    }
+
+    public ColumnarTableModel doubleColumn(String name) {
+        return addColumn(new Column(name, Kind.DOUBLE, null));
+    }
+
+    public ColumnarTableModel stringColumn(String name) {
+        return addColumn(new Column(name, Kind.STRING, null));
+    }
+
+    public ColumnarTableModel dateColumn(String name) {
+        return addColumn(new Column(name, Kind.DATE, null));
+    }
+
+    /**
+     * Adds a column showing the same text on every row, e.g. a button label.
+     *
+     * @param name the column name
+     * @param text the text of every cell
+     * @return this model
+     */
+    public ColumnarTableModel constantColumn(String name, String text) {
+        return addColumn(new Column(name, Kind.CONSTANT, text));
+    }
+
+    /**
+     * Marks columns as editable in the table.
+     *
+     * @param columnIndexes the columns users may edit
+     * @return this model
+     */
+    public ColumnarTableModel editable(int... columnIndexes) {
+        for (int column : columnIndexes) {
+            columns.get(column).editable = true;
+        }
+        return this;
+    }
+
+    private ColumnarTableModel addColumn(Column column) {
+        if (size > 0) {
+            throw new IllegalStateException("Columns must be defined before rows are added");
+        }
+        columns.add(column);
+        return this;
+    }
+
+    // Rows
+
+    /**
+     * Appends a row, shown at the end of the current view.
+     *
+     * @param values one value per column; values for constant columns are ignored
+     * @return the model row index
+     */
+    public int addRow(Object... values) {
+        ensureCapacity(size + 1);
+        int row = size++;
+        for (int col = 0; col < columns.size(); col++) {
+            store(columns.get(col), row, col < values.length ? values[col] : null);
+        }
+
+        if (viewCount == view.length) {
+            view = Arrays.copyOf(view, view.length * 2);
+        }
+        view[viewCount++] = row;
+        modelToView = null;
+        version++;
+        fireTableRowsInserted(viewCount - 1, viewCount - 1);
+        return row;
+    }
+
+    /**
+     * Removes the row shown at a view position.
+     *
+     * @param viewRow the view row
+     */
+    public void removeRow(int viewRow) {
+        removed.set(view[viewRow]);
+        System.arraycopy(view, viewRow + 1, view, viewRow, viewCount - viewRow - 1);
+        viewCount--;
+        modelToView = null;
+        version++;
+        fireTableRowsDeleted(viewRow, viewRow);
+    }
+
+    /**
+     * Removes every row and forgets the string dictionaries.
+     */
+    public void clear() {
+        size = 0;
+        capacity = 0;
+        viewCount = 0;
+        removed.clear();
+        modelToView = null;
+        version++;
+        for (Column column : columns) {
+            column.ints = null;
+            column.doubles = null;
+            if (column.kind == Kind.STRING) {
+                column.dictionary.clear();
+                column.codes.clear();
+            }
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Changes a stored value without notifying the table, so a batch of changes can be announced with one
+     * {@code fireTableRowsUpdated}. Use {@link #getViewRow} to find the rows to announce.
+     *
+     * @param modelRow the model row
+     * @param column the column
+     * @param value the new value
+     */
+    public void setValue(int modelRow, int column, Object value) {
+        store(columns.get(column), modelRow, value);
+        version++;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= capacity) return;
+        int newCapacity = Math.max(INITIAL_CAPACITY, Math.max(needed, capacity + (capacity >> 1)));
+        for (Column column : columns) {
+            switch (column.kind) {
+                case INT, STRING, DATE -> column.ints = column.ints == null ? new int[newCapacity] : Arrays.copyOf(column.ints, newCapacity);
+                case DOUBLE -> column.doubles = column.doubles == null ? new double[newCapacity] : Arrays.copyOf(column.doubles, newCapacity);
+                case CONSTANT -> {
+                }
+            }
+        }
+        capacity = newCapacity;
+    }
+
+    private static void store(Column column, int row, Object value) {
+        switch (column.kind) {
+            case INT -> column.ints[row] = value == null ? NULL_INT
+                    : value instanceof Number n ? n.intValue() : Integer.parseInt(value.toString().trim());
+            case DOUBLE -> column.doubles[row] = value == null ? Double.NaN
+                    : value instanceof Number n ? n.doubleValue() : Double.parseDouble(value.toString().trim());
+            case DATE -> column.ints[row] = value == null ? NULL_INT : (int) toLocalDate(value).toEpochDay();
+            case STRING -> column.ints[row] = value == null ? -1 : encode(column, value.toString());
+            case CONSTANT -> {
+            }
+        }
+    }
+
+    private static int encode(Column column, String value) {
+        Integer code = column.codes.get(value);
+        if (code == null) {
+            code = column.dictionary.size();
+            column.dictionary.add(value);
+            column.codes.put(value, code);
+        }
+        return code;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof Date d) return d.toLocalDate();
+        if (value instanceof LocalDate d) return d;
+        if (value instanceof java.util.Date d) return new Date(d.getTime()).toLocalDate();
+        return LocalDate.parse(value.toString().trim());
+    }
+
+    // Model row access
+
+    /**
+     * @return the number of rows stored, including removed ones; model row indexes are below this
+     */
+    public int getModelRowCount() {
+        return size;
+    }
+
+    public boolean isRemoved(int modelRow) {
+        return removed.get(modelRow);
+    }
+
+    public int getModelRow(int viewRow) {
+        return view[viewRow];
+    }
+
+    /**
+     * @param modelRow the model row
+     * @return where the row is shown, or -1 if the current view hides it
+     */
+    public int getViewRow(int modelRow) {
+        if (modelToView == null) {
+            int[] inverse = new int[size];
+            Arrays.fill(inverse, -1);
+            for (int i = 0; i < viewCount; i++) {
+                inverse[view[i]] = i;
+            }
+            modelToView = inverse;
+        }
+        return modelRow < modelToView.length ? modelToView[modelRow] : -1;
+    }
+
+    public int getInt(int modelRow, int column) {
+        return columns.get(column).ints[modelRow];
+    }
+
+    public String getString(int modelRow, int column) {
+        Column c = columns.get(column);
+        int code = c.ints[modelRow];
+        return code < 0 ? null : c.dictionary.get(code);
+    }
+
+    /**
+     * @param modelRow the model row
+     * @param column the column
+     * @return the value as getValueAt would return it, by model row
+     */
+    public Object getModelValue(int modelRow, int column) {
+        return valueOf(columns.get(column), modelRow);
+    }
+
+    private static Object valueOf(Column c, int row) {
+        return switch (c.kind) {
+            case INT -> c.ints[row] == NULL_INT ? null : c.ints[row];
+            case DOUBLE -> Double.isNaN(c.doubles[row]) ? null : c.doubles[row];
+            case DATE -> c.ints[row] == NULL_INT ? null : Date.valueOf(LocalDate.ofEpochDay(c.ints[row]));
+            case STRING -> c.ints[row] < 0 ? null : c.dictionary.get(c.ints[row]);
+            case CONSTANT -> c.constant;
+        };
+    }
+
+    // Sort and filter indexes
+
+    /**
+     * Orders the rows by one column. Strings sort by the rank of their dictionary entry, so the comparison
+     * is on ints and each distinct string is compared only when the dictionary is ranked.
+     *
+     * @param column the column to sort by
+     * @param ascending the direction; nulls sort first when ascending
+     * @return the model rows in order, for {@link #setView}
+     */
+    public int[] sortedRows(int column, boolean ascending) {
+        Snapshot data = new Snapshot(this, false, column);
+        return data.sortedRows(data.liveRows(), column, ascending, false);
+    }
+
+    /**
+     * Finds the rows whose value contains a text, ignoring case. For string columns each distinct value is
+     * tested once and rows are matched by code.
+     *
+     * @param column the column to search
+     * @param text the text to look for; empty matches every row
+     * @return the matching model rows in model order, for {@link #setView}
+     */
+    public int[] matchingRows(int column, String text) {
+        Snapshot data = new Snapshot(this, false, column);
+        return data.matchingRows(data.liveRows(), column, text, false);
+    }
+
+    /**
+     * Copies the columns needed by a sort or filter, so it can run on another thread while the table
+     * keeps changing on the EDT. The copy is a few array copies and costs far less than the sort itself.
+     *
+     * @param columnIndexes the columns the sort or filter reads
+     * @return the copy
+     */
+    public Snapshot snapshot(int... columnIndexes) {
+        return new Snapshot(this, true, columnIndexes);
+    }
+
+    /**
+     * @return a number that changes whenever rows are added, removed or changed; compare it with
+     *         {@link Snapshot#getVersion()} to tell whether a background result is still current
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    private int[] liveRows() {
+        return new Snapshot(this, false).liveRows();
+    }
+
+    /**
+     * Some columns of the model as they were at one moment. Sorting and filtering a snapshot never reads the
+     * model, so it is safe on any thread; the resulting model rows can be passed to {@link #setView} on the EDT
+     * as long as the model version has not moved on.
+     */
+    public static final class Snapshot {
+
+        private final int version;
+        private final int size;
+        private final BitSet removed;
+        private final Column[] columns;   // The captured columns by index, null for the others
+
+        private Snapshot(ColumnarTableModel model, boolean copy, int... columnIndexes) {
+            this.version = model.version;
+            this.size = model.size;
+            this.removed = copy ? (BitSet) model.removed.clone() : model.removed;
+            this.columns = new Column[model.columns.size()];
+            for (int index : columnIndexes) {
+                Column column = model.columns.get(index);
+                columns[index] = copy ? column.copy(size) : column;
+            }
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the model rows not removed, in model order
+         */
+        public int[] liveRows() {
+            int[] rows = new int[size - removed.cardinality()];
+            int n = 0;
+            for (int row = removed.nextClearBit(0); row < size; row = removed.nextClearBit(row + 1)) {
+                rows[n++] = row;
+            }
+            return rows;
+        }
+
+        /**
+         * Orders rows by one column, as {@link ColumnarTableModel#sortedRows}.
+         *
+         * @param rows the model rows to order; not modified
+         * @param column the column to sort by
+         * @param ascending the direction; nulls sort first when ascending
+         * @param parallel whether to sort on all cores (worth it from some tens of thousands of rows)
+         * @return the rows in order
+         */
+        public int[] sortedRows(int[] rows, int column, boolean ascending, boolean parallel) {
+            Column c = column(column);
+            int[] sorted = rows.clone();
+            if (c.kind == Kind.CONSTANT) return sorted;
+
+            if (c.kind == Kind.DOUBLE) {
+                Integer[] boxed = new Integer[sorted.length];
+                for (int i = 0; i < sorted.length; i++) boxed[i] = sorted[i];
+                Comparator<Integer> order = Comparator.comparingDouble(row -> Double.isNaN(c.doubles[row]) ? Double.NEGATIVE_INFINITY : c.doubles[row]);
+                if (!ascending) order = order.reversed();
+                if (parallel) {
+                    Arrays.parallelSort(boxed, order);
+                } else {
+                    Arrays.sort(boxed, order);
+                }
+                for (int i = 0; i < sorted.length; i++) sorted[i] = boxed[i];
+                return sorted;
+            }
+
+            int[] keys = c.ints;
+            int[] rank = c.kind == Kind.STRING ? rankDictionary(c, parallel) : null;
+
+            // Sort (key, row) pairs packed into longs: a primitive sort, stable by model row
+            long[] packed = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                int key = keys[sorted[i]];
+                if (rank != null) key = key < 0 ? -1 : rank[key];
+                if (!ascending) key = ~key;   // Reverses the order of every int
+                packed[i] = ((long) key << 32) | sorted[i];
+            }
+            if (parallel) {
+                Arrays.parallelSort(packed);
+            } else {
+                Arrays.sort(packed);
+            }
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = (int) packed[i];
+            }
+            return sorted;
+        }
+
+        /**
+         * Keeps the rows whose value contains a text, as {@link ColumnarTableModel#matchingRows}.
+         *
+         * @param rows the model rows to search; not modified
+         * @param column the column to search
+         * @param text the text to look for, ignoring case; empty matches every row
+         * @param parallel whether to search on all cores
+         * @return the matching rows, in the order given
+         */
+        public int[] matchingRows(int[] rows, int column, String text, boolean parallel) {
+            if (text == null || text.isEmpty()) return rows.clone();
+            String needle = text.toLowerCase(Locale.ROOT);
+            Column c = column(column);
+
+            IntPredicate match;
+            if (c.kind == Kind.STRING) {
+                boolean[] codeMatches = new boolean[c.dictionary.size()];
+                IntStream codes = IntStream.range(0, codeMatches.length);
+                (parallel ? codes.parallel() : codes).forEach(code ->
+                        codeMatches[code] = c.dictionary.get(code).toLowerCase(Locale.ROOT).contains(needle));
+                match = row -> c.ints[row] >= 0 && codeMatches[c.ints[row]];
+            } else {
+                match = row -> {
+                    Object value = valueOf(c, row);
+                    return value != null && value.toString().toLowerCase(Locale.ROOT).contains(needle);
+                };
+            }
+
+            IntStream stream = Arrays.stream(rows);
+            return (parallel ? stream.parallel() : stream).filter(match).toArray();
+        }
+
+        private Column column(int index) {
+            Column column = columns[index];
+            if (column == null) {
+                throw new IllegalArgumentException("Column " + index + " is not in the snapshot");
+            }
+            return column;
+        }
+    }
+
+    // The sorted position of every dictionary entry, case-insensitively
+    private static int[] rankDictionary(Column c, boolean parallel) {
+        Integer[] order = new Integer[c.dictionary.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Comparator<Integer> byValue = (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(c.dictionary.get(a), c.dictionary.get(b));
+        if (parallel) {
+            Arrays.parallelSort(order, byValue);
+        } else {
+            Arrays.sort(order, byValue);
+        }
+        int[] rank = new int[order.length];
+        for (int i = 0; i < order.length; i++) rank[order[i]] = i;
+        return rank;
+    }
+
+    /**
+     * Shows the given model rows, in the given order.
+     *
+     * @param modelRows rows from {@link #sortedRows} or {@link #matchingRows}
+     */
+    public void setView(int[] modelRows) {
+        view = modelRows.length == 0 ? new int[INITIAL_CAPACITY] : modelRows.clone();
+        viewCount = modelRows.length;
+        modelToView = null;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Shows every row in model order.
+     */
+    public void resetView() {
+        setView(liveRows());
+    }
+
+    // TableModel
+
+    @Override
+    public int getRowCount() {
+        return viewCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns.get(column).name;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        // Dates stay Object so the table shows them as yyyy-mm-dd like before
+        return switch (columns.get(column).kind) {
+            case INT -> Integer.class;
+            case DOUBLE -> Double.class;
+            case STRING, CONSTANT -> String.class;
+            case DATE -> Object.class;
+        };
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return columns.get(column).editable;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return getModelValue(view[row], column);
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        store(columns.get(column), view[row], value);
+        version++;
+        fireTableCellUpdated(row, column);
+    }
+}
@@ -0,0 +1,150 @@
+package com.hotel.utils;
+
+import javax.swing.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorts and filters a {@link ColumnarTableModel} on a background thread, so searching a large table never
+ * holds up painting.
+ *
+ * Each change to the query (a key typed in the search field, a header click) snapshots the columns it reads
+ * on the EDT and computes the new view index on a worker, using all cores for large tables.
+ * A query that is superseded before it finishes is cancelled, and its result is never shown.
+ * The finished index is swapped into the model on the EDT in one step; if the model changed meanwhile,
+ * the query is run again on the new data.
+ * <pre>
+ * TableQueryService query = new TableQueryService(model);
+ * searchField.addKeyListener(... query.filter(1, searchField.getText()) ...);
+ * </pre>
+ * All methods must be called on the EDT.
+ */
+public class TableQueryService {
+
+    private static final int PARALLEL_THRESHOLD = 20_000;   // Rows from which sorting and matching use all cores
+
+    // One worker for every table: a query waiting behind another table's query is usually superseded anyway
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "table-query");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ColumnarTableModel model;
+    private final AtomicLong generation = new AtomicLong();   // Bumped by every query; older ones give up
+    private Future<?> running;
+
+    // The current query
+    private int filterColumn = -1;
+    private String filterText = "";
+    private int sortColumn = -1;
+    private boolean ascending = true;
+
+    /**
+     * Constructor for TableQueryService.
+     *
+     * @param model the model whose view this service sets
+     */
+    public TableQueryService(ColumnarTableModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Shows only the rows whose value in a column contains a text, ignoring case. The sort order is kept.
+     *
+     * @param column the column to search
+     * @param text the text to look for; empty shows every row
+     */
+    public void filter(int column, String text) {
+        filterColumn = column;
+        filterText = text == null ? "" : text;
+        refresh();
+    }
+
+    /**
+     * Orders the shown rows by a column. The filter is kept.
+     *
+     * @param column the column to sort by
+     * @param ascending the direction
+     */
+    public void sort(int column, boolean ascending) {
+        this.sortColumn = column;
+        this.ascending = ascending;
+        refresh();
+    }
+
+    /**
+     * Sorts by a column, or reverses the order if the table is already sorted by it, as a header click does.
+     *
+     * @param column the column clicked
+     */
+    public void toggleSort(int column) {
+        sort(column, column != sortColumn || !ascending);
+    }
+
+    /**
+     * Recomputes the view for the current query, e.g. after the model was reloaded.
+     */
+    public void refresh() {
+        long request = generation.incrementAndGet();
+        if (running != null) {
+            running.cancel(true);
+            running = null;
+        }
+
+        int filterCol = filterColumn;
+        String text = filterText;
+        int sortCol = sortColumn;
+        boolean asc = ascending;
+        if (text.isEmpty() && sortCol < 0) {
+            model.resetView();
+            return;
+        }
+
+        ColumnarTableModel.Snapshot data = text.isEmpty() ? model.snapshot(sortCol)
+                : sortCol < 0 ? model.snapshot(filterCol) : model.snapshot(filterCol, sortCol);
+        running = worker.submit(() -> {
+            int[] rows = data.liveRows();
+            boolean parallel = rows.length >= PARALLEL_THRESHOLD;
+            if (!text.isEmpty()) {
+                rows = data.matchingRows(rows, filterCol, text, parallel);
+            }
+            if (superseded(request)) return;
+            if (sortCol >= 0) {
+                rows = data.sortedRows(rows, sortCol, asc, parallel);
+            }
+            if (superseded(request)) return;
+
+            int[] result = rows;
+            SwingUtilities.invokeLater(() -> apply(request, data.getVersion(), result));
+        });
+    }
+
+    private boolean superseded(long request) {
+        return generation.get() != request || Thread.currentThread().isInterrupted();
+    }
+
+    // Runs on the EDT
+    private void apply(long request, int version, int[] rows) {
+        if (generation.get() != request) return;   // A newer query is on its way
+        running = null;
+        if (model.getVersion() != version) {
+            refresh();   // Rows changed while the query ran; its index may point at the wrong rows
+            return;
+        }
+        model.setView(rows);
+    }
+
+    /**
+     * @return the column the table is sorted by, or -1 if it is in model order
+     */
+    public int getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+}
@@ -1,15 +1,25 @@
 package com.hotel.views;
 
 import com.hotel.database.BillDAO;
+import com.hotel.database.BillDAO.GroupBillOutcome;
+import com.hotel.database.FolioDAO;
+import com.hotel.database.FolioDAO.PostedCharges;
+import com.hotel.database.GuestDAO;
 import com.hotel.database.ReservationDAO;
 import com.hotel.database.ServiceDAO;
+import com.hotel.jfr.BillGeneratedEvent;
 import com.hotel.models.Bill;
+import com.hotel.models.GroupBooking;
+import com.hotel.models.Guest;
 import com.hotel.models.Reservation;
 import com.hotel.models.Service;
+import com.hotel.services.BillingCalculator;
+import com.hotel.services.GroupFolioEngine;
+import com.hotel.utils.ColumnarTableModel;
 import com.hotel.utils.PopupUtil;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.*;
@@ -19,14 +29,15 @@ import java.util.List;
  * BillingView class handles the billing system interface.
  * Allows users to generate and preview bills for individual and group reservations.
  */
-public class BillingView extends JFrame {
+public class BillingView extends JFrame implements ViewManager.Reusable {
     private JRadioButton individualBtn, groupBtn;
     private JPanel individualPanel, groupPanel;
-    private JComboBox<String> guestBox, groupBox;
+    private JComboBox<Guest> guestBox;
+    private JComboBox<GroupBooking> groupBox;
     private JTextField individualDiscountField, groupDiscountField;
     private JLabel individualTotalLabel, groupTotalLabel, nightsLabel, roomTypeLabel;
     private JList<String> individualServiceList, groupServiceList;
-    private DefaultTableModel tableModel;
+    private ColumnarTableModel tableModel;
 
     /**
      * Constructor initializes the BillingView UI components.
@@ -70,10 +81,18 @@ public class BillingView extends JFrame {
         cl.show(centerPanel, "individual");
 
         // Table for displaying bills
-        String[] cols = {"ID", "Guest/Group", "Room", "Nights", "Services", "Total"};
-        tableModel = new DefaultTableModel(cols, 0);
+        tableModel = new ColumnarTableModel()
+                .intColumn("ID").stringColumn("Guest/Group").stringColumn("Room").intColumn("Nights")
+                .stringColumn("Services").doubleColumn("Total");
         JTable table = new JTable(tableModel);
         table.setRowHeight(28);
+        // Totals are stored as doubles and only formatted when painted
+        table.getColumnModel().getColumn(5).setCellRenderer(new DefaultTableCellRenderer() {
+            @Override
+            protected void setValue(Object value) {
+                setText(value == null ? "" : "$" + String.format("%.2f", (Double) value));
+            }
+        });
         JScrollPane scrollPane = new JScrollPane(table);
 
         // Form wrapper
@@ -91,10 +110,7 @@ public class BillingView extends JFrame {
         JButton backButton = new JButton("\u2190 Back to Dashboard");
         backButton.setBackground(Color.WHITE);
         backButton.setFocusPainted(false);
-        backButton.addActionListener(e -> {
-            dispose();
-            new MainMenuView(LoginView.loggedInUser);
-        });
+        backButton.addActionListener(e -> ViewManager.back(this));
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         bottomPanel.add(backButton);
         add(bottomPanel, BorderLayout.PAGE_END);
@@ -111,7 +127,7 @@ public class BillingView extends JFrame {
     private JPanel buildIndividualPanel() {
         JPanel panel = createBasePanel();
 
-        guestBox = new JComboBox<>(new ReservationDAO().getOnlyIndividualGuestNames().toArray(new String[0]));
+        guestBox = new JComboBox<>(new GuestDAO().getIndividualGuests().toArray(new Guest[0]));
         guestBox.addActionListener(e -> fillIndividualData());
 
         roomTypeLabel = new JLabel();
@@ -150,7 +166,7 @@ public class BillingView extends JFrame {
     private JPanel buildGroupPanel() {
         JPanel panel = createBasePanel();
 
-        groupBox = new JComboBox<>(new ReservationDAO().getAllGroupNames().toArray(new String[0]));
+        groupBox = new JComboBox<>(new ReservationDAO().getAllGroups().toArray(new GroupBooking[0]));
         groupDiscountField = new JTextField("0");
 
         List<String> services = new ArrayList<>();
@@ -191,12 +207,12 @@ public class BillingView extends JFrame {
      * Populates individual reservation details when a guest is selected.
      */
     private void fillIndividualData() {
-        String guest = (String) guestBox.getSelectedItem();
+        Guest guest = (Guest) guestBox.getSelectedItem();
         if (guest == null) return;
-        Reservation r = new ReservationDAO().getReservationByGuestName(guest);
+        Reservation r = new ReservationDAO().getLatestReservationForGuest(guest.getId());
         if (r != null) {
             roomTypeLabel.setText(r.getRoomType());
-            nightsLabel.setText(String.valueOf((r.getCheckOut().getTime() - r.getCheckIn().getTime()) / (1000 * 60 * 60 * 24)));
+            nightsLabel.setText(String.valueOf(BillingCalculator.calculateNights(r)));
         }
     }
 
@@ -204,20 +220,19 @@ public class BillingView extends JFrame {
      * Previews the billing breakdown for an individual guest.
      */
     private void previewIndividualBill(ActionEvent e) {
-        String guest = (String) guestBox.getSelectedItem();
+        Guest guest = (Guest) guestBox.getSelectedItem();
         if (guest == null) return;
-        Reservation r = new ReservationDAO().getReservationByGuestName(guest);
+        Reservation r = new ReservationDAO().getLatestReservationForGuest(guest.getId());
         if (r == null) return;
 
-        int nights = (int) ((r.getCheckOut().getTime() - r.getCheckIn().getTime()) / (1000 * 60 * 60 * 24));
-        double base = getBaseCharge(r.getRoomType()) * nights;
+        int nights = BillingCalculator.calculateNights(r);
+        double base = calculateBaseCharge(r);
         boolean isLate = r.isLateCheckout();
-        if (isLate) base += 25;
 
-        List<Service> selected = convertSelectedServices(individualServiceList);
-        double service = selected.stream().mapToDouble(Service::getPrice).sum();
-        double tax = (base + service) * 0.12;
-        double discount = (base + service + tax) * (Double.parseDouble(individualDiscountField.getText()) / 100);
+        List<Service> selected = billableServices(individualServiceList, List.of(r));
+        double service = BillingCalculator.calculateServiceTotal(selected);
+        double tax = BillingCalculator.calculateTax(base, service);
+        double discount = BillingCalculator.calculateDiscount(base, service, tax, Double.parseDouble(individualDiscountField.getText()));
         double total = base + service + tax - discount;
 
         individualTotalLabel.setText("Total: $" + String.format("%.2f", total));
@@ -239,29 +254,18 @@ public class BillingView extends JFrame {
      * Previews the billing breakdown for a group booking.
      */
     private void previewGroupBill(ActionEvent e) {
-        String group = (String) groupBox.getSelectedItem();
+        GroupBooking group = (GroupBooking) groupBox.getSelectedItem();
         if (group == null) return;
         List<Reservation> reservations = new ReservationDAO().getReservationsByGroup(group);
 
-        double baseTotal = 0;
-        int totalNights = 0;
-        int lateCount = 0;
+        double baseTotal = calculateBaseTotal(reservations);
+        int totalNights = BillingCalculator.calculateTotalNights(reservations);
+        long lateCount = reservations.stream().filter(Reservation::isLateCheckout).count();
 
-        for (Reservation r : reservations) {
-            int nights = (int) ((r.getCheckOut().getTime() - r.getCheckIn().getTime()) / (1000 * 60 * 60 * 24));
-            double base = getBaseCharge(r.getRoomType()) * nights;
-            if (r.isLateCheckout()) {
-                base += 25;
-                lateCount++;
-            }
-            baseTotal += base;
-            totalNights += nights;
-        }
-
-        List<Service> services = convertSelectedServices(groupServiceList);
-        double service = services.stream().mapToDouble(Service::getPrice).sum();
-        double tax = (baseTotal + service) * 0.12;
-        double discount = (baseTotal + service + tax) * (Double.parseDouble(groupDiscountField.getText()) / 100);
+        List<Service> services = billableServices(groupServiceList, reservations);
+        double service = BillingCalculator.calculateServiceTotal(services);
+        double tax = BillingCalculator.calculateTax(baseTotal, service);
+        double discount = calculateDiscount(baseTotal, service, tax);
         double total = baseTotal + service + tax - discount;
 
         groupTotalLabel.setText("Total: $" + String.format("%.2f", total));
@@ -282,30 +286,41 @@ public class BillingView extends JFrame {
      * Handles generating the final bill for an individual reservation.
      */
     private void handleIndividualBill(ActionEvent e) {
+        BillGeneratedEvent event = new BillGeneratedEvent();
+        event.begin();
+        event.groupSize = 1;
         try {
-            String guest = (String) guestBox.getSelectedItem();
-            if (new BillDAO().isBillAlreadyGenerated(guest)) {
-                PopupUtil.showError(this, "Bill already generated for this guest!");
-                return;
-            }
-
-            Reservation r = new ReservationDAO().getReservationByGuestName(guest);
-            int nights = (int) ((r.getCheckOut().getTime() - r.getCheckIn().getTime()) / (1000 * 60 * 60 * 24));
-            List<Service> selected = convertSelectedServices(individualServiceList);
-            double base = getBaseCharge(r.getRoomType()) * nights;
-            if (r.isLateCheckout()) base += 25;
-
-            double service = selected.stream().mapToDouble(Service::getPrice).sum();
-            double tax = (base + service) * 0.12;
-            double discount = (base + service + tax) * (Double.parseDouble(individualDiscountField.getText()) / 100);
+            Guest guest = (Guest) guestBox.getSelectedItem();
+            Reservation r = new ReservationDAO().getLatestReservationForGuest(guest.getId());
+            int nights = BillingCalculator.calculateNights(r);
+            List<Service> selected = billableServices(individualServiceList, List.of(r));
+            double base = calculateBaseCharge(r);
+
+            double service = BillingCalculator.calculateServiceTotal(selected);
+            double tax = BillingCalculator.calculateTax(base, service);
+            double discount = BillingCalculator.calculateDiscount(base, service, tax, Double.parseDouble(individualDiscountField.getText()));
             double total = base + service + tax - discount;
 
-            Bill bill = new Bill(guest, r.getRoomType(), nights, selected, base, tax, discount, total);
-            if (new BillDAO().addBill(bill)) {
+            event.roomType = r.getRoomType();
+            event.nights = nights;
+            event.serviceCount = selected.size();
+            event.totalAmount = total;
+
+            Bill bill = new Bill(guest.getFullName(), r.getRoomType(), nights, selected, base, tax, discount, total);
+            bill.setGuestId(guest.getId());
+            bill.setReservationId(r.getId());
+            Bill stored = new BillDAO().createOrGetBill(bill);
+            event.succeeded = stored == bill;
+            // Commit before the popup so the event measures the work, not the user reading the dialog
+            event.commit();
+            if (event.succeeded) {
                 PopupUtil.showSuccess(this, "Bill added successfully!");
                 loadBills();
+            } else if (stored != null) {
+                PopupUtil.showError(this, "Bill already generated for this stay!");
             }
         } catch (Exception ex) {
+            event.commit();
             PopupUtil.showError(this, "Error: " + ex.getMessage());
         }
     }
@@ -314,75 +329,113 @@ public class BillingView extends JFrame {
      * Handles generating the full bill for a group reservation.
      */
     private void handleGroupBill(ActionEvent e) {
+        BillGeneratedEvent event = new BillGeneratedEvent();
+        event.begin();
+        event.roomType = "Group";
         try {
-            String group = (String) groupBox.getSelectedItem();
-            BillDAO billDAO = new BillDAO();
-
-            // Check if a bill for the selected group is already generated
-            if (billDAO.isBillAlreadyGenerated(group)) {
-                PopupUtil.showError(this, "Bill already generated for this group!");
-                return;
-            }
+            GroupBooking group = (GroupBooking) groupBox.getSelectedItem();
 
             // Fetch reservations and selected services for the group
             List<Reservation> reservations = new ReservationDAO().getReservationsByGroup(group);
-            List<Service> services = convertSelectedServices(groupServiceList);
+            List<Service> services = billableServices(groupServiceList, reservations);
 
             // Calculate bill components
-            int totalNights = calculateTotalNights(reservations);
+            int totalNights = BillingCalculator.calculateTotalNights(reservations);
             double baseTotal = calculateBaseTotal(reservations);
-            double serviceTotal = calculateServiceTotal(services);
-            double tax = calculateTax(baseTotal, serviceTotal);
+            double serviceTotal = BillingCalculator.calculateServiceTotal(services);
+            double tax = BillingCalculator.calculateTax(baseTotal, serviceTotal);
             double discount = calculateDiscount(baseTotal, serviceTotal, tax);
             double total = baseTotal + serviceTotal + tax - discount;
 
-            // Create and save the bill
-            Bill bill = new Bill(group, "Group", totalNights, services, baseTotal, tax, discount, total);
+            event.groupSize = reservations.size();
+            event.nights = totalNights;
+            event.serviceCount = services.size();
+            event.totalAmount = total;
 
-            if (billDAO.addBill(bill)) {
-                PopupUtil.showSuccess(this, "Group bill added successfully!");
-                loadBills();
+            // Create and save the bill
+            Bill bill = new Bill(group.getGroupName(), "Group", totalNights, services, baseTotal, tax, discount, total);
+            bill.setGroupName(group.getGroupName());
+            bill.setGroupCheckIn(group.getCheckIn());
+
+            // Saved only if neither the group nor any of its members has a bill yet
+            GroupBillOutcome outcome = new BillDAO().createGroupBill(bill);
+            event.succeeded = outcome == GroupBillOutcome.CREATED;
+            event.commit();
+            switch (outcome) {
+                case CREATED -> {
+                    PopupUtil.showSuccess(this, "Group bill added successfully!");
+                    loadBills();
+                }
+                case ALREADY_BILLED -> PopupUtil.showError(this, "Bill already generated for this group!");
+                case MEMBERS_BILLED -> PopupUtil.showError(this,
+                        "Some guests in this group already have their own bill. Use Split Bill for the others.");
+                case FAILED -> PopupUtil.showError(this, "Group bill could not be saved.");
             }
         } catch (Exception ex) {
+            event.commit();
             PopupUtil.showError(this, "Error: " + ex.getMessage());
         }
     }
 
     /**
-     * Handles splitting the total bill among group members.
+     * Handles splitting a group's bill into member folios, each priced from the member's own stay,
+     * and saves them once the desk confirms.
      */
     private void handleSplitBill(ActionEvent e) {
         try {
-            String group = (String) groupBox.getSelectedItem();
+            GroupBooking group = (GroupBooking) groupBox.getSelectedItem();
             if (group == null) return;
 
-            // Fetch reservations for the group
-            List<Reservation> reservations = new ReservationDAO().getReservationsByGroup(group);
-            int numGuests = reservations.size();
-            if (numGuests == 0) {
-                PopupUtil.showError(this, "No guests found in this group.");
+            if (new BillDAO().getBillForGroup(group) != null) {
+                PopupUtil.showError(this, "Bill already generated for this group!");
                 return;
             }
 
-            // Calculate bill components
-            List<Service> services = convertSelectedServices(groupServiceList);
-            double baseTotal = calculateBaseTotal(reservations);
-            double serviceTotal = calculateServiceTotal(services);
-            double tax = calculateTax(baseTotal, serviceTotal);
-            double discount = calculateDiscount(baseTotal, serviceTotal, tax);
-            double total = baseTotal + serviceTotal + tax - discount;
-            double perPerson = total / numGuests;
+            // Loads the group once and prices every member's folio in parallel
+            GroupFolioEngine engine = new GroupFolioEngine();
+            List<Bill> folios = engine.computeFolios(group, convertSelectedServices(groupServiceList),
+                    Double.parseDouble(groupDiscountField.getText()));
+            if (folios.isEmpty()) {
+                PopupUtil.showError(this, "No guests found in this group.");
+                return;
+            }
 
             // Build and display the split bill breakdown
-            String breakdown = buildBillBreakdown(group, numGuests, total, perPerson);
+            int choice = JOptionPane.showConfirmDialog(this, buildBillBreakdown(group, folios), "Split Bill",
+                    JOptionPane.OK_CANCEL_OPTION, JOptionPane.INFORMATION_MESSAGE);
+            if (choice != JOptionPane.OK_OPTION) return;
 
-            JOptionPane.showMessageDialog(this, new JLabel(breakdown), "Split Bill", JOptionPane.INFORMATION_MESSAGE);
+            List<Bill> saved = engine.saveFolios(folios);
+            if (saved == null) {
+                PopupUtil.showError(this, "Member folios could not be saved.");
+                return;
+            }
+            int skipped = folios.size() - saved.size();
+            PopupUtil.showSuccess(this, saved.size() + " member folios added"
+                    + (skipped > 0 ? "; " + skipped + " members were already billed." : "!"));
+            loadBills();
 
         } catch (Exception ex) {
             PopupUtil.showError(this, "Error: " + ex.getMessage());
         }
     }
 
+    /**
+     * The services to bill: those selected in the list plus the charges the outlets posted to the stays.
+     */
+    private List<Service> billableServices(JList<String> list, List<Reservation> reservations) {
+        List<Service> services = convertSelectedServices(list);
+        List<Integer> ids = new ArrayList<>();
+        for (Reservation r : reservations) {
+            ids.add(r.getId());
+        }
+        Map<Integer, List<Service>> posted = new FolioDAO().getPostedServices(ids);
+        for (Reservation r : reservations) {
+            services.addAll(posted.getOrDefault(r.getId(), List.of()));
+        }
+        return services;
+    }
+
     /**
      * Converts selected service names from the list to Service objects.
      */
@@ -395,87 +448,55 @@ public class BillingView extends JFrame {
     }
 
     /**
-     * Calculates the total base charge for reservations.
+     * Prices a stay from the room charges the night audit already posted to it.
      */
-    private double calculateBaseTotal(List<Reservation> reservations) {
-        return reservations.stream()
-                .mapToDouble(r -> {
-                    int nights = calculateNights(r);
-                    double baseCharge = getBaseCharge(r.getRoomType()) * nights;
-                    if (r.isLateCheckout()) baseCharge += 25;
-                    return baseCharge;
-                })
-                .sum();
+    private double calculateBaseCharge(Reservation r) {
+        PostedCharges posted = new FolioDAO().getPostedRoomCharges(List.of(r.getId())).getOrDefault(r.getId(), PostedCharges.NONE);
+        return BillingCalculator.calculateBaseCharge(r, BillingCalculator.isPeakSeason(), posted);
     }
 
     /**
-     * Calculates the total number of nights for all reservations.
+     * Prices a group's stays from the room charges already posted, read in one query.
      */
-    private int calculateTotalNights(List<Reservation> reservations) {
-        return reservations.stream()
-                .mapToInt(this::calculateNights)
-                .sum();
-    }
-
-    /**
-     * Calculates the number of nights for a single reservation.
-     */
-    private int calculateNights(Reservation reservation) {
-        long duration = reservation.getCheckOut().getTime() - reservation.getCheckIn().getTime();
-        return (int) (duration / (1000 * 60 * 60 * 24));
-    }
-
-    /**
-     * Calculates the total service charges.
-     */
-    private double calculateServiceTotal(List<Service> services) {
-        return services.stream().mapToDouble(Service::getPrice).sum();
-    }
-
-    /**
-     * Calculates the tax amount.
-     */
-    private double calculateTax(double baseTotal, double serviceTotal) {
-        return (baseTotal + serviceTotal) * 0.12;
+    private double calculateBaseTotal(List<Reservation> reservations) {
+        List<Integer> ids = new ArrayList<>();
+        for (Reservation r : reservations) {
+            ids.add(r.getId());
+        }
+        return BillingCalculator.calculateBaseTotal(reservations, new FolioDAO().getPostedRoomCharges(ids));
     }
 
     /**
      * Calculates the discount amount based on user input.
      */
     private double calculateDiscount(double baseTotal, double serviceTotal, double tax) {
-        double discountRate = Double.parseDouble(groupDiscountField.getText()) / 100;
-        return (baseTotal + serviceTotal + tax) * discountRate;
+        return BillingCalculator.calculateDiscount(baseTotal, serviceTotal, tax, Double.parseDouble(groupDiscountField.getText()));
     }
 
     /**
-     * Builds the breakdown text for the split bill dialog.
+     * Builds the split bill dialog content: the group total and a scrollable list of member folios.
      */
-    private String buildBillBreakdown(String group, int members, double total, double perPerson) {
-        return String.format(
-                "<html><b>Split Bill for Group: %s</b><br><br>Members: %d<br>Total Bill: $%.2f<br>Each Pays: <b>$%.2f</b></html>",
-                group, members, total, perPerson
-        );
-    }
-
-    /**
-     * Retrieves the base charge for a given room type, adjusting for peak season.
-     */
-    private double getBaseCharge(String roomType) {
-        double multiplier = isPeakSeason() ? 1.2 : 1.0;
-        return switch (roomType) {
-            case "Deluxe" -> 120 * multiplier;
-            case "Suite" -> 180 * multiplier;
-            case "Executive" -> 250 * multiplier;
-            default -> 80 * multiplier;
-        };
-    }
+    private JPanel buildBillBreakdown(GroupBooking group, List<Bill> folios) {
+        double total = 0;
+        Object[][] rows = new Object[folios.size()][];
+        for (int i = 0; i < folios.size(); i++) {
+            Bill b = folios.get(i);
+            total += b.getTotalAmount();
+            rows[i] = new Object[]{b.getGuestName(), b.getRoomType(), b.getNights(),
+                    String.format("%.2f", BillingCalculator.calculateServiceTotal(b.getServices())),
+                    String.format("%.2f", b.getTotalAmount())};
+        }
 
-    /**
-     * Determines if the current month falls within the peak season.
-     */
-    private boolean isPeakSeason() {
-        int month = Calendar.getInstance().get(Calendar.MONTH) + 1;
-        return month == 7 || month == 8 || month == 12;
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.add(new JLabel(String.format(
+                "<html><b>Split Bill for Group: %s</b><br><br>Members: %d<br>Total Bill: $%.2f<br><br></html>",
+                group, folios.size(), total)), BorderLayout.NORTH);
+        JTable table = new JTable(rows, new String[]{"Guest", "Room Type", "Nights", "Services", "Total"});
+        table.setEnabled(false);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setPreferredSize(new Dimension(520, 260));
+        panel.add(scroll, BorderLayout.CENTER);
+        return panel;
     }
 
     /**
@@ -513,11 +534,22 @@ public class BillingView extends JFrame {
         ((CardLayout) parent.getLayout()).show(parent, name);
     }
 
+    /**
+     * Reloads the guest and group lists and the bills when the view manager shows this frame again.
+     */
+    @Override
+    public void reopen() {
+        ReservationDAO reservationDAO = new ReservationDAO();
+        guestBox.setModel(new DefaultComboBoxModel<>(new GuestDAO().getIndividualGuests().toArray(new Guest[0])));
+        groupBox.setModel(new DefaultComboBoxModel<>(reservationDAO.getAllGroups().toArray(new GroupBooking[0])));
+        loadBills();
+    }
+
     /**
      * Loads all bills into the table model for display.
      */
     private void loadBills() {
-        tableModel.setRowCount(0);
+        tableModel.clear();
 
         for (Bill bill : new BillDAO().getAllBills()) {
             String services = bill.getServices().stream()
@@ -525,14 +557,14 @@ public class BillingView extends JFrame {
                     .reduce((s1, s2) -> s1 + ", " + s2)
                     .orElse("");
 
-            tableModel.addRow(new Object[]{
+            tableModel.addRow(
                     bill.getId(),
                     bill.getGuestName(),
                     bill.getRoomType(),
                     bill.getNights(),
                     services,
-                    "$" + String.format("%.2f", bill.getTotalAmount())
-            });
+                    bill.getTotalAmount()
+            );
         }
     }
 }
\ No newline at end of file
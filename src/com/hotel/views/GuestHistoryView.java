@@ -2,21 +2,22 @@ package com.hotel.views;
 
 import com.hotel.database.ReservationDAO;
 import com.hotel.models.Reservation;
+import com.hotel.utils.ColumnarTableModel;
+import com.hotel.utils.TableQueryService;
 
 import javax.swing.*;
-import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * GuestHistoryView provides an interface to search and view guest reservation history.
  * Displays a table of reservations filtered by guest name.
  */
-public class GuestHistoryView extends JFrame {
+public class GuestHistoryView extends JFrame implements ViewManager.Reusable {
 
-    private DefaultTableModel tableModel;
+    private ColumnarTableModel tableModel;
+    private TableQueryService query;
     private JTable table;
     private JTextField nameField;
 
@@ -52,57 +53,63 @@ public class GuestHistoryView extends JFrame {
         topContainer.add(title, BorderLayout.NORTH);
         topContainer.add(topPanel, BorderLayout.SOUTH);
 
-        // Table setup
-        String[] columns = {"ID", "Guest Name", "Check-In", "Check-Out", "Room Type", "Status", "Requests"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table fully non-editable
-            }
-        };
+        // Table setup (no column is editable)
+        tableModel = new ColumnarTableModel()
+                .intColumn("ID").stringColumn("Guest Name").dateColumn("Check-In").dateColumn("Check-Out")
+                .stringColumn("Room Type").stringColumn("Status").stringColumn("Requests");
+        query = new TableQueryService(tableModel);
 
         table = new JTable(tableModel);
         table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         table.setRowHeight(30);
         table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            public void mouseClicked(MouseEvent e) {
+                int col = table.convertColumnIndexToModel(table.getTableHeader().columnAtPoint(e.getPoint()));
+                if (col >= 0) {
+                    query.toggleSort(col);
+                }
+            }
+        });
 
         JScrollPane scrollPane = new JScrollPane(table);
         scrollPane.setBorder(BorderFactory.createEmptyBorder(10, 15, 20, 15));
 
-        // Action listeners
-        searchBtn.addActionListener(e -> performSearch());
+        // Action listeners: typing filters what is loaded, Search reloads from the database
+        searchBtn.addActionListener(e -> loadReservations());
         nameField.addKeyListener(new KeyAdapter() {
             public void keyReleased(KeyEvent e) {
                 performSearch();
             }
         });
 
-        backBtn.addActionListener(e -> {
-            dispose();
-            new MainMenuView(LoginView.loggedInUser);
-        });
+        backBtn.addActionListener(e -> ViewManager.back(this));
 
         // Layout arrangement
         add(topContainer, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
 
-        performSearch(); // Initial load with all reservations
+        loadReservations(); // Initial load with all reservations
         setVisible(true);
     }
 
     /**
-     * Performs search operation by filtering reservations based on input guest name.
+     * Reloads the reservations when the view manager shows this frame again.
      */
-    private void performSearch() {
-        String keyword = nameField.getText().trim().toLowerCase();
-        List<Reservation> allReservations = new ReservationDAO().getAllReservations();
+    @Override
+    public void reopen() {
+        loadReservations();
+    }
 
-        List<Reservation> filtered = allReservations.stream()
-                .filter(r -> r.getGuestName().toLowerCase().contains(keyword))
-                .collect(Collectors.toList());
+    /**
+     * Loads every reservation into the table and applies the current search.
+     */
+    private void loadReservations() {
+        List<Reservation> allReservations = new ReservationDAO().getAllReservations();
 
-        tableModel.setRowCount(0); // Clear existing rows
-        for (Reservation r : filtered) {
-            tableModel.addRow(new Object[]{
+        tableModel.clear(); // Clear existing rows
+        for (Reservation r : allReservations) {
+            tableModel.addRow(
                     r.getId(),
                     r.getGuestName(),
                     r.getCheckIn(),
@@ -110,8 +117,17 @@ public class GuestHistoryView extends JFrame {
                     r.getRoomType(),
                     r.getPaymentStatus(),
                     r.getSpecialRequests()
-            });
+            );
         }
+        performSearch();
+    }
+
+    /**
+     * Performs search operation by filtering reservations based on input guest name.
+     * The matching runs in the background; the table shows the result when it is ready.
+     */
+    private void performSearch() {
+        query.filter(1, nameField.getText().trim());
     }
 
     /**
@@ -2,27 +2,34 @@ package com.hotel.views;
 
 import com.hotel.database.HousekeepingDAO;
 import com.hotel.database.RoomDAO;
+import com.hotel.database.UserDAO;
 import com.hotel.models.HousekeepingTask;
 import com.hotel.models.Room;
+import com.hotel.models.RoomStatus;
+import com.hotel.services.HousekeepingAssignmentEngine;
+import com.hotel.utils.ColumnarTableModel;
 import com.hotel.utils.PopupUtil;
 
 import javax.swing.*;
-import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * HousekeepingView provides an interface for managing housekeeping tasks.
  * Allows adding tasks and updating task statuses in a live table.
  */
-public class HousekeepingView extends JFrame {
+public class HousekeepingView extends JFrame implements ViewManager.Reusable {
 
     private JTextField roomNumberField, assignedToField;
     private JComboBox<String> statusBox;
-    private DefaultTableModel tableModel;
+    private ColumnarTableModel tableModel;
     private JTable table;
 
     /**
@@ -63,21 +70,23 @@ public class HousekeepingView extends JFrame {
         formPanel.add(addBtn);
         formPanel.add(Box.createVerticalStrut(15));
 
+        JButton autoAssignBtn = new JButton("⚡ Auto-Assign Rooms");
+        styleButton(autoAssignBtn);
+        autoAssignBtn.setToolTipText("Assign every room in Cleaning to the housekeeping staff (or to the names in Assigned To, comma-separated)");
+        autoAssignBtn.addActionListener(this::handleAutoAssign);
+        formPanel.add(autoAssignBtn);
+        formPanel.add(Box.createVerticalStrut(15));
+
         JButton backBtn = new JButton("\u2190 Back to Dashboard");
         styleButton(backBtn);
-        backBtn.addActionListener(e -> {
-            dispose();
-            new MainMenuView(LoginView.loggedInUser);
-        });
+        backBtn.addActionListener(e -> ViewManager.back(this));
         formPanel.add(backBtn);
 
         // Table setup for displaying tasks
-        String[] columns = {"ID", "Room Number", "Assigned To", "Status", "Date Assigned"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            public boolean isCellEditable(int row, int col) {
-                return col == 3; // Only status is editable
-            }
-        };
+        tableModel = new ColumnarTableModel()
+                .intColumn("ID").stringColumn("Room Number").stringColumn("Assigned To").stringColumn("Status")
+                .dateColumn("Date Assigned")
+                .editable(3); // Only status is editable
 
         table = new JTable(tableModel);
         table.setRowHeight(30);
@@ -136,9 +145,8 @@ public class HousekeepingView extends JFrame {
             }
 
             String currentStatus = room.getStatus();
-            if (!(currentStatus.equalsIgnoreCase("Available") ||
-                    currentStatus.equalsIgnoreCase("Maintenance") ||
-                    currentStatus.equalsIgnoreCase("Cleaning"))) {
+            RoomStatus roomStatus = RoomStatus.fromLabel(currentStatus);
+            if (roomStatus == null || !roomStatus.isCleanable()) {
                 PopupUtil.showError(this, "Room is not eligible for housekeeping! Current status: " + currentStatus);
                 return;
             }
@@ -164,23 +172,84 @@ public class HousekeepingView extends JFrame {
         }
     }
 
+    /**
+     * Assigns every room waiting to be cleaned, and every room departing today, in one go,
+     * balanced across staff and clustered by floor. Rooms that already have an open task are skipped.
+     * Names typed in Assigned To (comma-separated) are used as the roster; otherwise all housekeeping users are.
+     */
+    private void handleAutoAssign(ActionEvent e) {
+        HousekeepingDAO dao = new HousekeepingDAO();
+        Date today = Date.valueOf(LocalDate.now());
+        Map<Integer, Room> rooms = new LinkedHashMap<>();
+        for (Room room : dao.getRoomsAwaitingCleaning()) {
+            rooms.put(room.getId(), room);
+        }
+        for (Room room : dao.getDepartureRooms(today)) {
+            rooms.putIfAbsent(room.getId(), room);
+        }
+        if (rooms.isEmpty()) {
+            PopupUtil.showSuccess(this, "No rooms are waiting to be cleaned.");
+            return;
+        }
+
+        String typed = assignedToField.getText().trim();
+        List<String> staff = typed.isEmpty()
+                ? new UserDAO().getUsernamesByRole("Housekeeping")
+                : List.of(typed.split("\\s*,\\s*"));
+        if (staff.isEmpty()) {
+            PopupUtil.showError(this, "No housekeeping staff to assign rooms to.");
+            return;
+        }
+
+        // Current workload counts towards the balance
+        Map<String, Integer> openTasks = dao.getOpenTaskCounts();
+        Map<String, Integer> roster = new LinkedHashMap<>();
+        for (String name : staff) {
+            if (!name.isEmpty()) roster.put(name, openTasks.getOrDefault(name, 0));
+        }
+
+        List<HousekeepingTask> plan = HousekeepingAssignmentEngine.plan(new ArrayList<>(rooms.values()), roster, today);
+        List<HousekeepingDAO.ScheduleOutcome> outcomes = dao.scheduleTasks(plan);
+        int scheduled = Collections.frequency(outcomes, HousekeepingDAO.ScheduleOutcome.SCHEDULED);
+        int skipped = outcomes.size() - scheduled;
+
+        if (scheduled > 0) {
+            loadTasks();
+            assignedToField.setText("");
+            PopupUtil.showSuccess(this, scheduled + " rooms assigned to " + roster.size() + " staff."
+                    + (skipped > 0 ? " " + skipped + " already had an open task." : ""));
+        } else if (skipped > 0) {
+            PopupUtil.showSuccess(this, "All " + skipped + " rooms already have an open task.");
+        } else {
+            PopupUtil.showError(this, "Failed to assign rooms.");
+        }
+    }
+
+    /**
+     * Reloads the tasks when the view manager shows this frame again.
+     */
+    @Override
+    public void reopen() {
+        loadTasks();
+    }
+
     /**
      * Loads housekeeping tasks into the table for display.
      */
     private void loadTasks() {
-        tableModel.setRowCount(0);
+        tableModel.clear();
         List<HousekeepingTask> tasks = new HousekeepingDAO().getAllTasks();
         RoomDAO roomDAO = new RoomDAO();
         for (HousekeepingTask t : tasks) {
             Room room = roomDAO.getRoomById(t.getRoomId());
             String roomNumber = room != null ? room.getRoomNumber() : "N/A";
-            tableModel.addRow(new Object[]{
+            tableModel.addRow(
                     t.getId(),
                     roomNumber,
                     t.getAssignedTo(),
                     t.getStatus(),
                     t.getScheduledDate()
-            });
+            );
         }
     }
 
@@ -1,17 +1,22 @@
 package com.hotel.views;
 
 import com.hotel.database.InventoryDAO;
+import com.hotel.models.ChangeEvent;
 import com.hotel.models.InventoryItem;
 import com.hotel.patterns.InventoryAlertService;
 import com.hotel.patterns.InventoryNotifier;
+import com.hotel.utils.ChangeEventCoalescer;
+import com.hotel.utils.ColumnarTableModel;
 import com.hotel.utils.PopupUtil;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * InventoryView provides an interface for managing inventory items.
@@ -21,7 +26,8 @@ public class InventoryView extends JFrame {
 
     private JTextField itemNameField, quantityField, thresholdField;
     private JComboBox<String> departmentFilter;
-    private DefaultTableModel tableModel;
+    private ColumnarTableModel tableModel;
+    private final Map<Integer, Integer> rowById = new HashMap<>();   // Item ID -> model row
 
     /**
      * Constructs the InventoryView frame, initializes UI components and layout.
@@ -78,21 +84,16 @@ public class InventoryView extends JFrame {
 
         JButton backBtn = new JButton("\u2190 Back to Dashboard");
         backBtn.setAlignmentX(Component.CENTER_ALIGNMENT);
-        backBtn.addActionListener(e -> {
-            dispose();
-            new MainMenuView(LoginView.loggedInUser);
-        });
+        backBtn.addActionListener(e -> ViewManager.back(this));
         formPanel.add(backBtn);
 
         add(formPanel, BorderLayout.WEST);
 
         // Table panel for displaying inventory items
-        String[] columns = {"ID", "Item Name", "Quantity", "Threshold", "Department"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            public boolean isCellEditable(int row, int col) {
-                return col == 2; // Only quantity is editable
-            }
-        };
+        tableModel = new ColumnarTableModel()
+                .intColumn("ID").stringColumn("Item Name").intColumn("Quantity").intColumn("Threshold")
+                .stringColumn("Department")
+                .editable(2); // Only quantity is editable
 
         JTable table = new JTable(tableModel);
         table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
@@ -109,7 +110,6 @@ public class InventoryView extends JFrame {
                     int newQuantity = Integer.parseInt(tableModel.getValueAt(row, col).toString());
                     new InventoryDAO().updateQuantity(itemId, newQuantity);
                     PopupUtil.showSuccess(this, "Inventory updated successfully!");
-                    loadItems();
                 } catch (Exception ex) {
                     PopupUtil.showError(this, "Invalid quantity update: " + ex.getMessage());
                 }
@@ -123,6 +123,9 @@ public class InventoryView extends JFrame {
         // Observer setup for inventory alerts
         InventoryNotifier.addObserver(new InventoryAlertService(this));
 
+        // Additions, edits and usage logged anywhere show up row by row, once per frame
+        ChangeEventCoalescer.attach(this, EnumSet.of(ChangeEvent.Type.INVENTORY_ITEM_ADDED,
+                ChangeEvent.Type.INVENTORY_QUANTITY_CHANGED, ChangeEvent.Type.INVENTORY_USED), this::applyChanges);
         loadItems();
         setVisible(true);
     }
@@ -168,7 +171,6 @@ public class InventoryView extends JFrame {
                 itemNameField.setText("");
                 quantityField.setText("");
                 thresholdField.setText("");
-                loadItems();
             } else {
                 PopupUtil.showError(this, "Failed to add item.");
             }
@@ -182,21 +184,16 @@ public class InventoryView extends JFrame {
      * Also triggers low stock alerts if applicable.
      */
     private void loadItems() {
-        tableModel.setRowCount(0);
+        tableModel.clear();
+        rowById.clear();
         List<InventoryItem> items = new InventoryDAO().getAllItems();
         List<String> lowStock = new ArrayList<>();
 
         for (InventoryItem i : items) {
-            tableModel.addRow(new Object[]{
-                    i.getId(),
-                    i.getItemName(),
-                    i.getQuantity(),
-                    i.getThreshold(),
-                    i.getDepartment()
-            });
+            addItemRow(i.getId(), i.getItemName(), i.getQuantity(), i.getThreshold(), i.getDepartment());
 
             if (i.getQuantity() < i.getThreshold()) {
-                lowStock.add("• " + i.getItemName() + " (" + i.getQuantity() + " left)");
+                lowStock.add(lowStockEntry(i.getItemName(), i.getQuantity()));
             }
         }
 
@@ -204,4 +201,55 @@ public class InventoryView extends JFrame {
             InventoryNotifier.notifyObservers(lowStock);
         }
     }
+
+    private void addItemRow(int id, String itemName, int quantity, int threshold, String department) {
+        rowById.put(id, tableModel.addRow(id, itemName, quantity, threshold, department));
+    }
+
+    private static String lowStockEntry(String itemName, int quantity) {
+        return "• " + itemName + " (" + quantity + " left)";
+    }
+
+    /**
+     * Applies one frame of inventory changes to the table in place.
+     * Quantity changes are written into their rows and repainted with one rows-updated event;
+     * an alert is raised only for items that have just dropped below their threshold.
+     */
+    private void applyChanges(List<ChangeEvent> events) {
+        int first = Integer.MAX_VALUE, last = -1;
+        List<String> lowStock = new ArrayList<>();
+
+        for (ChangeEvent event : events) {
+            Integer row = rowById.get(event.getEntityId());
+            if (event.getType() == ChangeEvent.Type.INVENTORY_ITEM_ADDED) {
+                if (row == null) {
+                    addItemRow(event.getEntityId(), event.get("itemName"), event.getInt("quantity", 0),
+                            event.getInt("threshold", 0), event.get("department"));
+                }
+                continue;
+            }
+            if (row == null) continue;
+
+            int previous = tableModel.getInt(row, 2);
+            int quantity = event.getInt("quantity", previous);
+            int threshold = tableModel.getInt(row, 3);
+            tableModel.setValue(row, 2, quantity);
+            int viewRow = tableModel.getViewRow(row);
+            if (viewRow >= 0) {
+                first = Math.min(first, viewRow);
+                last = Math.max(last, viewRow);
+            }
+
+            if (quantity < threshold && previous >= threshold) {
+                lowStock.add(lowStockEntry(tableModel.getString(row, 1), quantity));
+            }
+        }
+
+        if (last >= 0) {
+            tableModel.fireTableRowsUpdated(first, last);
+        }
+        if (!lowStock.isEmpty()) {
+            InventoryNotifier.notifyObservers(lowStock);
+        }
+    }
 }
\ No newline at end of file
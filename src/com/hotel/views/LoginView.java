@@ -76,6 +76,9 @@ public class LoginView extends JFrame {
 
         add(loginPanel);
         setVisible(true);
+
+        // Load what the dashboards need while the user types
+        ViewManager.prewarm();
     }
 
     /**
@@ -52,28 +52,25 @@ public class MainMenuView extends JFrame {
         String role = currentUser.getRole().toLowerCase();
 
         if (role.equals("admin") || role.equals("receptionist")) {
-            sidePanel.add(navButton("➕ Add Reservation", () -> new ReservationForm(currentUser)));
-            sidePanel.add(navButton("📋 View Reservations", ReservationListView::new));
-            sidePanel.add(navButton("💳 Billing", BillingView::new));
-            sidePanel.add(navButton("🧾 Guest History", GuestHistoryView::new));
+            sidePanel.add(navButton("➕ Add Reservation", () -> ViewManager.open(ReservationForm.class, () -> new ReservationForm(currentUser))));
+            sidePanel.add(navButton("📋 View Reservations", () -> ViewManager.open(ReservationListView.class, ReservationListView::new)));
+            sidePanel.add(navButton("💳 Billing", () -> ViewManager.open(BillingView.class, BillingView::new)));
+            sidePanel.add(navButton("🧾 Guest History", () -> ViewManager.open(GuestHistoryView.class, GuestHistoryView::new)));
         }
 
         if (role.equals("admin") || role.equals("housekeeping")) {
-            sidePanel.add(navButton("🧹 Housekeeping", HousekeepingView::new));
-            sidePanel.add(navButton("🛏️ Room Management", RoomManagementView::new));
+            sidePanel.add(navButton("🧹 Housekeeping", () -> ViewManager.open(HousekeepingView.class, HousekeepingView::new)));
+            sidePanel.add(navButton("🛏️ Room Management", () -> ViewManager.open(RoomManagementView.class, RoomManagementView::new)));
         }
 
         if (role.equals("admin")) {
-            sidePanel.add(navButton("📦 Inventory", InventoryView::new));
-            sidePanel.add(navButton("📊 Reports", () -> new ReportsView(currentUser)));
+            sidePanel.add(navButton("📦 Inventory", () -> ViewManager.open(InventoryView.class, InventoryView::new)));
+            sidePanel.add(navButton("📊 Reports", () -> ViewManager.open(ReportsView.class, () -> new ReportsView(currentUser))));
         }
 
         // Logout option
         sidePanel.add(Box.createVerticalStrut(20));
-        sidePanel.add(navButton("🚪 Logout", () -> {
-            dispose();
-            new LoginView();
-        }));
+        sidePanel.add(navButton("🚪 Logout", ViewManager::logout));
 
         // Main content welcome panel
         JPanel mainContent = new JPanel(new GridBagLayout());
@@ -118,8 +115,9 @@ public class MainMenuView extends JFrame {
             }
         });
 
+        // The dashboard is hidden, not disposed: the view manager shows it again on the way back
         button.addActionListener(e -> {
-            dispose();
+            setVisible(false);
             action.run();
         });
 
@@ -3,11 +3,16 @@ package com.hotel.views;
 import com.hotel.database.BillDAO;
 import com.hotel.database.InventoryDAO;
 import com.hotel.database.RoomDAO;
+import com.hotel.jfr.ReportLoadEvent;
 import com.hotel.models.Bill;
+import com.hotel.models.ChangeEvent;
 import com.hotel.models.InventoryItem;
 import com.hotel.models.Room;
-import com.hotel.models.Service;
 import com.hotel.models.User;
+import com.hotel.services.ReportSummary;
+import com.hotel.services.RoomStateBoard;
+import com.hotel.utils.CachedChartPanel;
+import com.hotel.utils.ChangeEventCoalescer;
 import java.awt.Component;
 
 import javax.swing.*;
@@ -16,9 +21,8 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
-import java.awt.Graphics;
+import java.awt.FontMetrics;
 import java.awt.Graphics2D;
-import java.awt.RenderingHints;
 import java.util.*;
 
 public class ReportsView extends JFrame {
@@ -29,6 +33,14 @@ public class ReportsView extends JFrame {
     private Map<String, Integer> usageMap;
     private Map<String, Double> revenueMap;
 
+    // What the dashboard was built from, kept current by change events instead of re-querying
+    private double totalRevenue;
+    private RoomStateBoard roomBoard = new RoomStateBoard();
+    private final Map<Integer, InventoryItem> itemsById = new LinkedHashMap<>();
+    private final Map<String, Integer> usageRowByService = new HashMap<>();
+    private PieChartPanel pieChart;
+    private BarChartPanel barChart;
+
     public ReportsView(User user) {
         this.user = user;
         setTitle("Hotel Reports");
@@ -90,6 +102,11 @@ public class ReportsView extends JFrame {
         usageScroll.setBorder(BorderFactory.createEmptyBorder(10, 0, 10, 0));
         contentPanel.add(usageScroll);
 
+        // Subscribe before loading so nothing committed during the load is missed
+        ChangeEventCoalescer.attach(this, EnumSet.of(ChangeEvent.Type.BILL_CREATED,
+                ChangeEvent.Type.ROOM_ADDED, ChangeEvent.Type.ROOM_STATUS_CHANGED,
+                ChangeEvent.Type.INVENTORY_ITEM_ADDED, ChangeEvent.Type.INVENTORY_QUANTITY_CHANGED,
+                ChangeEvent.Type.INVENTORY_USED), this::applyChanges);
         loadReportData(); // Load data into components
 
         // Charts container
@@ -99,14 +116,16 @@ public class ReportsView extends JFrame {
 
         // Pie chart panel
         JPanel pieWrapper = new JPanel(new BorderLayout());
-        pieWrapper.add(new PieChartPanel(usageMap), BorderLayout.CENTER);
+        pieChart = new PieChartPanel();
+        pieWrapper.add(pieChart, BorderLayout.CENTER);
         JLabel pieLabel = new JLabel("\uD83D\uDFE0 Service Usage Distribution", SwingConstants.CENTER);
         pieLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
         pieWrapper.add(pieLabel, BorderLayout.SOUTH);
 
         // Bar chart panel
         JPanel barWrapper = new JPanel(new BorderLayout());
-        barWrapper.add(new BarChartPanel(revenueMap), BorderLayout.CENTER);
+        barChart = new BarChartPanel();
+        barWrapper.add(barChart, BorderLayout.CENTER);
         JLabel barLabel = new JLabel("\uD83D\uDD35 Revenue Breakdown by Service", SwingConstants.CENTER);
         barLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
         barWrapper.add(barLabel, BorderLayout.SOUTH);
@@ -123,6 +142,7 @@ public class ReportsView extends JFrame {
         chartsScroll.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
 
         contentPanel.add(chartsScroll);
+        updateCharts();
         contentPanel.add(Box.createVerticalStrut(20));
 
         // Back button to return to dashboard
@@ -131,10 +151,7 @@ public class ReportsView extends JFrame {
         backBtn.setBackground(Color.WHITE);
         backBtn.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         backBtn.setFocusPainted(false);
-        backBtn.addActionListener(e -> {
-            dispose();
-            new MainMenuView(user);
-        });
+        backBtn.addActionListener(e -> ViewManager.back(this));
         contentPanel.add(backBtn);
 
         add(contentPanel, BorderLayout.CENTER);
@@ -150,148 +167,239 @@ public class ReportsView extends JFrame {
 
     // Load data for the report (revenue, rooms, inventory, service usage)
     private void loadReportData() {
-        List<Bill> bills = new BillDAO().getAllBills();
-        double totalRevenue = bills.stream().mapToDouble(Bill::getTotalAmount).sum();
-        revenueLabel.setText("\uD83D\uDCB0 Total Revenue: $" + String.format("%.2f", totalRevenue));
+        ReportLoadEvent event = new ReportLoadEvent();
+        event.begin();
 
+        List<Bill> bills = new BillDAO().getAllBills();
         List<Room> rooms = new RoomDAO().getAllRooms();
-        int totalRooms = rooms.size(), occupied = 0, available = 0;
-        for (Room r : rooms) {
-            switch (r.getStatus().toLowerCase()) {
-                case "occupied" -> occupied++;
-                case "available" -> available++;
-            }
-        }
-        totalRoomsLabel.setText("\uD83C\uDFE8 Total Rooms: " + totalRooms);
-        occupiedLabel.setText("\uD83D\uDEAA Occupied Rooms: " + occupied);
-        availableLabel.setText("\u2705 Available Rooms: " + available);
-
         List<InventoryItem> items = new InventoryDAO().getAllItems();
-        Set<String> lowStock = new HashSet<>();
-        for (InventoryItem i : items) {
-            if (i.getQuantity() < i.getThreshold()) {
-                lowStock.add(i.getItemName() + " (" + i.getQuantity() + ")");
-            }
+        roomBoard = new RoomStateBoard(rooms);
+        ReportSummary summary = ReportSummary.aggregate(bills, roomBoard, items);
+
+        event.bills = bills.size();
+        event.rooms = rooms.size();
+        event.inventoryItems = items.size();
+        event.commit();
+
+        totalRevenue = summary.getTotalRevenue();
+        itemsById.clear();
+        for (InventoryItem item : items) {
+            itemsById.put(item.getId(), item);
         }
-        lowStockLabel.setText("\uD83D\uDCE6 Low Stock: " + (lowStock.isEmpty() ? "\u2705 All Good" : String.join(", ", lowStock)));
+        showFigures(summary);
 
-        usageMap = new HashMap<>();
-        revenueMap = new HashMap<>();
+        usageMap = new HashMap<>(summary.getUsageMap());
+        revenueMap = new HashMap<>(summary.getRevenueMap());
         usageTableModel.setRowCount(0);
-
-        for (Bill bill : bills) {
-            for (Service s : bill.getServices()) {
-                String name = capitalize(s.getServiceName().trim());
-                usageMap.put(name, usageMap.getOrDefault(name, 0) + 1);
-                revenueMap.put(name, revenueMap.getOrDefault(name, 0.0) + s.getPrice());
-            }
-        }
+        usageRowByService.clear();
 
         for (String service : usageMap.keySet()) {
-            usageTableModel.addRow(new Object[]{
-                    service,
-                    usageMap.get(service),
-                    "$" + String.format("%.2f", revenueMap.get(service))
-            });
+            usageRowByService.put(service, usageTableModel.getRowCount());
+            usageTableModel.addRow(usageRow(service));
         }
     }
 
-    private String capitalize(String text) {
-        if (text == null || text.isEmpty()) return "";
-        return text.substring(0, 1).toUpperCase() + text.substring(1).toLowerCase();
+    private Object[] usageRow(String service) {
+        return new Object[]{
+                service,
+                usageMap.get(service),
+                "$" + String.format("%.2f", revenueMap.get(service))
+        };
     }
 
-    // Pie chart panel for service usage distribution
-    class PieChartPanel extends JPanel {
-        private final Map<String, Integer> data;
+    // Room and stock figures come from the summary; revenue is the running total
+    private void showFigures(ReportSummary summary) {
+        revenueLabel.setText("\uD83D\uDCB0 Total Revenue: $" + String.format("%.2f", totalRevenue));
+        totalRoomsLabel.setText("\uD83C\uDFE8 Total Rooms: " + summary.getTotalRooms());
+        occupiedLabel.setText("\uD83D\uDEAA Occupied Rooms: " + summary.getOccupiedRooms());
+        availableLabel.setText("\u2705 Available Rooms: " + summary.getAvailableRooms());
 
-        public PieChartPanel(Map<String, Integer> data) {
-            this.data = data;
-            setPreferredSize(new Dimension(400, 250));
-            setBackground(Color.WHITE);
-        }
+        Set<String> lowStock = summary.getLowStock();
+        lowStockLabel.setText("\uD83D\uDCE6 Low Stock: " + (lowStock.isEmpty() ? "\u2705 All Good" : String.join(", ", lowStock)));
+    }
 
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            if (data.isEmpty()) return;
+    /**
+     * Applies one frame of committed changes to the dashboard.
+     * Room statuses are moved on the room state board, whose counts are popcounts;
+     * inventory is patched in memory and re-checked; new bills are aggregated on their own
+     * and added to the running revenue and per-service figures, so the cost follows the changes, not the bill history.
+     * Only the usage rows of services that changed are updated.
+     */
+    @SuppressWarnings("unchecked")
+    private void applyChanges(List<ChangeEvent> events) {
+        List<Bill> newBills = new ArrayList<>();
+        for (ChangeEvent event : events) {
+            int id = event.getEntityId();
+            switch (event.getType()) {
+                case BILL_CREATED -> newBills.add(new Bill(id, event.get("guestName"), event.get("roomType"),
+                        event.getInt("nights", 0), BillDAO.convertStringToServices(event.get("services")),
+                        event.getDouble("baseCharge", 0), event.getDouble("tax", 0),
+                        event.getDouble("discount", 0), event.getDouble("totalAmount", 0)));
+                case ROOM_ADDED, ROOM_STATUS_CHANGED -> roomBoard.apply(event);
+                case INVENTORY_ITEM_ADDED -> itemsById.put(id, new InventoryItem(id, event.get("itemName"),
+                        event.getInt("quantity", 0), event.getInt("threshold", 0), event.get("department")));
+                case INVENTORY_QUANTITY_CHANGED, INVENTORY_USED -> {
+                    InventoryItem item = itemsById.get(id);
+                    if (item != null) item.setQuantity(event.getInt("quantity", item.getQuantity()));
+                }
+                default -> {
+                }
+            }
+        }
 
-            int total = data.values().stream().mapToInt(Integer::intValue).sum();
-            int startAngle = 0;
-            int x = 60, y = 20, size = 160;
+        ReportSummary delta = ReportSummary.aggregate(newBills, roomBoard, new ArrayList<>(itemsById.values()));
+        totalRevenue += delta.getTotalRevenue();
+        showFigures(delta);
+        if (newBills.isEmpty()) return;
+
+        int first = Integer.MAX_VALUE, last = -1;
+        for (Map.Entry<String, Integer> usage : delta.getUsageMap().entrySet()) {
+            String service = usage.getKey();
+            usageMap.merge(service, usage.getValue(), Integer::sum);
+            revenueMap.merge(service, delta.getRevenueMap().get(service), Double::sum);
+
+            Integer row = usageRowByService.get(service);
+            if (row == null) {
+                usageRowByService.put(service, usageTableModel.getRowCount());
+                usageTableModel.addRow(usageRow(service));
+                continue;
+            }
+            Object[] values = usageRow(service);
+            for (int col = 1; col < values.length; col++) {
+                // Written through the data vector so the whole frame is one rows-updated event
+                ((Vector<Object>) usageTableModel.getDataVector().get(row)).set(col, values[col]);
+            }
+            first = Math.min(first, row);
+            last = Math.max(last, row);
+        }
+        if (last >= 0) {
+            usageTableModel.fireTableRowsUpdated(first, last);
+        }
+        updateCharts();
+    }
 
-            Graphics2D g2 = (Graphics2D) g;
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    // Hands the charts a copy of the figures; they are rendered in the background and only then repainted
+    private void updateCharts() {
+        pieChart.setData(new HashMap<>(usageMap));
+        barChart.setData(new HashMap<>(revenueMap));
+    }
 
-            Color[] palette = {Color.BLUE, Color.ORANGE, Color.GREEN, Color.RED, Color.MAGENTA};
-            int i = 0;
-            int accumulatedAngle = 0;
-            int index = 0;
+    // Pie chart panel for service usage distribution; small services are grouped into "Other"
+    static class PieChartPanel extends CachedChartPanel<Map<String, Integer>> {
+        private static final int MAX_SLICES = 8;
+        private static final double MIN_SHARE = 0.02; // Services under 2% of usage go into "Other"
+        private static final Color[] PALETTE = {Color.BLUE, Color.ORANGE, Color.GREEN, Color.RED, Color.MAGENTA,
+                Color.CYAN, Color.PINK, Color.YELLOW};
+        private static final Color OTHER_COLOR = Color.LIGHT_GRAY;
+        private static final Font LABEL_FONT = new Font("Segoe UI", Font.PLAIN, 12);
+
+        public PieChartPanel() {
+            super(new Dimension(400, 250), Color.WHITE);
+        }
 
-            for (Map.Entry<String, Integer> entry : data.entrySet()) {
-                String label = entry.getKey();
-                int value = entry.getValue();
-                int angle = (int) Math.round(360.0 * value / total);
-                if (++index == data.size()) {
-                    angle = 360 - accumulatedAngle;
+        @Override
+        protected void render(Map<String, Integer> data, Graphics2D g2, int width, int height) {
+            int total = data.values().stream().mapToInt(Integer::intValue).sum();
+            if (total <= 0) return;
+
+            // The largest services get a slice each; everything too small to read is summed into "Other"
+            List<Map.Entry<String, Integer>> byUsage = new ArrayList<>(data.entrySet());
+            byUsage.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+            List<Map.Entry<String, Integer>> slices = new ArrayList<>();
+            int other = 0;
+            for (Map.Entry<String, Integer> entry : byUsage) {
+                if (slices.size() < MAX_SLICES && entry.getValue() >= total * MIN_SHARE) {
+                    slices.add(entry);
+                } else {
+                    other += entry.getValue();
                 }
+            }
+
+            g2.setFont(LABEL_FONT);
+            int startAngle = 0;
+            for (int i = 0; i < slices.size(); i++) {
+                boolean last = i == slices.size() - 1 && other == 0;
+                startAngle = drawSlice(g2, slices.get(i).getKey(), slices.get(i).getValue(), total,
+                        startAngle, last, PALETTE[i % PALETTE.length]);
+            }
+            if (other > 0) {
+                drawSlice(g2, "Other", other, total, startAngle, true, OTHER_COLOR);
+            }
+        }
 
-                g2.setColor(palette[i % palette.length]);
-                g2.fillArc(x, y, size, size, startAngle, angle);
+        // Draws one slice and its label, returning where the next slice starts
+        private static int drawSlice(Graphics2D g2, String label, int value, int total, int startAngle, boolean last, Color color) {
+            int x = 60, y = 20, size = 160;
+            // The last slice closes the circle, whatever the rounding of the others
+            int angle = last ? 360 - startAngle : (int) Math.round(360.0 * value / total);
 
-                double theta = Math.toRadians(startAngle + angle / 2.0);
-                int labelX = x + size / 2 + (int) (size / 2.5 * Math.cos(theta));
-                int labelY = y + size / 2 - (int) (size / 2.5 * Math.sin(theta));
+            g2.setColor(color);
+            g2.fillArc(x, y, size, size, startAngle, angle);
 
-                g2.setColor(Color.BLACK);
-                g2.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-                g2.drawString(label + " (" + value + ")", labelX, labelY);
+            double theta = Math.toRadians(startAngle + angle / 2.0);
+            int labelX = x + size / 2 + (int) (size / 2.5 * Math.cos(theta));
+            int labelY = y + size / 2 - (int) (size / 2.5 * Math.sin(theta));
 
-                startAngle += angle;
-                accumulatedAngle += angle;
-                i++;
-            }
+            g2.setColor(Color.BLACK);
+            g2.drawString(label + " (" + value + ")", labelX, labelY);
+            return startAngle + angle;
         }
     }
 
-    // Bar chart panel for revenue breakdown
-    class BarChartPanel extends JPanel {
-        private final Map<String, Double> data;
+    // Bar chart panel for revenue breakdown; bars narrow to fit however many services there are
+    static class BarChartPanel extends CachedChartPanel<Map<String, Double>> {
+        private static final int MARGIN = 40;
+        private static final int MAX_SLOT = 70; // Bar plus gap, as wide as bars get
+        private static final Color BAR_COLOR = new Color(70, 130, 180);
+        private static final Font LABEL_FONT = new Font("Segoe UI", Font.PLAIN, 12);
 
-        public BarChartPanel(Map<String, Double> data) {
-            this.data = data;
-            setPreferredSize(new Dimension(400, 250));
+        public BarChartPanel() {
+            super(new Dimension(400, 250), UIManager.getColor("Panel.background"));
         }
 
         @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
+        protected void render(Map<String, Double> data, Graphics2D g2, int width, int height) {
             if (data.isEmpty()) return;
 
-            int x = 40;
-            int barWidth = 40;
-            int chartHeight = 180;
-            double maxRevenue = data.values().stream().mapToDouble(Double::doubleValue).max().orElse(1);
-            Graphics2D g2 = (Graphics2D) g;
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-
-            int i = 0;
-            for (Map.Entry<String, Double> entry : data.entrySet()) {
-                double revenue = entry.getValue();
+            List<Map.Entry<String, Double>> bars = new ArrayList<>(data.entrySet());
+            bars.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+
+            // At least a pixel per bar: services beyond that are summed into a last "Other" bar
+            int maxBars = Math.max(1, width - 2 * MARGIN);
+            if (bars.size() > maxBars) {
+                double other = bars.subList(maxBars - 1, bars.size()).stream().mapToDouble(Map.Entry::getValue).sum();
+                bars = new ArrayList<>(bars.subList(0, maxBars - 1));
+                bars.add(Map.entry("Other", other));
+            }
+
+            int chartHeight = height - 70; // Room for amounts above the bars and names below
+            int slot = Math.max(1, Math.min(MAX_SLOT, (width - 2 * MARGIN) / bars.size()));
+            int barWidth = Math.max(1, slot * 4 / 7);
+            double maxRevenue = Math.max(bars.get(0).getValue(), 1);
+
+            g2.setFont(LABEL_FONT);
+            FontMetrics metrics = g2.getFontMetrics();
+            int widestName = bars.stream().mapToInt(bar -> metrics.stringWidth(bar.getKey())).max().orElse(0);
+            int labelEvery = Math.max(1, (int) Math.ceil((widestName + 6) / (double) slot)); // Name every nth bar
+            boolean showAmounts = metrics.stringWidth("$" + String.format("%.2f", maxRevenue)) + 4 <= slot;
+
+            for (int i = 0; i < bars.size(); i++) {
+                double revenue = bars.get(i).getValue();
                 int barHeight = (int) ((revenue / maxRevenue) * chartHeight);
                 int y = chartHeight - barHeight + 20;
-                int barX = x + i * (barWidth + 30);
+                int barX = MARGIN + i * slot;
 
-                g2.setColor(new Color(70, 130, 180));
+                g2.setColor(BAR_COLOR);
                 g2.fillRect(barX, y, barWidth, barHeight);
 
                 g2.setColor(Color.BLACK);
-                g2.drawString(entry.getKey(), barX, chartHeight + 35);
-                g2.drawString("$" + String.format("%.2f", revenue), barX, y - 5);
-
-                i++;
+                if (i % labelEvery == 0) {
+                    g2.drawString(bars.get(i).getKey(), barX, chartHeight + 35);
+                }
+                if (showAmounts) {
+                    g2.drawString("$" + String.format("%.2f", revenue), barX, y - 5);
+                }
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,12 @@
 
 package com.hotel.views;
 
+import com.hotel.database.GuestDAO;
 import com.hotel.database.ReservationDAO;
 import com.hotel.database.RoomDAO;
+import com.hotel.jfr.ReservationCreatedEvent;
+import com.hotel.jfr.RoomAllocationEvent;
+import com.hotel.models.Guest;
 import com.hotel.models.Reservation;
 import com.hotel.models.Room;
 import com.hotel.models.User;
@@ -16,6 +20,7 @@ import java.sql.Date;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
 
 public class ReservationForm extends JFrame {
     // Input components
@@ -198,8 +203,8 @@ public class ReservationForm extends JFrame {
         // Back to dashboard button
         JButton backButton = new JButton("← Back to Dashboard");
         backButton.addActionListener(e -> {
-            dispose();
-            new MainMenuView(currentUser);
+            ViewManager.showMainMenu();
+            dispose(); // Forms start empty each time, so this one is not kept
         });
         gbc.gridy++;
         panel.add(backButton, gbc);
@@ -225,6 +230,20 @@ public class ReservationForm extends JFrame {
 
     // Handle form submission for individual or group booking
     private void handleSubmit(ActionEvent e) {
+        // Asked before the event begins, so the desk's answer is not timed either
+        int guestId = 0;
+        if (!groupBookingCheck.isSelected() && !nameField.getText().trim().isEmpty()) {
+            guestId = chooseGuest(this, nameField.getText().trim());
+            if (guestId < 0) return;
+        }
+        final int intakeGuestId = guestId;
+
+        // Recorded by Flight Recorder; committed before any popup so dialog time is not counted
+        ReservationCreatedEvent event = new ReservationCreatedEvent();
+        event.begin();
+        String message;
+        String title;
+
         try {
             Date checkIn = new Date(checkInPicker.getDate().getTime());
             Date checkOut = new Date(checkOutPicker.getDate().getTime());
@@ -239,44 +258,121 @@ public class ReservationForm extends JFrame {
                 String guestNames = groupGuestArea.getText().trim();
                 int roomCount = (int) roomCountSpinner.getValue();
                 String groupName = "Group-" + UUID.randomUUID().toString().substring(0, 5);
+                event.groupBooking = true;
+                event.groupSize = roomCount;
 
+                message = "✅ Group reservation added for " + groupName + ".";
+                title = "Success";
                 for (int i = 0; i < roomCount; i++) {
                     String roomType = (String) roomTypeBoxes.get(i).getSelectedItem();
-                    Room available = roomDAO.getAvailableRoomByType(roomType);
+                    event.roomType = event.roomType == null || event.roomType.equals(roomType) ? roomType : "Mixed";
+
+                    Room available = allocateRoom(roomDAO, dao, roomType, room -> new Reservation(groupName, checkIn, checkOut, roomType,
+                            paymentStatus, specialRequests, room.getRoomNumber(),
+                            groupName, lateCheckout));
                     if (available == null) {
-                        showPopup("❌ No available " + roomType + " room found.", "Room Error");
-                        return;
+                        message = "❌ No available " + roomType + " room found.";
+                        title = "Room Error";
+                        break;
                     }
-                    Reservation res = new Reservation(groupName, checkIn, checkOut, roomType,
-                            paymentStatus, specialRequests, available.getRoomNumber(),
-                            groupName, lateCheckout);
-                    dao.addReservation(res);
-                    roomDAO.updateRoomStatusToOccupied(available.getId());
+                    event.roomsAllocated++;
                 }
-
-                showPopup("✅ Group reservation added for " + groupName + ".", "Success");
+                event.succeeded = event.roomsAllocated == roomCount;
             } else {
                 String guestName = nameField.getText().trim();
+                event.groupSize = 1;
                 if (guestName.isEmpty()) {
+                    event.commit();
                     showPopup("❌ Guest Name is required!", "Input Error");
                     return;
                 }
                 String roomType = (String) roomTypeBox.getSelectedItem();
-                Room availableRoom = roomDAO.getAvailableRoomByType(roomType);
-                if (availableRoom != null) {
+                event.roomType = roomType;
+                Room availableRoom = allocateRoom(roomDAO, dao, roomType, room -> {
                     Reservation res = new Reservation(guestName, checkIn, checkOut, roomType,
-                            paymentStatus, specialRequests, availableRoom.getRoomNumber(),
+                            paymentStatus, specialRequests, room.getRoomNumber(),
                             null, lateCheckout);
-                    dao.addReservation(res);
-                    roomDAO.updateRoomStatusToOccupied(availableRoom.getId());
-                    showPopup("✅ Reservation added successfully!", "Success");
+                    res.setGuestId(intakeGuestId);
+                    return res;
+                });
+                if (availableRoom != null) {
+                    event.roomsAllocated = 1;
+                    event.succeeded = true;
+                    message = "✅ Reservation added successfully!";
+                    title = "Success";
                 } else {
-                    showPopup("❌ No available room found.", "Room Error");
+                    message = "❌ No available room found.";
+                    title = "Room Error";
                 }
             }
         } catch (Exception ex) {
-            showPopup("⚠️ Error: " + ex.getMessage(), "Exception");
+            message = "⚠️ Error: " + ex.getMessage();
+            title = "Exception";
+        }
+
+        event.commit();
+        showPopup(message, title);
+    }
+
+    /**
+     * Takes an available room of the given type: inserts the reservation built for it and marks it occupied.
+     *
+     * @param roomDAO the room DAO
+     * @param dao the reservation DAO
+     * @param roomType the requested room type
+     * @param reservationForRoom builds the reservation once the room is known
+     * @return the allocated room, or null if none of that type is available
+     */
+    private Room allocateRoom(RoomDAO roomDAO, ReservationDAO dao, String roomType,
+                              Function<Room, Reservation> reservationForRoom) {
+        RoomAllocationEvent allocation = new RoomAllocationEvent();
+        allocation.begin();
+        allocation.roomType = roomType;
+
+        Room available = roomDAO.getAvailableRoomByType(roomType);
+        if (available != null) {
+            dao.addReservation(reservationForRoom.apply(available));
+            roomDAO.updateRoomStatusToOccupied(available.getId());
+            allocation.roomNumber = available.getRoomNumber();
+            allocation.allocated = true;
+        }
+
+        allocation.commit();
+        return available;
+    }
+
+    /**
+     * Asks whether the guest has stayed before when guests with the same or a similar-sounding name exist.
+     * Also asked when a reservation is renamed (see ReservationListView).
+     *
+     * @param parent the window the question belongs to
+     * @param guestName the name entered
+     * @return the chosen guest's ID, 0 to let the reservation create the guest, or -1 if the desk cancelled
+     */
+    static int chooseGuest(Component parent, String guestName) {
+        GuestDAO guestDAO = new GuestDAO();
+        List<Guest> matches = guestDAO.findMatches(guestName);
+        if (matches.isEmpty()) {
+            return 0;
+        }
+
+        String newGuest = "New guest: " + guestName;
+        List<Object> options = new ArrayList<>(matches);
+        options.add(newGuest);
+        Object choice = JOptionPane.showInputDialog(parent, "Guests with a similar name have stayed before. Is this one of them?",
+                "Returning Guest?", JOptionPane.QUESTION_MESSAGE, null, options.toArray(), options.get(0));
+        if (choice == null) {
+            return -1;
+        }
+        if (choice instanceof Guest guest) {
+            return guest.getId();
+        }
+        Guest added = guestDAO.addGuest(guestName);
+        if (added == null) {
+            JOptionPane.showMessageDialog(parent, "❌ Could not add the guest.", "Database Error", JOptionPane.INFORMATION_MESSAGE);
+            return -1;
         }
+        return added.getId();
     }
 
     // Utility method to show popup messages
@@ -3,21 +3,30 @@
 package com.hotel.views;
 
 import com.hotel.database.ReservationDAO;
+import com.hotel.database.ReservationDAO.CheckoutOutcome;
 import com.hotel.database.RoomDAO;
+import com.hotel.jfr.RoomAllocationEvent;
 import com.hotel.models.Reservation;
 import com.hotel.models.Room;
+import com.hotel.services.CheckoutPipeline;
+import com.hotel.services.GuestMatcher;
+import com.hotel.utils.ColumnarTableModel;
 import com.hotel.utils.PopupUtil;
+import com.hotel.utils.TableQueryService;
 
 import javax.swing.*;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 
-public class ReservationListView extends JFrame {
+public class ReservationListView extends JFrame implements ViewManager.Reusable {
 
-    private DefaultTableModel model;
+    private ColumnarTableModel model;
+    private TableQueryService query;
     private JTable table;
     private JTextField searchField;
     private JComboBox<String> filterBox;
@@ -39,27 +48,30 @@ public class ReservationListView extends JFrame {
         JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 10));
         searchField = new JTextField(15);
         filterBox = new JComboBox<>(new String[]{"Guest Name", "Payment Status"});
+        JButton departuresBtn = new JButton("\u2705 Check-Out Today's Departures");
         JButton backBtn = new JButton("\u2190 Back");
 
         topPanel.add(new JLabel("Search:"));
         topPanel.add(searchField);
         topPanel.add(filterBox);
+        topPanel.add(departuresBtn);
         topPanel.add(backBtn);
 
-        // Table headers
-        String[] columns = {
-                "ID", "Guest Name", "Check-In", "Check-Out",
-                "Room Type", "Status", "Requests", "Room Number",
-                "Edit", "Delete", "Check-Out"
-        };
-
-        model = new DefaultTableModel(columns, 0);
+        // Table columns; the action buttons are constant columns, stored once rather than per row
+        model = new ColumnarTableModel()
+                .intColumn("ID").stringColumn("Guest Name").dateColumn("Check-In").dateColumn("Check-Out")
+                .stringColumn("Room Type").stringColumn("Status").stringColumn("Requests").stringColumn("Room Number")
+                .constantColumn("Edit", "\u270F\uFE0F Edit")
+                .constantColumn("Delete", "\uD83D\uDDD1️ Delete")
+                .constantColumn("Check-Out", "\u2705 Check-Out");
         table = new JTable(model) {
             public boolean isCellEditable(int row, int column) {
                 return column >= 8; // Only action buttons are editable (Edit/Delete/Check-Out)
             }
         };
 
+        query = new TableQueryService(model);
+
         table.setRowHeight(30);
         table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         table.getTableHeader().setFont(new Font("Segoe UI", Font.BOLD, 14));
@@ -83,6 +95,16 @@ public class ReservationListView extends JFrame {
             }
         });
 
+        // Header click sorts by the data columns, in the background like the search
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            public void mouseClicked(MouseEvent e) {
+                int col = table.convertColumnIndexToModel(table.getTableHeader().columnAtPoint(e.getPoint()));
+                if (col >= 0 && col < 8) {
+                    query.toggleSort(col);
+                }
+            }
+        });
+
         loadTableData(); // Load data into table
 
         JScrollPane scrollPane = new JScrollPane(table);
@@ -101,23 +123,31 @@ public class ReservationListView extends JFrame {
                 filterTable();
             }
         });
+        filterBox.addActionListener(e -> filterTable());
+
+        departuresBtn.addActionListener(e -> checkOutDepartures(departuresBtn));
 
         // Back button action
-        backBtn.addActionListener(e -> {
-            dispose();
-            new MainMenuView(LoginView.loggedInUser);
-        });
+        backBtn.addActionListener(e -> ViewManager.back(this));
 
         setVisible(true);
     }
 
-    // Load reservations into the table
+    /**
+     * Reloads the reservations when the view manager shows this frame again.
+     */
+    @Override
+    public void reopen() {
+        loadTableData();
+    }
+
+    // Load the stays of guests still in house into the table; checked-out stays stay in the guest history
     private void loadTableData() {
-        model.setRowCount(0);
-        List<Reservation> reservations = new ReservationDAO().getAllReservations();
+        model.clear();
+        List<Reservation> reservations = new ReservationDAO().getOpenReservations();
 
         for (Reservation r : reservations) {
-            model.addRow(new Object[]{
+            model.addRow(
                     r.getId(),
                     r.getGuestName(),
                     r.getCheckIn(),
@@ -125,22 +155,19 @@ public class ReservationListView extends JFrame {
                     r.getRoomType(),
                     r.getPaymentStatus(),
                     r.getSpecialRequests(),
-                    r.getRoomNumber(),
-                    "\u270F\uFE0F Edit",
-                    "\uD83D\uDDD1️ Delete",
-                    "\u2705 Check-Out"
-            });
+                    r.getRoomNumber()
+            );
         }
+        filterTable(); // Keep the current search after a reload
     }
 
     // Filter table rows based on search field
     private void filterTable() {
-        String keyword = searchField.getText().toLowerCase();
+        String keyword = searchField.getText();
         int colIndex = filterBox.getSelectedIndex() == 0 ? 1 : 5; // Guest Name or Payment Status
 
-        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(model);
-        table.setRowSorter(sorter);
-        sorter.setRowFilter(RowFilter.regexFilter("(?i)" + keyword, colIndex));
+        // Matched off the EDT; the result replaces the model's view index, so edit/delete still find their rows
+        query.filter(colIndex, keyword);
     }
 
     // Delete reservation and mark room as available
@@ -163,23 +190,52 @@ public class ReservationListView extends JFrame {
         }
     }
 
-    // Check-out reservation process
+    // Check-out reservation process: the stay is kept, its folio finalized and the room handed to housekeeping
     private void checkOutReservation(int row) {
         int id = (int) model.getValueAt(row, 0);
-        String roomNumber = (String) model.getValueAt(row, 7);
-
-        Room room = new RoomDAO().getRoomByNumber(roomNumber);
-        if (room != null) {
-            new RoomDAO().updateRoomStatusToAvailable(room.getId());
+        Reservation res = new ReservationDAO().getReservationById(id);   // Late checkout and group are not in the table
+        if (res == null) {
+            PopupUtil.showError(this, "Check-out failed.");
+            return;
         }
 
-        boolean deleted = new ReservationDAO().deleteReservationById(id);
-        if (deleted) {
-            model.removeRow(row);
-            PopupUtil.showSuccess(this, "Guest checked out. Room is now available.");
-        } else {
+        CheckoutOutcome outcome = new CheckoutPipeline().checkOut(res);
+        if (outcome == CheckoutOutcome.FAILED) {
             PopupUtil.showError(this, "Check-out failed.");
+            return;
         }
+        model.removeRow(row);
+        PopupUtil.showSuccess(this, outcome == CheckoutOutcome.CHECKED_OUT
+                ? "Guest checked out. Room is waiting for housekeeping."
+                : "Guest was already checked out.");
+    }
+
+    // Checks out every stay due to leave today in the background, then reloads the list
+    private void checkOutDepartures(JButton button) {
+        List<Reservation> departures = new ReservationDAO().getDepartures(Date.valueOf(LocalDate.now()));
+        if (departures.isEmpty()) {
+            PopupUtil.showSuccess(this, "No departures left to check out today.");
+            return;
+        }
+
+        button.setEnabled(false);
+        Thread worker = new Thread(() -> {
+            List<CheckoutOutcome> outcomes = new CheckoutPipeline().checkOutAll(departures);
+            int checkedOut = Collections.frequency(outcomes, CheckoutOutcome.CHECKED_OUT);
+            int failed = Collections.frequency(outcomes, CheckoutOutcome.FAILED);
+
+            SwingUtilities.invokeLater(() -> {
+                button.setEnabled(true);
+                loadTableData();
+                if (failed > 0) {
+                    PopupUtil.showError(this, checkedOut + " guests checked out; " + failed + " check-outs failed.");
+                } else {
+                    PopupUtil.showSuccess(this, checkedOut + " guests checked out.");
+                }
+            });
+        }, "checkout-departures");
+        worker.setDaemon(true);
+        worker.start();
     }
 
     // Edit reservation popup dialog
@@ -242,6 +298,19 @@ public class ReservationListView extends JFrame {
                     return;
                 }
 
+                // The stay keeps its guest and group; a new name is asked about as at intake
+                Reservation current = new ReservationDAO().getReservationById(id);
+                if (current == null) {
+                    PopupUtil.showError(dialog, "This reservation no longer exists.");
+                    return;
+                }
+                int guestId = current.getGuestId();
+                if (current.getGroupName() == null
+                        && !GuestMatcher.nameKey(guestName).equals(GuestMatcher.nameKey(current.getGuestName()))) {
+                    guestId = ReservationForm.chooseGuest(dialog, guestName);
+                    if (guestId < 0) return;
+                }
+
                 String newRoomType = (String) roomBox.getSelectedItem();
                 String newStatus = (String) statusBox.getSelectedItem();
                 RoomDAO roomDAO = new RoomDAO();
@@ -249,8 +318,13 @@ public class ReservationListView extends JFrame {
                 String finalRoomNumber = oldRoomNumber;
 
                 if (!newRoomType.equals(oldRoomType)) {
+                    RoomAllocationEvent allocation = new RoomAllocationEvent();
+                    allocation.begin();
+                    allocation.roomType = newRoomType;
+
                     Room newAvailable = roomDAO.getAvailableRoomByType(newRoomType);
                     if (newAvailable == null) {
+                        allocation.commit();
                         PopupUtil.showError(dialog, "❌ No available " + newRoomType + " room found.");
                         return;
                     }
@@ -262,6 +336,9 @@ public class ReservationListView extends JFrame {
                     }
 
                     roomDAO.updateRoomStatusToOccupied(newAvailable.getId());
+                    allocation.roomNumber = finalRoomNumber;
+                    allocation.allocated = true;
+                    allocation.commit();
                 }
 
                 Reservation updated = new Reservation(
@@ -272,8 +349,11 @@ public class ReservationListView extends JFrame {
                         newRoomType,
                         newStatus,
                         request,
-                        finalRoomNumber
+                        finalRoomNumber,
+                        current.getGroupName(),
+                        current.isLateCheckout()
                 );
+                updated.setGuestId(guestId);
 
                 boolean success = new ReservationDAO().updateReservation(updated);
                 if (success) {
@@ -3,23 +3,31 @@
 package com.hotel.views;
 
 import com.hotel.database.RoomDAO;
+import com.hotel.models.ChangeEvent;
 import com.hotel.models.Room;
+import com.hotel.models.RoomStatus;
+import com.hotel.utils.ChangeEventCoalescer;
+import com.hotel.utils.ColumnarTableModel;
 import com.hotel.utils.PopupUtil;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class RoomManagementView extends JFrame {
 
     private JComboBox<Integer> floorBox, roomBox;
     private JComboBox<String> roomTypeBox, roomStatusBox;
-    private DefaultTableModel tableModel;
+    private ColumnarTableModel tableModel;
     private JTable table;
+    private final Map<Integer, Integer> rowById = new HashMap<>();   // Room ID -> model row
 
     public RoomManagementView() {
         setTitle("Room Management");
@@ -55,7 +63,7 @@ public class RoomManagementView extends JFrame {
 
         // Room status selection
         JLabel lblStatus = new JLabel("Room Status:");
-        roomStatusBox = new JComboBox<>(new String[]{"Available", "Occupied", "Maintenance", "Cleaning"});
+        roomStatusBox = new JComboBox<>(RoomStatus.labels());
 
         // Add room button
         JButton addButton = new JButton("\u2795 Add Room");
@@ -65,10 +73,7 @@ public class RoomManagementView extends JFrame {
         // Back button to return to main menu
         JButton backBtn = new JButton("\u2190 Back");
         backBtn.setFocusPainted(false);
-        backBtn.addActionListener(e -> {
-            dispose();
-            new MainMenuView(LoginView.loggedInUser);
-        });
+        backBtn.addActionListener(e -> ViewManager.back(this));
 
         // Position components in form panel
         gbc.gridx = 0; gbc.gridy = 0;
@@ -100,12 +105,10 @@ public class RoomManagementView extends JFrame {
         add(formPanel, BorderLayout.WEST);
 
         // Right: Room Table to view and manage rooms
-        String[] columns = {"ID", "Room Number", "Type", "Status", "Update Status"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            public boolean isCellEditable(int row, int col) {
-                return col == 4; // Only Update Status column is editable (button)
-            }
-        };
+        tableModel = new ColumnarTableModel()
+                .intColumn("ID").stringColumn("Room Number").stringColumn("Type").stringColumn("Status")
+                .constantColumn("Update Status", "\u270F\uFE0F Edit")
+                .editable(4); // Only Update Status column is editable (button)
 
         table = new JTable(tableModel);
         table.setFont(new Font("Segoe UI", Font.PLAIN, 13));
@@ -128,11 +131,14 @@ public class RoomManagementView extends JFrame {
                             "Status Change",
                             JOptionPane.PLAIN_MESSAGE,
                             null,
-                            new String[]{"Available", "Occupied", "Maintenance", "Cleaning"},
+                            nextStatuses(currentStatus),
                             currentStatus);
                     if (newStatus != null && !newStatus.equals(currentStatus)) {
-                        new RoomDAO().updateRoomStatus(roomId, newStatus);
-                        loadRooms();
+                        // The row updates from the change event
+                        if (!new RoomDAO().updateRoomStatus(roomId, newStatus)) {
+                            PopupUtil.showError(RoomManagementView.this,
+                                    "Room cannot change from " + currentStatus + " to " + newStatus + ".");
+                        }
                     }
                 }
             }
@@ -142,6 +148,9 @@ public class RoomManagementView extends JFrame {
         scrollPane.setPreferredSize(new Dimension(600, 400));
         add(scrollPane, BorderLayout.CENTER);
 
+        // Keep the board live: changes from any desk are applied row by row, once per frame
+        ChangeEventCoalescer.attach(this, EnumSet.of(ChangeEvent.Type.ROOM_ADDED, ChangeEvent.Type.ROOM_STATUS_CHANGED),
+                this::applyChanges);
         loadRooms(); // Initial load
         setVisible(true);
     }
@@ -156,12 +165,9 @@ public class RoomManagementView extends JFrame {
         String status = (String) roomStatusBox.getSelectedItem();
 
         // Check if room number already exists
-        List<Room> existing = new RoomDAO().getAllRooms();
-        for (Room r : existing) {
-            if (r.getRoomNumber().equals(roomNumber)) {
-                PopupUtil.showError(this, "Room number already exists!");
-                return;
-            }
+        if (new RoomDAO().getRoomByNumber(roomNumber) != null) {
+            PopupUtil.showError(this, "Room number already exists!");
+            return;
         }
 
         Room newRoom = new Room(roomNumber, type, status);
@@ -173,7 +179,6 @@ public class RoomManagementView extends JFrame {
             roomBox.setSelectedIndex(0);
             roomTypeBox.setSelectedIndex(0);
             roomStatusBox.setSelectedIndex(0);
-            loadRooms();
             PopupUtil.showSuccess(this, "Room " + roomNumber + " added successfully!");
         } else {
             PopupUtil.showError(this, "Failed to add room.");
@@ -182,16 +187,52 @@ public class RoomManagementView extends JFrame {
 
     // Load room data into table
     private void loadRooms() {
-        tableModel.setRowCount(0);
+        tableModel.clear();
+        rowById.clear();
         List<Room> rooms = new RoomDAO().getAllRooms();
         for (Room r : rooms) {
-            tableModel.addRow(new Object[]{
-                    r.getId(),
-                    r.getRoomNumber(),
-                    r.getType(),
-                    r.getStatus(),
-                    "\u270F\uFE0F Edit"
-            });
+            addRoomRow(r.getId(), r.getRoomNumber(), r.getType(), r.getStatus());
+        }
+    }
+
+    // The statuses a room may be changed to from its current one; every status if the current one is unknown
+    private static String[] nextStatuses(String currentStatus) {
+        RoomStatus current = RoomStatus.fromLabel(currentStatus);
+        List<String> labels = new ArrayList<>();
+        for (RoomStatus status : RoomStatus.values()) {
+            if (current == null || current.canBecome(status)) {
+                labels.add(status.getLabel());
+            }
+        }
+        return labels.toArray(new String[0]);
+    }
+
+    private void addRoomRow(int id, String roomNumber, String type, String status) {
+        rowById.put(id, tableModel.addRow(id, roomNumber, type, status));
+    }
+
+    // Apply one frame of room changes: new rooms are appended, status changes are written in place
+    // and repainted with a single rows-updated event instead of a reload
+    private void applyChanges(List<ChangeEvent> events) {
+        int first = Integer.MAX_VALUE, last = -1;
+
+        for (ChangeEvent event : events) {
+            Integer row = rowById.get(event.getEntityId());
+            if (row == null) {
+                if (event.getType() == ChangeEvent.Type.ROOM_ADDED) {
+                    addRoomRow(event.getEntityId(), event.get("roomNumber"), event.get("type"), event.get("status"));
+                }
+                continue;   // Not on the board (e.g. added by another process); shown when the view is reopened
+            }
+            tableModel.setValue(row, 3, event.get("status"));
+            int viewRow = tableModel.getViewRow(row);
+            if (viewRow >= 0) {
+                first = Math.min(first, viewRow);
+                last = Math.max(last, viewRow);
+            }
+        }
+        if (last >= 0) {
+            tableModel.fireTableRowsUpdated(first, last);
         }
     }
 
@@ -0,0 +1,180 @@
+package com.hotel.views;
+
+import com.hotel.database.ChangeEventLog;
+import com.hotel.database.DBConnection;
+import com.hotel.database.RoomDAO;
+import com.hotel.database.ServiceDAO;
+import com.hotel.metrics.LatencyStats;
+import com.hotel.metrics.MetricsRegistry;
+
+import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Opens, reuses and closes the application's frames.
+ *
+ * A module frame is built the first time it is opened and hidden rather than disposed when the user goes
+ * back to the dashboard, so opening it again only shows it. Frames kept live by change events need nothing
+ * more; frames implementing {@link Reusable} reload their data when shown again.
+ * Frames are dropped on logout, or when the user closes one with the window button.
+ *
+ * While the login screen is up, {@link #prewarm()} loads the DAO and view classes and opens the connection pool
+ * in the background, so the first dashboard after login does not pay for them.
+ * The time from a navigation click until the frame is painted is recorded per frame class in the
+ * {@link MetricsRegistry} (group ViewManager, names open&lt;View&gt; and reopen&lt;View&gt;).
+ * All methods except {@link #prewarm()} must be called on the EDT.
+ */
+public final class ViewManager {
+
+    /**
+     * A cached frame whose data is not kept live and must be reloaded each time it is shown again.
+     */
+    public interface Reusable {
+        void reopen();
+    }
+
+    // Classes the first dashboards need; loading them during login takes the work off the first click
+    private static final String[] PREWARM_CLASSES = {
+            "com.hotel.database.ReservationDAO", "com.hotel.database.RoomDAO", "com.hotel.database.BillDAO",
+            "com.hotel.database.HousekeepingDAO", "com.hotel.database.InventoryDAO", "com.hotel.database.ServiceDAO",
+            "com.hotel.database.UserDAO", "com.hotel.services.ReportSummary", "com.hotel.services.BillingCalculator",
+            "com.hotel.utils.ColumnarTableModel", "com.hotel.utils.TableQueryService", "com.hotel.utils.ChangeEventCoalescer",
+            "com.hotel.views.MainMenuView", "com.hotel.views.ReservationListView", "com.hotel.views.ReservationForm",
+            "com.hotel.views.BillingView", "com.hotel.views.GuestHistoryView", "com.hotel.views.HousekeepingView",
+            "com.hotel.views.RoomManagementView", "com.hotel.views.InventoryView", "com.hotel.views.ReportsView",
+            "javax.swing.JTable", "javax.swing.table.DefaultTableCellRenderer", "javax.swing.JScrollPane",
+            "javax.swing.JComboBox", "javax.swing.BoxLayout", "javax.swing.DefaultCellEditor"
+    };
+
+    private static final AtomicBoolean prewarmed = new AtomicBoolean();
+
+    // Open or hidden frames by class, in the order they were first opened
+    private static final Map<Class<? extends JFrame>, JFrame> frames = new LinkedHashMap<>();
+
+    // Private constructor to prevent instantiation of this utility class
+    private ViewManager() {
+    }
+
+    /**
+     * Shows the frame of a class, building it only if there is none to reuse.
+     *
+     * @param type the frame class
+     * @param factory builds the frame when needed
+     * @param <T> the frame type
+     * @return the frame, visible
+     */
+    public static <T extends JFrame> T open(Class<T> type, Supplier<T> factory) {
+        long start = System.nanoTime();
+        JFrame frame = frames.get(type);
+        boolean reused = frame != null && frame.isDisplayable();
+
+        if (reused) {
+            if (frame instanceof Reusable reusable) {
+                reusable.reopen();
+            }
+        } else {
+            frame = factory.get();
+            frames.put(type, frame);
+            frame.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    onClosed(e.getWindow());
+                }
+            });
+        }
+        frame.setVisible(true);
+        frame.toFront();
+
+        // Runs once the EDT has laid out and painted the frame
+        LatencyStats stats = MetricsRegistry.register("ViewManager", (reused ? "reopen" : "open") + type.getSimpleName());
+        SwingUtilities.invokeLater(() -> stats.record(start));
+        return type.cast(frame);
+    }
+
+    /**
+     * Hides a module frame for reuse and returns to the dashboard of the logged-in user.
+     *
+     * @param from the frame being left
+     */
+    public static void back(JFrame from) {
+        from.setVisible(false);
+        showMainMenu();
+    }
+
+    /**
+     * Shows the dashboard of the logged-in user.
+     */
+    public static void showMainMenu() {
+        open(MainMenuView.class, () -> new MainMenuView(LoginView.loggedInUser));
+    }
+
+    /**
+     * Disposes every frame, which belong to the user logging out, and shows the login screen.
+     */
+    public static void logout() {
+        disposeAll();
+        new LoginView();
+    }
+
+    // A frame closed with its window button is not reused; once nothing is left on screen, the application ends as before
+    private static void onClosed(java.awt.Window window) {
+        frames.values().remove(window);
+        for (JFrame frame : frames.values()) {
+            if (frame.isVisible()) return;
+        }
+        disposeAll();
+    }
+
+    private static void disposeAll() {
+        // Copied first: disposing runs onClosed, which changes the map
+        for (JFrame frame : new ArrayList<>(frames.values())) {
+            frame.dispose();
+        }
+        frames.clear();
+    }
+
+    /**
+     * Starts loading classes and opening database connections in the background. Only the first call does anything.
+     */
+    public static void prewarm() {
+        if (!prewarmed.compareAndSet(false, true)) return;
+
+        Thread thread = new Thread(ViewManager::runPrewarm, "view-prewarm");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);   // The login screen comes first
+        thread.start();
+    }
+
+    private static void runPrewarm() {
+        long start = System.nanoTime();
+        ClassLoader loader = ViewManager.class.getClassLoader();
+        for (String name : PREWARM_CLASSES) {
+            try {
+                Class.forName(name, true, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                System.out.println("Error preloading " + name + ": " + e.getMessage());
+            }
+        }
+
+        // Fills the connection pool and reads the change log once, then runs the queries the first screens repeat
+        try (Connection conn = DBConnection.getInstance()) {
+            conn.isValid(1);
+            ChangeEventLog.getLatestSequence();
+        } catch (SQLException e) {
+            System.out.println("Error warming up the database: " + e.getMessage());
+            return;
+        }
+        new RoomDAO().getAllRooms();
+        ServiceDAO.getAllServices();
+
+        MetricsRegistry.register("ViewManager", "prewarm").record(start);
+    }
+}